@@ -0,0 +1,145 @@
+--
+-- Copyright © 2016-2024 The Thingsboard Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Optional migration of the alarm and entity_alarm tables to the tables partitioned by created_time.
+-- Executed by the upgrade with fromVersion '3.6.2-alarms', or by the install and upgrade when sql.alarms.partitioning_enabled is set.
+
+-- ALARMS MIGRATION START
+
+DO
+$$
+    BEGIN
+        -- in case of running the upgrade script a second time:
+        IF NOT (SELECT exists(SELECT FROM pg_tables WHERE tablename = 'old_alarm'))
+            AND (SELECT exists(SELECT FROM pg_class WHERE relname = 'alarm' AND relkind = 'r')) THEN
+            -- recreated with the views and functions after the upgrade
+            DROP VIEW IF EXISTS alarm_info CASCADE;
+            -- a partitioned alarm table can not be referenced by foreign keys,
+            -- the entity alarm records and the comments of the deleted alarms are removed by the alarm DAO instead
+            ALTER TABLE alarm_comment DROP CONSTRAINT IF EXISTS fk_alarm_comment_alarm_id;
+
+            ALTER TABLE entity_alarm RENAME TO old_entity_alarm;
+            ALTER TABLE old_entity_alarm DROP CONSTRAINT IF EXISTS fk_entity_alarm_id;
+            ALTER TABLE old_entity_alarm RENAME CONSTRAINT entity_alarm_pkey TO old_entity_alarm_pkey;
+            DROP INDEX IF EXISTS idx_entity_alarm_created_time;
+            DROP INDEX IF EXISTS idx_entity_alarm_entity_id_alarm_type_created_time_alarm_id;
+            ALTER INDEX IF EXISTS idx_entity_alarm_alarm_id RENAME TO idx_old_entity_alarm_alarm_id;
+
+            ALTER TABLE alarm RENAME TO old_alarm;
+            ALTER TABLE old_alarm RENAME CONSTRAINT alarm_pkey TO old_alarm_pkey;
+            DROP INDEX IF EXISTS idx_alarm_originator_alarm_type;
+            DROP INDEX IF EXISTS idx_alarm_originator_created_time;
+            DROP INDEX IF EXISTS idx_alarm_tenant_created_time;
+            DROP INDEX IF EXISTS idx_alarm_originator_alarm_type_active;
+            DROP INDEX IF EXISTS idx_alarm_tenant_alarm_type_active;
+            DROP INDEX IF EXISTS idx_alarm_tenant_alarm_type_created_time;
+            DROP INDEX IF EXISTS idx_alarm_tenant_assignee_created_time;
+            DROP INDEX IF EXISTS idx_alarm_tenant_end_ts;
+            CREATE INDEX IF NOT EXISTS idx_old_alarm_created_time ON old_alarm(created_time);
+        ELSE
+            RAISE NOTICE 'Table old_alarm already exists or alarm is already partitioned, leaving as is';
+        END IF;
+    END;
+$$;
+
+CREATE TABLE IF NOT EXISTS alarm (
+    id uuid NOT NULL,
+    created_time bigint NOT NULL,
+    ack_ts bigint,
+    clear_ts bigint,
+    additional_info varchar,
+    end_ts bigint,
+    originator_id uuid,
+    originator_type integer,
+    propagate boolean,
+    severity varchar(255),
+    start_ts bigint,
+    assign_ts bigint DEFAULT 0,
+    assignee_id uuid,
+    tenant_id uuid,
+    customer_id uuid,
+    propagate_relation_types varchar,
+    type varchar(255),
+    propagate_to_owner boolean,
+    propagate_to_tenant boolean,
+    acknowledged boolean,
+    cleared boolean,
+    CONSTRAINT alarm_pkey PRIMARY KEY (id, created_time)
+) PARTITION BY RANGE (created_time);
+
+CREATE INDEX IF NOT EXISTS idx_alarm_originator_alarm_type ON alarm(originator_id, type, start_ts DESC);
+CREATE INDEX IF NOT EXISTS idx_alarm_originator_created_time ON alarm(originator_id, created_time DESC);
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_created_time ON alarm(tenant_id, created_time DESC);
+CREATE INDEX IF NOT EXISTS idx_alarm_originator_alarm_type_active ON alarm USING btree (originator_id, type) WHERE cleared = false;
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_alarm_type_active ON alarm USING btree (tenant_id, type) WHERE cleared = false;
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_alarm_type_created_time ON alarm(tenant_id, type, created_time DESC);
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_assignee_created_time ON alarm(tenant_id, assignee_id, created_time DESC);
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_end_ts ON alarm(tenant_id, end_ts);
+
+CREATE TABLE IF NOT EXISTS entity_alarm (
+    tenant_id uuid NOT NULL,
+    entity_type varchar(32),
+    entity_id uuid NOT NULL,
+    created_time bigint NOT NULL,
+    alarm_type varchar(255) NOT NULL,
+    customer_id uuid,
+    alarm_id uuid,
+    CONSTRAINT entity_alarm_pkey PRIMARY KEY (entity_id, alarm_id, created_time)
+) PARTITION BY RANGE (created_time);
+
+CREATE INDEX IF NOT EXISTS idx_entity_alarm_created_time ON entity_alarm(tenant_id, entity_id, created_time DESC);
+CREATE INDEX IF NOT EXISTS idx_entity_alarm_entity_id_alarm_type_created_time_alarm_id ON entity_alarm
+    USING btree (tenant_id, entity_id, alarm_type, created_time DESC) INCLUDE(alarm_id);
+CREATE INDEX IF NOT EXISTS idx_entity_alarm_alarm_id ON entity_alarm(alarm_id);
+
+-- entity_alarm records take the created time of their alarm, so both records of an alarm land in partitions with the same bounds
+CREATE OR REPLACE PROCEDURE migrate_alarms(IN start_time_ms BIGINT, IN end_time_ms BIGINT, IN partition_size_ms BIGINT)
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    p RECORD;
+    partition_end_ts BIGINT;
+BEGIN
+    FOR p IN SELECT DISTINCT (created_time - created_time % partition_size_ms) AS partition_ts FROM old_alarm
+    WHERE created_time >= start_time_ms AND created_time < end_time_ms
+    LOOP
+        partition_end_ts = p.partition_ts + partition_size_ms;
+        RAISE NOTICE '[alarm] Partition to create : [%-%]', p.partition_ts, partition_end_ts;
+        EXECUTE format('CREATE TABLE IF NOT EXISTS alarm_%s PARTITION OF alarm ' ||
+         'FOR VALUES FROM ( %s ) TO ( %s )', p.partition_ts, p.partition_ts, partition_end_ts);
+        EXECUTE format('CREATE TABLE IF NOT EXISTS entity_alarm_%s PARTITION OF entity_alarm ' ||
+         'FOR VALUES FROM ( %s ) TO ( %s )', p.partition_ts, p.partition_ts, partition_end_ts);
+    END LOOP;
+
+    INSERT INTO alarm (id, created_time, ack_ts, clear_ts, additional_info, end_ts, originator_id, originator_type, propagate,
+                       severity, start_ts, assign_ts, assignee_id, tenant_id, customer_id, propagate_relation_types, type,
+                       propagate_to_owner, propagate_to_tenant, acknowledged, cleared)
+    SELECT id, created_time, ack_ts, clear_ts, additional_info, end_ts, originator_id, originator_type, propagate,
+           severity, start_ts, assign_ts, assignee_id, tenant_id, customer_id, propagate_relation_types, type,
+           propagate_to_owner, propagate_to_tenant, acknowledged, cleared
+    FROM old_alarm
+    WHERE created_time >= start_time_ms AND created_time < end_time_ms
+    ON CONFLICT DO NOTHING;
+
+    INSERT INTO entity_alarm (tenant_id, entity_type, entity_id, created_time, alarm_type, customer_id, alarm_id)
+    SELECT ea.tenant_id, ea.entity_type, ea.entity_id, a.created_time, ea.alarm_type, ea.customer_id, ea.alarm_id
+    FROM old_entity_alarm ea INNER JOIN old_alarm a ON a.id = ea.alarm_id
+    WHERE a.created_time >= start_time_ms AND a.created_time < end_time_ms
+    ON CONFLICT DO NOTHING;
+END;
+$$;
+
+-- ALARMS MIGRATION END
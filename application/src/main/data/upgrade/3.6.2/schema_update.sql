@@ -28,3 +28,35 @@ ALTER TABLE rule_node ADD COLUMN IF NOT EXISTS queue_name varchar(255);
 ALTER TABLE component_descriptor ADD COLUMN IF NOT EXISTS has_queue_name boolean DEFAULT false;
 
 -- RULE NODE QUEUE UPDATE END
+
+-- RULE NODE DEBUG EVENT SEARCH INDEXES START
+
+CREATE INDEX IF NOT EXISTS idx_rule_node_debug_event_event_entity
+    ON rule_node_debug_event (tenant_id ASC, entity_id ASC, e_entity_id ASC, ts DESC NULLS LAST);
+
+-- trigram indexes for the data and metadata substring searches, skipped when pg_trgm can not be installed
+DO
+$$
+    BEGIN
+        IF (SELECT exists(SELECT FROM pg_available_extensions WHERE name = 'pg_trgm')) THEN
+            CREATE EXTENSION IF NOT EXISTS pg_trgm;
+            CREATE INDEX IF NOT EXISTS idx_rule_node_debug_event_data_trgm
+                ON rule_node_debug_event USING gin (e_data gin_trgm_ops);
+            CREATE INDEX IF NOT EXISTS idx_rule_node_debug_event_metadata_trgm
+                ON rule_node_debug_event USING gin (e_metadata gin_trgm_ops);
+        ELSE
+            RAISE NOTICE 'pg_trgm extension is not available, rule node debug event search indexes are not created';
+        END IF;
+    EXCEPTION
+        WHEN insufficient_privilege THEN
+            RAISE NOTICE 'Not enough privileges to create pg_trgm extension, rule node debug event search indexes are not created';
+    END
+$$;
+
+-- RULE NODE DEBUG EVENT SEARCH INDEXES END
+
+-- ALARM TTL INDEX START
+
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_end_ts ON alarm(tenant_id, end_ts);
+
+-- ALARM TTL INDEX END
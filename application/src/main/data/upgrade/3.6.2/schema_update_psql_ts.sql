@@ -0,0 +1,88 @@
+--
+-- Copyright © 2016-2024 The Thingsboard Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- TIMESERIES ROLLUPS START
+
+CREATE TABLE IF NOT EXISTS ts_rollup
+(
+    entity_id   uuid             NOT NULL,
+    key         int              NOT NULL,
+    granularity bigint           NOT NULL,
+    ts          bigint           NOT NULL,
+    long_cnt    bigint           NOT NULL,
+    long_sum    bigint           NOT NULL,
+    long_min    bigint,
+    long_max    bigint,
+    dbl_cnt     bigint           NOT NULL,
+    dbl_sum     double precision NOT NULL,
+    dbl_min     double precision,
+    dbl_max     double precision,
+    bool_cnt    bigint           NOT NULL,
+    str_cnt     bigint           NOT NULL,
+    json_cnt    bigint           NOT NULL,
+    max_ts      bigint           NOT NULL,
+    CONSTRAINT ts_rollup_pkey PRIMARY KEY (entity_id, key, granularity, ts)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ts_rollup_granularity_ts ON ts_rollup (granularity, ts);
+
+CREATE TABLE IF NOT EXISTS ts_rollup_coverage
+(
+    granularity bigint NOT NULL,
+    since_ts    bigint NOT NULL,
+    CONSTRAINT ts_rollup_coverage_pkey PRIMARY KEY (granularity)
+);
+
+CREATE OR REPLACE FUNCTION delete_device_records_from_ts_kv(tenant_id uuid, customer_id uuid, ttl bigint,
+                                                            OUT deleted bigint) AS
+$$
+BEGIN
+    EXECUTE format(
+            'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT device.id as entity_id FROM device WHERE tenant_id = %L and customer_id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
+            tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT device.id as entity_id FROM device WHERE tenant_id = %L and customer_id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION delete_asset_records_from_ts_kv(tenant_id uuid, customer_id uuid, ttl bigint,
+                                                           OUT deleted bigint) AS
+$$
+BEGIN
+    EXECUTE format(
+            'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT asset.id as entity_id FROM asset WHERE tenant_id = %L and customer_id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
+            tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT asset.id as entity_id FROM asset WHERE tenant_id = %L and customer_id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION delete_customer_records_from_ts_kv(tenant_id uuid, customer_id uuid, ttl bigint,
+                                                              OUT deleted bigint) AS
+$$
+BEGIN
+    EXECUTE format(
+            'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT customer.id as entity_id FROM customer WHERE tenant_id = %L and id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
+            tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT customer.id as entity_id FROM customer WHERE tenant_id = %L and id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
+END;
+$$ LANGUAGE plpgsql;
+
+-- TIMESERIES ROLLUPS END
@@ -70,6 +70,7 @@ import org.thingsboard.server.dao.edge.EdgeService;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.entityview.EntityViewService;
 import org.thingsboard.server.dao.event.EventService;
+import org.thingsboard.server.dao.exception.BufferLimitException;
 import org.thingsboard.server.dao.nosql.CassandraBufferedRateReadExecutor;
 import org.thingsboard.server.dao.nosql.CassandraBufferedRateWriteExecutor;
 import org.thingsboard.server.dao.notification.NotificationRequestService;
@@ -108,6 +109,7 @@ import org.thingsboard.server.service.profile.TbDeviceProfileCache;
 import org.thingsboard.server.service.rpc.TbCoreDeviceRpcService;
 import org.thingsboard.server.service.rpc.TbRpcService;
 import org.thingsboard.server.service.rpc.TbRuleEngineDeviceRpcService;
+import org.thingsboard.server.service.rule.RuleNodeDebugEventBuffer;
 import org.thingsboard.server.service.session.DeviceSessionCacheService;
 import org.thingsboard.server.service.sms.SmsExecutorService;
 import org.thingsboard.server.service.state.DeviceStateService;
@@ -147,7 +149,11 @@ public class ActorSystemContext {
 
         @Override
         public void onFailure(Throwable th) {
-            log.error("Could not save debug Event for Node", th);
+            if (th instanceof BufferLimitException) {
+                log.debug("Could not save debug Event for Node", th);
+            } else {
+                log.error("Could not save debug Event for Node", th);
+            }
         }
     };
 
@@ -267,6 +273,9 @@ public class ActorSystemContext {
     @Getter
     private EventService eventService;
 
+    @Autowired
+    private RuleNodeDebugEventBuffer ruleNodeDebugEventBuffer;
+
     @Autowired
     @Getter
     private RelationService relationService;
@@ -540,6 +549,10 @@ public class ActorSystemContext {
     @Getter
     private String debugPerTenantLimitsConfiguration;
 
+    @Value("${actors.rule.chain.debug_mode_sampling_rate:1}")
+    @Getter
+    private int debugSamplingRate;
+
     @Value("${actors.rpc.submit_strategy:BURST}")
     @Getter
     private String rpcSubmitStrategy;
@@ -651,35 +664,47 @@ public class ActorSystemContext {
     }
 
     private void persistDebugAsync(TenantId tenantId, EntityId entityId, String type, TbMsg tbMsg, String relationType, Throwable error, String failureMessage) {
-        if (checkLimits(tenantId, tbMsg, error)) {
-            try {
-                RuleNodeDebugEvent.RuleNodeDebugEventBuilder event = RuleNodeDebugEvent.builder()
-                        .tenantId(tenantId)
-                        .entityId(entityId.getId())
-                        .serviceId(getServiceId())
-                        .eventType(type)
-                        .eventEntity(tbMsg.getOriginator())
-                        .msgId(tbMsg.getId())
-                        .msgType(tbMsg.getType())
-                        .dataType(tbMsg.getDataType().name())
-                        .relationType(relationType)
-                        .data(tbMsg.getData())
-                        .metadata(JacksonUtil.toString(tbMsg.getMetaData().getData()));
-
-                if (error != null) {
-                    event.error(toString(error));
-                } else if (failureMessage != null) {
-                    event.error(failureMessage);
-                }
+        if (error == null && failureMessage == null && !isSampled(tbMsg)) {
+            return;
+        }
+        try {
+            RuleNodeDebugEvent.RuleNodeDebugEventBuilder eventBuilder = RuleNodeDebugEvent.builder()
+                    .tenantId(tenantId)
+                    .entityId(entityId.getId())
+                    .serviceId(getServiceId())
+                    .eventType(type)
+                    .eventEntity(tbMsg.getOriginator())
+                    .msgId(tbMsg.getId())
+                    .msgType(tbMsg.getType())
+                    .dataType(tbMsg.getDataType().name())
+                    .relationType(relationType)
+                    .data(tbMsg.getData())
+                    .metadata(JacksonUtil.toString(tbMsg.getMetaData().getData()));
+
+            if (error != null) {
+                eventBuilder.error(toString(error));
+            } else if (failureMessage != null) {
+                eventBuilder.error(failureMessage);
+            }
 
-                ListenableFuture<Void> future = eventService.saveAsync(event.build());
+            RuleNodeDebugEvent event = eventBuilder.build();
+            ruleNodeDebugEventBuffer.add(event);
+            if (checkLimits(tenantId, tbMsg, error)) {
+                ListenableFuture<Void> future = eventService.saveAsync(event);
                 Futures.addCallback(future, RULE_NODE_DEBUG_EVENT_ERROR_CALLBACK, MoreExecutors.directExecutor());
-            } catch (IllegalArgumentException ex) {
-                log.warn("Failed to persist rule node debug message", ex);
             }
+        } catch (IllegalArgumentException ex) {
+            log.warn("Failed to persist rule node debug message", ex);
         }
     }
 
+    /**
+     * Picks the same messages on every rule node, so the sampled messages can be followed through the whole rule chain.
+     */
+    private boolean isSampled(TbMsg tbMsg) {
+        return debugSamplingRate <= 1 || Math.floorMod(tbMsg.getId().hashCode(), debugSamplingRate) == 0;
+    }
+
     private boolean checkLimits(TenantId tenantId, TbMsg tbMsg, Throwable error) {
         if (debugPerTenantEnabled) {
             DebugTbRateLimits debugTbRateLimits = debugPerTenantLimits.computeIfAbsent(tenantId, id ->
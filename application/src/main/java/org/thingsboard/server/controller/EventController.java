@@ -36,13 +36,18 @@ import org.thingsboard.server.common.data.exception.ThingsboardErrorCode;
 import org.thingsboard.server.common.data.exception.ThingsboardException;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.RuleNodeId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.SortOrder;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.dao.event.EventService;
 import org.thingsboard.server.queue.util.TbCoreComponent;
+import org.thingsboard.server.service.rule.RuleNodeDebugEventBuffer;
 import org.thingsboard.server.service.security.permission.Operation;
 
+import java.util.List;
+
 import static org.thingsboard.server.controller.ControllerConstants.ENTITY_ID;
 import static org.thingsboard.server.controller.ControllerConstants.ENTITY_ID_PARAM_DESCRIPTION;
 import static org.thingsboard.server.controller.ControllerConstants.ENTITY_TYPE;
@@ -60,6 +65,7 @@ import static org.thingsboard.server.controller.ControllerConstants.NEW_LINE;
 import static org.thingsboard.server.controller.ControllerConstants.PAGE_DATA_PARAMETERS;
 import static org.thingsboard.server.controller.ControllerConstants.PAGE_NUMBER_DESCRIPTION;
 import static org.thingsboard.server.controller.ControllerConstants.PAGE_SIZE_DESCRIPTION;
+import static org.thingsboard.server.controller.ControllerConstants.RULE_NODE_ID_PARAM_DESCRIPTION;
 import static org.thingsboard.server.controller.ControllerConstants.SORT_ORDER_ALLOWABLE_VALUES;
 import static org.thingsboard.server.controller.ControllerConstants.SORT_ORDER_DESCRIPTION;
 import static org.thingsboard.server.controller.ControllerConstants.SORT_PROPERTY_DESCRIPTION;
@@ -105,6 +111,9 @@ public class EventController extends BaseController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private RuleNodeDebugEventBuffer ruleNodeDebugEventBuffer;
+
     @ApiOperation(value = "Get Events by type (getEvents)",
             notes = "Returns a page of events for specified entity by specifying event type. " +
                     PAGE_DATA_PARAMETERS, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -228,6 +237,35 @@ public class EventController extends BaseController {
         return checkNotNull(eventService.findEventsByFilter(tenantId, entityId, eventFilter, pageLink));
     }
 
+    @ApiOperation(value = "Get recent rule node debug events (getRecentRuleNodeDebugEvents)",
+            notes = "Returns the most recent debug events of the rule node, newest first. " +
+                    "If the in-memory debug buffer is enabled on the service that handles the request, the events are served from memory " +
+                    "and are available before they are persisted. Otherwise (or if the buffer holds no events of the rule node) the latest persisted events are returned. " +
+                    "Messages skipped by debug sampling are not included.", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN')")
+    @RequestMapping(value = "/events/RULE_NODE/{ruleNodeId}/recent", method = RequestMethod.GET)
+    @ResponseBody
+    public List<EventInfo> getRecentRuleNodeDebugEvents(
+            @ApiParam(value = RULE_NODE_ID_PARAM_DESCRIPTION, required = true)
+            @PathVariable("ruleNodeId") String strRuleNodeId,
+            @ApiParam(value = TENANT_ID_PARAM_DESCRIPTION, required = true)
+            @RequestParam(TENANT_ID) String strTenantId,
+            @ApiParam(value = "Max number of events to return")
+            @RequestParam(required = false, defaultValue = "20") int limit) throws ThingsboardException {
+        checkParameter("RuleNodeId", strRuleNodeId);
+        TenantId tenantId = TenantId.fromUUID(toUUID(strTenantId));
+        RuleNodeId ruleNodeId = new RuleNodeId(toUUID(strRuleNodeId));
+        checkEntityId(ruleNodeId, Operation.READ);
+        if (ruleNodeDebugEventBuffer.isAvailable()) {
+            List<EventInfo> events = ruleNodeDebugEventBuffer.getRecentEvents(tenantId, ruleNodeId, limit);
+            if (!events.isEmpty()) {
+                return events;
+            }
+        }
+        TimePageLink pageLink = new TimePageLink(limit, 0, null, new SortOrder("ts", SortOrder.Direction.DESC));
+        return checkNotNull(eventService.findEvents(tenantId, ruleNodeId, EventType.DEBUG_RULE_NODE, pageLink)).getData();
+    }
+
     @ApiOperation(value = "Clear Events (clearEvents)", notes = "Clears events by filter for specified entity.")
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/events/{entityType}/{entityId}/clear", method = RequestMethod.POST)
@@ -248,6 +286,9 @@ public class EventController extends BaseController {
         checkEntityId(entityId, Operation.WRITE);
 
         eventService.removeEvents(getTenantId(), entityId, eventFilter, startTime, endTime);
+        if (EventType.DEBUG_RULE_NODE.equals(eventFilter.getEventType())) {
+            ruleNodeDebugEventBuffer.remove(entityId);
+        }
     }
 
     private static EventType resolveEventType(String eventType) throws ThingsboardException {
@@ -55,6 +55,9 @@ public class ThingsboardInstallService {
     @Value("${state.persistToTelemetry:false}")
     private boolean persistToTelemetry;
 
+    @Value("${sql.alarms.partitioning_enabled:false}")
+    private boolean alarmsPartitioningEnabled;
+
     @Autowired
     private EntityDatabaseSchemaService entityDatabaseSchemaService;
 
@@ -114,6 +117,12 @@ public class ThingsboardInstallService {
                     latestMigrateService.migrate();
                 } else if (upgradeFromVersion.equals("3.6.2-images")) {
                     installScripts.updateImages();
+                } else if (upgradeFromVersion.equals("3.6.2-alarms")) {
+                    if (!alarmsPartitioningEnabled) {
+                        throw new RuntimeException("Alarms partitioning is disabled. Set SQL_ALARMS_PARTITIONING_ENABLED to true to migrate the alarms to the partitioned tables");
+                    }
+                    partitionAlarms();
+                    entityDatabaseSchemaService.createOrUpdateViewsAndFunctions();
                 } else {
                     switch (upgradeFromVersion) {
                         case "1.2.3": //NOSONAR, Need to execute gradual upgrade starting from upgradeFromVersion
@@ -278,12 +287,18 @@ public class ThingsboardInstallService {
                             }
                         case "3.6.2":
                             log.info("Upgrading ThingsBoard from version 3.6.2 to 3.6.3 ...");
+                            if (databaseTsUpgradeService != null) {
+                                databaseTsUpgradeService.upgradeDatabase("3.6.2");
+                            }
                             databaseEntitiesUpgradeService.upgradeDatabase("3.6.2");
                             //TODO DON'T FORGET to update switch statement in the CacheCleanupService if you need to clear the cache
                             break;
                         default:
                             throw new RuntimeException("Unable to upgrade ThingsBoard, unsupported fromVersion: " + upgradeFromVersion);
                     }
+                    if (alarmsPartitioningEnabled) {
+                        partitionAlarms();
+                    }
                     entityDatabaseSchemaService.createOrUpdateViewsAndFunctions();
                     entityDatabaseSchemaService.createOrUpdateDeviceInfoView(persistToTelemetry);
                     log.info("Updating system data...");
@@ -304,6 +319,9 @@ public class ThingsboardInstallService {
                 log.info("Installing DataBase schema for entities...");
 
                 entityDatabaseSchemaService.createDatabaseSchema();
+                if (alarmsPartitioningEnabled) {
+                    partitionAlarms();
+                }
 
                 entityDatabaseSchemaService.createOrUpdateViewsAndFunctions();
                 entityDatabaseSchemaService.createOrUpdateDeviceInfoView(persistToTelemetry);
@@ -354,5 +372,11 @@ public class ThingsboardInstallService {
         }
     }
 
+    private void partitionAlarms() throws Exception {
+        log.info("Migrating alarms to the partitioned tables...");
+        databaseEntitiesUpgradeService.upgradeDatabase("3.6.2-alarms");
+        dataUpdateService.updateData("3.6.2-alarms");
+    }
+
 }
 
@@ -29,4 +29,6 @@ public class EdgeEventStorageSettings {
     private long noRecordsSleepInterval;
     @Value("${edges.storage.sleep_between_batches}")
     private long sleepIntervalBetweenBatches;
+    @Value("${edges.storage.push_delivery_enabled:true}")
+    private boolean pushDeliveryEnabled;
 }
@@ -68,6 +68,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -255,6 +256,9 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
                 if (Boolean.FALSE.equals(sessionNewEvents.get(edgeId))) {
                     log.trace("[{}] set session new events flag to true [{}]", tenantId, edgeId.getId());
                     sessionNewEvents.put(edgeId, true);
+                    if (ctx.getEdgeEventStorageSettings().isPushDeliveryEnabled()) {
+                        triggerEdgeEventsCheck(session);
+                    }
                 }
             } finally {
                 newEventLock.unlock();
@@ -262,6 +266,23 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
         }
     }
 
+    /**
+     * Runs the pending edge events check right away instead of waiting for the scheduled one.
+     * Must be called under the session new events lock. If a check is in progress at the moment, it picks up the new events flag once it is done.
+     * A check that has already started when it is cancelled finds the other one in progress and exits, so there is always a single check chain per session.
+     */
+    private void triggerEdgeEventsCheck(EdgeGrpcSession session) {
+        EdgeId edgeId = session.getEdge().getId();
+        if (session.getEdgeEventsCheckInProgress().get()) {
+            return;
+        }
+        ScheduledFuture<?> edgeEventCheckTask = sessionEdgeEventChecks.get(edgeId);
+        if (edgeEventCheckTask != null && edgeEventCheckTask.cancel(false)) {
+            log.trace("[{}] Edge event check triggered for edge [{}]", session.getEdge().getTenantId(), edgeId.getId());
+            scheduleEdgeEventsCheck(session, 0);
+        }
+    }
+
     private void onEdgeConnect(EdgeId edgeId, EdgeGrpcSession edgeGrpcSession) {
         TenantId tenantId = edgeGrpcSession.getEdge().getTenantId();
         log.info("[{}][{}] edge [{}] connected successfully.", tenantId, edgeGrpcSession.getSessionId(), edgeId);
@@ -326,10 +347,19 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
     }
 
     private void scheduleEdgeEventsCheck(EdgeGrpcSession session) {
+        scheduleEdgeEventsCheck(session, ctx.getEdgeEventStorageSettings().getNoRecordsSleepInterval());
+    }
+
+    private void scheduleEdgeEventsCheck(EdgeGrpcSession session, long delayMs) {
         EdgeId edgeId = session.getEdge().getId();
         UUID tenantId = session.getEdge().getTenantId().getId();
         if (sessions.containsKey(edgeId)) {
             ScheduledFuture<?> edgeEventCheckTask = edgeEventProcessingExecutorService.schedule(() -> {
+                AtomicBoolean checkInProgress = session.getEdgeEventsCheckInProgress();
+                if (!checkInProgress.compareAndSet(false, true)) {
+                    log.trace("[{}] Edge event check is already in progress for edge [{}]", tenantId, edgeId.getId());
+                    return;
+                }
                 try {
                     final Lock newEventLock = sessionNewEventsLocks.computeIfAbsent(edgeId, id -> new ReentrantLock());
                     newEventLock.lock();
@@ -340,28 +370,48 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
                             Futures.addCallback(session.processEdgeEvents(), new FutureCallback<>() {
                                 @Override
                                 public void onSuccess(Boolean newEventsAdded) {
-                                    if (Boolean.TRUE.equals(newEventsAdded)) {
-                                        sessionNewEvents.put(edgeId, true);
+                                    boolean pendingEvents;
+                                    newEventLock.lock();
+                                    try {
+                                        if (Boolean.TRUE.equals(newEventsAdded)) {
+                                            sessionNewEvents.put(edgeId, true);
+                                        }
+                                        pendingEvents = Boolean.TRUE.equals(sessionNewEvents.get(edgeId));
+                                        checkInProgress.set(false);
+                                        if (pendingEvents && ctx.getEdgeEventStorageSettings().isPushDeliveryEnabled()) {
+                                            scheduleEdgeEventsCheck(session, 0);
+                                        } else {
+                                            scheduleEdgeEventsCheck(session);
+                                        }
+                                    } finally {
+                                        newEventLock.unlock();
                                     }
-                                    scheduleEdgeEventsCheck(session);
                                 }
 
                                 @Override
                                 public void onFailure(Throwable t) {
                                     log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), t);
-                                    scheduleEdgeEventsCheck(session);
+                                    newEventLock.lock();
+                                    try {
+                                        checkInProgress.set(false);
+                                        scheduleEdgeEventsCheck(session);
+                                    } finally {
+                                        newEventLock.unlock();
+                                    }
                                 }
                             }, ctx.getGrpcCallbackExecutorService());
                         } else {
+                            checkInProgress.set(false);
                             scheduleEdgeEventsCheck(session);
                         }
                     } finally {
                         newEventLock.unlock();
                     }
                 } catch (Exception e) {
+                    checkInProgress.set(false);
                     log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), e);
                 }
-            }, ctx.getEdgeEventStorageSettings().getNoRecordsSleepInterval(), TimeUnit.MILLISECONDS);
+            }, delayMs, TimeUnit.MILLISECONDS);
             sessionEdgeEventChecks.put(edgeId, edgeEventCheckTask);
             log.trace("[{}] Check edge event scheduled for edge [{}]", tenantId, edgeId.getId());
         } else {
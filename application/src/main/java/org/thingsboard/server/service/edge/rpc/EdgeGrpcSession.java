@@ -95,6 +95,7 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 
@@ -114,6 +115,7 @@ public final class EdgeGrpcSession implements Closeable {
     private final BiConsumer<EdgeId, UUID> sessionCloseListener;
 
     private final EdgeSessionState sessionState = new EdgeSessionState();
+    private final AtomicBoolean edgeEventsCheckInProgress = new AtomicBoolean();
 
     private EdgeContextComponent ctx;
     private Edge edge;
@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.entitiy.entity.relation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thingsboard.server.cluster.TbClusterService;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.dao.eventsourcing.RelationActionEvent;
+import org.thingsboard.server.dao.relation.RelationGraphCache;
+import org.thingsboard.server.gen.transport.TransportProtos.RelationGraphEvictMsg;
+
+import java.util.UUID;
+
+import static org.thingsboard.server.common.util.ProtoUtils.fromProto;
+
+/**
+ * Keeps the relation graphs of all nodes in sync. A relation change is broadcast as a relation graph evict notification
+ * to all core and rule engine services, and every received notification drops the adjacency lists of both ends of the relation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelationGraphEventSourcingListener {
+
+    private final TbClusterService tbClusterService;
+    private final RelationGraphCache relationGraphCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEvent(RelationActionEvent event) {
+        EntityRelation relation = event.getRelation();
+        if (!relationGraphCache.isEnabled() || relation == null || !RelationTypeGroup.COMMON.equals(relation.getTypeGroup())) {
+            return;
+        }
+        try {
+            tbClusterService.broadcastRelationGraphEvict(event.getTenantId(), relation.getFrom(), relation.getTo());
+        } catch (Exception e) {
+            log.error("[{}] Failed to broadcast relation graph evict: {}", event.getTenantId(), event, e);
+        }
+    }
+
+    @EventListener(RelationGraphEvictMsg.class)
+    public void onRelationGraphEvict(RelationGraphEvictMsg msg) {
+        if (relationGraphCache.isEnabled()) {
+            relationGraphCache.onRelationChanged(TenantId.fromUUID(new UUID(msg.getTenantIdMSB(), msg.getTenantIdLSB())),
+                    EntityIdFactory.getByTypeAndUuid(fromProto(msg.getFromEntityType()), new UUID(msg.getFromIdMSB(), msg.getFromIdLSB())),
+                    EntityIdFactory.getByTypeAndUuid(fromProto(msg.getToEntityType()), new UUID(msg.getToIdMSB(), msg.getToIdLSB())));
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.exception.TenantNotFoundException;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.dao.eventsourcing.DeleteEntityEvent;
+import org.thingsboard.server.dao.housekeeper.HouseKeeperService;
+import org.thingsboard.server.gen.transport.TransportProtos.HousekeeperTaskProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Submits cleanup tasks for deleted entities to the housekeeper queue.
+ * Tasks are partitioned by tenant and processed by {@link HousekeeperConsumerService} on TB Core.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DefaultHouseKeeperService implements HouseKeeperService {
+
+    private static final Set<EntityType> TELEMETRY_ENTITY_TYPES = EnumSet.of(EntityType.TENANT, EntityType.CUSTOMER, EntityType.USER,
+            EntityType.DEVICE, EntityType.ASSET, EntityType.ENTITY_VIEW, EntityType.DASHBOARD);
+    private static final Set<EntityType> EVENTS_ENTITY_TYPES = EnumSet.of(EntityType.DEVICE, EntityType.ASSET, EntityType.RULE_CHAIN);
+    private static final Set<EntityType> ALARMS_ENTITY_TYPES = EnumSet.of(EntityType.CUSTOMER, EntityType.USER,
+            EntityType.DEVICE, EntityType.ASSET, EntityType.ENTITY_VIEW);
+
+    private final TbQueueProducerProvider producerProvider;
+    private final PartitionService partitionService;
+
+    @Value("${queue.core.housekeeper.disabled-task-types:DELETE_ATTRIBUTES,DELETE_TELEMETRY,DELETE_EVENTS,DELETE_ALARMS}")
+    private Set<HousekeeperTaskType> disabledTaskTypes;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEvent(DeleteEntityEvent<?> event) {
+        log.trace("[{}] DeleteEntityEvent handler: {}", event.getTenantId(), event);
+        TenantId tenantId = event.getTenantId();
+        EntityId entityId = event.getEntityId();
+        EntityType entityType = entityId.getEntityType();
+        long ts = event.getTs();
+        if (TELEMETRY_ENTITY_TYPES.contains(entityType)) {
+            submitTask(HousekeeperTask.of(tenantId, entityId, HousekeeperTaskType.DELETE_ATTRIBUTES, ts));
+            submitTask(HousekeeperTask.of(tenantId, entityId, HousekeeperTaskType.DELETE_TELEMETRY, ts));
+        }
+        if (EVENTS_ENTITY_TYPES.contains(entityType)) {
+            submitTask(HousekeeperTask.of(tenantId, entityId, HousekeeperTaskType.DELETE_EVENTS, ts));
+        }
+        if (ALARMS_ENTITY_TYPES.contains(entityType)) {
+            submitTask(HousekeeperTask.of(tenantId, entityId, HousekeeperTaskType.DELETE_ALARMS, ts));
+        }
+        if (EntityType.USER.equals(entityType) && event.getEntity() instanceof User) {
+            submitTask(HousekeeperTask.unassignAlarms((User) event.getEntity(), ts));
+        }
+    }
+
+    @Override
+    public void submitTask(HousekeeperTask task) {
+        if (disabledTaskTypes.contains(task.getTaskType())) {
+            log.trace("[{}][{}] Task {} is disabled, skipping", task.getTenantId(), task.getEntityId(), task.getTaskType());
+            return;
+        }
+        submitTask(task, 0);
+    }
+
+    public void submitTask(HousekeeperTask task, int attempt) {
+        TbQueueProducer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> producer = producerProvider.getHousekeeperMsgProducer();
+        TopicPartitionInfo tpi;
+        try {
+            tpi = resolvePartition(task.getTenantId()).newByTopic(producer.getDefaultTopic());
+        } catch (Exception e) {
+            log.error("[{}][{}] Failed to resolve partition for task {}", task.getTenantId(), task.getEntityId(), task.getTaskType(), e);
+            return;
+        }
+        ToHousekeeperServiceMsg msg = ToHousekeeperServiceMsg.newBuilder()
+                .setTask(HousekeeperTaskProto.newBuilder()
+                        .setValue(JacksonUtil.toString(task))
+                        .setAttempt(attempt)
+                        .setTs(System.currentTimeMillis())
+                        .build())
+                .build();
+        producer.send(tpi, new TbProtoQueueMsg<>(task.getEntityId().getId(), msg), new TbQueueCallback() {
+            @Override
+            public void onSuccess(TbQueueMsgMetadata metadata) {
+                log.trace("[{}][{}] Submitted task {} (attempt {})", task.getTenantId(), task.getEntityId(), task.getTaskType(), attempt);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("[{}][{}] Failed to submit task {} (attempt {})", task.getTenantId(), task.getEntityId(), task.getTaskType(), attempt, t);
+            }
+        });
+    }
+
+    private TopicPartitionInfo resolvePartition(TenantId tenantId) {
+        try {
+            return partitionService.resolve(ServiceType.TB_CORE, tenantId, tenantId);
+        } catch (TenantNotFoundException e) {
+            // the tenant itself was deleted, so its isolation settings are no longer available
+            return partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, tenantId);
+        }
+    }
+
+}
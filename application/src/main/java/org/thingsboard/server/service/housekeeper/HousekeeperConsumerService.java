@@ -0,0 +1,321 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.gen.transport.TransportProtos.HousekeeperTaskProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.thingsboard.server.queue.TbQueueConsumer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.TbApplicationEventListener;
+import org.thingsboard.server.queue.discovery.event.PartitionChangeEvent;
+import org.thingsboard.server.queue.provider.TbCoreQueueFactory;
+import org.thingsboard.server.queue.util.AfterStartUp;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+import org.thingsboard.server.service.housekeeper.processor.HousekeeperTaskProcessor;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Consumes housekeeper tasks from the partitions of the housekeeper topic assigned to this TB Core instance.
+ * Each polled pack is processed in parallel; failed or timed out tasks are pushed back to the queue
+ * until the max reprocessing attempts are exhausted.
+ */
+@TbCoreComponent
+@Service
+@Slf4j
+public class HousekeeperConsumerService extends TbApplicationEventListener<PartitionChangeEvent> {
+
+    private static final String HOUSEKEEPER_STATS_KEY = "housekeeper";
+
+    private final Map<HousekeeperTaskType, HousekeeperTaskProcessor> taskProcessors;
+    private final TbQueueConsumer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> consumer;
+    private final DefaultHouseKeeperService houseKeeperService;
+    private final Map<HousekeeperTaskType, TaskStats> stats = new EnumMap<>(HousekeeperTaskType.class);
+
+    @Value("${queue.core.housekeeper.poll-interval-ms:500}")
+    private int pollInterval;
+    @Value("${queue.core.housekeeper.pool-size:4}")
+    private int poolSize;
+    @Value("${queue.core.housekeeper.task-processing-timeout-ms:120000}")
+    private long taskProcessingTimeout;
+    @Value("${queue.core.housekeeper.max-reprocessing-attempts:10}")
+    private int maxReprocessingAttempts;
+    @Value("${queue.core.housekeeper.task-reprocessing-delay-ms:5000}")
+    private long taskReprocessingDelay;
+    @Value("${queue.kafka.max_poll_interval_ms:300000}")
+    private long maxPollInterval;
+    @Value("${queue.core.stats.enabled:true}")
+    private boolean statsEnabled;
+
+    private ExecutorService consumerExecutor;
+    private ExecutorService taskExecutor;
+    private volatile boolean stopped;
+
+    public HousekeeperConsumerService(List<HousekeeperTaskProcessor> taskProcessors,
+                                      TbCoreQueueFactory queueFactory,
+                                      DefaultHouseKeeperService houseKeeperService,
+                                      StatsFactory statsFactory) {
+        this.taskProcessors = taskProcessors.stream().collect(Collectors.toMap(HousekeeperTaskProcessor::getTaskType, Function.identity()));
+        this.consumer = queueFactory.createToHousekeeperServiceMsgConsumer();
+        this.houseKeeperService = houseKeeperService;
+        for (HousekeeperTaskType taskType : HousekeeperTaskType.values()) {
+            stats.put(taskType, new TaskStats(statsFactory, taskType));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        consumerExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("housekeeper-consumer"));
+        taskExecutor = Executors.newFixedThreadPool(poolSize, ThingsBoardThreadFactory.forName("housekeeper-task-processor"));
+    }
+
+    @AfterStartUp(order = AfterStartUp.REGULAR_SERVICE)
+    public void afterStartUp(ApplicationReadyEvent event) {
+        consumerExecutor.submit(this::consumerLoop);
+    }
+
+    @Override
+    protected void onTbApplicationEvent(PartitionChangeEvent event) {
+        if (ServiceType.TB_CORE.equals(event.getServiceType())) {
+            log.debug("Subscribing to housekeeper partitions: {}", event.getPartitions());
+            consumer.subscribe(event.getPartitions().stream()
+                    .map(tpi -> tpi.newByTopic(consumer.getTopic()))
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    private void consumerLoop() {
+        while (!stopped && !consumer.isStopped()) {
+            try {
+                List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs = consumer.poll(pollInterval);
+                if (msgs.isEmpty()) {
+                    continue;
+                }
+                awaitReprocessingDelay(msgs);
+                processPack(msgs);
+                consumer.commit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                if (!stopped) {
+                    log.warn("Failed to process housekeeper tasks", t);
+                    try {
+                        Thread.sleep(pollInterval);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        log.info("Housekeeper consumer stopped");
+    }
+
+    private void processPack(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(msgs.size());
+        List<AtomicBoolean> startedFlags = new ArrayList<>(msgs.size());
+        AtomicBoolean packTimedOut = new AtomicBoolean();
+        for (TbProtoQueueMsg<ToHousekeeperServiceMsg> msg : msgs) {
+            AtomicBoolean started = new AtomicBoolean();
+            startedFlags.add(started);
+            futures.add(taskExecutor.submit(() -> {
+                // a worker freed by a cancelled task must not pick up the rest of the timed out pack
+                if (!packTimedOut.get()) {
+                    started.set(true);
+                    processTask(msg.getValue().getTask());
+                }
+                return null;
+            }));
+        }
+        long deadline = System.currentTimeMillis() + getPackProcessingTimeout(msgs.size());
+        for (int i = 0; i < msgs.size(); i++) {
+            HousekeeperTaskProto taskProto = msgs.get(i).getValue().getTask();
+            Future<?> future = futures.get(i);
+            try {
+                future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (!startedFlags.get(i).get()) {
+                    onTaskPostponed(taskProto);
+                }
+            } catch (TimeoutException e) {
+                packTimedOut.set(true);
+                boolean started = startedFlags.get(i).get();
+                future.cancel(true);
+                if (started) {
+                    onTaskFailure(taskProto, e);
+                } else {
+                    onTaskPostponed(taskProto);
+                }
+            } catch (ExecutionException e) {
+                onTaskFailure(taskProto, e.getCause());
+            }
+        }
+    }
+
+    /*
+     * Tasks beyond the pool size are queued, so the pack timeout grows with the number of rounds.
+     * It is bounded by the max poll interval (minus the reprocessing delay spent before the pack),
+     * otherwise the consumer is kicked out of the group and the whole pack is redelivered.
+     */
+    long getPackProcessingTimeout(int packSize) {
+        long rounds = (packSize + poolSize - 1) / poolSize;
+        long maxPackProcessingTimeout = Math.max(pollInterval, maxPollInterval * 4 / 5 - taskReprocessingDelay);
+        return Math.min(taskProcessingTimeout * rounds, maxPackProcessingTimeout);
+    }
+
+    private void processTask(HousekeeperTaskProto taskProto) throws Exception {
+        HousekeeperTask task = JacksonUtil.fromString(taskProto.getValue(), HousekeeperTask.class);
+        HousekeeperTaskProcessor processor = taskProcessors.get(task.getTaskType());
+        if (processor == null) {
+            throw new IllegalArgumentException("Unsupported task type " + task.getTaskType());
+        }
+        log.trace("[{}][{}] Processing task {} (attempt {})", task.getTenantId(), task.getEntityId(), task.getTaskType(), taskProto.getAttempt());
+        processor.process(task);
+        stats.get(task.getTaskType()).processed.increment();
+    }
+
+    private void onTaskFailure(HousekeeperTaskProto taskProto, Throwable error) {
+        HousekeeperTask task;
+        try {
+            task = JacksonUtil.fromString(taskProto.getValue(), HousekeeperTask.class);
+        } catch (Exception e) {
+            log.error("Dropping malformed housekeeper task: {}", taskProto.getValue(), e);
+            return;
+        }
+        int attempt = taskProto.getAttempt() + 1;
+        TaskStats taskStats = stats.get(task.getTaskType());
+        if (attempt <= maxReprocessingAttempts) {
+            log.warn("[{}][{}] Task {} failed, submitting for reprocessing (attempt {})", task.getTenantId(), task.getEntityId(),
+                    task.getTaskType(), attempt, error);
+            taskStats.retried.increment();
+            houseKeeperService.submitTask(task, attempt);
+        } else {
+            log.error("[{}][{}] Task {} failed after {} attempts, dropping it", task.getTenantId(), task.getEntityId(),
+                    task.getTaskType(), attempt, error);
+            taskStats.failed.increment();
+        }
+    }
+
+    private void onTaskPostponed(HousekeeperTaskProto taskProto) {
+        HousekeeperTask task;
+        try {
+            task = JacksonUtil.fromString(taskProto.getValue(), HousekeeperTask.class);
+        } catch (Exception e) {
+            log.error("Dropping malformed housekeeper task: {}", taskProto.getValue(), e);
+            return;
+        }
+        // the task did not even start before the pack timeout, so it is resubmitted without spending an attempt
+        log.debug("[{}][{}] Task {} was not started before the pack timeout, resubmitting it (attempt {})", task.getTenantId(),
+                task.getEntityId(), task.getTaskType(), taskProto.getAttempt());
+        houseKeeperService.submitTask(task, taskProto.getAttempt());
+    }
+
+    private void awaitReprocessingDelay(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs) throws InterruptedException {
+        long reprocessingTs = msgs.stream()
+                .map(msg -> msg.getValue().getTask())
+                .filter(task -> task.getAttempt() > 0)
+                .mapToLong(task -> task.getTs() + taskReprocessingDelay)
+                .max().orElse(0);
+        long delay = Math.min(reprocessingTs - System.currentTimeMillis(), taskReprocessingDelay);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.core.stats.print-interval-ms:60000}")
+    public void printStats() {
+        if (!statsEnabled) {
+            return;
+        }
+        String summary = stats.entrySet().stream()
+                .filter(entry -> entry.getValue().isNotEmpty())
+                .map(entry -> entry.getKey() + " = [" + entry.getValue() + "]")
+                .collect(Collectors.joining(", "));
+        stats.values().forEach(TaskStats::reset);
+        if (!summary.isEmpty()) {
+            log.info("Housekeeper stats: {}", summary);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        stopped = true;
+        consumer.unsubscribe();
+        if (consumerExecutor != null) {
+            consumerExecutor.shutdownNow();
+        }
+        if (taskExecutor != null) {
+            taskExecutor.shutdownNow();
+        }
+    }
+
+    private static class TaskStats {
+
+        private final StatsCounter processed;
+        private final StatsCounter failed;
+        private final StatsCounter retried;
+
+        TaskStats(StatsFactory statsFactory, HousekeeperTaskType taskType) {
+            String prefix = taskType.name().toLowerCase() + ".";
+            this.processed = statsFactory.createStatsCounter(HOUSEKEEPER_STATS_KEY, prefix + "processed");
+            this.failed = statsFactory.createStatsCounter(HOUSEKEEPER_STATS_KEY, prefix + "failed");
+            this.retried = statsFactory.createStatsCounter(HOUSEKEEPER_STATS_KEY, prefix + "retried");
+        }
+
+        boolean isNotEmpty() {
+            return processed.get() > 0 || failed.get() > 0 || retried.get() > 0;
+        }
+
+        void reset() {
+            processed.clear();
+            failed.clear();
+            retried.clear();
+        }
+
+        @Override
+        public String toString() {
+            return "processed: " + processed.get() + ", failed: " + failed.get() + ", retried: " + retried.get();
+        }
+
+    }
+
+}
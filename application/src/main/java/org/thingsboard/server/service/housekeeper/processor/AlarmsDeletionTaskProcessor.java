@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper.processor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.AlarmId;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.PageLink;
+import org.thingsboard.server.dao.alarm.AlarmService;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+
+@TbCoreComponent
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlarmsDeletionTaskProcessor implements HousekeeperTaskProcessor {
+
+    private final AlarmService alarmService;
+
+    @Value("${queue.core.housekeeper.chunk-size:100}")
+    private int chunkSize;
+
+    @Override
+    public void process(HousekeeperTask task) throws Exception {
+        // deleted alarms drop out of the result, so the first page is always the next chunk
+        PageLink pageLink = new PageLink(chunkSize);
+        int totalDeleted = 0;
+        while (true) {
+            PageData<AlarmId> alarmIds = alarmService.findAlarmIdsByOriginatorId(task.getTenantId(), task.getEntityId(), pageLink);
+            int deleted = 0;
+            for (AlarmId alarmId : alarmIds.getData()) {
+                if (alarmService.delAlarm(task.getTenantId(), alarmId).isSuccessful()) {
+                    deleted++;
+                }
+            }
+            totalDeleted += deleted;
+            if (deleted == 0 || !alarmIds.hasNext()) {
+                break;
+            }
+        }
+        log.debug("[{}][{}] Deleted {} alarms", task.getTenantId(), task.getEntityId(), totalDeleted);
+    }
+
+    @Override
+    public HousekeeperTaskType getTaskType() {
+        return HousekeeperTaskType.DELETE_ALARMS;
+    }
+
+}
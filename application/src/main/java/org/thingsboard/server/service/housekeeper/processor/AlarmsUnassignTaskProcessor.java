@@ -0,0 +1,53 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper.processor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.AlarmId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+import org.thingsboard.server.service.entitiy.alarm.TbAlarmService;
+
+import java.util.List;
+
+@TbCoreComponent
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlarmsUnassignTaskProcessor implements HousekeeperTaskProcessor {
+
+    private final TbAlarmService alarmService;
+
+    @Override
+    public void process(HousekeeperTask task) throws Exception {
+        User user = new User(new UserId(task.getEntityId().getId()));
+        user.setTenantId(task.getTenantId());
+        user.setEmail(task.getUserTitle());
+        List<AlarmId> alarmIds = alarmService.unassignDeletedUserAlarms(task.getTenantId(), user, task.getTs());
+        log.debug("[{}][{}] Unassigned {} alarms", task.getTenantId(), task.getEntityId(), alarmIds.size());
+    }
+
+    @Override
+    public HousekeeperTaskType getTaskType() {
+        return HousekeeperTaskType.UNASSIGN_ALARMS;
+    }
+
+}
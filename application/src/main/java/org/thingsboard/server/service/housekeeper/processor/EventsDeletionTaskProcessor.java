@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper.processor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.dao.event.EventService;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+
+@TbCoreComponent
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventsDeletionTaskProcessor implements HousekeeperTaskProcessor {
+
+    private final EventService eventService;
+
+    @Value("${queue.core.housekeeper.events-deletion-chunk-ms:86400000}")
+    private long chunkMs;
+
+    @Override
+    public void process(HousekeeperTask task) throws Exception {
+        Long oldestTs = eventService.findOldestEventTs(task.getTenantId(), task.getEntityId());
+        if (oldestTs == null) {
+            log.debug("[{}][{}] No events to delete", task.getTenantId(), task.getEntityId());
+            return;
+        }
+        long endTs = System.currentTimeMillis();
+        int chunks = 0;
+        // the events are deleted in ts ranges so that each statement touches a bounded part of the partitioned event tables;
+        // the last range is open-ended to also catch the events persisted with a later ts while the task is processed
+        for (long startTs = oldestTs; ; startTs += chunkMs) {
+            boolean last = startTs + chunkMs > endTs;
+            eventService.removeEvents(task.getTenantId(), task.getEntityId(), null, startTs, last ? null : startTs + chunkMs - 1);
+            chunks++;
+            if (last) {
+                break;
+            }
+        }
+        log.debug("[{}][{}] Deleted events in {} chunks", task.getTenantId(), task.getEntityId(), chunks);
+    }
+
+    @Override
+    public HousekeeperTaskType getTaskType() {
+        return HousekeeperTaskType.DELETE_EVENTS;
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper.processor;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.kv.BaseDeleteTsKvQuery;
+import org.thingsboard.server.common.data.kv.DeleteTsKvQuery;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@TbCoreComponent
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryDeletionTaskProcessor implements HousekeeperTaskProcessor {
+
+    private final TimeseriesService timeseriesService;
+
+    @Value("${queue.core.housekeeper.chunk-size:100}")
+    private int chunkSize;
+
+    @Override
+    public void process(HousekeeperTask task) throws Exception {
+        List<String> keys = timeseriesService.findAllKeysByEntityIds(task.getTenantId(), List.of(task.getEntityId()));
+        long endTs = System.currentTimeMillis();
+        for (List<String> chunk : Lists.partition(keys, chunkSize)) {
+            List<DeleteTsKvQuery> queries = chunk.stream()
+                    .map(key -> new BaseDeleteTsKvQuery(key, 0, endTs, false, true))
+                    .collect(Collectors.toList());
+            timeseriesService.remove(task.getTenantId(), task.getEntityId(), queries).get();
+            log.debug("[{}][{}] Deleted time-series for {} keys", task.getTenantId(), task.getEntityId(), chunk.size());
+        }
+        timeseriesService.removeAllLatest(task.getTenantId(), task.getEntityId()).get();
+    }
+
+    @Override
+    public HousekeeperTaskType getTaskType() {
+        return HousekeeperTaskType.DELETE_TELEMETRY;
+    }
+
+}
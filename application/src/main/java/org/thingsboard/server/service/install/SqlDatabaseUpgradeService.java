@@ -775,6 +775,14 @@ public class SqlDatabaseUpgradeService implements DatabaseEntitiesUpgradeService
             case "3.6.2":
                 updateSchema("3.6.2", 3006002, "3.6.3", 3006003, null);
                 break;
+            case "3.6.2-alarms":
+                try (Connection conn = DriverManager.getConnection(dbUrl, dbUserName, dbPassword)) {
+                    log.info("Updating alarm tables to the partitioned ones ...");
+                    Path alarmsPartitioningFile = Paths.get(installScripts.getDataDir(), "upgrade", "3.6.2", "alarms_partitioning.sql");
+                    loadSql(alarmsPartitioningFile, conn);
+                    log.info("Alarm tables updated!");
+                }
+                break;
             default:
                 throw new RuntimeException("Unable to upgrade SQL database, unsupported fromVersion: " + fromVersion);
         }
@@ -16,10 +16,16 @@
 package org.thingsboard.server.service.notification;
 
 import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.rule.engine.api.NotificationCenter;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.User;
@@ -67,6 +73,7 @@ import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import org.thingsboard.server.queue.discovery.TopicService;
 import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
+import org.thingsboard.server.queue.util.PropertyUtils;
 import org.thingsboard.server.service.executors.NotificationExecutorService;
 import org.thingsboard.server.service.notification.channels.NotificationChannel;
 import org.thingsboard.server.service.subscription.TbSubscriptionUtils;
@@ -74,12 +81,20 @@ import org.thingsboard.server.service.telemetry.AbstractSubscriptionService;
 import org.thingsboard.server.service.ws.notification.sub.NotificationRequestUpdate;
 import org.thingsboard.server.service.ws.notification.sub.NotificationUpdate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
@@ -98,7 +113,33 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
     private final TbQueueProducerProvider producerProvider;
     private final RateLimitService rateLimitService;
 
+    @Value("${notification_system.delivery.batch_size:500}")
+    private int deliveryBatchSize;
+    @Value("${notification_system.delivery.default_threads:2}")
+    private int deliveryDefaultThreads;
+    @Value("${notification_system.delivery.threads:}")
+    private String deliveryThreadsConfig;
+
     private Map<NotificationDeliveryMethod, NotificationChannel> channels;
+    private Map<NotificationDeliveryMethod, ListeningExecutorService> deliveryExecutors;
+
+    @PostConstruct
+    private void initDeliveryExecutors() {
+        Map<String, String> deliveryThreads = PropertyUtils.getProps(deliveryThreadsConfig);
+        deliveryExecutors = new EnumMap<>(NotificationDeliveryMethod.class);
+        for (NotificationDeliveryMethod deliveryMethod : NotificationDeliveryMethod.values()) {
+            int threads = Optional.ofNullable(deliveryThreads.get(deliveryMethod.name())).map(Integer::parseInt).orElse(deliveryDefaultThreads);
+            deliveryExecutors.put(deliveryMethod, MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads,
+                    ThingsBoardThreadFactory.forName("notification-delivery-" + deliveryMethod.name().toLowerCase()))));
+        }
+    }
+
+    @PreDestroy
+    private void destroyDeliveryExecutors() {
+        if (deliveryExecutors != null) {
+            deliveryExecutors.values().forEach(ExecutorService::shutdownNow);
+        }
+    }
 
     @Override
     public NotificationRequest processNotificationRequest(TenantId tenantId, NotificationRequest request, FutureCallback<NotificationRequestStats> callback) {
@@ -235,6 +276,14 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
         }
     }
 
+    private void updateRequestProgress(NotificationProcessingContext ctx) {
+        try {
+            notificationRequestService.updateNotificationRequest(ctx.getTenantId(), ctx.getRequest().getId(), NotificationRequestStatus.PROCESSING, ctx.getStats());
+        } catch (Exception e) {
+            log.warn("[{}] Failed to update progress of notification request", ctx.getRequest().getId(), e);
+        }
+    }
+
     private void processForTarget(NotificationTarget target, NotificationProcessingContext ctx) {
         Iterable<? extends NotificationRecipient> recipients;
         switch (target.getConfiguration().getType()) {
@@ -273,23 +322,95 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
             return;
         }
 
+        List<NotificationRecipient> batch = new ArrayList<>(deliveryBatchSize);
         for (NotificationRecipient recipient : recipients) {
-            for (NotificationDeliveryMethod deliveryMethod : deliveryMethods) {
-                try {
-                    processForRecipient(deliveryMethod, recipient, ctx);
-                    ctx.getStats().reportSent(deliveryMethod, recipient);
-                } catch (Exception error) {
-                    ctx.getStats().reportError(deliveryMethod, error, recipient);
+            batch.add(recipient);
+            if (batch.size() == deliveryBatchSize) {
+                processForRecipients(batch, deliveryMethods, ctx);
+                batch = new ArrayList<>(deliveryBatchSize);
+                updateRequestProgress(ctx);
+            }
+        }
+        if (!batch.isEmpty()) {
+            processForRecipients(batch, deliveryMethods, ctx);
+        }
+    }
+
+    /*
+     * Delivery methods are processed in parallel, each one on its own executor which limits the concurrency of the channel.
+     * Web notifications of the whole batch are saved with one batch insert.
+     * */
+    private void processForRecipients(List<NotificationRecipient> recipients, Set<NotificationDeliveryMethod> deliveryMethods, NotificationProcessingContext ctx) {
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        for (NotificationDeliveryMethod deliveryMethod : deliveryMethods) {
+            ListeningExecutorService executor = deliveryExecutors.get(deliveryMethod);
+            if (deliveryMethod == NotificationDeliveryMethod.WEB) {
+                futures.add(executor.submit(() -> processWebNotifications(recipients, ctx)));
+            } else {
+                for (NotificationRecipient recipient : recipients) {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            processForRecipient(deliveryMethod, recipient, ctx);
+                            ctx.getStats().reportSent(deliveryMethod, recipient);
+                        } catch (Exception error) {
+                            ctx.getStats().reportError(deliveryMethod, error, recipient);
+                        }
+                    }));
                 }
             }
         }
+        try {
+            Futures.successfulAsList(futures).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        log.debug("[{}] Processed notification request for {} recipients, stats: {}", ctx.getRequest().getId(), recipients.size(), ctx.getStats());
     }
 
     private void processForRecipient(NotificationDeliveryMethod deliveryMethod, NotificationRecipient recipient, NotificationProcessingContext ctx) throws Exception {
-        if (ctx.getStats().contains(deliveryMethod, recipient.getId())) {
+        checkRecipient(deliveryMethod, recipient, ctx);
+
+        NotificationChannel notificationChannel = channels.get(deliveryMethod);
+        DeliveryMethodNotificationTemplate processedTemplate = ctx.getProcessedTemplate(deliveryMethod, recipient);
+
+        log.trace("[{}] Sending {} notification for recipient {}", ctx.getRequest().getId(), deliveryMethod, recipient);
+        notificationChannel.sendNotification(recipient, processedTemplate, ctx);
+    }
+
+    private void processWebNotifications(List<NotificationRecipient> recipients, NotificationProcessingContext ctx) {
+        List<User> users = new ArrayList<>(recipients.size());
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (NotificationRecipient recipient : recipients) {
+            try {
+                checkRecipient(NotificationDeliveryMethod.WEB, recipient, ctx);
+                WebDeliveryMethodNotificationTemplate processedTemplate = ctx.getProcessedTemplate(NotificationDeliveryMethod.WEB, recipient);
+                users.add((User) recipient);
+                notifications.add(createNotification((User) recipient, processedTemplate, ctx));
+            } catch (Exception error) {
+                ctx.getStats().reportError(NotificationDeliveryMethod.WEB, error, recipient);
+            }
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        try {
+            notifications = notificationService.saveNotifications(ctx.getTenantId(), notifications);
+        } catch (Exception e) {
+            log.error("[{}] Failed to create {} notifications", ctx.getRequest().getId(), notifications.size(), e);
+            users.forEach(user -> ctx.getStats().reportError(NotificationDeliveryMethod.WEB, e, user));
+            return;
+        }
+        users.forEach(user -> ctx.getStats().reportSent(NotificationDeliveryMethod.WEB, user));
+        onNotificationsCreated(ctx.getTenantId(), notifications);
+    }
+
+    private void checkRecipient(NotificationDeliveryMethod deliveryMethod, NotificationRecipient recipient, NotificationProcessingContext ctx) {
+        if (!ctx.getStats().reportProcessed(deliveryMethod, recipient.getId())) {
             throw new AlreadySentException();
-        } else {
-            ctx.getStats().reportProcessed(deliveryMethod, recipient.getId());
         }
 
         if (recipient instanceof User) {
@@ -298,27 +419,11 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
                 throw new RuntimeException("User disabled " + deliveryMethod.getName() + " notifications of this type");
             }
         }
-
-        NotificationChannel notificationChannel = channels.get(deliveryMethod);
-        DeliveryMethodNotificationTemplate processedTemplate = ctx.getProcessedTemplate(deliveryMethod, recipient);
-
-        log.trace("[{}] Sending {} notification for recipient {}", ctx.getRequest().getId(), deliveryMethod, recipient);
-        notificationChannel.sendNotification(recipient, processedTemplate, ctx);
     }
 
     @Override
     public void sendNotification(User recipient, WebDeliveryMethodNotificationTemplate processedTemplate, NotificationProcessingContext ctx) throws Exception {
-        NotificationRequest request = ctx.getRequest();
-        Notification notification = Notification.builder()
-                .requestId(request.getId())
-                .recipientId(recipient.getId())
-                .type(ctx.getNotificationType())
-                .subject(processedTemplate.getSubject())
-                .text(processedTemplate.getBody())
-                .additionalConfig(processedTemplate.getAdditionalConfig())
-                .info(request.getInfo())
-                .status(NotificationStatus.SENT)
-                .build();
+        Notification notification = createNotification(recipient, processedTemplate, ctx);
         try {
             notification = notificationService.saveNotification(recipient.getTenantId(), notification);
         } catch (Exception e) {
@@ -333,6 +438,20 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
         onNotificationUpdate(recipient.getTenantId(), recipient.getId(), update);
     }
 
+    private Notification createNotification(User recipient, WebDeliveryMethodNotificationTemplate processedTemplate, NotificationProcessingContext ctx) {
+        NotificationRequest request = ctx.getRequest();
+        return Notification.builder()
+                .requestId(request.getId())
+                .recipientId(recipient.getId())
+                .type(ctx.getNotificationType())
+                .subject(processedTemplate.getSubject())
+                .text(processedTemplate.getBody())
+                .additionalConfig(processedTemplate.getAdditionalConfig())
+                .info(request.getInfo())
+                .status(NotificationStatus.SENT)
+                .build();
+    }
+
     @Override
     public void markNotificationAsRead(TenantId tenantId, UserId recipientId, NotificationId notificationId) {
         boolean updated = notificationService.markNotificationAsRead(tenantId, recipientId, notificationId);
@@ -431,6 +550,35 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
         }, () -> TbSubscriptionUtils.notificationUpdateToProto(tenantId, recipientId, update));
     }
 
+    /*
+     * Resolves the core partition once per recipient and hands the updates for local partitions over directly.
+     * Updates for other partitions are sent one per recipient, in the same format as single notification updates
+     * */
+    private void onNotificationsCreated(TenantId tenantId, List<Notification> notifications) {
+        Map<TopicPartitionInfo, List<Notification>> notificationsByPartition = notifications.stream()
+                .collect(Collectors.groupingBy(notification -> partitionService.resolve(ServiceType.TB_CORE, tenantId, notification.getRecipientId())));
+        notificationsByPartition.forEach((tpi, partitionNotifications) -> {
+            log.trace("Submitting {} notification updates to {}", partitionNotifications.size(), tpi);
+            boolean local = currentPartitions.contains(tpi);
+            if (local && subscriptionManagerService.isEmpty()) {
+                log.warn("Possible misconfiguration because subscriptionManagerService is null!");
+                return;
+            }
+            for (Notification notification : partitionNotifications) {
+                NotificationUpdate update = NotificationUpdate.builder()
+                        .created(true)
+                        .notification(notification)
+                        .build();
+                if (local) {
+                    subscriptionManagerService.get().onNotificationUpdate(tenantId, notification.getRecipientId(), update, TbCallback.EMPTY);
+                } else {
+                    clusterService.pushMsgToCore(tpi, notification.getRecipientId().getId(),
+                            TbSubscriptionUtils.notificationUpdateToProto(tenantId, notification.getRecipientId(), update), null);
+                }
+            }
+        });
+    }
+
     private void onNotificationRequestUpdate(TenantId tenantId, NotificationRequestUpdate update) {
         log.trace("Submitting notification request update: {}", update);
         wsCallBackExecutor.submit(() -> {
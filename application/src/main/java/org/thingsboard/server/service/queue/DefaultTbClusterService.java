@@ -276,6 +276,38 @@ public class DefaultTbClusterService implements TbClusterService {
         broadcast(new ComponentLifecycleMsg(tenantId, entityId, state));
     }
 
+    @Override
+    public void broadcastRelationGraphEvict(TenantId tenantId, EntityId from, EntityId to) {
+        log.trace("[{}] Processing relation graph evict: {} -> {}", tenantId, from, to);
+        TransportProtos.RelationGraphEvictMsg evictMsg = TransportProtos.RelationGraphEvictMsg.newBuilder()
+                .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                .setFromEntityType(toProto(from.getEntityType()))
+                .setFromIdMSB(from.getId().getMostSignificantBits())
+                .setFromIdLSB(from.getId().getLeastSignificantBits())
+                .setToEntityType(toProto(to.getEntityType()))
+                .setToIdMSB(to.getId().getMostSignificantBits())
+                .setToIdLSB(to.getId().getLeastSignificantBits())
+                .build();
+        UUID msgId = UUID.randomUUID();
+        Set<String> tbCoreServices = partitionService.getAllServiceIds(ServiceType.TB_CORE);
+        TbQueueProducer<TbProtoQueueMsg<ToCoreNotificationMsg>> toCoreNfProducer = producerProvider.getTbCoreNotificationsMsgProducer();
+        for (String serviceId : tbCoreServices) {
+            TopicPartitionInfo tpi = topicService.getNotificationsTopic(ServiceType.TB_CORE, serviceId);
+            toCoreNfProducer.send(tpi, new TbProtoQueueMsg<>(msgId, ToCoreNotificationMsg.newBuilder().setRelationGraphEvictMsg(evictMsg).build()), null);
+            toCoreNfs.incrementAndGet();
+        }
+        Set<String> tbRuleEngineServices = partitionService.getAllServiceIds(ServiceType.TB_RULE_ENGINE);
+        // No need to push notifications twice
+        tbRuleEngineServices.removeAll(tbCoreServices);
+        TbQueueProducer<TbProtoQueueMsg<ToRuleEngineNotificationMsg>> toRuleEngineProducer = producerProvider.getRuleEngineNotificationsMsgProducer();
+        for (String serviceId : tbRuleEngineServices) {
+            TopicPartitionInfo tpi = topicService.getNotificationsTopic(ServiceType.TB_RULE_ENGINE, serviceId);
+            toRuleEngineProducer.send(tpi, new TbProtoQueueMsg<>(msgId, ToRuleEngineNotificationMsg.newBuilder().setRelationGraphEvictMsg(evictMsg).build()), null);
+            toRuleEngineNfs.incrementAndGet();
+        }
+    }
+
     @Override
     public void onDeviceProfileChange(DeviceProfile deviceProfile, TbQueueCallback callback) {
         broadcastEntityChangeToTransport(deviceProfile.getTenantId(), deviceProfile.getId(), deviceProfile, callback);
@@ -170,6 +170,9 @@ public class DefaultTbRuleEngineConsumerService extends AbstractConsumerService<
         } else if (nfMsg.hasQueueDeleteMsg()) {
             deleteQueue(nfMsg.getQueueDeleteMsg());
             callback.onSuccess();
+        } else if (nfMsg.hasRelationGraphEvictMsg()) {
+            eventPublisher.publishEvent(nfMsg.getRelationGraphEvictMsg());
+            callback.onSuccess();
         } else {
             log.trace("Received notification with missing handler");
             callback.onSuccess();
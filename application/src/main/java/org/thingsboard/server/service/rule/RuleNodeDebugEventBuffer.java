@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.rule;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.EventInfo;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEvent;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EventId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent debug events of each rule node in memory, so that they can be shown
+ * without waiting for the (sampled, rate limited) events to reach the database.
+ * The buffer is local to the service that processes the rule node messages, so it is only available
+ * on the services that run the rule engine. Each rule node keeps at most 'events_per_node' events
+ * and at most 'max_bytes_per_node' bytes of event data, whichever limit is reached first.
+ */
+@Service
+public class RuleNodeDebugEventBuffer {
+
+    private static final int EVENT_OVERHEAD_BYTES = 512;
+
+    @Autowired
+    private TbServiceInfoProvider serviceInfoProvider;
+
+    @Value("${actors.rule.node.debug_buffer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${actors.rule.node.debug_buffer.events_per_node:100}")
+    private int eventsPerNode;
+
+    @Value("${actors.rule.node.debug_buffer.max_bytes_per_node:1048576}")
+    private long maxBytesPerNode;
+
+    @Value("${actors.rule.node.debug_buffer.max_nodes:1000}")
+    private int maxNodes;
+
+    @Value("${actors.rule.node.debug_buffer.time_to_live_in_minutes:60}")
+    private int timeToLiveInMinutes;
+
+    private Cache<UUID, NodeBuffer> buffers;
+
+    @PostConstruct
+    public void init() {
+        buffers = Caffeine.newBuilder()
+                .maximumSize(maxNodes)
+                .expireAfterWrite(timeToLiveInMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @return true if the buffer is enabled and filled by this service
+     */
+    public boolean isAvailable() {
+        return enabled && serviceInfoProvider.isService(ServiceType.TB_RULE_ENGINE);
+    }
+
+    public void add(RuleNodeDebugEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long size = estimateSize(event);
+        if (size > maxBytesPerNode) {
+            return;
+        }
+        if (event.getId() == null) {
+            // the same id is used when the event is persisted, so the buffered copy can be matched with the stored one
+            UUID timeBased = Uuids.timeBased();
+            event.setId(new EventId(timeBased));
+            event.setCreatedTime(Uuids.unixTimestamp(timeBased));
+        }
+        NodeBuffer buffer = buffers.get(event.getEntityId(), id -> new NodeBuffer());
+        synchronized (buffer) {
+            while (!buffer.events.isEmpty() && (buffer.events.size() >= eventsPerNode || buffer.bytes + size > maxBytesPerNode)) {
+                buffer.bytes -= estimateSize(buffer.events.pollFirst());
+            }
+            buffer.events.addLast(event);
+            buffer.bytes += size;
+        }
+    }
+
+    /**
+     * @return up to {@code limit} most recent events of the rule node, newest first
+     */
+    public List<EventInfo> getRecentEvents(TenantId tenantId, EntityId ruleNodeId, int limit) {
+        NodeBuffer buffer = enabled ? buffers.getIfPresent(ruleNodeId.getId()) : null;
+        if (buffer == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<EventInfo> events = new ArrayList<>(Math.min(limit, eventsPerNode));
+        synchronized (buffer) {
+            Iterator<RuleNodeDebugEvent> iterator = buffer.events.descendingIterator();
+            while (iterator.hasNext() && events.size() < limit) {
+                RuleNodeDebugEvent event = iterator.next();
+                if (event.getTenantId().equals(tenantId)) {
+                    events.add(event.toInfo(EntityType.RULE_NODE));
+                }
+            }
+        }
+        return events;
+    }
+
+    public void remove(EntityId ruleNodeId) {
+        buffers.invalidate(ruleNodeId.getId());
+    }
+
+    static long estimateSize(RuleNodeDebugEvent event) {
+        return EVENT_OVERHEAD_BYTES + 2L * (length(event.getData()) + length(event.getMetadata()) + length(event.getError()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static class NodeBuffer {
+        private final Deque<RuleNodeDebugEvent> events = new ArrayDeque<>();
+        private long bytes;
+    }
+
+}
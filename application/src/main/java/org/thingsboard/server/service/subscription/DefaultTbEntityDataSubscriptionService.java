@@ -30,6 +30,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.CloseStatus;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
 import org.thingsboard.server.common.data.kv.ReadTsKvQuery;
 import org.thingsboard.server.common.data.kv.ReadTsKvQueryResult;
@@ -70,6 +71,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -645,7 +647,8 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
                     .filter(key -> key.getType().equals(EntityKeyType.TIME_SERIES))
                     .map(EntityKey::getKey).collect(Collectors.toList());
 
-            Map<EntityData, ListenableFuture<Map<String, TsValue>>> missingTelemetryFutures = new HashMap<>();
+            Map<EntityData, Set<String>> missingTsKeysByEntity = new HashMap<>();
+            Set<String> allMissingTsKeys = new LinkedHashSet<>();
             for (EntityData entityData : ctx.getData().getData()) {
                 Map<EntityKeyType, Map<String, TsValue>> latestEntityData = entityData.getLatest();
                 Map<String, TsValue> tsEntityData = latestEntityData.get(EntityKeyType.TIME_SERIES);
@@ -653,21 +656,24 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
                 if (tsEntityData != null) {
                     missingTsKeys.removeAll(tsEntityData.keySet());
                 } else {
-                    tsEntityData = new HashMap<>();
-                    latestEntityData.put(EntityKeyType.TIME_SERIES, tsEntityData);
+                    latestEntityData.put(EntityKeyType.TIME_SERIES, new HashMap<>());
+                }
+                if (!missingTsKeys.isEmpty()) {
+                    missingTsKeysByEntity.put(entityData, missingTsKeys);
+                    allMissingTsKeys.addAll(missingTsKeys);
                 }
-
-                ListenableFuture<List<TsKvEntry>> missingTsData = tsService.findLatest(ctx.getTenantId(), entityData.getEntityId(), missingTsKeys);
-                missingTelemetryFutures.put(entityData, Futures.transform(missingTsData, this::toTsValue, MoreExecutors.directExecutor()));
             }
-            Futures.addCallback(Futures.allAsList(missingTelemetryFutures.values()), new FutureCallback<>() {
+            List<EntityId> entityIds = missingTsKeysByEntity.keySet().stream().map(EntityData::getEntityId).collect(Collectors.toList());
+            ListenableFuture<Map<EntityId, List<TsKvEntry>>> missingTsData = tsService.findLatestByEntities(ctx.getTenantId(), entityIds, allMissingTsKeys);
+            Futures.addCallback(missingTsData, new FutureCallback<>() {
                 @Override
-                public void onSuccess(@Nullable List<Map<String, TsValue>> result) {
-                    missingTelemetryFutures.forEach((key, value) -> {
-                        try {
-                            key.getLatest().get(EntityKeyType.TIME_SERIES).putAll(value.get());
-                        } catch (InterruptedException | ExecutionException e) {
-                            log.warn("[{}][{}] Failed to lookup latest telemetry: {}:{}", ctx.getSessionId(), ctx.getCmdId(), key.getEntityId(), allTsKeys, e);
+                public void onSuccess(Map<EntityId, List<TsKvEntry>> result) {
+                    long ts = System.currentTimeMillis();
+                    missingTsKeysByEntity.forEach((entityData, missingTsKeys) -> {
+                        Map<String, TsValue> tsEntityData = entityData.getLatest().get(EntityKeyType.TIME_SERIES);
+                        Map<String, TsValue> values = toTsValue(result.getOrDefault(entityData.getEntityId(), Collections.emptyList()));
+                        for (String key : missingTsKeys) {
+                            tsEntityData.put(key, values.getOrDefault(key, new TsValue(ts, null)));
                         }
                     });
                     EntityDataUpdate update;
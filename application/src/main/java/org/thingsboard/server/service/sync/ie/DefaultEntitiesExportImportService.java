@@ -41,6 +41,7 @@ import org.thingsboard.server.service.sync.ie.exporting.impl.DefaultEntityExport
 import org.thingsboard.server.service.sync.ie.importing.EntityImportService;
 import org.thingsboard.server.service.sync.ie.importing.impl.MissingEntityException;
 import org.thingsboard.server.service.sync.vc.LoadEntityException;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportBatchData;
 import org.thingsboard.server.service.sync.vc.data.EntitiesExportCtx;
 import org.thingsboard.server.service.sync.vc.data.EntitiesImportCtx;
 
@@ -85,6 +86,11 @@ public class DefaultEntitiesExportImportService implements EntitiesExportImportS
         return exportService.getExportData(ctx, entityId);
     }
 
+    @Override
+    public void prefetchExportData(EntitiesExportCtx<?> ctx, EntitiesExportBatchData batchData) {
+        getExportService(batchData.getEntityType()).prefetchExportData(ctx, batchData);
+    }
+
     @Override
     public <E extends ExportableEntity<I>, I extends EntityId> EntityImportResult<E> importEntity(EntitiesImportCtx ctx, EntityExportData<E> exportData) throws ThingsboardException {
         if (!rateLimitService.checkRateLimit(LimitedApi.ENTITY_IMPORT, ctx.getTenantId())) {
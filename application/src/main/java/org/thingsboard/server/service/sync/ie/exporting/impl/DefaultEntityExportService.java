@@ -25,6 +25,7 @@ import org.thingsboard.server.common.data.ExportableEntity;
 import org.thingsboard.server.common.data.exception.ThingsboardException;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.sync.ie.AttributeExportData;
@@ -35,6 +36,7 @@ import org.thingsboard.server.dao.resource.ImageService;
 import org.thingsboard.server.queue.util.TbCoreComponent;
 import org.thingsboard.server.service.sync.ie.exporting.EntityExportService;
 import org.thingsboard.server.service.sync.ie.exporting.ExportableEntitiesService;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportBatchData;
 import org.thingsboard.server.service.sync.vc.data.EntitiesExportCtx;
 
 import java.util.ArrayList;
@@ -83,6 +85,22 @@ public class DefaultEntityExportService<I extends EntityId, E extends Exportable
         return exportData;
     }
 
+    @Override
+    public void prefetchExportData(EntitiesExportCtx<?> ctx, EntitiesExportBatchData batchData) {
+        var exportSettings = ctx.getSettings();
+        if (exportSettings.isExportRelations()) {
+            relationDao.findAllByToIds(ctx.getTenantId(), batchData.getEntityType(), batchData.getEntityIds(), RelationTypeGroup.COMMON)
+                    .forEach(relation -> batchData.addRelation(relation.getTo(), relation));
+            relationDao.findAllByFromIds(ctx.getTenantId(), batchData.getEntityType(), batchData.getEntityIds(), RelationTypeGroup.COMMON)
+                    .forEach(relation -> batchData.addRelation(relation.getFrom(), relation));
+        }
+        if (exportSettings.isExportAttributes()) {
+            for (String scope : getAttributeScopes(batchData.getEntityType())) {
+                batchData.putAttributes(scope, attributesService.findAllByEntityIds(ctx.getTenantId(), batchData.getEntityType(), batchData.getEntityIds(), scope));
+            }
+        }
+    }
+
     protected void setAdditionalExportData(EntitiesExportCtx<?> ctx, E entity, D exportData) throws ThingsboardException {
         var exportSettings = ctx.getSettings();
         if (exportSettings.isExportRelations()) {
@@ -100,6 +118,10 @@ public class DefaultEntityExportService<I extends EntityId, E extends Exportable
     }
 
     private List<EntityRelation> exportRelations(EntitiesExportCtx<?> ctx, E entity) throws ThingsboardException {
+        EntitiesExportBatchData batchData = getBatchData(ctx, entity.getId());
+        if (batchData != null) {
+            return new ArrayList<>(batchData.getRelations(entity.getId()));
+        }
         List<EntityRelation> relations = new ArrayList<>();
 
         List<EntityRelation> inboundRelations = relationDao.findAllByTo(ctx.getTenantId(), entity.getId(), RelationTypeGroup.COMMON);
@@ -111,16 +133,13 @@ public class DefaultEntityExportService<I extends EntityId, E extends Exportable
     }
 
     private Map<String, List<AttributeExportData>> exportAttributes(EntitiesExportCtx<?> ctx, E entity) throws ThingsboardException {
-        List<String> scopes;
-        if (entity.getId().getEntityType() == EntityType.DEVICE) {
-            scopes = List.of(DataConstants.SERVER_SCOPE, DataConstants.SHARED_SCOPE);
-        } else {
-            scopes = Collections.singletonList(DataConstants.SERVER_SCOPE);
-        }
+        EntitiesExportBatchData batchData = getBatchData(ctx, entity.getId());
         Map<String, List<AttributeExportData>> attributes = new LinkedHashMap<>();
-        scopes.forEach(scope -> {
+        getAttributeScopes(entity.getId().getEntityType()).forEach(scope -> {
             try {
-                attributes.put(scope, attributesService.findAll(ctx.getTenantId(), entity.getId(), scope).get().stream()
+                List<AttributeKvEntry> entries = batchData != null ? batchData.getAttributes(entity.getId(), scope) :
+                        attributesService.findAll(ctx.getTenantId(), entity.getId(), scope).get();
+                attributes.put(scope, entries.stream()
                         .map(attribute -> {
                             AttributeExportData attributeExportData = new AttributeExportData();
                             attributeExportData.setKey(attribute.getKey());
@@ -140,6 +159,22 @@ public class DefaultEntityExportService<I extends EntityId, E extends Exportable
         return attributes;
     }
 
+    private static List<String> getAttributeScopes(EntityType entityType) {
+        if (entityType == EntityType.DEVICE) {
+            return List.of(DataConstants.SERVER_SCOPE, DataConstants.SHARED_SCOPE);
+        } else {
+            return Collections.singletonList(DataConstants.SERVER_SCOPE);
+        }
+    }
+
+    /**
+     * Returns the data prefetched for the batch the entity is exported with, or null when the entity is exported on its own.
+     */
+    protected EntitiesExportBatchData getBatchData(EntitiesExportCtx<?> ctx, EntityId entityId) {
+        EntitiesExportBatchData batchData = ctx.getBatchData();
+        return batchData != null && batchData.contains(entityId) ? batchData : null;
+    }
+
     protected <ID extends EntityId> ID getExternalIdOrElseInternal(EntitiesExportCtx<?> ctx, ID internalId) {
         if (internalId == null || internalId.isNullUid()) return internalId;
         var result = ctx.getExternalId(internalId);
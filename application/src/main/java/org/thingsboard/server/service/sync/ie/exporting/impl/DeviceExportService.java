@@ -23,9 +23,12 @@ import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.sync.ie.DeviceExportData;
 import org.thingsboard.server.dao.device.DeviceCredentialsService;
 import org.thingsboard.server.queue.util.TbCoreComponent;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportBatchData;
 import org.thingsboard.server.service.sync.vc.data.EntitiesExportCtx;
 
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @TbCoreComponent
@@ -39,13 +42,25 @@ public class DeviceExportService extends BaseEntityExportService<DeviceId, Devic
         device.setCustomerId(getExternalIdOrElseInternal(ctx, device.getCustomerId()));
         device.setDeviceProfileId(getExternalIdOrElseInternal(ctx, device.getDeviceProfileId()));
         if (ctx.getSettings().isExportCredentials()) {
-            var credentials = deviceCredentialsService.findDeviceCredentialsByDeviceId(ctx.getTenantId(), device.getId());
+            EntitiesExportBatchData batchData = getBatchData(ctx, device.getId());
+            var credentials = batchData != null ? batchData.getCredentials(device.getId()) :
+                    deviceCredentialsService.findDeviceCredentialsByDeviceId(ctx.getTenantId(), device.getId());
             credentials.setId(null);
             credentials.setDeviceId(null);
             exportData.setCredentials(credentials);
         }
     }
 
+    @Override
+    public void prefetchExportData(EntitiesExportCtx<?> ctx, EntitiesExportBatchData batchData) {
+        super.prefetchExportData(ctx, batchData);
+        if (ctx.getSettings().isExportCredentials()) {
+            List<DeviceId> deviceIds = batchData.getEntityIds().stream().map(entityId -> (DeviceId) entityId).collect(Collectors.toList());
+            deviceCredentialsService.findDeviceCredentialsByDeviceIds(ctx.getTenantId(), deviceIds)
+                    .forEach(credentials -> batchData.putCredentials(credentials.getDeviceId(), credentials));
+        }
+    }
+
     @Override
     protected DeviceExportData newExportData() {
         return new DeviceExportData();
@@ -15,18 +15,22 @@
  */
 package org.thingsboard.server.service.sync.vc;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.thingsboard.common.util.DonAsynchron;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.TbStopWatch;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.cache.TbTransactionalCache;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.ExportableEntity;
@@ -76,6 +80,7 @@ import org.thingsboard.server.service.sync.ie.importing.impl.MissingEntityExcept
 import org.thingsboard.server.service.sync.vc.autocommit.TbAutoCommitSettingsService;
 import org.thingsboard.server.service.sync.vc.data.CommitGitRequest;
 import org.thingsboard.server.service.sync.vc.data.ComplexEntitiesExportCtx;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportBatchData;
 import org.thingsboard.server.service.sync.vc.data.EntitiesExportCtx;
 import org.thingsboard.server.service.sync.vc.data.EntitiesImportCtx;
 import org.thingsboard.server.service.sync.vc.data.EntityTypeExportCtx;
@@ -83,6 +88,8 @@ import org.thingsboard.server.service.sync.vc.data.ReimportTask;
 import org.thingsboard.server.service.sync.vc.data.SimpleEntitiesExportCtx;
 import org.thingsboard.server.service.sync.vc.repository.TbRepositorySettingsService;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -90,7 +97,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -103,6 +114,8 @@ import static org.thingsboard.server.common.data.sync.vc.VcUtils.checkBranchName
 @Slf4j
 public class DefaultEntitiesVersionControlService implements EntitiesVersionControlService {
 
+    private static final int EXPORT_BATCH_SIZE = 100;
+
     private final TbRepositorySettingsService repositorySettingsService;
     private final TbAutoCommitSettingsService autoCommitSettingsService;
     private final GitVersionControlQueueService gitServiceQueue;
@@ -113,6 +126,23 @@ public class DefaultEntitiesVersionControlService implements EntitiesVersionCont
     private final TbTransactionalCache<UUID, VersionControlTaskCacheEntry> taskCache;
     private final VersionControlExecutor executor;
 
+    @Value("${vc.export_pool_size:4}")
+    private int exportPoolSize;
+
+    private ListeningExecutorService exportExecutor;
+
+    @PostConstruct
+    public void init() {
+        exportExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(exportPoolSize, ThingsBoardThreadFactory.forName("vc-export")));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (exportExecutor != null) {
+            exportExecutor.shutdownNow();
+        }
+    }
+
     @SuppressWarnings("UnstableApiUsage")
     @Override
     public ListenableFuture<UUID> saveEntitiesVersion(User user, VersionCreateRequest request) throws Exception {
@@ -188,26 +218,56 @@ public class DefaultEntitiesVersionControlService implements EntitiesVersionCont
             }
 
             if (config.isAllEntities()) {
-                DaoUtil.processInBatches(pageLink -> exportableEntitiesService.findEntitiesIdsByTenantId(ctx.getTenantId(), entityType, pageLink),
-                        100, entityId -> {
-                            try {
-                                ctx.add(saveEntityData(ctx, entityId));
-                            } catch (Exception e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
+                DaoUtil.<EntityId>processBatches(pageLink -> exportableEntitiesService.findEntitiesIdsByTenantId(ctx.getTenantId(), entityType, pageLink),
+                        EXPORT_BATCH_SIZE, batch -> saveEntitiesData(ctx, entityType, batch.getData()));
             } else {
-                for (UUID entityId : config.getEntityIds()) {
-                    try {
-                        ctx.add(saveEntityData(ctx, EntityIdFactory.getByTypeAndUuid(entityType, entityId)));
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
+                for (List<UUID> batch : Lists.partition(config.getEntityIds(), EXPORT_BATCH_SIZE)) {
+                    saveEntitiesData(ctx, entityType, batch.stream()
+                            .map(entityId -> EntityIdFactory.getByTypeAndUuid(entityType, entityId))
+                            .collect(Collectors.toList()));
                 }
             }
         });
     }
 
+    // prefetches the relations, attributes and credentials of the batch with bulk queries, exports the batch in parallel
+    // and sends the results to the git queue in the original order;
+    // the next batch is exported only after the current one, so a large commit does not pile up in memory
+    private void saveEntitiesData(EntitiesExportCtx<?> ctx, EntityType entityType, List<EntityId> entityIds) {
+        EntitiesExportBatchData batchData = new EntitiesExportBatchData(entityType, entityIds);
+        exportImportService.prefetchExportData(ctx, batchData);
+        ctx.setBatchData(batchData);
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<ListenableFuture<EntityExportData<ExportableEntity<EntityId>>>> exportFutures = new ArrayList<>(entityIds.size());
+        try {
+            for (EntityId entityId : entityIds) {
+                exportFutures.add(exportExecutor.submit(() -> {
+                    if (aborted.get()) {
+                        throw new CancellationException("Export of the batch is aborted");
+                    }
+                    return exportImportService.exportEntity(ctx, entityId);
+                }));
+            }
+            List<EntityExportData<ExportableEntity<EntityId>>> entitiesData = Futures.allAsList(exportFutures).get();
+            entitiesData.forEach(entityData -> ctx.add(gitServiceQueue.addToCommit(ctx.getCommit(), entityData)));
+        } catch (InterruptedException e) {
+            abortExport(exportFutures, aborted);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            abortExport(exportFutures, aborted);
+            throw new RuntimeException(e.getCause());
+        } finally {
+            ctx.setBatchData(null);
+        }
+    }
+
+    // the flag stops the exports that are about to start, the interruption stops the ones that are running
+    private static void abortExport(List<? extends Future<?>> exportFutures, AtomicBoolean aborted) {
+        aborted.set(true);
+        exportFutures.forEach(future -> future.cancel(true));
+    }
+
     private ListenableFuture<Void> saveEntityData(EntitiesExportCtx<?> ctx, EntityId entityId) throws Exception {
         EntityExportData<ExportableEntity<EntityId>> entityData = exportImportService.exportEntity(ctx, entityId);
         return gitServiceQueue.addToCommit(ctx.getCommit(), entityData);
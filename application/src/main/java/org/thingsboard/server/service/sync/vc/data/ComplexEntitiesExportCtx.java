@@ -20,16 +20,19 @@ import org.thingsboard.server.common.data.User;
 import org.thingsboard.server.common.data.sync.ie.EntityExportSettings;
 import org.thingsboard.server.common.data.sync.vc.request.create.ComplexVersionCreateRequest;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ComplexEntitiesExportCtx extends EntitiesExportCtx<ComplexVersionCreateRequest> {
 
-    private final Map<EntityType, EntityExportSettings> settings = new HashMap<>();
+    private final Map<EntityType, EntityExportSettings> settings;
 
     public ComplexEntitiesExportCtx(User user, CommitGitRequest commit, ComplexVersionCreateRequest request) {
         super(user, commit, request);
+        Map<EntityType, EntityExportSettings> settings = new HashMap<>();
         request.getEntityTypes().forEach((type, config) -> settings.put(type, buildExportSettings(config)));
+        this.settings = Collections.unmodifiableMap(settings);
     }
 
     public EntityExportSettings getSettings(EntityType entityType) {
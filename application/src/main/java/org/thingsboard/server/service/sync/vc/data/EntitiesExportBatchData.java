@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.sync.vc.data;
+
+import lombok.Getter;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.security.DeviceCredentials;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relations, attributes and credentials of a batch of entities, fetched with bulk queries before the entities are exported.
+ * It is filled before the batch export starts and only read by the export threads afterwards.
+ */
+public class EntitiesExportBatchData {
+
+    @Getter
+    private final EntityType entityType;
+    @Getter
+    private final List<EntityId> entityIds;
+    private final Set<EntityId> entityIdsSet;
+    private final Map<EntityId, List<EntityRelation>> relations = new HashMap<>();
+    private final Map<String, Map<EntityId, List<AttributeKvEntry>>> attributes = new HashMap<>();
+    private final Map<EntityId, DeviceCredentials> credentials = new HashMap<>();
+
+    public EntitiesExportBatchData(EntityType entityType, List<EntityId> entityIds) {
+        this.entityType = entityType;
+        this.entityIds = entityIds;
+        this.entityIdsSet = new HashSet<>(entityIds);
+    }
+
+    public boolean contains(EntityId entityId) {
+        return entityIdsSet.contains(entityId);
+    }
+
+    public void addRelation(EntityId entityId, EntityRelation relation) {
+        relations.computeIfAbsent(entityId, id -> new ArrayList<>()).add(relation);
+    }
+
+    public List<EntityRelation> getRelations(EntityId entityId) {
+        return relations.getOrDefault(entityId, Collections.emptyList());
+    }
+
+    public void putAttributes(String scope, Map<EntityId, List<AttributeKvEntry>> scopeAttributes) {
+        attributes.put(scope, scopeAttributes);
+    }
+
+    public List<AttributeKvEntry> getAttributes(EntityId entityId, String scope) {
+        return attributes.getOrDefault(scope, Collections.emptyMap()).getOrDefault(entityId, Collections.emptyList());
+    }
+
+    public void putCredentials(EntityId deviceId, DeviceCredentials deviceCredentials) {
+        credentials.put(deviceId, deviceCredentials);
+    }
+
+    public DeviceCredentials getCredentials(EntityId deviceId) {
+        return credentials.get(deviceId);
+    }
+
+}
@@ -26,9 +26,10 @@ import org.thingsboard.server.common.data.sync.vc.request.create.VersionCreateCo
 import org.thingsboard.server.common.data.sync.vc.request.create.VersionCreateRequest;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Data
@@ -39,13 +40,15 @@ public abstract class EntitiesExportCtx<R extends VersionCreateRequest> {
     protected final R request;
     private final List<ListenableFuture<Void>> futures;
     private final Map<EntityId, EntityId> externalIdMap;
+    private volatile EntitiesExportBatchData batchData;
 
     public EntitiesExportCtx(User user, CommitGitRequest commit, R request) {
         this.user = user;
         this.commit = commit;
         this.request = request;
-        this.futures = new ArrayList<>();
-        this.externalIdMap = new HashMap<>();
+        // the context is shared by the export threads, which export the entities of a batch in parallel
+        this.futures = Collections.synchronizedList(new ArrayList<>());
+        this.externalIdMap = new ConcurrentHashMap<>();
     }
 
     protected <T extends R> EntitiesExportCtx(EntitiesExportCtx<T> other) {
@@ -0,0 +1,164 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.telemetry;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.thingsboard.server.common.data.alarm.AlarmApiCallResult;
+import org.thingsboard.server.common.stats.StatsCounter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent modifications of the same alarm into a single database call.
+ * While a modification of a key is in progress, subsequent requests for that key are merged into one pending batch,
+ * which is executed once the in-progress call completes. All requests of the batch share its result,
+ * except that only the request that started the batch may observe the alarm as created.
+ * No thread waits for a pending batch: the merged requests get the future of the batch result
+ * and the batch itself is executed by the callback executor once the in-progress call completes.
+ */
+class AlarmUpdateCoalescer<K, R> {
+
+    private final ConcurrentMap<K, Batch<R>> batches = new ConcurrentHashMap<>();
+    private final Function<R, AlarmApiCallResult> executor;
+    private final BinaryOperator<R> merger;
+    private final Executor callbackExecutor;
+    private final long lingerMs;
+    private final StatsCounter requestsCounter;
+    private final StatsCounter coalescedCounter;
+
+    /**
+     * @param merger merges the pending request with the next one, the result is executed instead of both
+     * @param callbackExecutor executes the pending batch once the in-progress call of its key completes
+     * @param lingerMs time the first request of a batch waits for other requests to join
+     */
+    AlarmUpdateCoalescer(Function<R, AlarmApiCallResult> executor, BinaryOperator<R> merger, Executor callbackExecutor, long lingerMs,
+                         StatsCounter requestsCounter, StatsCounter coalescedCounter) {
+        this.executor = executor;
+        this.merger = merger;
+        this.callbackExecutor = callbackExecutor;
+        this.lingerMs = lingerMs;
+        this.requestsCounter = requestsCounter;
+        this.coalescedCounter = coalescedCounter;
+    }
+
+    /**
+     * Executes the request by the calling thread when there is no in-progress call for the key,
+     * otherwise returns the future of the pending batch the request is merged into.
+     */
+    ListenableFuture<AlarmApiCallResult> process(K key, R request) {
+        requestsCounter.increment();
+        while (true) {
+            Batch<R> current = batches.get(key);
+            if (current != null && current.merge(request, merger)) {
+                coalescedCounter.increment();
+                return Futures.transform(current.result, AlarmUpdateCoalescer::toMergedRequestResult, MoreExecutors.directExecutor());
+            }
+            Batch<R> batch = new Batch<>(request);
+            if (current == null ? batches.putIfAbsent(key, batch) == null : batches.replace(key, current, batch)) {
+                if (current == null || current.result.isDone()) {
+                    execute(key, batch, lingerMs);
+                } else {
+                    // the requests join the batch while the previous call is in progress, so there is no need to linger
+                    current.result.addListener(() -> execute(key, batch, 0), callbackExecutor);
+                }
+                return batch.result;
+            }
+        }
+    }
+
+    private void execute(K key, Batch<R> batch, long lingerMs) {
+        try {
+            if (lingerMs > 0) {
+                Thread.sleep(lingerMs);
+            }
+            batch.result.set(executor.apply(batch.start()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.result.setException(new RuntimeException("Interrupted while waiting for the alarm update", e));
+        } catch (Throwable e) {
+            batch.result.setException(e);
+        } finally {
+            batches.remove(key, batch);
+        }
+    }
+
+    /**
+     * Waits for the result of a request submitted by a synchronous caller and rethrows the failure of the call as is.
+     */
+    static AlarmApiCallResult await(ListenableFuture<AlarmApiCallResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the alarm update", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static AlarmApiCallResult toMergedRequestResult(AlarmApiCallResult result) {
+        if (!result.isCreated()) {
+            return result;
+        }
+        // without coalescing the request would have updated the alarm created by the first request of the batch
+        return AlarmApiCallResult.builder()
+                .successful(result.isSuccessful())
+                .modified(true)
+                .alarm(result.getAlarm())
+                .propagatedEntitiesList(result.getPropagatedEntitiesList())
+                .build();
+    }
+
+    private static class Batch<R> {
+
+        private final SettableFuture<AlarmApiCallResult> result = SettableFuture.create();
+        private R request;
+        private boolean started;
+
+        private Batch(R request) {
+            this.request = request;
+        }
+
+        synchronized boolean merge(R next, BinaryOperator<R> merger) {
+            if (started) {
+                return false;
+            }
+            request = merger.apply(request, next);
+            return true;
+        }
+
+        synchronized R start() {
+            started = true;
+            return request;
+        }
+
+    }
+
+}
@@ -19,9 +19,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.ApiUsageRecordKey;
@@ -52,12 +55,16 @@ import org.thingsboard.server.common.data.query.AlarmData;
 import org.thingsboard.server.common.data.query.AlarmDataQuery;
 import org.thingsboard.server.common.msg.notification.NotificationRuleProcessor;
 import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.common.stats.TbApiUsageReportClient;
 import org.thingsboard.server.dao.alarm.AlarmService;
 import org.thingsboard.server.service.apiusage.TbApiUsageStateService;
 import org.thingsboard.server.service.entitiy.alarm.TbAlarmCommentService;
+import org.thingsboard.server.service.executors.DbCallbackExecutorService;
 import org.thingsboard.server.service.subscription.TbSubscriptionUtils;
 
+import javax.annotation.PostConstruct;
 import java.util.Collection;
 
 /**
@@ -68,11 +75,41 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class DefaultAlarmSubscriptionService extends AbstractSubscriptionService implements AlarmSubscriptionService {
 
+    private static final String ALARM_COALESCING_STATS_KEY = "alarmCoalescing";
+
     private final AlarmService alarmService;
     private final TbAlarmCommentService alarmCommentService;
     private final TbApiUsageReportClient apiUsageClient;
     private final TbApiUsageStateService apiUsageStateService;
     private final NotificationRuleProcessor notificationRuleProcessor;
+    private final StatsFactory statsFactory;
+    private final DbCallbackExecutorService dbCallbackExecutor;
+
+    @Value("${actors.rule.alarm_coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+    @Value("${actors.rule.alarm_coalescing.linger_ms:0}")
+    private long coalescingLingerMs;
+    @Value("${actors.statistics.enabled:true}")
+    private boolean statisticsEnabled;
+
+    private StatsCounter coalescingRequestsCounter;
+    private StatsCounter coalescedCounter;
+    private AlarmUpdateCoalescer<AlarmKey, AlarmCreateOrUpdateActiveRequest> createCoalescer;
+    private AlarmUpdateCoalescer<AlarmId, AlarmUpdateRequest> updateCoalescer;
+
+    @PostConstruct
+    public void initCoalescers() {
+        coalescingRequestsCounter = statsFactory.createStatsCounter(ALARM_COALESCING_STATS_KEY, "requests");
+        coalescedCounter = statsFactory.createStatsCounter(ALARM_COALESCING_STATS_KEY, "coalesced");
+        createCoalescer = new AlarmUpdateCoalescer<>(this::doCreateAlarm, (pending, next) -> {
+            if (pending.getStartTs() > 0 && (next.getStartTs() == 0 || pending.getStartTs() < next.getStartTs())) {
+                next.setStartTs(pending.getStartTs());
+            }
+            return next;
+        }, dbCallbackExecutor, coalescingLingerMs, coalescingRequestsCounter, coalescedCounter);
+        updateCoalescer = new AlarmUpdateCoalescer<>(this::doUpdateAlarm, (pending, next) -> next,
+                dbCallbackExecutor, coalescingLingerMs, coalescingRequestsCounter, coalescedCounter);
+    }
 
     @Override
     protected String getExecutorPrefix() {
@@ -81,6 +118,26 @@ public class DefaultAlarmSubscriptionService extends AbstractSubscriptionService
 
     @Override
     public AlarmApiCallResult createAlarm(AlarmCreateOrUpdateActiveRequest request) {
+        if (isCoalesced(request)) {
+            return AlarmUpdateCoalescer.await(createAlarmAsync(request));
+        }
+        return doCreateAlarm(request);
+    }
+
+    @Override
+    public ListenableFuture<AlarmApiCallResult> createAlarmAsync(AlarmCreateOrUpdateActiveRequest request) {
+        if (isCoalesced(request)) {
+            return createCoalescer.process(new AlarmKey(request.getTenantId(), request.getOriginator(), request.getType()), request);
+        }
+        return Futures.immediateFuture(doCreateAlarm(request));
+    }
+
+    private boolean isCoalesced(AlarmCreateOrUpdateActiveRequest request) {
+        // only the requests of the rule engine are coalesced, user and edge requests are executed as is
+        return coalescingEnabled && request.getUserId() == null && request.getEdgeAlarmId() == null;
+    }
+
+    private AlarmApiCallResult doCreateAlarm(AlarmCreateOrUpdateActiveRequest request) {
         boolean creationEnabled = apiUsageStateService.getApiUsageState(request.getTenantId()).isAlarmCreationEnabled();
         var result = alarmService.createAlarm(request, creationEnabled);
         if (result.isCreated()) {
@@ -91,9 +148,40 @@ public class DefaultAlarmSubscriptionService extends AbstractSubscriptionService
 
     @Override
     public AlarmApiCallResult updateAlarm(AlarmUpdateRequest request) {
+        if (isCoalesced(request)) {
+            return AlarmUpdateCoalescer.await(updateAlarmAsync(request));
+        }
+        return doUpdateAlarm(request);
+    }
+
+    @Override
+    public ListenableFuture<AlarmApiCallResult> updateAlarmAsync(AlarmUpdateRequest request) {
+        if (isCoalesced(request)) {
+            return updateCoalescer.process(request.getAlarmId(), request);
+        }
+        return Futures.immediateFuture(doUpdateAlarm(request));
+    }
+
+    private boolean isCoalesced(AlarmUpdateRequest request) {
+        return coalescingEnabled && request.getUserId() == null && request.getAlarmId() != null;
+    }
+
+    private AlarmApiCallResult doUpdateAlarm(AlarmUpdateRequest request) {
         return withWsCallback(alarmService.updateAlarm(request));
     }
 
+    @Scheduled(fixedDelayString = "${actors.rule.alarm_coalescing.stats_print_interval_ms:60000}")
+    public void printCoalescingStats() {
+        if (statisticsEnabled && coalescingEnabled) {
+            int requests = coalescingRequestsCounter.get();
+            if (requests > 0) {
+                log.info("Alarm coalescing stats: requests [{}] coalesced [{}]", requests, coalescedCounter.get());
+                coalescingRequestsCounter.clear();
+                coalescedCounter.clear();
+            }
+        }
+    }
+
     @Override
     public AlarmApiCallResult acknowledgeAlarm(TenantId tenantId, AlarmId alarmId, long ackTs) {
         return withWsCallback(alarmService.acknowledgeAlarm(tenantId, alarmId, ackTs));
@@ -255,4 +343,11 @@ public class DefaultAlarmSubscriptionService extends AbstractSubscriptionService
         return result;
     }
 
+    @Data
+    private static class AlarmKey {
+        private final TenantId tenantId;
+        private final EntityId originator;
+        private final String type;
+    }
+
 }
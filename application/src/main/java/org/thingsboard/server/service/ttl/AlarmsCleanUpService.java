@@ -20,13 +20,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.thingsboard.server.common.data.alarm.Alarm;
+import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.audit.ActionType;
-import org.thingsboard.server.common.data.id.AlarmId;
 import org.thingsboard.server.common.data.id.TenantId;
-import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.PageDataIterable;
-import org.thingsboard.server.common.data.page.PageLink;
 import org.thingsboard.server.common.data.tenant.profile.DefaultTenantProfileConfiguration;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.dao.alarm.AlarmDao;
@@ -40,8 +37,10 @@ import org.thingsboard.server.service.action.EntityActionService;
 
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @TbCoreComponent
@@ -52,6 +51,10 @@ public class AlarmsCleanUpService {
 
     @Value("${sql.ttl.alarms.removal_batch_size}")
     private Integer removalBatchSize;
+    @Value("${sql.ttl.alarms.ttl:0}")
+    private long ttlInSec;
+    @Value("${sql.alarms.partitioning_enabled:false}")
+    private boolean partitioningEnabled;
 
     private final TenantService tenantService;
     private final AlarmDao alarmDao;
@@ -63,43 +66,69 @@ public class AlarmsCleanUpService {
 
     @Scheduled(initialDelayString = "#{T(org.apache.commons.lang3.RandomUtils).nextLong(0, ${sql.ttl.alarms.checking_interval})}", fixedDelayString = "${sql.ttl.alarms.checking_interval}")
     public void cleanUp() {
+        boolean cleanUpPartitions = partitioningEnabled && ttlInSec > 0;
+        boolean dropPartitions = cleanUpPartitions && partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, TenantId.SYS_TENANT_ID).isMyPartition();
+        long partitionsTtl = TimeUnit.SECONDS.toMillis(ttlInSec);
+        // partitions hold the alarms of all tenants, so they are dropped only when no tenant keeps its alarms longer
+        Set<UUID> retainedTenantIds = new HashSet<>();
         PageDataIterable<TenantId> tenants = new PageDataIterable<>(tenantService::findTenantsIds, 10_000);
         for (TenantId tenantId : tenants) {
             try {
-                cleanUp(tenantId);
+                boolean myPartition = partitionService.resolve(ServiceType.TB_CORE, tenantId, tenantId).isMyPartition();
+                if (!myPartition && !dropPartitions) {
+                    continue;
+                }
+                long ttl = getAlarmsTtl(tenantId);
+                if (dropPartitions && (ttl == 0 || ttl > partitionsTtl)) {
+                    retainedTenantIds.add(tenantId.getId());
+                }
+                if (myPartition && ttl > 0) {
+                    cleanUp(tenantId, ttl);
+                }
             } catch (Exception e) {
+                retainedTenantIds.add(tenantId.getId());
                 log.warn("Failed to clean up alarms by ttl for tenant {}", tenantId, e);
             }
         }
+        if (cleanUpPartitions) {
+            cleanUpPartitions(dropPartitions, retainedTenantIds);
+        }
     }
 
-    private void cleanUp(TenantId tenantId) {
-        if (!partitionService.resolve(ServiceType.TB_CORE, tenantId, tenantId).isMyPartition()) {
-            return;
+    private void cleanUpPartitions(boolean dropPartitions, Set<UUID> retainedTenantIds) {
+        long expirationTime = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlInSec);
+        try {
+            if (dropPartitions) {
+                int dropped = alarmDao.cleanUpAlarmPartitions(expirationTime, retainedTenantIds);
+                if (dropped > 0) {
+                    log.info("Dropped {} alarm partition(s) older than {}", dropped, new Date(expirationTime));
+                }
+            } else {
+                alarmDao.cleanUpAlarmPartitionsCache(expirationTime);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drop outdated alarm partitions", e);
         }
+    }
 
+    private long getAlarmsTtl(TenantId tenantId) {
         Optional<DefaultTenantProfileConfiguration> tenantProfileConfiguration = tenantProfileCache.get(tenantId).getProfileConfiguration();
-        if (tenantProfileConfiguration.isEmpty() || tenantProfileConfiguration.get().getAlarmsTtlDays() == 0) {
-            return;
-        }
+        return tenantProfileConfiguration.map(configuration -> TimeUnit.DAYS.toMillis(configuration.getAlarmsTtlDays())).orElse(0L);
+    }
 
-        long ttl = TimeUnit.DAYS.toMillis(tenantProfileConfiguration.get().getAlarmsTtlDays());
+    private void cleanUp(TenantId tenantId, long ttl) {
         long expirationTime = System.currentTimeMillis() - ttl;
 
-        PageLink removalBatchRequest = new PageLink(removalBatchSize, 0);
         long totalRemoved = 0;
         Set<String> typesToRemove = new HashSet<>();
         while (true) {
-            PageData<AlarmId> toRemove = alarmDao.findAlarmsIdsByEndTsBeforeAndTenantId(expirationTime, tenantId, removalBatchRequest);
-            for (AlarmId alarmId : toRemove.getData()) {
-                Alarm alarm = alarmService.delAlarm(tenantId, alarmId, false).getAlarm();
-                if (alarm != null) {
-                    entityActionService.pushEntityActionToRuleEngine(alarm.getOriginator(), alarm, tenantId, null, ActionType.ALARM_DELETE, null);
-                    totalRemoved++;
-                    typesToRemove.add(alarm.getType());
-                }
+            List<AlarmInfo> removed = alarmService.delOutdatedAlarms(tenantId, expirationTime, removalBatchSize);
+            for (AlarmInfo alarm : removed) {
+                entityActionService.pushEntityActionToRuleEngine(alarm.getOriginator(), alarm, tenantId, null, ActionType.ALARM_DELETE, null);
+                typesToRemove.add(alarm.getType());
             }
-            if (!toRemove.hasNext()) {
+            totalRemoved += removed.size();
+            if (removed.size() < removalBatchSize) {
                 break;
             }
         }
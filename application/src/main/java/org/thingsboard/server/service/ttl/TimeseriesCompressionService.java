@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.ttl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.util.TbCoreComponent;
+
+@TbCoreComponent
+@Slf4j
+@Service
+public class TimeseriesCompressionService extends AbstractCleanUpService {
+
+    @Value("${sql.timescale.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${sql.timescale.compression.compress_after_ms:604800000}")
+    private long compressAfterMs;
+
+    private final TimeseriesService timeseriesService;
+
+    public TimeseriesCompressionService(PartitionService partitionService, TimeseriesService timeseriesService) {
+        super(partitionService);
+        this.timeseriesService = timeseriesService;
+    }
+
+    @Scheduled(initialDelayString = "${sql.timescale.compression.execution_interval_ms:3600000}", fixedDelayString = "${sql.timescale.compression.execution_interval_ms:3600000}")
+    public void compress() {
+        if (compressionEnabled && isSystemTenantPartitionMine()) {
+            try {
+                timeseriesService.compress(compressAfterMs);
+            } catch (Exception e) {
+                log.error("Failed to compress timeseries data", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.dao.eventsourcing.DeleteEntityEvent;
+import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultHouseKeeperServiceTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TopicPartitionInfo tpi = new TopicPartitionInfo("tb_core", tenantId, 3, true);
+
+    private TbQueueProducer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> producer;
+    private DefaultHouseKeeperService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        producer = mock(TbQueueProducer.class);
+        when(producer.getDefaultTopic()).thenReturn("tb_housekeeper");
+        TbQueueProducerProvider producerProvider = mock(TbQueueProducerProvider.class);
+        when(producerProvider.getHousekeeperMsgProducer()).thenReturn(producer);
+        PartitionService partitionService = mock(PartitionService.class);
+        when(partitionService.resolve(ServiceType.TB_CORE, tenantId, tenantId)).thenReturn(tpi);
+
+        service = new DefaultHouseKeeperService(producerProvider, partitionService);
+        ReflectionTestUtils.setField(service, "disabledTaskTypes", EnumSet.of(HousekeeperTaskType.DELETE_EVENTS));
+    }
+
+    @Test
+    public void givenDeletedDevice_whenHandleEvent_thenEnabledTasksSubmittedToTenantPartition() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+
+        service.handleEvent(DeleteEntityEvent.builder().tenantId(tenantId).entityId(deviceId).ts(42L).build());
+
+        List<HousekeeperTask> tasks = captureSubmittedTasks(3);
+        assertThat(tasks).extracting(HousekeeperTask::getTaskType).containsExactly(
+                HousekeeperTaskType.DELETE_ATTRIBUTES, HousekeeperTaskType.DELETE_TELEMETRY, HousekeeperTaskType.DELETE_ALARMS);
+        assertThat(tasks).allSatisfy(task -> {
+            assertThat(task.getTenantId()).isEqualTo(tenantId);
+            assertThat(task.getEntityId()).isEqualTo(deviceId);
+            assertThat(task.getTs()).isEqualTo(42L);
+        });
+    }
+
+    @Test
+    public void givenDeletedUser_whenHandleEvent_thenUnassignTaskKeepsUserTitle() {
+        User user = new User(new UserId(UUID.randomUUID()));
+        user.setTenantId(tenantId);
+        user.setEmail("deleted@thingsboard.org");
+
+        service.handleEvent(DeleteEntityEvent.builder().tenantId(tenantId).entityId(user.getId()).entity(user).build());
+
+        List<HousekeeperTask> tasks = captureSubmittedTasks(4);
+        HousekeeperTask unassignTask = tasks.get(3);
+        assertThat(unassignTask.getTaskType()).isEqualTo(HousekeeperTaskType.UNASSIGN_ALARMS);
+        assertThat(unassignTask.getEntityId()).isEqualTo(user.getId());
+        assertThat(unassignTask.getUserTitle()).isEqualTo("deleted@thingsboard.org");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HousekeeperTask> captureSubmittedTasks(int expectedCount) {
+        ArgumentCaptor<TopicPartitionInfo> tpiCaptor = ArgumentCaptor.forClass(TopicPartitionInfo.class);
+        ArgumentCaptor<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgCaptor = ArgumentCaptor.forClass(TbProtoQueueMsg.class);
+        verify(producer, times(expectedCount)).send(tpiCaptor.capture(), msgCaptor.capture(), any());
+        assertThat(tpiCaptor.getAllValues()).allSatisfy(actual -> {
+            assertThat(actual.getTopic()).isEqualTo("tb_housekeeper");
+            assertThat(actual.getPartition()).contains(3);
+        });
+        return msgCaptor.getAllValues().stream()
+                .map(msg -> JacksonUtil.fromString(msg.getValue().getTask().getValue(), HousekeeperTask.class))
+                .collect(Collectors.toList());
+    }
+
+}
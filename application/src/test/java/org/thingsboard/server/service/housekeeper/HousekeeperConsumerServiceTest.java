@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.gen.transport.TransportProtos.HousekeeperTaskProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.thingsboard.server.queue.TbQueueConsumer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.provider.TbCoreQueueFactory;
+import org.thingsboard.server.service.housekeeper.processor.HousekeeperTaskProcessor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HousekeeperConsumerServiceTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DefaultHouseKeeperService houseKeeperService;
+    private HousekeeperConsumerService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        HousekeeperTaskProcessor processor = new HousekeeperTaskProcessor() {
+            @Override
+            public HousekeeperTaskType getTaskType() {
+                return HousekeeperTaskType.DELETE_TELEMETRY;
+            }
+
+            @Override
+            public void process(HousekeeperTask task) throws Exception {
+                release.await();
+            }
+        };
+        StatsFactory statsFactory = mock(StatsFactory.class);
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(mock(StatsCounter.class));
+        houseKeeperService = mock(DefaultHouseKeeperService.class);
+
+        TbCoreQueueFactory queueFactory = mock(TbCoreQueueFactory.class);
+        when(queueFactory.createToHousekeeperServiceMsgConsumer()).thenReturn(mock(TbQueueConsumer.class));
+
+        service = new HousekeeperConsumerService(List.of(processor), queueFactory, houseKeeperService, statsFactory);
+        ReflectionTestUtils.setField(service, "pollInterval", 500);
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "taskProcessingTimeout", 200L);
+        ReflectionTestUtils.setField(service, "maxReprocessingAttempts", 10);
+        ReflectionTestUtils.setField(service, "taskReprocessingDelay", 5000L);
+        ReflectionTestUtils.setField(service, "maxPollInterval", 300000L);
+        service.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        service.destroy();
+    }
+
+    @Test
+    public void givenLargePack_whenGetPackProcessingTimeout_thenBoundedByMaxPollInterval() {
+        ReflectionTestUtils.setField(service, "poolSize", 4);
+        ReflectionTestUtils.setField(service, "taskProcessingTimeout", 120000L);
+
+        assertThat(service.getPackProcessingTimeout(4)).isEqualTo(120000L);
+        // 3 rounds of 120 seconds would exceed the max poll interval of 300 seconds
+        assertThat(service.getPackProcessingTimeout(10)).isEqualTo(300000L * 4 / 5 - 5000L);
+
+        ReflectionTestUtils.setField(service, "maxPollInterval", 1000L);
+        assertThat(service.getPackProcessingTimeout(1)).isEqualTo(500L);
+    }
+
+    @Test
+    public void givenPackTimeout_whenProcessPack_thenStartedTaskRetriedAndQueuedTaskPostponed() {
+        HousekeeperTask first = HousekeeperTask.of(tenantId, new DeviceId(UUID.randomUUID()), HousekeeperTaskType.DELETE_TELEMETRY, 0);
+        HousekeeperTask second = HousekeeperTask.of(tenantId, new DeviceId(UUID.randomUUID()), HousekeeperTaskType.DELETE_TELEMETRY, 0);
+
+        ReflectionTestUtils.invokeMethod(service, "processPack", List.of(toMsg(first, 2), toMsg(second, 2)));
+
+        verify(houseKeeperService).submitTask(argThat(task -> task.getEntityId().equals(first.getEntityId())), eq(3));
+        verify(houseKeeperService).submitTask(argThat(task -> task.getEntityId().equals(second.getEntityId())), eq(2));
+        verify(houseKeeperService, never()).submitTask(any(HousekeeperTask.class));
+    }
+
+    private TbProtoQueueMsg<ToHousekeeperServiceMsg> toMsg(HousekeeperTask task, int attempt) {
+        return new TbProtoQueueMsg<>(task.getEntityId().getId(), ToHousekeeperServiceMsg.newBuilder()
+                .setTask(HousekeeperTaskProto.newBuilder()
+                        .setValue(JacksonUtil.toString(task))
+                        .setAttempt(attempt)
+                        .setTs(System.currentTimeMillis())
+                        .build())
+                .build());
+    }
+
+}
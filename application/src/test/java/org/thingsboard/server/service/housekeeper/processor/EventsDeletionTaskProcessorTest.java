@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper.processor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.dao.event.EventService;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventsDeletionTaskProcessorTest {
+
+    private static final long CHUNK_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+
+    private EventService eventService;
+    private EventsDeletionTaskProcessor processor;
+
+    @BeforeEach
+    public void setUp() {
+        eventService = mock(EventService.class);
+        processor = new EventsDeletionTaskProcessor(eventService);
+        ReflectionTestUtils.setField(processor, "chunkMs", CHUNK_MS);
+    }
+
+    @Test
+    public void givenNoEvents_whenProcess_thenNothingDeleted() throws Exception {
+        when(eventService.findOldestEventTs(tenantId, deviceId)).thenReturn(null);
+
+        processor.process(HousekeeperTask.of(tenantId, deviceId, HousekeeperTaskType.DELETE_EVENTS, 42L));
+
+        verify(eventService, never()).removeEvents(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void givenEventsOfSeveralDays_whenProcess_thenDeletedInBoundedRangesUpToOpenEndedLastOne() throws Exception {
+        long oldestTs = System.currentTimeMillis() - CHUNK_MS * 2 - TimeUnit.HOURS.toMillis(1);
+        when(eventService.findOldestEventTs(tenantId, deviceId)).thenReturn(oldestTs);
+
+        processor.process(HousekeeperTask.of(tenantId, deviceId, HousekeeperTaskType.DELETE_EVENTS, 42L));
+
+        verify(eventService).removeEvents(tenantId, deviceId, null, oldestTs, oldestTs + CHUNK_MS - 1);
+        verify(eventService).removeEvents(tenantId, deviceId, null, oldestTs + CHUNK_MS, oldestTs + 2 * CHUNK_MS - 1);
+        verify(eventService).removeEvents(eq(tenantId), eq(deviceId), isNull(), eq(oldestTs + 2 * CHUNK_MS), isNull());
+        verify(eventService, times(3)).removeEvents(eq(tenantId), eq(deviceId), isNull(), anyLong(), any());
+    }
+
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.cluster.TbClusterService;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.id.NotificationId;
+import org.thingsboard.server.common.data.id.NotificationRequestId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.notification.Notification;
+import org.thingsboard.server.common.data.notification.NotificationDeliveryMethod;
+import org.thingsboard.server.common.data.notification.NotificationRequest;
+import org.thingsboard.server.common.data.notification.NotificationRequestStats;
+import org.thingsboard.server.common.data.notification.NotificationRequestStatus;
+import org.thingsboard.server.common.data.notification.NotificationType;
+import org.thingsboard.server.common.data.notification.settings.UserNotificationSettings;
+import org.thingsboard.server.common.data.notification.targets.platform.AllUsersFilter;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplate;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplateConfig;
+import org.thingsboard.server.common.data.notification.template.WebDeliveryMethodNotificationTemplate;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.dao.notification.NotificationRequestService;
+import org.thingsboard.server.dao.notification.NotificationService;
+import org.thingsboard.server.dao.notification.NotificationSettingsService;
+import org.thingsboard.server.dao.notification.NotificationTargetService;
+import org.thingsboard.server.dao.notification.NotificationTemplateService;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.discovery.TopicService;
+import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
+import org.thingsboard.server.service.executors.NotificationExecutorService;
+import org.thingsboard.server.service.subscription.SubscriptionManagerService;
+import org.thingsboard.server.service.telemetry.AbstractSubscriptionService;
+import org.thingsboard.server.service.ws.notification.sub.NotificationUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultNotificationCenterTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TopicPartitionInfo localTpi = TopicPartitionInfo.builder().topic("tb_core").partition(0).myPartition(true).build();
+    private final TopicPartitionInfo remoteTpi = TopicPartitionInfo.builder().topic("tb_core").partition(1).myPartition(false).build();
+
+    private NotificationTargetService notificationTargetService;
+    private NotificationRequestService notificationRequestService;
+    private NotificationService notificationService;
+    private NotificationSettingsService notificationSettingsService;
+    private TbClusterService clusterService;
+    private PartitionService partitionService;
+    private SubscriptionManagerService subscriptionManagerService;
+
+    private DefaultNotificationCenter notificationCenter;
+
+    @BeforeEach
+    public void setUp() {
+        notificationTargetService = mock(NotificationTargetService.class);
+        notificationRequestService = mock(NotificationRequestService.class);
+        notificationService = mock(NotificationService.class);
+        notificationSettingsService = mock(NotificationSettingsService.class);
+        clusterService = mock(TbClusterService.class);
+        partitionService = mock(PartitionService.class);
+        subscriptionManagerService = mock(SubscriptionManagerService.class);
+        NotificationExecutorService notificationExecutor = mock(NotificationExecutorService.class);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(notificationExecutor).submit(any(Runnable.class));
+
+        notificationCenter = new DefaultNotificationCenter(notificationTargetService, notificationRequestService, notificationService,
+                mock(NotificationTemplateService.class), notificationSettingsService, notificationExecutor,
+                mock(TopicService.class), mock(TbQueueProducerProvider.class), null);
+        ReflectionTestUtils.setField(notificationCenter, AbstractSubscriptionService.class, "clusterService", clusterService, TbClusterService.class);
+        ReflectionTestUtils.setField(notificationCenter, AbstractSubscriptionService.class, "partitionService", partitionService, PartitionService.class);
+        ReflectionTestUtils.setField(notificationCenter, AbstractSubscriptionService.class, "subscriptionManagerService", Optional.of(subscriptionManagerService), Optional.class);
+        ReflectionTestUtils.setField(notificationCenter, "deliveryBatchSize", 2);
+        ReflectionTestUtils.setField(notificationCenter, "deliveryDefaultThreads", 1);
+        ReflectionTestUtils.setField(notificationCenter, "deliveryThreadsConfig", "");
+        ReflectionTestUtils.invokeMethod(notificationCenter, "initDeliveryExecutors");
+        getCurrentPartitions().add(localTpi);
+
+        when(notificationRequestService.saveNotificationRequest(eq(tenantId), any())).thenAnswer(inv -> {
+            NotificationRequest request = inv.getArgument(1);
+            request.setId(new NotificationRequestId(UUID.randomUUID()));
+            return request;
+        });
+        when(notificationSettingsService.getUserNotificationSettings(eq(tenantId), any(), anyBoolean())).thenReturn(UserNotificationSettings.DEFAULT);
+        when(notificationService.saveNotifications(eq(tenantId), any())).thenAnswer(inv -> {
+            List<Notification> notifications = inv.getArgument(1);
+            notifications.forEach(notification -> notification.setId(new NotificationId(UUID.randomUUID())));
+            return notifications;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(notificationCenter, "destroyDeliveryExecutors");
+    }
+
+    @Test
+    public void givenRecipientsMoreThanBatchSize_whenSendNotification_thenWebNotificationsAreSavedInBatches() {
+        List<User> users = createUsers(5);
+        users.forEach(user -> when(partitionService.resolve(ServiceType.TB_CORE, tenantId, user.getId())).thenReturn(localTpi));
+
+        sendGeneralWebNotification(users);
+
+        ArgumentCaptor<List<Notification>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(3)).saveNotifications(eq(tenantId), batches.capture());
+        assertThat(batches.getAllValues().stream().map(List::size).collect(Collectors.toList())).containsExactly(2, 2, 1);
+        assertThat(batches.getAllValues().stream().flatMap(List::stream).map(Notification::getRecipientId).collect(Collectors.toList()))
+                .containsExactlyElementsOf(users.stream().map(User::getId).collect(Collectors.toList()));
+        verify(notificationService, never()).saveNotification(any(), any());
+
+        // progress is saved after every full batch, the final stats once the request is processed
+        verify(notificationRequestService, times(2)).updateNotificationRequest(eq(tenantId), any(), eq(NotificationRequestStatus.PROCESSING), any());
+        ArgumentCaptor<NotificationRequestStats> stats = ArgumentCaptor.forClass(NotificationRequestStats.class);
+        verify(notificationRequestService).updateNotificationRequest(eq(tenantId), any(), eq(NotificationRequestStatus.SENT), stats.capture());
+        assertThat(stats.getValue().getSent().get(NotificationDeliveryMethod.WEB).get()).isEqualTo(5);
+        assertThat(stats.getValue().getErrors()).isEmpty();
+    }
+
+    @Test
+    public void givenRecipientsOnLocalAndRemotePartitions_whenSendNotification_thenUpdatesAreGroupedByPartition() {
+        List<User> users = createUsers(4);
+        List<User> localUsers = users.subList(0, 2);
+        List<User> remoteUsers = users.subList(2, 4);
+        localUsers.forEach(user -> when(partitionService.resolve(ServiceType.TB_CORE, tenantId, user.getId())).thenReturn(localTpi));
+        remoteUsers.forEach(user -> when(partitionService.resolve(ServiceType.TB_CORE, tenantId, user.getId())).thenReturn(remoteTpi));
+
+        sendGeneralWebNotification(users);
+
+        for (User user : localUsers) {
+            ArgumentCaptor<NotificationUpdate> update = ArgumentCaptor.forClass(NotificationUpdate.class);
+            verify(subscriptionManagerService).onNotificationUpdate(eq(tenantId), eq(user.getId()), update.capture(), eq(TbCallback.EMPTY));
+            assertThat(update.getValue().isCreated()).isTrue();
+            assertThat(update.getValue().getNotification().getRecipientId()).isEqualTo(user.getId());
+            verify(clusterService, never()).pushMsgToCore(any(TopicPartitionInfo.class), eq(user.getUuidId()), any(), any());
+        }
+        for (User user : remoteUsers) {
+            ArgumentCaptor<TransportProtos.ToCoreMsg> msg = ArgumentCaptor.forClass(TransportProtos.ToCoreMsg.class);
+            verify(clusterService).pushMsgToCore(eq(remoteTpi), eq(user.getUuidId()), msg.capture(), isNull());
+            // the single update field is kept, so the message can be handled by the nodes of the previous version
+            TransportProtos.NotificationUpdateProto updateProto = msg.getValue().getToSubscriptionMgrMsg().getNotificationUpdate();
+            assertThat(new UUID(updateProto.getRecipientIdMSB(), updateProto.getRecipientIdLSB())).isEqualTo(user.getUuidId());
+            verify(subscriptionManagerService, never()).onNotificationUpdate(any(), eq(user.getId()), any(), any());
+        }
+        verify(partitionService, times(4)).resolve(eq(ServiceType.TB_CORE), eq(tenantId), any(UserId.class));
+    }
+
+    private void sendGeneralWebNotification(List<User> users) {
+        when(notificationTargetService.findRecipientsForNotificationTargetConfig(eq(tenantId), any(), any()))
+                .thenReturn(new PageData<>(users, 1, users.size(), false));
+
+        WebDeliveryMethodNotificationTemplate webTemplate = new WebDeliveryMethodNotificationTemplate();
+        webTemplate.setEnabled(true);
+        webTemplate.setSubject("Subject");
+        webTemplate.setBody("Hello ${recipientFirstName}");
+        NotificationTemplateConfig templateConfig = new NotificationTemplateConfig();
+        templateConfig.setDeliveryMethodsTemplates(Map.of(NotificationDeliveryMethod.WEB, webTemplate));
+        NotificationTemplate template = new NotificationTemplate();
+        template.setName("General");
+        template.setNotificationType(NotificationType.GENERAL);
+        template.setConfiguration(templateConfig);
+
+        notificationCenter.sendGeneralWebNotification(tenantId, new AllUsersFilter(), template);
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User(new UserId(UUID.randomUUID()));
+            user.setTenantId(tenantId);
+            user.setEmail("user" + i + "@thingsboard.org");
+            user.setFirstName("User " + i);
+            users.add(user);
+        }
+        return users;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<TopicPartitionInfo> getCurrentPartitions() {
+        return (Set<TopicPartitionInfo>) ReflectionTestUtils.getField(notificationCenter, "currentPartitions");
+    }
+
+}
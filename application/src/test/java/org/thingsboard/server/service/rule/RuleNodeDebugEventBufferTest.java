@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.rule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.EventInfo;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEvent;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RuleNodeDebugEventBufferTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final RuleNodeId ruleNodeId = new RuleNodeId(UUID.randomUUID());
+
+    private RuleNodeDebugEventBuffer buffer;
+    private TbServiceInfoProvider serviceInfoProvider;
+
+    @BeforeEach
+    public void setUp() {
+        buffer = new RuleNodeDebugEventBuffer();
+        serviceInfoProvider = mock(TbServiceInfoProvider.class);
+        ReflectionTestUtils.setField(buffer, "serviceInfoProvider", serviceInfoProvider);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "eventsPerNode", 3);
+        ReflectionTestUtils.setField(buffer, "maxBytesPerNode", 1024L * 1024);
+        ReflectionTestUtils.setField(buffer, "maxNodes", 10);
+        ReflectionTestUtils.setField(buffer, "timeToLiveInMinutes", 60);
+        buffer.init();
+    }
+
+    @Test
+    public void testKeepsMostRecentEventsNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            buffer.add(newEvent(tenantId, "msg" + i));
+        }
+
+        List<EventInfo> events = buffer.getRecentEvents(tenantId, ruleNodeId, 10);
+
+        assertThat(events.stream().map(e -> e.getBody().get("msgType").asText()).collect(Collectors.toList()))
+                .containsExactly("msg4", "msg3", "msg2");
+        assertThat(events).allMatch(e -> e.getId() != null && e.getCreatedTime() > 0);
+        assertThat(buffer.getRecentEvents(tenantId, ruleNodeId, 1)).hasSize(1);
+    }
+
+    @Test
+    public void testEventsOfOtherTenantAreNotReturned() {
+        buffer.add(newEvent(TenantId.fromUUID(UUID.randomUUID()), "foreign"));
+
+        assertThat(buffer.getRecentEvents(tenantId, ruleNodeId, 10)).isEmpty();
+    }
+
+    @Test
+    public void testOldestEventsAreDroppedWhenMaxBytesPerNodeIsReached() {
+        String data = "x".repeat(1000);
+        long eventSize = RuleNodeDebugEventBuffer.estimateSize(newEvent(tenantId, "msg", data));
+        ReflectionTestUtils.setField(buffer, "maxBytesPerNode", 2 * eventSize);
+
+        for (int i = 0; i < 3; i++) {
+            buffer.add(newEvent(tenantId, "msg" + i, data));
+        }
+        buffer.add(newEvent(tenantId, "too-large", data.repeat(10)));
+
+        assertThat(buffer.getRecentEvents(tenantId, ruleNodeId, 10).stream().map(e -> e.getBody().get("msgType").asText()).collect(Collectors.toList()))
+                .containsExactly("msg2", "msg1");
+    }
+
+    @Test
+    public void testIsAvailableOnlyOnRuleEngineService() {
+        when(serviceInfoProvider.isService(ServiceType.TB_RULE_ENGINE)).thenReturn(false);
+        assertThat(buffer.isAvailable()).isFalse();
+
+        when(serviceInfoProvider.isService(ServiceType.TB_RULE_ENGINE)).thenReturn(true);
+        assertThat(buffer.isAvailable()).isTrue();
+
+        ReflectionTestUtils.setField(buffer, "enabled", false);
+        assertThat(buffer.isAvailable()).isFalse();
+    }
+
+    @Test
+    public void testRemove() {
+        buffer.add(newEvent(tenantId, "msg"));
+        buffer.remove(ruleNodeId);
+
+        assertThat(buffer.getRecentEvents(tenantId, ruleNodeId, 10)).isEmpty();
+    }
+
+    private RuleNodeDebugEvent newEvent(TenantId tenantId, String msgType) {
+        return newEvent(tenantId, msgType, null);
+    }
+
+    private RuleNodeDebugEvent newEvent(TenantId tenantId, String msgType, String data) {
+        return RuleNodeDebugEvent.builder()
+                .tenantId(tenantId)
+                .entityId(ruleNodeId.getId())
+                .serviceId("test")
+                .eventType("IN")
+                .msgType(msgType)
+                .data(data)
+                .build();
+    }
+
+}
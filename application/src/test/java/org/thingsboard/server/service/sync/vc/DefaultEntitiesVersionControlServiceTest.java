@@ -0,0 +1,202 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.sync.vc;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thingsboard.server.cache.TbTransactionalCache;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.sync.ie.EntityExportData;
+import org.thingsboard.server.common.data.sync.vc.request.create.ComplexVersionCreateRequest;
+import org.thingsboard.server.common.data.sync.vc.request.create.EntityTypeVersionCreateConfig;
+import org.thingsboard.server.common.data.sync.vc.request.create.SyncStrategy;
+import org.thingsboard.server.service.entitiy.TbNotificationEntityService;
+import org.thingsboard.server.service.executors.VersionControlExecutor;
+import org.thingsboard.server.service.sync.ie.EntitiesExportImportService;
+import org.thingsboard.server.service.sync.ie.exporting.ExportableEntitiesService;
+import org.thingsboard.server.service.sync.vc.autocommit.TbAutoCommitSettingsService;
+import org.thingsboard.server.service.sync.vc.data.CommitGitRequest;
+import org.thingsboard.server.service.sync.vc.data.ComplexEntitiesExportCtx;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportBatchData;
+import org.thingsboard.server.service.sync.vc.data.EntitiesExportCtx;
+import org.thingsboard.server.service.sync.vc.repository.TbRepositorySettingsService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultEntitiesVersionControlServiceTest {
+
+    @Mock
+    TbRepositorySettingsService repositorySettingsService;
+    @Mock
+    TbAutoCommitSettingsService autoCommitSettingsService;
+    @Mock
+    GitVersionControlQueueService gitServiceQueue;
+    @Mock
+    EntitiesExportImportService exportImportService;
+    @Mock
+    ExportableEntitiesService exportableEntitiesService;
+    @Mock
+    TbNotificationEntityService entityNotificationService;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    TbTransactionalCache<UUID, VersionControlTaskCacheEntry> taskCache;
+    @Mock
+    VersionControlExecutor executor;
+
+    DefaultEntitiesVersionControlService service;
+
+    TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    List<UUID> deviceIds = IntStream.range(0, 250).mapToObj(i -> UUID.randomUUID()).collect(Collectors.toList());
+    ComplexEntitiesExportCtx ctx;
+
+    @BeforeEach
+    void setUp() {
+        service = new DefaultEntitiesVersionControlService(repositorySettingsService, autoCommitSettingsService, gitServiceQueue,
+                exportImportService, exportableEntitiesService, entityNotificationService, transactionTemplate, taskCache, executor);
+        ReflectionTestUtils.setField(service, "exportPoolSize", 4);
+        service.init();
+
+        EntityTypeVersionCreateConfig config = new EntityTypeVersionCreateConfig();
+        config.setSaveRelations(true);
+        config.setSaveAttributes(true);
+        config.setEntityIds(deviceIds);
+        ComplexVersionCreateRequest request = new ComplexVersionCreateRequest();
+        request.setBranch("main");
+        request.setSyncStrategy(SyncStrategy.MERGE);
+        request.setEntityTypes(Map.of(EntityType.DEVICE, config));
+        User user = new User();
+        user.setTenantId(tenantId);
+        ctx = new ComplexEntitiesExportCtx(user, new CommitGitRequest(tenantId, request), request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void testExportInBatchesKeepsOrder() throws Exception {
+        AtomicBoolean notPrefetched = new AtomicBoolean();
+        when(exportImportService.exportEntity(any(), any())).thenAnswer(invocation -> {
+            EntitiesExportCtx<?> exportCtx = invocation.getArgument(0);
+            DeviceId deviceId = invocation.getArgument(1);
+            if (exportCtx.getBatchData() == null || !exportCtx.getBatchData().contains(deviceId)) {
+                notPrefetched.set(true);
+            }
+            // completes the exports of a batch out of order
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            return exportData(deviceId);
+        });
+        when(gitServiceQueue.addToCommit(any(), any())).thenReturn(Futures.immediateFuture(null));
+
+        ReflectionTestUtils.invokeMethod(service, "handleComplexRequest", ctx);
+
+        ArgumentCaptor<EntitiesExportBatchData> batchCaptor = ArgumentCaptor.forClass(EntitiesExportBatchData.class);
+        verify(exportImportService, times(3)).prefetchExportData(any(), batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues()).extracting(batch -> batch.getEntityIds().size()).containsExactly(100, 100, 50);
+        assertThat(notPrefetched).isFalse();
+
+        assertThat(getCommittedIds(250)).isEqualTo(deviceIds);
+        assertThat(ctx.getFutures()).hasSize(250);
+    }
+
+    @Test
+    void testExportFailureStopsTheExport() throws Exception {
+        UUID failedId = deviceIds.get(150);
+        UUID runningId = deviceIds.get(151);
+        CountDownLatch runningStarted = new CountDownLatch(1);
+        CountDownLatch runningInterrupted = new CountDownLatch(1);
+        when(exportImportService.exportEntity(any(), any())).thenAnswer(invocation -> {
+            DeviceId deviceId = invocation.getArgument(1);
+            if (deviceId.getId().equals(failedId)) {
+                runningStarted.await(5, TimeUnit.SECONDS);
+                throw new IllegalArgumentException("DEVICE [" + failedId + "] not found");
+            } else if (deviceId.getId().equals(runningId)) {
+                runningStarted.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    runningInterrupted.countDown();
+                    throw e;
+                }
+            }
+            return exportData(deviceId);
+        });
+        when(gitServiceQueue.addToCommit(any(), any())).thenReturn(Futures.immediateFuture(null));
+
+        assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(service, "handleComplexRequest", ctx))
+                .isInstanceOf(RuntimeException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        assertThat(runningInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        // only the first batch is committed, the batch after the failed one is not exported
+        assertThat(getCommittedIds(100)).isEqualTo(deviceIds.subList(0, 100));
+        for (UUID deviceId : deviceIds.subList(200, 250)) {
+            verify(exportImportService, never()).exportEntity(any(), eq(new DeviceId(deviceId)));
+        }
+        verify(exportImportService, times(2)).prefetchExportData(any(), any());
+    }
+
+    private List<UUID> getCommittedIds(int count) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<EntityExportData<?>> captor = ArgumentCaptor.forClass(EntityExportData.class);
+        verify(gitServiceQueue, times(count)).addToCommit(any(), (EntityExportData) captor.capture());
+        return captor.getAllValues().stream()
+                .map(entityData -> entityData.getEntity().getId().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static EntityExportData<Device> exportData(EntityId deviceId) {
+        Device device = new Device((DeviceId) deviceId);
+        EntityExportData<Device> entityData = new EntityExportData<>();
+        entityData.setEntity(device);
+        entityData.setEntityType(EntityType.DEVICE);
+        return entityData;
+    }
+
+}
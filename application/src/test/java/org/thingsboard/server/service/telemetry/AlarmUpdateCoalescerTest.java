@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.telemetry;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.alarm.AlarmApiCallResult;
+import org.thingsboard.server.common.stats.StatsCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+public class AlarmUpdateCoalescerTest {
+
+    private final StatsCounter requestsCounter = new StatsCounter(new AtomicInteger(), mock(Counter.class), "requests");
+    private final StatsCounter coalescedCounter = new StatsCounter(new AtomicInteger(), mock(Counter.class), "coalesced");
+
+    @Test
+    public void givenRequestsDuringInProgressCall_whenProcess_thenMergedIntoOneCallWithoutWaiting() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<String> executed = new ArrayList<>();
+        AlarmUpdateCoalescer<String, String> coalescer = new AlarmUpdateCoalescer<>(request -> {
+            synchronized (executed) {
+                executed.add(request);
+            }
+            if (request.equals("1")) {
+                firstStarted.countDown();
+                await(releaseFirst);
+            }
+            return AlarmApiCallResult.builder().successful(true).created(executed.size() == 1).modified(true).build();
+        }, (pending, next) -> next, MoreExecutors.directExecutor(), 0, requestsCounter, coalescedCounter);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AlarmApiCallResult> first = executor.submit(() -> coalescer.process("alarm", "1").get());
+            assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // the second request opens the pending batch, the rest join it; none of them holds the calling thread
+            List<ListenableFuture<AlarmApiCallResult>> next = new ArrayList<>();
+            for (int i = 2; i <= 4; i++) {
+                next.add(coalescer.process("alarm", Integer.toString(i)));
+            }
+            assertThat(next).noneMatch(Future::isDone);
+            releaseFirst.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).isCreated()).isTrue();
+            for (Future<AlarmApiCallResult> future : next) {
+                AlarmApiCallResult result = future.get(5, TimeUnit.SECONDS);
+                assertThat(result.isCreated()).isFalse();
+                assertThat(result.isModified()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executed).containsExactly("1", "4");
+        assertThat(requestsCounter.get()).isEqualTo(4);
+        assertThat(coalescedCounter.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFailedCall_whenProcess_thenErrorPropagatedAndNextRequestExecuted() throws Exception {
+        AlarmUpdateCoalescer<String, String> coalescer = new AlarmUpdateCoalescer<>(request -> {
+            if (request.equals("fail")) {
+                throw new IllegalStateException("failed");
+            }
+            return AlarmApiCallResult.builder().successful(true).build();
+        }, (pending, next) -> next, MoreExecutors.directExecutor(), 0, requestsCounter, coalescedCounter);
+
+        ListenableFuture<AlarmApiCallResult> failed = coalescer.process("alarm", "fail");
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> AlarmUpdateCoalescer.await(failed)).isInstanceOf(IllegalStateException.class);
+        assertThat(coalescer.process("alarm", "ok").get().isSuccessful()).isTrue();
+        assertThat(coalescedCounter.get()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
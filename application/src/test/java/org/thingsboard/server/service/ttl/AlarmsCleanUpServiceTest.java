@@ -17,6 +17,7 @@ package org.thingsboard.server.service.ttl;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,23 +25,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.TestPropertySource;
 import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.HasName;
 import org.thingsboard.server.common.data.alarm.Alarm;
+import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.id.AlarmId;
 import org.thingsboard.server.controller.AbstractControllerTest;
 import org.thingsboard.server.dao.alarm.AlarmDao;
 import org.thingsboard.server.dao.alarm.AlarmService;
 import org.thingsboard.server.dao.service.DaoSqlTest;
+import org.thingsboard.server.service.action.EntityActionService;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.startsWith;
-import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @DaoSqlTest
@@ -55,6 +63,8 @@ public class AlarmsCleanUpServiceTest extends AbstractControllerTest {
     private AlarmService alarmService;
     @Autowired
     private AlarmDao alarmDao;
+    @SpyBean
+    private EntityActionService entityActionService;
 
     private static Logger cleanUpServiceLogger;
 
@@ -103,11 +113,19 @@ public class AlarmsCleanUpServiceTest extends AbstractControllerTest {
 
         alarmsCleanUpService.cleanUp();
 
+        verify(alarmService, times(count / 5 + 1)).delOutdatedAlarms(eq(tenantId), anyLong(), eq(5));
+        ArgumentCaptor<HasName> alarmCaptor = ArgumentCaptor.forClass(HasName.class);
+        verify(entityActionService, times(count)).pushEntityActionToRuleEngine(eq(device.getId()), alarmCaptor.capture(),
+                eq(tenantId), isNull(), eq(ActionType.ALARM_DELETE), isNull());
+        assertThat(alarmCaptor.getAllValues()).allSatisfy(alarm -> {
+            assertThat(alarm).isInstanceOf(AlarmInfo.class);
+            assertThat(((AlarmInfo) alarm).getOriginatorName()).isEqualTo(device.getName());
+        });
         for (AlarmId outdatedAlarm : outdatedAlarms) {
-            verify(alarmService).delAlarm(eq(tenantId), eq(outdatedAlarm), eq(false));
+            assertThat(alarmDao.findAlarmById(tenantId, outdatedAlarm.getId())).isNull();
         }
         for (AlarmId freshAlarm : freshAlarms) {
-            verify(alarmService, never()).delAlarm(eq(tenantId), eq(freshAlarm), eq(false));
+            assertThat(alarmDao.findAlarmById(tenantId, freshAlarm.getId())).isNotNull();
         }
 
         verify(cleanUpServiceLogger).info(startsWith("Removed {} outdated alarm"), eq((long) count), eq(tenantId), any());
@@ -67,6 +67,8 @@ public interface TbClusterService extends TbQueueClusterService {
 
     void broadcastEntityStateChangeEvent(TenantId tenantId, EntityId entityId, ComponentLifecycleEvent state);
 
+    void broadcastRelationGraphEvict(TenantId tenantId, EntityId from, EntityId to);
+
     void onDeviceProfileChange(DeviceProfile deviceProfile, TbQueueCallback callback);
 
     void onDeviceProfileDelete(DeviceProfile deviceProfile, TbQueueCallback callback);
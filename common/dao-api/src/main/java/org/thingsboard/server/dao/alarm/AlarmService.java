@@ -41,6 +41,7 @@ import org.thingsboard.server.common.data.query.AlarmDataQuery;
 import org.thingsboard.server.dao.entity.EntityDaoService;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 
@@ -79,6 +80,14 @@ public interface AlarmService extends EntityDaoService {
 
     AlarmApiCallResult delAlarm(TenantId tenantId, AlarmId alarmId, boolean checkAndDeleteAlarmType);
 
+    /**
+     * Deletes up to {@code limit} alarms of the tenant that ended before the expiration time.
+     * Alarm types are not cleaned up, see {@link #delAlarmTypes(TenantId, Set)}.
+     *
+     * @return the deleted alarms, with the originator name and label resolved
+     */
+    List<AlarmInfo> delOutdatedAlarms(TenantId tenantId, long expirationTime, int limit);
+
     void delAlarmTypes(TenantId tenantId, Set<String> types);
 
     // Other API
@@ -106,6 +115,8 @@ public interface AlarmService extends EntityDaoService {
 
     PageData<AlarmId> findAlarmIdsByAssigneeId(TenantId tenantId, UserId userId, PageLink pageLink);
 
+    PageData<AlarmId> findAlarmIdsByOriginatorId(TenantId tenantId, EntityId originatorId, PageLink pageLink);
+
     void deleteEntityAlarmRelations(TenantId tenantId, EntityId entityId);
 
     void deleteEntityAlarmRecordsByTenantId(TenantId tenantId);
@@ -20,10 +20,14 @@ import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.DeviceCredentials;
 
+import java.util.List;
+
 public interface DeviceCredentialsService {
 
     DeviceCredentials findDeviceCredentialsByDeviceId(TenantId tenantId, DeviceId deviceId);
 
+    List<DeviceCredentials> findDeviceCredentialsByDeviceIds(TenantId tenantId, List<DeviceId> deviceIds);
+
     DeviceCredentials findDeviceCredentialsByCredentialsId(String credentialsId);
 
     DeviceCredentials updateDeviceCredentials(TenantId tenantId, DeviceCredentials deviceCredentials);
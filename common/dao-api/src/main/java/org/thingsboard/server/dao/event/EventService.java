@@ -37,6 +37,8 @@ public interface EventService {
 
     PageData<EventInfo> findEventsByFilter(TenantId tenantId, EntityId entityId, EventFilter eventFilter, TimePageLink pageLink);
 
+    Long findOldestEventTs(TenantId tenantId, EntityId entityId);
+
     void removeEvents(TenantId tenantId, EntityId entityId);
 
     void removeEvents(TenantId tenantId, EntityId entityId, EventFilter eventFilter, Long startTime, Long endTime);
@@ -22,10 +22,14 @@ import org.thingsboard.server.common.data.notification.Notification;
 import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.PageLink;
 
+import java.util.List;
+
 public interface NotificationService {
 
     Notification saveNotification(TenantId tenantId, Notification notification);
 
+    List<Notification> saveNotifications(TenantId tenantId, List<Notification> notifications);
+
     Notification findNotificationById(TenantId tenantId, NotificationId notificationId);
 
     boolean markNotificationAsRead(TenantId tenantId, UserId recipientId, NotificationId notificationId);
@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.housekeeper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.io.Serializable;
+
+/**
+ * A cleanup task for the data left behind by a deleted entity.
+ * Tasks are pushed to the housekeeper queue as JSON and processed asynchronously by TB Core.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HousekeeperTask implements Serializable {
+
+    private static final long serialVersionUID = -3474716487218364416L;
+
+    private TenantId tenantId;
+    private EntityId entityId;
+    private HousekeeperTaskType taskType;
+    private long ts;
+    /**
+     * Title of the deleted user, used in the system comment of the unassigned alarms
+     */
+    private String userTitle;
+
+    public static HousekeeperTask of(TenantId tenantId, EntityId entityId, HousekeeperTaskType taskType, long ts) {
+        return new HousekeeperTask(tenantId, entityId, taskType, ts, null);
+    }
+
+    public static HousekeeperTask unassignAlarms(User user, long ts) {
+        return new HousekeeperTask(user.getTenantId(), user.getId(), HousekeeperTaskType.UNASSIGN_ALARMS, ts, user.getTitle());
+    }
+
+}
@@ -67,8 +67,11 @@ public class NotificationRequestStats {
         errors.computeIfAbsent(deliveryMethod, k -> new ConcurrentHashMap<>()).put(recipient.getTitle(), errorMessage);
     }
 
-    public void reportProcessed(NotificationDeliveryMethod deliveryMethod, Object recipientId) {
-        processedRecipients.computeIfAbsent(deliveryMethod, k -> ConcurrentHashMap.newKeySet()).add(recipientId);
+    /**
+     * @return false if the recipient was already processed for the delivery method
+     */
+    public boolean reportProcessed(NotificationDeliveryMethod deliveryMethod, Object recipientId) {
+        return processedRecipients.computeIfAbsent(deliveryMethod, k -> ConcurrentHashMap.newKeySet()).add(recipientId);
     }
 
     public boolean contains(NotificationDeliveryMethod deliveryMethod, Object recipientId) {
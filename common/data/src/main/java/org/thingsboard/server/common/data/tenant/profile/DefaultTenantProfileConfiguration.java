@@ -80,8 +80,10 @@ public class DefaultTenantProfileConfiguration implements TenantProfileConfigura
     private String wsUpdatesPerSessionRateLimit;
 
     private String cassandraQueryTenantRateLimitsConfiguration;
+    private int cassandraQueryWeight;
 
     private int defaultStorageTtlDays;
+    private String timeseriesKeysStorageTtlDays;
     private int alarmsTtlDays;
     private int rpcTtlDays;
     private int queueStatsTtlDays;
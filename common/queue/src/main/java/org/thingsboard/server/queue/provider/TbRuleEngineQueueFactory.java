@@ -76,6 +76,13 @@ public interface TbRuleEngineQueueFactory extends TbUsageStatsClientQueueFactory
      */
     TbQueueProducer<TbProtoQueueMsg<TransportProtos.ToOtaPackageStateServiceMsg>> createToOtaPackageStateServiceMsgProducer();
 
+    /**
+     * Used to push housekeeper tasks to TB Core Service
+     *
+     * @return
+     */
+    TbQueueProducer<TbProtoQueueMsg<TransportProtos.ToHousekeeperServiceMsg>> createToHousekeeperServiceMsgProducer();
+
     /**
      * Used to consume messages by TB Core Service
      *
@@ -34,6 +34,9 @@ public class TbQueueCoreSettings {
     @Value("${queue.core.usage-stats-topic:tb_usage_stats}")
     private String usageStatsTopic;
 
+    @Value("${queue.core.housekeeper.topic:tb_housekeeper}")
+    private String housekeeperTopic;
+
     @Value("${queue.core.partitions}")
     private int partitions;
 }
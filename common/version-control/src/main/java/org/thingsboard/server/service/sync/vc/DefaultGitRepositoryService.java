@@ -89,6 +89,7 @@ public class DefaultGitRepositoryService implements GitRepositoryService {
             if (repository.listRemoteBranches().contains(new BranchInfo(branch, false))) {
                 repository.merge(branch);
             }
+            commit.getCommittedFileIds().putAll(repository.listFileIdsAtHead());
         } catch (IOException | GitAPIException gitAPIException) {
             //TODO: analyze and return meaningful exceptions that we can show to the client;
             throw new RuntimeException(gitAPIException);
@@ -99,12 +100,21 @@ public class DefaultGitRepositoryService implements GitRepositoryService {
     public void deleteFolderContent(PendingCommit commit, String relativePath) throws IOException {
         GitRepository repository = checkRepository(commit.getTenantId());
         FileUtils.deleteDirectory(Path.of(repository.getDirectory(), relativePath).toFile());
+        commit.getCommittedFileIds().keySet().removeIf(path -> path.startsWith(relativePath + "/"));
     }
 
     @Override
     public void add(PendingCommit commit, String relativePath, String entityDataJson) throws IOException {
         GitRepository repository = checkRepository(commit.getTenantId());
-        FileUtils.write(Path.of(repository.getDirectory(), relativePath).toFile(), entityDataJson, StandardCharsets.UTF_8);
+        byte[] content = entityDataJson.getBytes(StandardCharsets.UTF_8);
+        // the committed file ids are dropped once a file is rewritten or deleted, so a matching id means the file on disk
+        // still has the committed content; leaving it untouched keeps its index entry clean and git add does not rehash it
+        if (GitRepository.getContentId(content).equals(commit.getCommittedFileIds().get(relativePath))) {
+            log.trace("[{}] Skipping unchanged {}", commit.getTenantId(), relativePath);
+            return;
+        }
+        commit.getCommittedFileIds().remove(relativePath);
+        FileUtils.writeByteArrayToFile(Path.of(repository.getDirectory(), relativePath).toFile(), content);
     }
 
     @Override
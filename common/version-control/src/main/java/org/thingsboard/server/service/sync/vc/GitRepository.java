@@ -42,6 +42,7 @@ import org.eclipse.jgit.diff.RawTextComparator;
 import org.eclipse.jgit.errors.LargeObjectException;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
@@ -80,8 +81,10 @@ import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
@@ -227,6 +230,28 @@ public class GitRepository {
         return files;
     }
 
+    /**
+     * Returns the blob ids of the files at HEAD by their paths, or an empty map when there are no commits yet.
+     */
+    public Map<String, ObjectId> listFileIdsAtHead() throws IOException {
+        Map<String, ObjectId> fileIds = new HashMap<>();
+        ObjectId headId = git.getRepository().resolve(Constants.HEAD);
+        if (headId == null) {
+            return fileIds;
+        }
+        try (TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.reset(git.getRepository().parseCommit(headId).getTree().getId());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                fileIds.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+            }
+        }
+        return fileIds;
+    }
+
+    public static ObjectId getContentId(byte[] content) {
+        return new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, content);
+    }
 
     public String getFileContentAtCommit(String file, String commitId) throws IOException {
         RevCommit revCommit = resolveCommit(commitId);
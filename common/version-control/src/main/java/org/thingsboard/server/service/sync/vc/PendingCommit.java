@@ -16,6 +16,7 @@
 package org.thingsboard.server.service.sync.vc;
 
 import lombok.Data;
+import org.eclipse.jgit.lib.ObjectId;
 import org.thingsboard.server.common.data.id.TenantId;
 
 import java.util.Map;
@@ -36,6 +37,7 @@ public class PendingCommit {
     private String authorEmail;
 
     private Map<String, String[]> chunkedMsgs;
+    private Map<String, ObjectId> committedFileIds;
 
     public PendingCommit(TenantId tenantId, String nodeId, UUID txId, String branch, String versionName, String authorName, String authorEmail) {
         this.tenantId = tenantId;
@@ -55,4 +57,11 @@ public class PendingCommit {
         return chunkedMsgs;
     }
 
+    public Map<String, ObjectId> getCommittedFileIds() {
+        if (committedFileIds == null) {
+            committedFileIds = new ConcurrentHashMap<>();
+        }
+        return committedFileIds;
+    }
+
 }
@@ -76,12 +76,18 @@ public interface AlarmDao extends Dao<Alarm> {
 
     Set<AlarmSeverity> findAlarmSeverities(TenantId tenantId, EntityId entityId, AlarmStatusFilter asf, String assigneeId);
 
-    PageData<AlarmId> findAlarmsIdsByEndTsBeforeAndTenantId(Long time, TenantId tenantId, PageLink pageLink);
+    List<AlarmInfo> findAlarmInfosByEndTsBeforeAndTenantId(TenantId tenantId, long time, int limit);
+
+    int removeAlarmsByIds(TenantId tenantId, Collection<UUID> alarmIds);
 
     PageData<AlarmId> findAlarmIdsByAssigneeId(TenantId tenantId, UUID userId, PageLink pageLink);
 
+    PageData<AlarmId> findAlarmIdsByOriginatorId(TenantId tenantId, EntityId originatorId, PageLink pageLink);
+
     void createEntityAlarmRecord(EntityAlarm entityAlarm);
 
+    void createEntityAlarmRecords(List<EntityAlarm> entityAlarms);
+
     List<EntityAlarm> findEntityAlarmRecords(TenantId tenantId, AlarmId id);
 
     void deleteEntityAlarmRecords(TenantId tenantId, EntityId entityId);
@@ -105,4 +111,19 @@ public interface AlarmDao extends Dao<Alarm> {
     PageData<EntitySubtype> findTenantAlarmTypes(UUID tenantId, PageLink pageLink);
 
     boolean removeAlarmTypesIfNoAlarmsPresent(UUID tenantId, Set<String> types);
+
+    /**
+     * Drops the alarm and entity_alarm partitions that ended before the expiration time, for all tenants at once.
+     * Partitions that still contain uncleared alarms or alarms of the retained tenants are kept.
+     * The dropped alarms produce no delete events, their relations and comments are left as is.
+     * Does nothing unless the alarm tables are partitioned.
+     *
+     * @param retainedTenantIds tenants whose alarms must outlive the partitions, e.g. due to a longer alarms TTL
+     * @return the number of dropped alarm partitions
+     */
+    int cleanUpAlarmPartitions(long expTime, Set<UUID> retainedTenantIds);
+
+    void cleanUpAlarmPartitionsCache(long expTime);
+
+    void migrateAlarms();
 }
@@ -0,0 +1,174 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.alarm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.dao.relation.EntityRelationEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the relations of all levels that point to the originator of an alarm, so the entities the alarm is propagated to
+ * can be resolved for any set of propagation relation types without querying the relations again.
+ * The whole ancestor tree of the originator is remembered, since a changed relation of any ancestor
+ * may change the path even if that ancestor is reached over a relation type the alarm is not propagated by.
+ * <p>
+ * Entries are dropped only on relation changes processed by this node, so the cache is disabled by default
+ * and is meant for single node deployments or deployments that tolerate paths stale for up to the TTL.
+ */
+@Component
+public class AlarmPropagationPathCache {
+
+    @Getter
+    @Value("${cache.alarmPropagation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.alarmPropagation.timeToLiveInMinutes:5}")
+    private long timeToLiveInMinutes;
+
+    @Value("${cache.alarmPropagation.maxSize:10000}")
+    private long maxSize;
+
+    private final ConcurrentMap<TenantId, AtomicLong> tenantVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityId, Set<PathKey>> keysByEntity = new ConcurrentHashMap<>();
+    private Cache<PathKey, PropagationPath> paths;
+
+    @PostConstruct
+    public void init() {
+        paths = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLiveInMinutes, TimeUnit.MINUTES)
+                .maximumSize(maxSize)
+                .writer(new CacheWriter<PathKey, PropagationPath>() {
+                    @Override
+                    public void write(PathKey key, PropagationPath path) {
+                        path.getEntities(key).forEach(entityId -> keysByEntity.compute(entityId, (id, keys) -> {
+                            if (keys == null) {
+                                keys = ConcurrentHashMap.newKeySet();
+                            }
+                            keys.add(key);
+                            return keys;
+                        }));
+                    }
+
+                    @Override
+                    public void delete(PathKey key, PropagationPath path, RemovalCause cause) {
+                        if (path != null) {
+                            path.getEntities(key).forEach(entityId -> keysByEntity.computeIfPresent(entityId, (id, keys) -> {
+                                keys.remove(key);
+                                return keys.isEmpty() ? null : keys;
+                            }));
+                        }
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @param ancestorsLoader loads the relations of all levels that point to the originator, regardless of their type
+     */
+    public Set<EntityId> getPropagationPath(TenantId tenantId, EntityId originator, Collection<String> relationTypes,
+                                            Supplier<List<EntityRelation>> ancestorsLoader) {
+        Set<String> types = relationTypes != null ? new HashSet<>(relationTypes) : Collections.emptySet();
+        if (!enabled) {
+            return new PropagationPath(ancestorsLoader.get()).getTargets(types);
+        }
+        PathKey key = new PathKey(tenantId, originator);
+        PropagationPath path = paths.getIfPresent(key);
+        if (path == null) {
+            AtomicLong version = getVersion(tenantId);
+            long loadVersion = version.get();
+            path = new PropagationPath(ancestorsLoader.get());
+            paths.asMap().putIfAbsent(key, path);
+            // the path may miss a relation of the tenant that was changed while it was loading
+            if (loadVersion != version.get()) {
+                paths.asMap().remove(key, path);
+            }
+        }
+        return path.getTargets(types);
+    }
+
+    public void onRelationChanged(EntityRelationEvent event) {
+        EntityId to = event.getTo();
+        if (!enabled || to == null) {
+            return;
+        }
+        getVersion(event.getTenantId()).incrementAndGet();
+        Set<PathKey> keys = keysByEntity.get(to);
+        if (keys != null) {
+            paths.invalidateAll(new HashSet<>(keys));
+        }
+    }
+
+    private AtomicLong getVersion(TenantId tenantId) {
+        return tenantVersions.computeIfAbsent(tenantId != null ? tenantId : TenantId.SYS_TENANT_ID, id -> new AtomicLong());
+    }
+
+    @Data
+    private static class PathKey {
+        private final TenantId tenantId;
+        private final EntityId originator;
+    }
+
+    private static class PropagationPath {
+        private final List<EntityRelation> relations;
+
+        private PropagationPath(List<EntityRelation> relations) {
+            this.relations = relations;
+        }
+
+        private Set<EntityId> getTargets(Set<String> types) {
+            Set<EntityId> targets = new LinkedHashSet<>();
+            for (EntityRelation relation : relations) {
+                if (types.isEmpty() || types.contains(relation.getType())) {
+                    targets.add(relation.getFrom());
+                }
+            }
+            return targets;
+        }
+
+        /**
+         * @return the originator and all its ancestors, a change of a relation that points to any of them may change the path
+         */
+        private Set<EntityId> getEntities(PathKey key) {
+            Set<EntityId> entities = new HashSet<>();
+            entities.add(key.getOriginator());
+            relations.forEach(relation -> entities.add(relation.getFrom()));
+            return entities;
+        }
+    }
+
+}
@@ -54,7 +54,6 @@ import org.thingsboard.server.common.data.page.SortOrder;
 import org.thingsboard.server.common.data.query.AlarmCountQuery;
 import org.thingsboard.server.common.data.query.AlarmData;
 import org.thingsboard.server.common.data.query.AlarmDataQuery;
-import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
@@ -95,6 +94,7 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
     private final AlarmDao alarmDao;
     private final EntityService entityService;
     private final DataValidator<Alarm> alarmDataValidator;
+    private final AlarmPropagationPathCache alarmPropagationPathCache;
 
     @TransactionalEventListener(classes = AlarmTypesCacheEvictEvent.class)
     @Override
@@ -200,6 +200,21 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         }
     }
 
+    @Override
+    @Transactional
+    public List<AlarmInfo> delOutdatedAlarms(TenantId tenantId, long expirationTime, int limit) {
+        List<AlarmInfo> alarms = alarmDao.findAlarmInfosByEndTsBeforeAndTenantId(tenantId, expirationTime, limit);
+        if (alarms.isEmpty()) {
+            return alarms;
+        }
+        log.debug("[{}] Deleting {} outdated alarms", tenantId, alarms.size());
+        alarms.forEach(alarm -> deleteEntityRelations(tenantId, alarm.getId()));
+        alarmDao.removeAlarmsByIds(tenantId, alarms.stream().map(Alarm::getUuidId).collect(Collectors.toList()));
+        alarms.forEach(alarm -> eventPublisher.publishEvent(DeleteEntityEvent.builder().tenantId(tenantId)
+                .entityId(alarm.getId()).entity(alarm).build()));
+        return alarms;
+    }
+
     @Override
     @Transactional
     public void delAlarmTypes(TenantId tenantId, Set<String> types) {
@@ -208,7 +223,7 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         }
     }
 
-    private List<EntityId> createEntityAlarmRecords(Alarm alarm) throws ExecutionException, InterruptedException {
+    private List<EntityId> createEntityAlarmRecords(Alarm alarm) {
         Set<EntityId> propagatedEntitiesSet = new LinkedHashSet<>();
         propagatedEntitiesSet.add(alarm.getOriginator());
         if (alarm.isPropagate()) {
@@ -220,22 +235,28 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         if (alarm.isPropagateToTenant()) {
             propagatedEntitiesSet.add(alarm.getTenantId());
         }
-        for (EntityId entityId : propagatedEntitiesSet) {
-            createEntityAlarmRecord(alarm.getTenantId(), entityId, alarm);
+        List<EntityAlarm> entityAlarms = propagatedEntitiesSet.stream()
+                .map(entityId -> new EntityAlarm(alarm.getTenantId(), entityId, alarm.getCreatedTime(), alarm.getType(), alarm.getCustomerId(), null, alarm.getId()))
+                .collect(Collectors.toList());
+        try {
+            alarmDao.createEntityAlarmRecords(entityAlarms);
+        } catch (Exception e) {
+            log.debug("[{}] Failed to create entity alarm records in batch, saving them one by one", alarm.getTenantId(), e);
+            entityAlarms.forEach(this::createEntityAlarmRecord);
         }
         return new ArrayList<>(propagatedEntitiesSet);
     }
 
-    private Set<EntityId> getRelatedEntities(Alarm alarm) throws InterruptedException, ExecutionException {
-        EntityRelationsQuery query = new EntityRelationsQuery();
-        RelationsSearchParameters parameters = new RelationsSearchParameters(alarm.getOriginator(), EntitySearchDirection.TO, Integer.MAX_VALUE, false);
-        query.setParameters(parameters);
-        List<String> propagateRelationTypes = alarm.getPropagateRelationTypes();
-        Stream<EntityRelation> relations = relationService.findByQuery(alarm.getTenantId(), query).get().stream();
-        if (!CollectionUtils.isEmpty(propagateRelationTypes)) {
-            relations = relations.filter(entityRelation -> propagateRelationTypes.contains(entityRelation.getType()));
-        }
-        return relations.map(EntityRelation::getFrom).collect(Collectors.toCollection(LinkedHashSet::new));
+    private Set<EntityId> getRelatedEntities(Alarm alarm) {
+        return alarmPropagationPathCache.getPropagationPath(alarm.getTenantId(), alarm.getOriginator(), alarm.getPropagateRelationTypes(), () -> {
+            EntityRelationsQuery query = new EntityRelationsQuery();
+            query.setParameters(new RelationsSearchParameters(alarm.getOriginator(), EntitySearchDirection.TO, Integer.MAX_VALUE, false));
+            try {
+                return relationService.findByQuery(alarm.getTenantId(), query).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     @Override
@@ -306,6 +327,13 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         return alarmDao.findAlarmIdsByAssigneeId(tenantId, userId.getId(), pageLink);
     }
 
+    @Override
+    public PageData<AlarmId> findAlarmIdsByOriginatorId(TenantId tenantId, EntityId originatorId, PageLink pageLink) {
+        log.trace("[{}] Executing findAlarmIdsByOriginatorId [{}]", tenantId, originatorId);
+        validateId(originatorId.getId(), "Incorrect originatorId " + originatorId);
+        return alarmDao.findAlarmIdsByOriginatorId(tenantId, originatorId, pageLink);
+    }
+
     @Override
     public AlarmSeverity findHighestAlarmSeverity(TenantId tenantId, EntityId entityId, AlarmSearchStatus alarmSearchStatus,
                                                   AlarmStatus alarmStatus, String assigneeId) {
@@ -403,12 +431,11 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         }
     }
 
-    private void createEntityAlarmRecord(TenantId tenantId, EntityId entityId, Alarm alarm) {
-        EntityAlarm entityAlarm = new EntityAlarm(tenantId, entityId, alarm.getCreatedTime(), alarm.getType(), alarm.getCustomerId(), null, alarm.getId());
+    private void createEntityAlarmRecord(EntityAlarm entityAlarm) {
         try {
             alarmDao.createEntityAlarmRecord(entityAlarm);
         } catch (Exception e) {
-            log.warn("[{}] Failed to create entity alarm record: {}", tenantId, entityAlarm, e);
+            log.warn("[{}] Failed to create entity alarm record: {}", entityAlarm.getTenantId(), entityAlarm, e);
         }
     }
 
@@ -428,16 +455,11 @@ public class BaseAlarmService extends AbstractCachedEntityService<TenantId, Page
         return EntityType.ALARM;
     }
 
-    //TODO: refactor to use efficient caching.
     private AlarmApiCallResult withPropagated(AlarmApiCallResult result) {
         if (result.isSuccessful() && result.getAlarm() != null) {
             List<EntityId> propagationEntities;
             if (result.isPropagationChanged()) {
-                try {
-                    propagationEntities = createEntityAlarmRecords(result.getAlarm());
-                } catch (ExecutionException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+                propagationEntities = createEntityAlarmRecords(result.getAlarm());
             } else {
                 propagationEntities = getPropagationEntityIdsList(result.getAlarm());
             }
@@ -32,6 +32,7 @@ import org.thingsboard.server.dao.service.Validator;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -74,6 +75,12 @@ public class BaseAttributesService implements AttributesService {
         return Futures.immediateFuture(attributesDao.findAll(tenantId, entityId, scope));
     }
 
+    @Override
+    public Map<EntityId, List<AttributeKvEntry>> findAllByEntityIds(TenantId tenantId, EntityType entityType, List<EntityId> entityIds, String scope) {
+        Validator.validateString(scope, "Incorrect scope " + scope);
+        return attributesDao.findAllByEntityIds(tenantId, entityType, entityIds, scope);
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         return attributesDao.findAllKeysByDeviceProfileId(tenantId, deviceProfileId);
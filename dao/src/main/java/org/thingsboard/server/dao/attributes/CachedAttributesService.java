@@ -210,6 +210,12 @@ public class CachedAttributesService implements AttributesService {
         return Futures.immediateFuture(attributesDao.findAll(tenantId, entityId, scope));
     }
 
+    @Override
+    public Map<EntityId, List<AttributeKvEntry>> findAllByEntityIds(TenantId tenantId, EntityType entityType, List<EntityId> entityIds, String scope) {
+        Validator.validateString(scope, "Incorrect scope " + scope);
+        return attributesDao.findAllByEntityIds(tenantId, entityType, entityIds, scope);
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         return attributesDao.findAllKeysByDeviceProfileId(tenantId, deviceProfileId);
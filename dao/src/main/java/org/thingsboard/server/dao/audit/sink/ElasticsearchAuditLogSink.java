@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.audit.sink;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpEntity;
@@ -25,6 +26,7 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
@@ -34,14 +36,25 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.audit.AuditLog;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.common.stats.StatsFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @ConditionalOnProperty(prefix = "audit-log.sink", value = "type", havingValue = "elasticsearch")
@@ -66,8 +79,25 @@ public class ElasticsearchAuditLogSink implements AuditLogSink {
     private String password;
     @Value("${audit-log.sink.date_format}")
     private String dateFormat;
+    @Value("${audit-log.sink.batch_size:1000}")
+    private int batchSize;
+    @Value("${audit-log.sink.batch_max_delay:1000}")
+    private long maxDelay;
+    @Value("${audit-log.sink.max_queue_size:100000}")
+    private int maxQueueSize;
+    @Value("${audit-log.sink.stats_print_interval_ms:60000}")
+    private long statsPrintIntervalMs;
+
+    private final StatsFactory statsFactory;
 
     private RestClient restClient;
+    private BlockingQueue<AuditLog> queue;
+    private MessagesStats stats;
+    private ScheduledExecutorService executor;
+
+    public ElasticsearchAuditLogSink(StatsFactory statsFactory) {
+        this.statsFactory = statsFactory;
+    }
 
     @PostConstruct
     public void init() {
@@ -91,22 +121,75 @@ public class ElasticsearchAuditLogSink implements AuditLogSink {
             log.error("Sink init failed!", e);
             throw new RuntimeException(e.getMessage(), e);
         }
+        queue = maxQueueSize > 0 ? new LinkedBlockingQueue<>(maxQueueSize) : new LinkedBlockingQueue<>();
+        stats = statsFactory.createMessagesStats("audit.log.sink");
+        executor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("audit-log-elasticsearch-sink"));
+        executor.scheduleWithFixedDelay(this::flush, maxDelay, maxDelay, TimeUnit.MILLISECONDS);
+        executor.scheduleAtFixedRate(this::printStats, statsPrintIntervalMs, statsPrintIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(maxDelay, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
     }
 
     @Override
     public void logAction(AuditLog auditLogEntry) {
-        String jsonContent = createElasticJsonRecord(auditLogEntry);
+        stats.incrementTotal();
+        if (!queue.offer(auditLogEntry)) {
+            stats.incrementFailed();
+            log.debug("Elasticsearch sink queue is full, audit log entry [{}] dropped", auditLogEntry.getId());
+        }
+    }
+
+    private void flush() {
+        try {
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                sendBulk(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to flush audit logs to Elasticsearch", e);
+        }
+    }
+
+    private void sendBulk(List<AuditLog> batch) {
+        StringBuilder body = new StringBuilder();
+        for (AuditLog auditLog : batch) {
+            ObjectNode action = JacksonUtil.newObjectNode();
+            action.putObject("index")
+                    .put("_index", getIndexName(auditLog.getTenantId()))
+                    .put("_type", INDEX_TYPE);
+            body.append(action).append('\n').append(createElasticJsonRecord(auditLog)).append('\n');
+        }
 
         HttpEntity entity = new NStringEntity(
-                jsonContent,
-                ContentType.APPLICATION_JSON);
+                body.toString(),
+                ContentType.create("application/x-ndjson"));
 
         restClient.performRequestAsync(
                 HttpMethod.POST.name(),
-                String.format("/%s/%s", getIndexName(auditLogEntry.getTenantId()), INDEX_TYPE),
+                "/_bulk",
                 Collections.emptyMap(),
                 entity,
-                responseListener);
+                new BulkResponseListener(batch.size()));
+    }
+
+    private void printStats() {
+        if (queue.size() > 0 || stats.getTotal() > 0) {
+            log.info("Elasticsearch audit log sink: queueSize [{}] totalAdded [{}] totalSent [{}] totalFailed [{}]",
+                    queue.size(), stats.getTotal(), stats.getSuccessful(), stats.getFailed());
+            stats.reset();
+        }
     }
 
     private String createElasticJsonRecord(AuditLog auditLog) {
@@ -131,17 +214,42 @@ public class ElasticsearchAuditLogSink implements AuditLogSink {
         return auditLogNode.toString();
     }
 
-    private ResponseListener responseListener = new ResponseListener() {
+    private class BulkResponseListener implements ResponseListener {
+
+        private final int size;
+
+        BulkResponseListener(int size) {
+            this.size = size;
+        }
+
         @Override
         public void onSuccess(Response response) {
+            int failed = 0;
+            try {
+                JsonNode result = JacksonUtil.toJsonNode(EntityUtils.toString(response.getEntity()));
+                if (result != null && result.path("errors").asBoolean()) {
+                    for (JsonNode item : result.path("items")) {
+                        if (item.path("index").has("error")) {
+                            failed++;
+                        }
+                    }
+                    log.warn("Elasticsearch sink failed to index {} of {} audit log entries. Response result [{}]!", failed, size, result);
+                }
+            } catch (Exception e) {
+                log.debug("Failed to parse Elasticsearch bulk response", e);
+            }
+            stats.incrementSuccessful(size - failed);
+            stats.incrementFailed(failed);
             log.trace("Elasticsearch sink log action method succeeded. Response result [{}]!", response);
         }
 
         @Override
         public void onFailure(Exception exception) {
+            stats.incrementFailed(size);
             log.warn("Elasticsearch sink log action method failed!", exception);
         }
-    };
+
+    }
 
     private String getIndexName(TenantId tenantId) {
         String indexName = indexPattern;
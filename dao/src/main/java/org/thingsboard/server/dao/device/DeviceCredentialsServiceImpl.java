@@ -47,7 +47,11 @@ import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.exception.DeviceCredentialsValidationException;
 import org.thingsboard.server.dao.service.DataValidator;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.thingsboard.server.dao.service.Validator.validateId;
+import static org.thingsboard.server.dao.service.Validator.validateIds;
 import static org.thingsboard.server.dao.service.Validator.validateString;
 
 @Service
@@ -76,6 +80,13 @@ public class DeviceCredentialsServiceImpl extends AbstractCachedEntityService<St
         return deviceCredentialsDao.findByDeviceId(tenantId, deviceId.getId());
     }
 
+    @Override
+    public List<DeviceCredentials> findDeviceCredentialsByDeviceIds(TenantId tenantId, List<DeviceId> deviceIds) {
+        log.trace("Executing findDeviceCredentialsByDeviceIds [{}]", deviceIds);
+        validateIds(deviceIds, "Incorrect deviceIds " + deviceIds);
+        return deviceCredentialsDao.findByDeviceIds(tenantId, deviceIds.stream().map(DeviceId::getId).collect(Collectors.toList()));
+    }
+
     @Override
     public DeviceCredentials findDeviceCredentialsByCredentialsId(String credentialsId) {
         log.trace("Executing findDeviceCredentialsByCredentialsId [{}]", credentialsId);
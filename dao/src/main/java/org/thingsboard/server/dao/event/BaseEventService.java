@@ -111,6 +111,11 @@ public class BaseEventService implements EventService {
         return convert(entityId.getEntityType(), eventDao.findEventByFilter(tenantId.getId(), entityId.getId(), eventFilter, pageLink));
     }
 
+    @Override
+    public Long findOldestEventTs(TenantId tenantId, EntityId entityId) {
+        return eventDao.findOldestEventTs(tenantId.getId(), entityId.getId());
+    }
+
     @Override
     public void removeEvents(TenantId tenantId, EntityId entityId) {
         removeEvents(tenantId, entityId, null, null, null);
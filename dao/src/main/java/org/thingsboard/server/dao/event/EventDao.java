@@ -62,6 +62,15 @@ public interface EventDao {
      */
     List<? extends Event> findLatestEvents(UUID tenantId, UUID entityId, EventType eventType, int limit);
 
+    /**
+     * Find the timestamp of the oldest event of any type for the specified entity.
+     *
+     * @param tenantId the tenantId
+     * @param entityId the entityId
+     * @return the timestamp of the oldest event or null if the entity has no events
+     */
+    Long findOldestEventTs(UUID tenantId, UUID entityId);
+
     /**
      * Executes stored procedure to cleanup old events. Uses separate ttl for debug and other events.
      * @param regularEventExpTs the expiration time of the regular events
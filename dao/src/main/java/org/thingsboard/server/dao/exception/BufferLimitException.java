@@ -22,4 +22,8 @@ public class BufferLimitException extends RuntimeException {
     public BufferLimitException() {
         super("Rate Limit Buffer is full");
     }
+
+    public BufferLimitException(String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,37 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Thrown by a batch save when only some of the entities could not be saved.
+ * The failures are keyed by the entity instances passed to the save, so that the caller can fail only their requests.
+ */
+public class PartialSaveException extends RuntimeException {
+
+    private static final long serialVersionUID = -6102742387395740113L;
+
+    @Getter
+    private final transient Map<Object, Throwable> failures;
+
+    public PartialSaveException(String message, Map<Object, Throwable> failures) {
+        super(message);
+        this.failures = failures;
+    }
+}
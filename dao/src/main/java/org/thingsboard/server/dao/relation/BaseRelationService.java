@@ -33,6 +33,7 @@ import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.cache.TbTransactionalCache;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -45,6 +46,7 @@ import org.thingsboard.server.common.data.relation.RelationEntityTypeFilter;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
 import org.thingsboard.server.common.data.rule.RuleChainType;
+import org.thingsboard.server.dao.alarm.AlarmPropagationPathCache;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.eventsourcing.RelationActionEvent;
 import org.thingsboard.server.dao.exception.DataValidationException;
@@ -59,6 +61,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -67,6 +70,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import static org.thingsboard.server.dao.service.Validator.validateId;
 
@@ -83,6 +87,8 @@ public class BaseRelationService implements RelationService {
     private final ApplicationEventPublisher eventPublisher;
     private final JpaExecutorService executor;
     private final JpaRelationQueryExecutorService relationsExecutor;
+    private final RelationGraphCache relationGraphCache;
+    private final AlarmPropagationPathCache alarmPropagationPathCache;
     protected ScheduledExecutorService timeoutExecutorService;
 
     @Value("${sql.relations.query_timeout:20}")
@@ -91,13 +97,16 @@ public class BaseRelationService implements RelationService {
     public BaseRelationService(RelationDao relationDao, @Lazy EntityService entityService,
                                TbTransactionalCache<RelationCacheKey, RelationCacheValue> cache,
                                ApplicationEventPublisher eventPublisher, JpaExecutorService executor,
-                               JpaRelationQueryExecutorService relationsExecutor) {
+                               JpaRelationQueryExecutorService relationsExecutor, RelationGraphCache relationGraphCache,
+                               AlarmPropagationPathCache alarmPropagationPathCache) {
         this.relationDao = relationDao;
         this.entityService = entityService;
         this.cache = cache;
         this.eventPublisher = eventPublisher;
         this.executor = executor;
         this.relationsExecutor = relationsExecutor;
+        this.relationGraphCache = relationGraphCache;
+        this.alarmPropagationPathCache = alarmPropagationPathCache;
     }
 
     @PostConstruct
@@ -121,12 +130,22 @@ public class BaseRelationService implements RelationService {
         keys.add(new RelationCacheKey(null, event.getTo(), event.getType(), event.getTypeGroup(), EntitySearchDirection.TO));
         keys.add(new RelationCacheKey(null, event.getTo(), null, event.getTypeGroup(), EntitySearchDirection.TO));
         cache.evict(keys);
+        if (event.getTypeGroup() == null || event.getTypeGroup() == RelationTypeGroup.COMMON) {
+            if (relationGraphCache.isEnabled()) {
+                relationGraphCache.onRelationChanged(event.getTenantId(), event.getFrom(), event.getTo());
+            }
+            alarmPropagationPathCache.onRelationChanged(event);
+        }
     }
 
     @Override
     public ListenableFuture<Boolean> checkRelationAsync(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         log.trace("Executing checkRelationAsync [{}][{}][{}][{}]", from, to, relationType, typeGroup);
         validate(from, to, relationType, typeGroup);
+        if (isRelationGraphQuery(typeGroup)) {
+            return Futures.transform(findGraphRelationsAsync(tenantId, from, relationType, EntitySearchDirection.FROM),
+                    relations -> relations.stream().anyMatch(relation -> relation.getTo().equals(to)), MoreExecutors.directExecutor());
+        }
         return relationDao.checkRelationAsync(tenantId, from, to, relationType, typeGroup);
     }
 
@@ -156,7 +175,7 @@ public class BaseRelationService implements RelationService {
         log.trace("Executing saveRelation [{}]", relation);
         validate(relation);
         var result = relationDao.saveRelation(tenantId, relation);
-        publishEvictEvent(EntityRelationEvent.from(relation));
+        publishEvictEvent(EntityRelationEvent.from(tenantId, relation));
         eventPublisher.publishEvent(new RelationActionEvent(tenantId, relation, ActionType.RELATION_ADD_OR_UPDATE));
         return result;
     }
@@ -171,7 +190,7 @@ public class BaseRelationService implements RelationService {
             relationDao.saveRelations(tenantId, partition);
         }
         for (EntityRelation relation : relations) {
-            publishEvictEvent(EntityRelationEvent.from(relation));
+            publishEvictEvent(EntityRelationEvent.from(tenantId, relation));
             eventPublisher.publishEvent(new RelationActionEvent(tenantId, relation, ActionType.RELATION_ADD_OR_UPDATE));
         }
     }
@@ -182,7 +201,7 @@ public class BaseRelationService implements RelationService {
         validate(relation);
         var future = relationDao.saveRelationAsync(tenantId, relation);
         future.addListener(() -> {
-            handleEvictEvent(EntityRelationEvent.from(relation));
+            handleEvictEvent(EntityRelationEvent.from(tenantId, relation));
             eventPublisher.publishEvent(new RelationActionEvent(tenantId, relation, ActionType.RELATION_ADD_OR_UPDATE));
         }, MoreExecutors.directExecutor());
         return future;
@@ -194,7 +213,7 @@ public class BaseRelationService implements RelationService {
         validate(relation);
         var result = relationDao.deleteRelation(tenantId, relation);
         //TODO: evict cache only if the relation was deleted. Note: relationDao.deleteRelation requires improvement.
-        publishEvictEvent(EntityRelationEvent.from(relation));
+        publishEvictEvent(EntityRelationEvent.from(tenantId, relation));
         eventPublisher.publishEvent(new RelationActionEvent(tenantId, relation, ActionType.RELATION_DELETED));
         return result;
     }
@@ -205,7 +224,7 @@ public class BaseRelationService implements RelationService {
         validate(relation);
         var future = relationDao.deleteRelationAsync(tenantId, relation);
         future.addListener(() -> {
-            handleEvictEvent(EntityRelationEvent.from(relation));
+            handleEvictEvent(EntityRelationEvent.from(tenantId, relation));
             eventPublisher.publishEvent(new RelationActionEvent(tenantId, relation, ActionType.RELATION_DELETED));
         }, MoreExecutors.directExecutor());
         return future;
@@ -218,7 +237,7 @@ public class BaseRelationService implements RelationService {
         var result = relationDao.deleteRelation(tenantId, from, to, relationType, typeGroup);
         //TODO: evict cache only if the relation was deleted. Note: relationDao.deleteRelation requires improvement.
         EntityRelation entityRelation = new EntityRelation(from, to, relationType, typeGroup);
-        publishEvictEvent(EntityRelationEvent.from(entityRelation));
+        publishEvictEvent(EntityRelationEvent.from(tenantId, entityRelation));
         eventPublisher.publishEvent(new RelationActionEvent(tenantId, entityRelation, ActionType.RELATION_DELETED));
         return result;
     }
@@ -228,7 +247,7 @@ public class BaseRelationService implements RelationService {
         log.trace("Executing deleteRelationAsync [{}][{}][{}][{}]", from, to, relationType, typeGroup);
         validate(from, to, relationType, typeGroup);
         var future = relationDao.deleteRelationAsync(tenantId, from, to, relationType, typeGroup);
-        EntityRelationEvent event = new EntityRelationEvent(from, to, relationType, typeGroup);
+        EntityRelationEvent event = new EntityRelationEvent(tenantId, from, to, relationType, typeGroup);
         future.addListener(() -> handleEvictEvent(event), MoreExecutors.directExecutor());
         return future;
     }
@@ -249,6 +268,9 @@ public class BaseRelationService implements RelationService {
     public void deleteEntityRelations(TenantId tenantId, EntityId entityId, RelationTypeGroup relationTypeGroup) {
         log.trace("Executing deleteEntityRelations [{}]", entityId);
         validate(entityId);
+        if (entityId.getEntityType() == EntityType.TENANT) {
+            relationGraphCache.evict(TenantId.fromUUID(entityId.getId()));
+        }
         List<EntityRelation> inboundRelations = relationTypeGroup == null
                     ? relationDao.findAllByTo(tenantId, entityId)
                     : relationDao.findAllByTo(tenantId, entityId, relationTypeGroup);
@@ -268,7 +290,7 @@ public class BaseRelationService implements RelationService {
             }
 
             for (EntityRelation relation : inboundRelations) {
-                eventPublisher.publishEvent(EntityRelationEvent.from(relation));
+                eventPublisher.publishEvent(EntityRelationEvent.from(tenantId, relation));
             }
         }
 
@@ -280,7 +302,7 @@ public class BaseRelationService implements RelationService {
             }
 
             for (EntityRelation relation : outboundRelations) {
-                eventPublisher.publishEvent(EntityRelationEvent.from(relation));
+                eventPublisher.publishEvent(EntityRelationEvent.from(tenantId, relation));
             }
         }
     }
@@ -297,11 +319,11 @@ public class BaseRelationService implements RelationService {
         if (deleteFromDb) {
             return Futures.transform(relationDao.deleteRelationAsync(tenantId, relation),
                     bool -> {
-                        handleEvictEvent(EntityRelationEvent.from(relation));
+                        handleEvictEvent(EntityRelationEvent.from(tenantId, relation));
                         return bool;
                     }, MoreExecutors.directExecutor());
         } else {
-            handleEvictEvent(EntityRelationEvent.from(relation));
+            handleEvictEvent(EntityRelationEvent.from(tenantId, relation));
             return Futures.immediateFuture(false);
         }
     }
@@ -366,6 +388,9 @@ public class BaseRelationService implements RelationService {
         validate(from);
         validateType(relationType);
         validateTypeGroup(typeGroup);
+        if (isRelationGraphQuery(typeGroup)) {
+            return findGraphRelationsAsync(tenantId, from, relationType, EntitySearchDirection.FROM);
+        }
         return executor.submit(() -> findByFromAndType(tenantId, from, relationType, typeGroup));
     }
 
@@ -436,18 +461,33 @@ public class BaseRelationService implements RelationService {
         validate(to);
         validateType(relationType);
         validateTypeGroup(typeGroup);
+        if (isRelationGraphQuery(typeGroup)) {
+            return findGraphRelationsAsync(tenantId, to, relationType, EntitySearchDirection.TO);
+        }
         return executor.submit(() -> findByToAndType(tenantId, to, relationType, typeGroup));
     }
 
     @Override
     public ListenableFuture<List<EntityRelation>> findByQuery(TenantId tenantId, EntityRelationsQuery query) {
         log.trace("Executing findByQuery [{}]", query);
-        RelationsSearchParameters params = query.getParameters();
         final List<RelationEntityTypeFilter> filters = query.getFilters();
         if (filters == null || filters.isEmpty()) {
             log.debug("Filters are not set [{}]", query);
         }
+        ListenableFuture<Optional<List<EntityRelation>>> storageResult = Futures.withTimeout(
+                relationsExecutor.submit(() -> relationDao.findByQuery(tenantId, query)),
+                relationQueryTimeout, TimeUnit.SECONDS, timeoutExecutorService);
+        return Futures.transformAsync(storageResult, relations -> {
+            if (relations.isPresent()) {
+                return Futures.immediateFuture(relations.get());
+            }
+            return findByQueryRecursively(tenantId, query);
+        }, MoreExecutors.directExecutor());
+    }
 
+    private ListenableFuture<List<EntityRelation>> findByQueryRecursively(TenantId tenantId, EntityRelationsQuery query) {
+        RelationsSearchParameters params = query.getParameters();
+        final List<RelationEntityTypeFilter> filters = query.getFilters();
         int maxLvl = params.getMaxLevel() > 0 ? params.getMaxLevel() : Integer.MAX_VALUE;
 
         try {
@@ -655,6 +695,11 @@ public class BaseRelationService implements RelationService {
         if (relationTypeGroup == null) {
             relationTypeGroup = RelationTypeGroup.COMMON;
         }
+        if (isRelationGraphQuery(relationTypeGroup)) {
+            return relationGraphCache.getRelations(tenantId, rootId, direction, direction == EntitySearchDirection.FROM
+                    ? () -> relationDao.findAllByFrom(tenantId, rootId, RelationTypeGroup.COMMON)
+                    : () -> relationDao.findAllByTo(tenantId, rootId, RelationTypeGroup.COMMON));
+        }
         if (direction == EntitySearchDirection.FROM) {
             relations = findByFrom(tenantId, rootId, relationTypeGroup);
         } else {
@@ -663,6 +708,26 @@ public class BaseRelationService implements RelationService {
         return relations;
     }
 
+    /**
+     * Serves the per message relation lookups of rule nodes from the relation graph, without a DB call or a thread hop
+     * when the adjacency of the entity is loaded.
+     */
+    private ListenableFuture<List<EntityRelation>> findGraphRelationsAsync(TenantId tenantId, EntityId entityId, String relationType, EntitySearchDirection direction) {
+        List<EntityRelation> loaded = relationGraphCache.getLoadedRelations(tenantId, entityId, direction);
+        if (loaded != null) {
+            return Futures.immediateFuture(filterByType(loaded, relationType));
+        }
+        return executor.submit(() -> filterByType(findRelations(tenantId, entityId, direction, RelationTypeGroup.COMMON), relationType));
+    }
+
+    private static List<EntityRelation> filterByType(List<EntityRelation> relations, String relationType) {
+        return relations.stream().filter(relation -> relation.getType().equals(relationType)).collect(Collectors.toList());
+    }
+
+    private boolean isRelationGraphQuery(RelationTypeGroup relationTypeGroup) {
+        return relationGraphCache.isEnabled() && (relationTypeGroup == null || relationTypeGroup == RelationTypeGroup.COMMON);
+    }
+
     private void publishEvictEvent(EntityRelationEvent event) {
         if (TransactionSynchronizationManager.isActualTransactionActive()) {
             eventPublisher.publishEvent(event);
@@ -16,14 +16,17 @@
 package org.thingsboard.server.dao.relation;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.rule.RuleChainType;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Created by ashvayka on 25.04.17.
@@ -34,12 +37,16 @@ public interface RelationDao {
 
     List<EntityRelation> findAllByFrom(TenantId tenantId, EntityId from);
 
+    List<EntityRelation> findAllByFromIds(TenantId tenantId, EntityType fromType, List<EntityId> fromIds, RelationTypeGroup typeGroup);
+
     List<EntityRelation> findAllByFromAndType(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup);
 
     List<EntityRelation> findAllByTo(TenantId tenantId, EntityId to, RelationTypeGroup typeGroup);
 
     List<EntityRelation> findAllByTo(TenantId tenantId, EntityId to);
 
+    List<EntityRelation> findAllByToIds(TenantId tenantId, EntityType toType, List<EntityId> toIds, RelationTypeGroup typeGroup);
+
     List<EntityRelation> findAllByToAndType(TenantId tenantId, EntityId to, String relationType, RelationTypeGroup typeGroup);
 
     ListenableFuture<Boolean> checkRelationAsync(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
@@ -73,4 +80,13 @@ public interface RelationDao {
     ListenableFuture<Boolean> deleteOutboundRelationsAsync(TenantId tenantId, EntityId entity);
 
     List<EntityRelation> findRuleNodeToRuleChainRelations(RuleChainType ruleChainType, int limit);
+
+    /**
+     * Evaluates the whole relation query on the storage side.
+     * Returns an empty optional when the query can't be evaluated this way,
+     * so that the caller falls back to the level by level traversal.
+     */
+    default Optional<List<EntityRelation>> findByQuery(TenantId tenantId, EntityRelationsQuery query) {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.relation;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class RelationGraphCache {
+
+    private final ConcurrentMap<TenantId, TenantRelationGraph> graphs = new ConcurrentHashMap<>();
+
+    @Getter
+    @Value("${cache.relationGraph.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.relationGraph.timeToLiveInMinutes:60}")
+    private long timeToLiveInMinutes;
+
+    @Value("${cache.relationGraph.maxRelationsPerTenant:1000000}")
+    private long maxRelationsPerTenant;
+
+    /**
+     * @return relations of the entity if its adjacency is loaded, null otherwise
+     */
+    public List<EntityRelation> getLoadedRelations(TenantId tenantId, EntityId entityId, EntitySearchDirection direction) {
+        TenantRelationGraph graph = graphs.get(tenantId);
+        return graph != null ? graph.getLoadedRelations(entityId, direction, TimeUnit.MINUTES.toMillis(timeToLiveInMinutes)) : null;
+    }
+
+    public List<EntityRelation> getRelations(TenantId tenantId, EntityId entityId, EntitySearchDirection direction, Supplier<List<EntityRelation>> loader) {
+        TenantRelationGraph graph = graphs.computeIfAbsent(tenantId, id -> new TenantRelationGraph());
+        List<EntityRelation> relations = graph.getRelations(entityId, direction, TimeUnit.MINUTES.toMillis(timeToLiveInMinutes), loader);
+        if (graph.getRelationsCount() > maxRelationsPerTenant && graphs.remove(tenantId, graph)) {
+            log.info("[{}] Dropped relation graph with {} relations (~{} bytes): limit of {} relations exceeded",
+                    tenantId, graph.getRelationsCount(), graph.getEstimatedMemoryUsage(), maxRelationsPerTenant);
+        }
+        return relations;
+    }
+
+    /**
+     * Drops the adjacency lists of both ends of a changed relation. Called for relation changes made on this node
+     * and for the relation graph evict notifications of other nodes.
+     */
+    public void onRelationChanged(TenantId tenantId, EntityId from, EntityId to) {
+        TenantRelationGraph graph = graphs.get(tenantId);
+        if (graph != null) {
+            graph.onRelationChanged(from, to);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.relationGraph.evictionIntervalInMinutes:5}", timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        long maxAgeMs = TimeUnit.MINUTES.toMillis(timeToLiveInMinutes);
+        graphs.forEach((tenantId, graph) -> {
+            if (graph.evictExpired(maxAgeMs)) {
+                graphs.remove(tenantId, graph);
+            }
+        });
+    }
+
+    public void evict(TenantId tenantId) {
+        graphs.remove(tenantId);
+    }
+
+    public long getEstimatedMemoryUsage(TenantId tenantId) {
+        TenantRelationGraph graph = graphs.get(tenantId);
+        return graph != null ? graph.getEstimatedMemoryUsage() : 0;
+    }
+
+}
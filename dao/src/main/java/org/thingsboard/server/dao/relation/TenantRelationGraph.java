@@ -0,0 +1,230 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.relation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Compact adjacency lists of the COMMON relations of a single tenant.
+ * Entities and relation types are mapped to int ids, so an edge costs a couple of ints instead of a full {@link EntityRelation}.
+ * Adjacency lists are loaded lazily per entity and direction and dropped when one of their relations changes or once they expire.
+ * Int ids of entities and types that are no longer referenced are reclaimed by compacting the graph once they dominate it.
+ */
+class TenantRelationGraph {
+
+    // rough per-object costs used for memory accounting
+    private static final int ENTITY_BYTES = 96;
+    private static final int ADJACENCY_BYTES = 64;
+    private static final int EDGE_BYTES = 12;
+    private static final int COMPACTION_MIN_ENTITIES = 1024;
+
+    private Map<EntityId, Integer> entityIds = new HashMap<>();
+    private List<EntityId> entities = new ArrayList<>();
+    private Map<String, Integer> typeIds = new HashMap<>();
+    private List<String> types = new ArrayList<>();
+    private final Map<Integer, Adjacency> outgoing = new HashMap<>();
+    private final Map<Integer, Adjacency> incoming = new HashMap<>();
+
+    private long version;
+    private long relationsCount;
+
+    /**
+     * @return relations of the loaded adjacency, or null if it is not loaded or expired
+     */
+    synchronized List<EntityRelation> getLoadedRelations(EntityId entityId, EntitySearchDirection direction, long maxAgeMs) {
+        Integer id = entityIds.get(entityId);
+        Adjacency adjacency = id != null ? getAdjacencyMap(direction).get(id) : null;
+        if (adjacency != null && System.currentTimeMillis() - adjacency.loadedTs < maxAgeMs) {
+            return toRelations(id, adjacency, direction);
+        }
+        return null;
+    }
+
+    List<EntityRelation> getRelations(EntityId entityId, EntitySearchDirection direction, long maxAgeMs, Supplier<List<EntityRelation>> loader) {
+        long loadVersion;
+        synchronized (this) {
+            List<EntityRelation> loaded = getLoadedRelations(entityId, direction, maxAgeMs);
+            if (loaded != null) {
+                return loaded;
+            }
+            loadVersion = version;
+        }
+        List<EntityRelation> relations = loader.get();
+        synchronized (this) {
+            if (loadVersion == version) {
+                putAdjacency(entityId, direction, relations);
+            }
+        }
+        return relations;
+    }
+
+    synchronized void onRelationChanged(EntityId from, EntityId to) {
+        version++;
+        removeAdjacency(from, EntitySearchDirection.FROM);
+        removeAdjacency(to, EntitySearchDirection.TO);
+        compactIfNeeded();
+    }
+
+    /**
+     * Drops the adjacency lists that were not reloaded within maxAgeMs, including the ones that are never read again.
+     *
+     * @return true if the graph holds no adjacency lists anymore
+     */
+    synchronized boolean evictExpired(long maxAgeMs) {
+        long expirationTs = System.currentTimeMillis() - maxAgeMs;
+        for (Map<Integer, Adjacency> adjacencyMap : List.of(outgoing, incoming)) {
+            adjacencyMap.values().removeIf(adjacency -> {
+                if (adjacency.loadedTs > expirationTs) {
+                    return false;
+                }
+                relationsCount -= adjacency.entities.length;
+                return true;
+            });
+        }
+        compactIfNeeded();
+        return outgoing.isEmpty() && incoming.isEmpty();
+    }
+
+    synchronized int getInternedEntitiesCount() {
+        return entities.size();
+    }
+
+    synchronized long getRelationsCount() {
+        return relationsCount;
+    }
+
+    synchronized long getEstimatedMemoryUsage() {
+        return (long) entities.size() * ENTITY_BYTES + (long) (outgoing.size() + incoming.size()) * ADJACENCY_BYTES + relationsCount * EDGE_BYTES;
+    }
+
+    private void putAdjacency(EntityId entityId, EntitySearchDirection direction, List<EntityRelation> relations) {
+        int size = relations.size();
+        Adjacency adjacency = new Adjacency(size);
+        for (int i = 0; i < size; i++) {
+            EntityRelation relation = relations.get(i);
+            adjacency.entities[i] = getOrCreateEntityId(direction == EntitySearchDirection.FROM ? relation.getTo() : relation.getFrom());
+            adjacency.types[i] = getOrCreateTypeId(relation.getType());
+            if (relation.getAdditionalInfo() != null) {
+                if (adjacency.additionalInfo == null) {
+                    adjacency.additionalInfo = new JsonNode[size];
+                }
+                adjacency.additionalInfo[i] = relation.getAdditionalInfo();
+            }
+        }
+        Adjacency previous = getAdjacencyMap(direction).put(getOrCreateEntityId(entityId), adjacency);
+        relationsCount += size - (previous != null ? previous.entities.length : 0);
+    }
+
+    private void removeAdjacency(EntityId entityId, EntitySearchDirection direction) {
+        Integer id = entityId != null ? entityIds.get(entityId) : null;
+        if (id != null) {
+            Adjacency removed = getAdjacencyMap(direction).remove(id);
+            if (removed != null) {
+                relationsCount -= removed.entities.length;
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        // every live id is either an adjacency owner or an edge target, so this is an upper bound of the live ids
+        long maxReferenced = outgoing.size() + incoming.size() + relationsCount;
+        if (entities.size() > COMPACTION_MIN_ENTITIES && entities.size() > 2 * maxReferenced) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        Map<Integer, Integer> entityIdMapping = new HashMap<>();
+        Map<Integer, Integer> typeIdMapping = new HashMap<>();
+        List<EntityId> oldEntities = entities;
+        List<String> oldTypes = types;
+        entityIds = new HashMap<>();
+        entities = new ArrayList<>();
+        typeIds = new HashMap<>();
+        types = new ArrayList<>();
+        for (Map<Integer, Adjacency> adjacencyMap : List.of(outgoing, incoming)) {
+            Map<Integer, Adjacency> remapped = new HashMap<>(adjacencyMap.size());
+            adjacencyMap.forEach((id, adjacency) -> {
+                for (int i = 0; i < adjacency.entities.length; i++) {
+                    adjacency.entities[i] = entityIdMapping.computeIfAbsent(adjacency.entities[i], old -> getOrCreateEntityId(oldEntities.get(old)));
+                    adjacency.types[i] = typeIdMapping.computeIfAbsent(adjacency.types[i], old -> getOrCreateTypeId(oldTypes.get(old)));
+                }
+                remapped.put(entityIdMapping.computeIfAbsent(id, old -> getOrCreateEntityId(oldEntities.get(old))), adjacency);
+            });
+            adjacencyMap.clear();
+            adjacencyMap.putAll(remapped);
+        }
+    }
+
+    private List<EntityRelation> toRelations(int id, Adjacency adjacency, EntitySearchDirection direction) {
+        EntityId entityId = entities.get(id);
+        List<EntityRelation> relations = new ArrayList<>(adjacency.entities.length);
+        for (int i = 0; i < adjacency.entities.length; i++) {
+            EntityId relatedId = entities.get(adjacency.entities[i]);
+            JsonNode additionalInfo = adjacency.additionalInfo != null ? adjacency.additionalInfo[i] : null;
+            String type = types.get(adjacency.types[i]);
+            if (direction == EntitySearchDirection.FROM) {
+                relations.add(new EntityRelation(entityId, relatedId, type, RelationTypeGroup.COMMON, additionalInfo));
+            } else {
+                relations.add(new EntityRelation(relatedId, entityId, type, RelationTypeGroup.COMMON, additionalInfo));
+            }
+        }
+        return relations;
+    }
+
+    private int getOrCreateEntityId(EntityId entityId) {
+        return entityIds.computeIfAbsent(entityId, id -> {
+            entities.add(id);
+            return entities.size() - 1;
+        });
+    }
+
+    private int getOrCreateTypeId(String type) {
+        return typeIds.computeIfAbsent(type, t -> {
+            types.add(t);
+            return types.size() - 1;
+        });
+    }
+
+    private Map<Integer, Adjacency> getAdjacencyMap(EntitySearchDirection direction) {
+        return direction == EntitySearchDirection.FROM ? outgoing : incoming;
+    }
+
+    private static class Adjacency {
+
+        private final long loadedTs = System.currentTimeMillis();
+        private final int[] entities;
+        private final int[] types;
+        private JsonNode[] additionalInfo;
+
+        private Adjacency(int size) {
+            this.entities = new int[size];
+            this.types = new int[size];
+        }
+
+    }
+
+}
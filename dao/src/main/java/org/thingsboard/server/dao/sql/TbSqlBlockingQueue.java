@@ -20,10 +20,14 @@ import com.google.common.util.concurrent.SettableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.dao.exception.BufferLimitException;
+import org.thingsboard.server.dao.exception.PartialSaveException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -36,7 +40,7 @@ import java.util.stream.Stream;
 @Slf4j
 public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
 
-    private final BlockingQueue<TbSqlQueueElement<E>> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<TbSqlQueueElement<E>> queue;
     private final TbSqlBlockingQueueParams params;
 
     private ExecutorService executor;
@@ -45,6 +49,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
     public TbSqlBlockingQueue(TbSqlBlockingQueueParams params, MessagesStats stats) {
         this.params = params;
         this.stats = stats;
+        this.queue = params.getMaxQueueSize() > 0 ? new LinkedBlockingQueue<>(params.getMaxQueueSize()) : new LinkedBlockingQueue<>();
     }
 
     @Override
@@ -71,12 +76,28 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                         log.trace("[{}] Going to save entities: {}", logName, entities);
                     }
                     Stream<E> entitiesStream = entities.stream().map(TbSqlQueueElement::getEntity);
-                    saveFunction.accept(
-                            (params.isBatchSortEnabled() ? entitiesStream.sorted(batchUpdateComparator) : entitiesStream)
-                                    .collect(Collectors.toList())
-                    );
-                    entities.forEach(v -> v.getFuture().set(null));
-                    stats.incrementSuccessful(entities.size());
+                    Map<Object, Throwable> failures = Collections.emptyMap();
+                    try {
+                        saveFunction.accept(
+                                (params.isBatchSortEnabled() ? entitiesStream.sorted(batchUpdateComparator) : entitiesStream)
+                                        .collect(Collectors.toList())
+                        );
+                    } catch (PartialSaveException e) {
+                        log.warn("[{}] Failed to save {} of {} entities", logName, e.getFailures().size(), entities.size());
+                        failures = e.getFailures();
+                    }
+                    for (TbSqlQueueElement<E> element : entities) {
+                        Throwable failure = failures.get(element.getEntity());
+                        if (failure != null) {
+                            element.getFuture().setException(failure);
+                        } else {
+                            element.getFuture().set(null);
+                        }
+                    }
+                    stats.incrementSuccessful(entities.size() - failures.size());
+                    if (!failures.isEmpty()) {
+                        stats.incrementFailed(failures.size());
+                    }
                     if (!fullPack) {
                         long remainingDelay = maxDelay - (System.currentTimeMillis() - currentTs);
                         if (remainingDelay > 0) {
@@ -122,8 +143,11 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
     @Override
     public ListenableFuture<Void> add(E element) {
         SettableFuture<Void> future = SettableFuture.create();
-        queue.add(new TbSqlQueueElement<>(future, element));
         stats.incrementTotal();
+        if (!queue.offer(new TbSqlQueueElement<>(future, element))) {
+            stats.incrementFailed();
+            future.setException(new BufferLimitException("[" + params.getLogName() + "] Queue is full"));
+        }
         return future;
     }
 }
@@ -30,4 +30,8 @@ public class TbSqlBlockingQueueParams {
     private final long statsPrintIntervalMs;
     private final String statsNamePrefix;
     private final boolean batchSortEnabled;
+    /**
+     * Max number of pending elements, 0 - unlimited. When the queue is full new elements are rejected.
+     */
+    private final int maxQueueSize;
 }
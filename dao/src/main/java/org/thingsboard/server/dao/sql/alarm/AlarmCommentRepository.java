@@ -18,11 +18,14 @@ package org.thingsboard.server.dao.sql.alarm;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.dao.model.sql.AlarmCommentEntity;
 import org.thingsboard.server.dao.model.sql.AlarmCommentInfoEntity;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface AlarmCommentRepository extends JpaRepository<AlarmCommentEntity, UUID> {
@@ -36,4 +39,9 @@ public interface AlarmCommentRepository extends JpaRepository<AlarmCommentEntity
                     "WHERE a.alarmId = :alarmId ")
     Page<AlarmCommentInfoEntity> findAllByAlarmId(@Param("alarmId") UUID alarmId,
                                              Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AlarmCommentEntity a WHERE a.alarmId IN (:alarmIds)")
+    void deleteByAlarmIdIn(@Param("alarmIds") Collection<UUID> alarmIds);
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.alarm;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class AlarmPartitionConfiguration {
+
+    @Getter
+    @Value("${sql.alarms.partitioning_enabled:false}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${sql.alarms.partition_size:720}")
+    private int partitionSizeInHours;
+
+    @Getter
+    private long partitionSizeInMs;
+
+    @PostConstruct
+    public void init() {
+        partitionSizeInMs = TimeUnit.HOURS.toMillis(partitionSizeInHours);
+    }
+
+}
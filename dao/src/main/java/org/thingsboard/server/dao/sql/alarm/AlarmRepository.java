@@ -27,6 +27,7 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.dao.model.sql.AlarmEntity;
 import org.thingsboard.server.dao.model.sql.AlarmInfoEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -312,8 +313,13 @@ public interface AlarmRepository extends JpaRepository<AlarmEntity, UUID> {
                                            @Param("ackFilter") boolean ackFilter,
                                            @Param("assigneeId") String assigneeId);
 
-    @Query("SELECT a.id FROM AlarmEntity a WHERE a.tenantId = :tenantId AND a.createdTime < :time AND a.endTs < :time")
-    Page<UUID> findAlarmsIdsByEndTsBeforeAndTenantId(@Param("time") Long time, @Param("tenantId") UUID tenantId, Pageable pageable);
+    @Query("SELECT a FROM AlarmInfoEntity a WHERE a.tenantId = :tenantId AND a.createdTime < :time AND a.endTs < :time")
+    List<AlarmInfoEntity> findAlarmInfosByEndTsBeforeAndTenantId(@Param("time") long time, @Param("tenantId") UUID tenantId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AlarmEntity a WHERE a.id IN (:ids)")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
 
     @Query(value = "SELECT a FROM AlarmInfoEntity a WHERE a.tenantId = :tenantId AND a.id = :alarmId")
     AlarmInfoEntity findAlarmInfoById(@Param("tenantId") UUID tenantId, @Param("alarmId") UUID alarmId);
@@ -321,6 +327,9 @@ public interface AlarmRepository extends JpaRepository<AlarmEntity, UUID> {
     @Query("SELECT a.id FROM AlarmEntity a WHERE a.tenantId = :tenantId AND a.assigneeId = :assigneeId")
     Page<UUID> findAlarmIdsByAssigneeId(@Param("tenantId") UUID tenantId, @Param("assigneeId") UUID assigneeId, Pageable pageable);
 
+    @Query("SELECT a.id FROM AlarmEntity a WHERE a.tenantId = :tenantId AND a.originatorId = :originatorId")
+    Page<UUID> findAlarmIdsByOriginatorId(@Param("tenantId") UUID tenantId, @Param("originatorId") UUID originatorId, Pageable pageable);
+
     @Query(value = "SELECT create_or_update_active_alarm(:t_id, :c_id, :a_id, :a_created_ts, :a_o_id, :a_o_type, :a_type, :a_severity, " +
             ":a_start_ts, :a_end_ts, :a_details, :a_propagate, :a_propagate_to_owner, " +
             ":a_propagate_to_tenant, :a_propagation_types, :a_creation_enabled)", nativeQuery = true)
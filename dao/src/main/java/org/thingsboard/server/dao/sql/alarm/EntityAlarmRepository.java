@@ -23,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.dao.model.sql.EntityAlarmCompositeKey;
 import org.thingsboard.server.dao.model.sql.EntityAlarmEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,4 +41,9 @@ public interface EntityAlarmRepository extends JpaRepository<EntityAlarmEntity,
     @Query("DELETE FROM EntityAlarmEntity a WHERE a.tenantId = :tenantId")
     void deleteByTenantId(@Param("tenantId") UUID tenantId);
 
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EntityAlarmEntity a WHERE a.alarmId IN (:alarmIds)")
+    void deleteByAlarmIdIn(@Param("alarmIds") Collection<UUID> alarmIds);
+
 }
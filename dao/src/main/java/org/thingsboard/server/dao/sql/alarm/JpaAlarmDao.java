@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.sql.alarm;
 
+import com.datastax.oss.driver.api.core.uuid.Uuids;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +23,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.EntitySubtype;
@@ -58,12 +62,16 @@ import org.thingsboard.server.dao.model.sql.AlarmEntity;
 import org.thingsboard.server.dao.model.sql.EntityAlarmEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractDao;
 import org.thingsboard.server.dao.sql.query.AlarmQueryRepository;
+import org.thingsboard.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -80,6 +88,22 @@ import static org.thingsboard.server.dao.DaoUtil.toPageable;
 @SqlDao
 public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements AlarmDao {
 
+    private static final String INSERT_ENTITY_ALARM = "INSERT INTO entity_alarm " +
+            "(tenant_id, entity_type, entity_id, created_time, alarm_type, customer_id, alarm_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (entity_id, alarm_id) DO UPDATE SET " +
+            "tenant_id = EXCLUDED.tenant_id, entity_type = EXCLUDED.entity_type, created_time = EXCLUDED.created_time, " +
+            "alarm_type = EXCLUDED.alarm_type, customer_id = EXCLUDED.customer_id";
+
+    // the primary key of the partitioned entity_alarm table includes the partition key
+    private static final String INSERT_PARTITIONED_ENTITY_ALARM = "INSERT INTO entity_alarm " +
+            "(tenant_id, entity_type, entity_id, created_time, alarm_type, customer_id, alarm_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (entity_id, alarm_id, created_time) DO UPDATE SET " +
+            "tenant_id = EXCLUDED.tenant_id, entity_type = EXCLUDED.entity_type, " +
+            "alarm_type = EXCLUDED.alarm_type, customer_id = EXCLUDED.customer_id";
+
+    private static final String RETAINED_ALARMS_IN_PARTITION_EXIST = "SELECT exists(SELECT 1 FROM alarm " +
+            "WHERE created_time >= ? AND created_time < ? AND (cleared = false OR tenant_id = ANY (?)))";
+
     @Autowired
     private AlarmRepository alarmRepository;
 
@@ -89,6 +113,18 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
     @Autowired
     private EntityAlarmRepository entityAlarmRepository;
 
+    @Autowired
+    private AlarmCommentRepository alarmCommentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlPartitioningRepository partitioningRepository;
+
+    @Autowired
+    private AlarmPartitionConfiguration partitionConfiguration;
+
     @Override
     protected Class<AlarmEntity> getEntityClass() {
         return AlarmEntity.class;
@@ -99,6 +135,26 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
         return alarmRepository;
     }
 
+    @Override
+    public Alarm save(TenantId tenantId, Alarm alarm) {
+        if (partitionConfiguration.isEnabled()) {
+            if (alarm.getId() == null) {
+                UUID uuid = Uuids.timeBased();
+                alarm.setId(new AlarmId(uuid));
+                alarm.setCreatedTime(Uuids.unixTimestamp(uuid));
+            }
+            createPartitions(alarm.getCreatedTime());
+        }
+        return super.save(tenantId, alarm);
+    }
+
+    @Override
+    @Transactional
+    public boolean removeById(TenantId tenantId, UUID id) {
+        removeAlarmChildRecords(Collections.singletonList(id));
+        return super.removeById(tenantId, id);
+    }
+
     @Override
     public Alarm findLatestByOriginatorAndType(TenantId tenantId, EntityId originator, String type) {
         List<AlarmEntity> latest = alarmRepository.findLatestByOriginatorAndType(
@@ -285,8 +341,23 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
     }
 
     @Override
-    public PageData<AlarmId> findAlarmsIdsByEndTsBeforeAndTenantId(Long time, TenantId tenantId, PageLink pageLink) {
-        return DaoUtil.pageToPageData(alarmRepository.findAlarmsIdsByEndTsBeforeAndTenantId(time, tenantId.getId(), DaoUtil.toPageable(pageLink)))
+    public List<AlarmInfo> findAlarmInfosByEndTsBeforeAndTenantId(TenantId tenantId, long time, int limit) {
+        return DaoUtil.convertDataList(alarmRepository.findAlarmInfosByEndTsBeforeAndTenantId(time, tenantId.getId(), PageRequest.of(0, limit)));
+    }
+
+    @Override
+    @Transactional
+    public int removeAlarmsByIds(TenantId tenantId, Collection<UUID> alarmIds) {
+        if (alarmIds.isEmpty()) {
+            return 0;
+        }
+        removeAlarmChildRecords(alarmIds);
+        return alarmRepository.deleteByIdIn(alarmIds);
+    }
+
+    @Override
+    public PageData<AlarmId> findAlarmIdsByOriginatorId(TenantId tenantId, EntityId originatorId, PageLink pageLink) {
+        return DaoUtil.pageToPageData(alarmRepository.findAlarmIdsByOriginatorId(tenantId.getId(), originatorId.getId(), DaoUtil.toPageable(pageLink)))
                 .mapData(AlarmId::new);
     }
 
@@ -299,9 +370,42 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
     @Override
     public void createEntityAlarmRecord(EntityAlarm entityAlarm) {
         log.debug("Saving entity {}", entityAlarm);
+        if (partitionConfiguration.isEnabled()) {
+            partitioningRepository.createPartitionIfNotExists(ModelConstants.ENTITY_ALARM_TABLE_NAME, entityAlarm.getCreatedTime(),
+                    partitionConfiguration.getPartitionSizeInMs());
+        }
         entityAlarmRepository.save(new EntityAlarmEntity(entityAlarm));
     }
 
+    @Override
+    public void createEntityAlarmRecords(List<EntityAlarm> entityAlarms) {
+        log.debug("Saving {} entity alarm records", entityAlarms.size());
+        if (partitionConfiguration.isEnabled()) {
+            entityAlarms.stream().map(EntityAlarm::getCreatedTime).distinct().forEach(createdTime ->
+                    partitioningRepository.createPartitionIfNotExists(ModelConstants.ENTITY_ALARM_TABLE_NAME, createdTime,
+                            partitionConfiguration.getPartitionSizeInMs()));
+        }
+        String insertEntityAlarm = partitionConfiguration.isEnabled() ? INSERT_PARTITIONED_ENTITY_ALARM : INSERT_ENTITY_ALARM;
+        jdbcTemplate.batchUpdate(insertEntityAlarm, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EntityAlarm entityAlarm = entityAlarms.get(i);
+                ps.setObject(1, entityAlarm.getTenantId().getId());
+                ps.setString(2, entityAlarm.getEntityId().getEntityType().name());
+                ps.setObject(3, entityAlarm.getEntityId().getId());
+                ps.setLong(4, entityAlarm.getCreatedTime());
+                ps.setString(5, entityAlarm.getAlarmType());
+                ps.setObject(6, entityAlarm.getCustomerId() != null ? entityAlarm.getCustomerId().getId() : null);
+                ps.setObject(7, entityAlarm.getAlarmId().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entityAlarms.size();
+            }
+        });
+    }
+
     @Override
     public List<EntityAlarm> findEntityAlarmRecords(TenantId tenantId, AlarmId id) {
         log.trace("[{}] Try to find entity alarm records using [{}]", tenantId, id);
@@ -321,11 +425,15 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
     @Override
     public AlarmApiCallResult createOrUpdateActiveAlarm(AlarmCreateOrUpdateActiveRequest request, boolean alarmCreationEnabled) {
         AlarmPropagationInfo ap = getSafePropagationInfo(request.getPropagation());
+        long createdTime = System.currentTimeMillis();
+        if (partitionConfiguration.isEnabled()) {
+            createPartitions(createdTime);
+        }
         return toAlarmApiResult(alarmRepository.createOrUpdateActiveAlarm(
                 request.getTenantId().getId(),
                 request.getCustomerId() != null ? request.getCustomerId().getId() : CustomerId.NULL_UUID,
                 request.getEdgeAlarmId() != null ? request.getEdgeAlarmId().getId() : UUID.randomUUID(),
-                System.currentTimeMillis(),
+                createdTime,
                 request.getOriginator().getId(),
                 request.getOriginator().getEntityType().ordinal(),
                 request.getType(),
@@ -397,6 +505,100 @@ public class JpaAlarmDao extends JpaAbstractDao<AlarmEntity, Alarm> implements A
         return alarmRepository.deleteTypeIfNoAlarmsExist(tenantId, types) > 0;
     }
 
+    @Override
+    public int cleanUpAlarmPartitions(long expTime, Set<UUID> retainedTenantIds) {
+        if (!partitionConfiguration.isEnabled()) {
+            return 0;
+        }
+        long partitionSizeInMs = partitionConfiguration.getPartitionSizeInMs();
+        List<Long> entityAlarmPartitions = partitioningRepository.fetchPartitions(ModelConstants.ENTITY_ALARM_TABLE_NAME);
+        int dropped = 0;
+        for (long partitionStartTs : partitioningRepository.fetchPartitions(ModelConstants.ALARM_TABLE_NAME)) {
+            long partitionEndTs = partitionStartTs + partitionSizeInMs;
+            if (partitionEndTs >= expTime) {
+                continue;
+            }
+            // active alarms are never removed by the TTL, and the alarms of the retained tenants live longer than the partitions,
+            // so the whole partition is kept until they are cleared or removed by the tenant TTL
+            if (hasRetainedAlarms(partitionStartTs, partitionEndTs, retainedTenantIds)) {
+                log.debug("[{}] Skipping expired partition {} with active or retained alarms", ModelConstants.ALARM_TABLE_NAME, partitionStartTs);
+                continue;
+            }
+            if (entityAlarmPartitions.contains(partitionStartTs)
+                    && !partitioningRepository.detachAndDropPartition(ModelConstants.ENTITY_ALARM_TABLE_NAME, partitionStartTs)) {
+                continue;
+            }
+            if (partitioningRepository.detachAndDropPartition(ModelConstants.ALARM_TABLE_NAME, partitionStartTs)) {
+                log.info("[{}] Dropped expired partition: [{}-{}]", ModelConstants.ALARM_TABLE_NAME, partitionStartTs, partitionEndTs);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    @Override
+    public void cleanUpAlarmPartitionsCache(long expTime) {
+        long partitionSizeInMs = partitionConfiguration.getPartitionSizeInMs();
+        partitioningRepository.cleanupPartitionsCache(ModelConstants.ALARM_TABLE_NAME, expTime, partitionSizeInMs);
+        partitioningRepository.cleanupPartitionsCache(ModelConstants.ENTITY_ALARM_TABLE_NAME, expTime, partitionSizeInMs);
+    }
+
+    @Override
+    public void migrateAlarms() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT exists(SELECT FROM pg_tables WHERE tablename = 'old_alarm')", Boolean.class))) {
+            log.info("Alarms are already partitioned, skipping the migration");
+            return;
+        }
+        long partitionSizeInMs = partitionConfiguration.getPartitionSizeInMs();
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT min(created_time) AS min_ts, max(created_time) AS max_ts FROM old_alarm");
+        if (range.get("min_ts") != null) {
+            long startTime = partitioningRepository.calculatePartitionStartTime(((Number) range.get("min_ts")).longValue(), partitionSizeInMs);
+            long maxTime = ((Number) range.get("max_ts")).longValue();
+            long numberOfPartitions = (maxTime - startTime) / partitionSizeInMs + 1;
+            if (numberOfPartitions > 1000) {
+                String error = "Please adjust your alarms partitioning configuration. Configuration with partition size " +
+                        "of " + partitionConfiguration.getPartitionSizeInHours() + " hours will use " + numberOfPartitions + " " +
+                        "(> 1000) partitions which is not recommended!";
+                log.error(error);
+                throw new RuntimeException(error);
+            }
+            while (startTime <= maxTime) {
+                long endTime = startTime + partitionSizeInMs;
+                log.info("Migrating alarms for time period: {} - {}", startTime, endTime);
+                jdbcTemplate.update("CALL migrate_alarms(?, ?, ?)", startTime, endTime, partitionSizeInMs);
+                startTime = endTime;
+            }
+        }
+        log.info("Alarms migration finished");
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS old_entity_alarm");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS old_alarm");
+    }
+
+    private boolean hasRetainedAlarms(long partitionStartTs, long partitionEndTs, Set<UUID> retainedTenantIds) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RETAINED_ALARMS_IN_PARTITION_EXIST);
+            ps.setLong(1, partitionStartTs);
+            ps.setLong(2, partitionEndTs);
+            ps.setArray(3, connection.createArrayOf("uuid", retainedTenantIds.toArray()));
+            return ps;
+        }, rs -> rs.next() && rs.getBoolean(1)));
+    }
+
+    private void removeAlarmChildRecords(Collection<UUID> alarmIds) {
+        // the partitioned alarm table can not be referenced by the foreign keys that cascade the deletion otherwise
+        if (partitionConfiguration.isEnabled()) {
+            entityAlarmRepository.deleteByAlarmIdIn(alarmIds);
+            alarmCommentRepository.deleteByAlarmIdIn(alarmIds);
+        }
+    }
+
+    private void createPartitions(long createdTime) {
+        long partitionSizeInMs = partitionConfiguration.getPartitionSizeInMs();
+        partitioningRepository.createPartitionIfNotExists(ModelConstants.ALARM_TABLE_NAME, createdTime, partitionSizeInMs);
+        partitioningRepository.createPartitionIfNotExists(ModelConstants.ENTITY_ALARM_TABLE_NAME, createdTime, partitionSizeInMs);
+    }
+
     private static String getPropagationTypes(AlarmPropagationInfo ap) {
         String propagateRelationTypes;
         if (!CollectionUtils.isEmpty(ap.getPropagateRelationTypes())) {
@@ -36,6 +36,13 @@ public interface AttributeKvRepository extends JpaRepository<AttributeKvEntity,
                                                                            @Param("entityId") UUID entityId,
                                                                            @Param("attributeType") String attributeType);
 
+    @Query("SELECT a FROM AttributeKvEntity a WHERE a.id.entityType = :entityType " +
+            "AND a.id.entityId IN :entityIds " +
+            "AND a.id.attributeType = :attributeType")
+    List<AttributeKvEntity> findAllByEntityTypeAndEntityIdInAndAttributeType(@Param("entityType") EntityType entityType,
+                                                                             @Param("entityIds") List<UUID> entityIds,
+                                                                             @Param("attributeType") String attributeType);
+
     @Transactional
     @Modifying
     @Query("DELETE FROM AttributeKvEntity a WHERE a.id.entityType = :entityType " +
@@ -26,6 +26,7 @@ import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.DeviceProfileId;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.stats.StatsFactory;
@@ -44,7 +45,9 @@ import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -138,6 +141,16 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
                                 attributeType)));
     }
 
+    @Override
+    public Map<EntityId, List<AttributeKvEntry>> findAllByEntityIds(TenantId tenantId, EntityType entityType, List<EntityId> entityIds, String attributeType) {
+        Map<EntityId, List<AttributeKvEntry>> attributes = new HashMap<>();
+        attributeKvRepository.findAllByEntityTypeAndEntityIdInAndAttributeType(entityType,
+                        entityIds.stream().map(EntityId::getId).collect(Collectors.toList()), attributeType)
+                .forEach(attributeKvEntity -> attributes.computeIfAbsent(EntityIdFactory.getByTypeAndUuid(entityType, attributeKvEntity.getId().getEntityId()),
+                        entityId -> new ArrayList<>()).add(attributeKvEntity.toData()));
+        return attributes;
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         if (deviceProfileId != null) {
@@ -0,0 +1,126 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.dao.exception.PartialSaveException;
+import org.thingsboard.server.dao.model.sql.AuditLogEntity;
+import org.thingsboard.server.dao.util.SqlDao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Slf4j
+@Transactional
+@SqlDao
+public class AuditLogInsertRepository {
+
+    private static final String INSERT =
+            "INSERT INTO audit_log (id, created_time, tenant_id, customer_id, entity_id, entity_type, entity_name, user_id, user_name, " +
+                    "action_type, action_data, action_status, action_failure_details) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    protected void save(List<AuditLogEntity> entities) {
+        try {
+            transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+                @Override
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            setInsertValues(ps, entities.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return entities.size();
+                        }
+                    });
+                }
+            });
+        } catch (DataAccessException e) {
+            if (entities.size() == 1) {
+                throw e;
+            }
+            log.warn("Failed to save batch of {} audit logs, falling back to saving them one by one", entities.size(), e);
+            saveOneByOne(entities, e);
+        }
+    }
+
+    /*
+     * A single malformed entry must not cost the whole batch. Each entry gets its own transaction;
+     * if none of them can be saved the database itself is most likely unavailable, so the original error is propagated.
+     * Otherwise the failed entries are reported with a PartialSaveException, so that only their futures fail.
+     */
+    private void saveOneByOne(List<AuditLogEntity> entities, DataAccessException batchError) {
+        Map<Object, Throwable> failures = new IdentityHashMap<>();
+        for (AuditLogEntity entity : entities) {
+            try {
+                transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+                    @Override
+                    protected void doInTransactionWithoutResult(TransactionStatus status) {
+                        jdbcTemplate.update(INSERT, ps -> setInsertValues(ps, entity));
+                    }
+                });
+            } catch (DataAccessException e) {
+                failures.put(entity, e);
+                log.warn("[{}][{}] Failed to save audit log for entity {}", entity.getTenantId(), entity.getId(), entity.getEntityId(), e);
+            }
+        }
+        if (failures.size() == entities.size()) {
+            throw batchError;
+        } else if (!failures.isEmpty()) {
+            throw new PartialSaveException("Failed to save " + failures.size() + " of " + entities.size() + " audit logs", failures);
+        }
+    }
+
+    private static void setInsertValues(PreparedStatement ps, AuditLogEntity auditLog) throws SQLException {
+        ps.setObject(1, auditLog.getId());
+        ps.setLong(2, auditLog.getCreatedTime());
+        ps.setObject(3, auditLog.getTenantId());
+        ps.setObject(4, auditLog.getCustomerId());
+        ps.setObject(5, auditLog.getEntityId());
+        ps.setString(6, auditLog.getEntityType() != null ? auditLog.getEntityType().name() : null);
+        ps.setString(7, auditLog.getEntityName());
+        ps.setObject(8, auditLog.getUserId());
+        ps.setString(9, auditLog.getUserName());
+        ps.setString(10, auditLog.getActionType() != null ? auditLog.getActionType().name() : null);
+        ps.setString(11, auditLog.getActionData() != null ? JacksonUtil.toString(auditLog.getActionData()) : null);
+        ps.setString(12, auditLog.getActionStatus() != null ? auditLog.getActionStatus().name() : null);
+        ps.setString(13, auditLog.getActionFailureDetails());
+    }
+
+}
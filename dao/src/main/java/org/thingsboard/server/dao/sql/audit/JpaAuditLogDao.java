@@ -32,14 +32,21 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.audit.AuditLogDao;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.model.sql.AuditLogEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractDao;
+import org.thingsboard.server.dao.sql.ScheduledLogExecutorComponent;
+import org.thingsboard.server.dao.sql.TbSqlBlockingQueueParams;
+import org.thingsboard.server.dao.sql.TbSqlBlockingQueueWrapper;
 import org.thingsboard.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -54,14 +61,52 @@ public class JpaAuditLogDao extends JpaAbstractDao<AuditLogEntity, AuditLog> imp
     private final AuditLogRepository auditLogRepository;
     private final SqlPartitioningRepository partitioningRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final AuditLogInsertRepository auditLogInsertRepository;
+    private final ScheduledLogExecutorComponent logExecutor;
+    private final StatsFactory statsFactory;
 
     @Value("${sql.audit_logs.partition_size:168}")
     private int partitionSizeInHours;
     @Value("${sql.ttl.audit_logs.ttl:0}")
     private long ttlInSec;
+    @Value("${sql.audit_logs.batch_size:1000}")
+    private int batchSize;
+    @Value("${sql.audit_logs.batch_max_delay:100}")
+    private long maxDelay;
+    @Value("${sql.audit_logs.batch_threads:1}")
+    private int batchThreads;
+    @Value("${sql.audit_logs.max_queue_size:100000}")
+    private int maxQueueSize;
+    @Value("${sql.audit_logs.stats_print_interval_ms:10000}")
+    private long statsPrintIntervalMs;
 
     private static final String TABLE_NAME = ModelConstants.AUDIT_LOG_TABLE_NAME;
 
+    private TbSqlBlockingQueueWrapper<AuditLogEntity> queue;
+
+    @PostConstruct
+    private void init() {
+        TbSqlBlockingQueueParams params = TbSqlBlockingQueueParams.builder()
+                .logName("Audit Logs")
+                .batchSize(batchSize)
+                .maxDelay(maxDelay)
+                .statsPrintIntervalMs(statsPrintIntervalMs)
+                .statsNamePrefix("audit.logs")
+                .batchSortEnabled(false)
+                .maxQueueSize(maxQueueSize)
+                .build();
+        queue = new TbSqlBlockingQueueWrapper<>(params, entity -> entity.getTenantId() != null ? entity.getTenantId().hashCode() : 0,
+                batchThreads, statsFactory);
+        queue.init(logExecutor, auditLogInsertRepository::save, Comparator.comparing(AuditLogEntity::getId));
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
     @Override
     protected Class<AuditLogEntity> getEntityClass() {
         return AuditLogEntity.class;
@@ -74,21 +119,23 @@ public class JpaAuditLogDao extends JpaAbstractDao<AuditLogEntity, AuditLog> imp
 
     @Override
     public ListenableFuture<Void> saveByTenantId(AuditLog auditLog) {
-        return service.submit(() -> {
-            save(auditLog.getTenantId(), auditLog);
-            return null;
-        });
+        prepareForSave(auditLog);
+        return queue.add(new AuditLogEntity(auditLog));
     }
 
     @Override
     public AuditLog save(TenantId tenantId, AuditLog auditLog) {
+        prepareForSave(auditLog);
+        return super.save(tenantId, auditLog);
+    }
+
+    private void prepareForSave(AuditLog auditLog) {
         if (auditLog.getId() == null) {
             UUID uuid = Uuids.timeBased();
             auditLog.setId(new AuditLogId(uuid));
             auditLog.setCreatedTime(Uuids.unixTimestamp(uuid));
         }
         partitioningRepository.createPartitionIfNotExists(TABLE_NAME, auditLog.getCreatedTime(), TimeUnit.HOURS.toMillis(partitionSizeInHours));
-        return super.save(tenantId, auditLog);
     }
 
     @Override
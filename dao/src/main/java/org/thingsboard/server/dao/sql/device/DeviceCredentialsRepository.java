@@ -21,6 +21,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.dao.model.sql.DeviceCredentialsEntity;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,6 +31,8 @@ public interface DeviceCredentialsRepository extends JpaRepository<DeviceCredent
 
     DeviceCredentialsEntity findByDeviceId(UUID deviceId);
 
+    List<DeviceCredentialsEntity> findByDeviceIdIn(List<UUID> deviceIds);
+
     DeviceCredentialsEntity findByCredentialsId(String credentialsId);
 
     @Transactional
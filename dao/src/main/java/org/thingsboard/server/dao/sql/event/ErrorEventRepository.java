@@ -35,6 +35,10 @@ public interface ErrorEventRepository extends EventRepository<ErrorEventEntity,
     @Query(nativeQuery = true, value = "SELECT * FROM error_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId ORDER BY e.ts DESC LIMIT :limit")
     List<ErrorEventEntity> findLatestEvents(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId, @Param("limit") int limit);
 
+    @Override
+    @Query(nativeQuery = true, value = "SELECT min(e.ts) FROM error_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId")
+    Long findOldestEventTs(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId);
+
     @Override
     @Query("SELECT e FROM ErrorEventEntity e WHERE " +
             "e.tenantId = :tenantId " +
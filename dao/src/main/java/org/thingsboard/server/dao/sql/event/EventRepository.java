@@ -27,6 +27,8 @@ public interface EventRepository<T extends EventEntity<V>, V extends Event> {
 
     List<T> findLatestEvents(UUID tenantId, UUID entityId, int limit);
 
+    Long findOldestEventTs(UUID tenantId, UUID entityId);
+
     Page<T> findEvents(UUID tenantId, UUID entityId, Long startTime, Long endTime, Pageable pageable);
 
     void removeEvents(UUID tenantId, UUID entityId, Long startTime, Long endTime);
@@ -86,6 +86,9 @@ public class JpaBaseEventDao implements EventDao {
     @Autowired
     private RuleNodeDebugEventRepository ruleNodeDebugEventRepository;
 
+    @Autowired
+    private RuleNodeDebugEventQueryRepository ruleNodeDebugEventQueryRepository;
+
     @Autowired
     private RuleChainDebugEventRepository ruleChainDebugEventRepository;
 
@@ -107,10 +110,23 @@ public class JpaBaseEventDao implements EventDao {
     @Value("${sql.events.batch_threads:3}")
     private int batchThreads;
 
+    @Value("${sql.events.debug.batch_size:10000}")
+    private int debugBatchSize;
+
+    @Value("${sql.events.debug.batch_max_delay:1000}")
+    private long debugMaxDelay;
+
+    @Value("${sql.events.debug.batch_threads:1}")
+    private int debugBatchThreads;
+
+    @Value("${sql.events.debug.max_queue_size:100000}")
+    private int debugMaxQueueSize;
+
     @Value("${sql.batch_sort:true}")
     private boolean batchSortEnabled;
 
     private TbSqlBlockingQueueWrapper<Event> queue;
+    private TbSqlBlockingQueueWrapper<Event> debugQueue;
 
     private final Map<EventType, EventRepository<?, ?>> repositories = new ConcurrentHashMap<>();
 
@@ -127,6 +143,18 @@ public class JpaBaseEventDao implements EventDao {
         Function<Event, Integer> hashcodeFunction = entity -> Objects.hash(super.hashCode(), entity.getTenantId(), entity.getEntityId());
         queue = new TbSqlBlockingQueueWrapper<>(params, hashcodeFunction, batchThreads, statsFactory);
         queue.init(logExecutor, v -> eventInsertRepository.save(v), Comparator.comparing(Event::getCreatedTime));
+
+        TbSqlBlockingQueueParams debugParams = TbSqlBlockingQueueParams.builder()
+                .logName("Debug Events")
+                .batchSize(debugBatchSize)
+                .maxDelay(debugMaxDelay)
+                .statsPrintIntervalMs(statsPrintIntervalMs)
+                .statsNamePrefix("debug.events")
+                .batchSortEnabled(batchSortEnabled)
+                .maxQueueSize(debugMaxQueueSize)
+                .build();
+        debugQueue = new TbSqlBlockingQueueWrapper<>(debugParams, hashcodeFunction, debugBatchThreads, statsFactory);
+        debugQueue.init(logExecutor, v -> eventInsertRepository.save(v), Comparator.comparing(Event::getCreatedTime));
         repositories.put(EventType.LC_EVENT, lcEventRepository);
         repositories.put(EventType.STATS, statsEventRepository);
         repositories.put(EventType.ERROR, errorEventRepository);
@@ -139,6 +167,9 @@ public class JpaBaseEventDao implements EventDao {
         if (queue != null) {
             queue.destroy();
         }
+        if (debugQueue != null) {
+            debugQueue.destroy();
+        }
     }
 
     @Override
@@ -158,6 +189,10 @@ public class JpaBaseEventDao implements EventDao {
         }
         partitioningRepository.createPartitionIfNotExists(event.getType().getTable(), event.getCreatedTime(),
                 partitionConfiguration.getPartitionSizeInMs(event.getType()));
+        if (event.getType() == EventType.DEBUG_RULE_NODE || event.getType() == EventType.DEBUG_RULE_CHAIN) {
+            // debug events go through their own bounded queue, so a flood of them neither delays nor evicts other events
+            return debugQueue.add(event);
+        }
         return queue.add(event);
     }
 
@@ -245,24 +280,7 @@ public class JpaBaseEventDao implements EventDao {
     private PageData<? extends Event> findEventByFilter(UUID tenantId, UUID entityId, RuleNodeDebugEventFilter eventFilter, TimePageLink pageLink) {
         parseUUID(eventFilter.getEntityId(), "Entity Id");
         parseUUID(eventFilter.getMsgId(), "Message Id");
-        return DaoUtil.toPageData(
-                ruleNodeDebugEventRepository.findEvents(
-                        tenantId,
-                        entityId,
-                        pageLink.getStartTime(),
-                        pageLink.getEndTime(),
-                        eventFilter.getServer(),
-                        eventFilter.getMsgDirectionType(),
-                        eventFilter.getEntityId(),
-                        eventFilter.getEntityType(),
-                        eventFilter.getMsgId(),
-                        eventFilter.getMsgType(),
-                        eventFilter.getRelationType(),
-                        eventFilter.getDataSearch(),
-                        eventFilter.getMetadataSearch(),
-                        eventFilter.isError(),
-                        eventFilter.getErrorStr(),
-                        DaoUtil.toPageable(pageLink, EventEntity.eventColumnMap)));
+        return ruleNodeDebugEventQueryRepository.findEvents(tenantId, entityId, eventFilter, pageLink);
     }
 
     private PageData<? extends Event> findEventByFilter(UUID tenantId, UUID entityId, ErrorEventFilter eventFilter, TimePageLink pageLink) {
@@ -328,22 +346,7 @@ public class JpaBaseEventDao implements EventDao {
     private void removeEventsByFilter(UUID tenantId, UUID entityId, RuleNodeDebugEventFilter eventFilter, Long startTime, Long endTime) {
         parseUUID(eventFilter.getEntityId(), "Entity Id");
         parseUUID(eventFilter.getMsgId(), "Message Id");
-        ruleNodeDebugEventRepository.removeEvents(
-                tenantId,
-                entityId,
-                startTime,
-                endTime,
-                eventFilter.getServer(),
-                eventFilter.getMsgDirectionType(),
-                eventFilter.getEntityId(),
-                eventFilter.getEntityType(),
-                eventFilter.getMsgId(),
-                eventFilter.getMsgType(),
-                eventFilter.getRelationType(),
-                eventFilter.getDataSearch(),
-                eventFilter.getMetadataSearch(),
-                eventFilter.isError(),
-                eventFilter.getErrorStr());
+        ruleNodeDebugEventQueryRepository.removeEvents(tenantId, entityId, eventFilter, startTime, endTime);
     }
 
     private void removeEventsByFilter(UUID tenantId, UUID entityId, ErrorEventFilter eventFilter, Long startTime, Long endTime) {
@@ -392,6 +395,18 @@ public class JpaBaseEventDao implements EventDao {
         return DaoUtil.convertDataList(getEventRepository(eventType).findLatestEvents(tenantId, entityId, limit));
     }
 
+    @Override
+    public Long findOldestEventTs(UUID tenantId, UUID entityId) {
+        Long oldestTs = null;
+        for (EventType eventType : EventType.values()) {
+            Long ts = getEventRepository(eventType).findOldestEventTs(tenantId, entityId);
+            if (ts != null && (oldestTs == null || ts < oldestTs)) {
+                oldestTs = ts;
+            }
+        }
+        return oldestTs;
+    }
+
     @Override
     public void cleanupEvents(long regularEventExpTs, long debugEventExpTs, boolean cleanupDb) {
         if (regularEventExpTs > 0) {
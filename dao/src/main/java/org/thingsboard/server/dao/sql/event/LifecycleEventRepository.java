@@ -34,6 +34,10 @@ public interface LifecycleEventRepository extends EventRepository<LifecycleEvent
     @Query(nativeQuery = true, value = "SELECT * FROM lc_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId ORDER BY e.ts DESC LIMIT :limit")
     List<LifecycleEventEntity> findLatestEvents(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId, @Param("limit") int limit);
 
+    @Override
+    @Query(nativeQuery = true, value = "SELECT min(e.ts) FROM lc_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId")
+    Long findOldestEventTs(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId);
+
 
     @Query("SELECT e FROM LifecycleEventEntity e WHERE " +
             "e.tenantId = :tenantId " +
@@ -0,0 +1,201 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.data.event.EventType;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEvent;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEventFilter;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.SortOrder;
+import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.dao.exception.IncorrectParameterException;
+import org.thingsboard.server.dao.model.sql.EventEntity;
+import org.thingsboard.server.dao.util.SqlDao;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filtered queries over rule node debug events.
+ * Only the conditions of the filter fields that are actually set end up in the statement, so PostgreSQL is able
+ * to prune the ts partitions and to use the indexes instead of evaluating every optional condition for every row.
+ * The total count is bounded by {@code sql.events.debug.max_count}, so paging through a large table does not require
+ * counting all the matching events.
+ * The search indexes used by these queries are created by the schema and upgrade scripts.
+ */
+@Repository
+@SqlDao
+public class RuleNodeDebugEventQueryRepository {
+
+    private static final String TABLE = EventType.DEBUG_RULE_NODE.getTable();
+    private static final String SELECT_COLUMNS = "e.id, e.tenant_id, e.ts, e.entity_id, e.service_id, e.e_type, e.e_entity_id, e.e_entity_type, " +
+            "e.e_msg_id, e.e_msg_type, e.e_data_type, e.e_relation_type, e.e_data, e.e_metadata, e.e_error";
+    private static final Set<String> SORT_COLUMNS = Set.of("id", "ts", "service_id", "e_type", "e_entity_id", "e_entity_type",
+            "e_msg_id", "e_msg_type", "e_data_type", "e_relation_type", "e_data", "e_metadata", "e_error");
+
+    private static final RowMapper<RuleNodeDebugEvent> ROW_MAPPER = (rs, rowNum) -> {
+        UUID eventEntityId = rs.getObject("e_entity_id", UUID.class);
+        return RuleNodeDebugEvent.builder()
+                .id(rs.getObject("id", UUID.class))
+                .tenantId(TenantId.fromUUID(rs.getObject("tenant_id", UUID.class)))
+                .ts(rs.getLong("ts"))
+                .entityId(rs.getObject("entity_id", UUID.class))
+                .serviceId(rs.getString("service_id"))
+                .eventType(rs.getString("e_type"))
+                .eventEntity(eventEntityId != null ? EntityIdFactory.getByTypeAndUuid(rs.getString("e_entity_type"), eventEntityId) : null)
+                .msgId(rs.getObject("e_msg_id", UUID.class))
+                .msgType(rs.getString("e_msg_type"))
+                .dataType(rs.getString("e_data_type"))
+                .relationType(rs.getString("e_relation_type"))
+                .data(rs.getString("e_data"))
+                .metadata(rs.getString("e_metadata"))
+                .error(rs.getString("e_error"))
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sql.events.debug.max_count:10000}")
+    private int maxCount;
+
+    public RuleNodeDebugEventQueryRepository(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public PageData<RuleNodeDebugEvent> findEvents(UUID tenantId, UUID entityId, RuleNodeDebugEventFilter filter, TimePageLink pageLink) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = buildWhereClause(tenantId, entityId, filter, pageLink.getStartTime(), pageLink.getEndTime(), params);
+        int page = pageLink.getPage();
+        int pageSize = pageLink.getPageSize();
+        int offset = page * pageSize;
+        params.addValue("limit", pageSize);
+        params.addValue("offset", offset);
+        String dataQuery = "SELECT " + SELECT_COLUMNS + " FROM " + TABLE + " e WHERE " + where +
+                " ORDER BY " + buildOrderBy(pageLink) + " LIMIT :limit OFFSET :offset";
+        long countLimit = getCountLimit(page, pageSize);
+        String countQuery;
+        if (countLimit > 0) {
+            params.addValue("countLimit", countLimit);
+            countQuery = "SELECT count(*) FROM (SELECT 1 FROM " + TABLE + " e WHERE " + where + " LIMIT :countLimit) c";
+        } else {
+            countQuery = "SELECT count(*) FROM " + TABLE + " e WHERE " + where;
+        }
+        return transactionTemplate.execute(status -> {
+            long count = jdbcTemplate.queryForObject(countQuery, params, Long.class);
+            List<RuleNodeDebugEvent> data = count > offset ? jdbcTemplate.query(dataQuery, params, ROW_MAPPER) : List.of();
+            return toPageData(data, count, countLimit, page, pageSize);
+        });
+    }
+
+    public void removeEvents(UUID tenantId, UUID entityId, RuleNodeDebugEventFilter filter, Long startTime, Long endTime) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = buildWhereClause(tenantId, entityId, filter, startTime, endTime, params);
+        jdbcTemplate.update("DELETE FROM " + TABLE + " e WHERE " + where, params);
+    }
+
+    static String buildWhereClause(UUID tenantId, UUID entityId, RuleNodeDebugEventFilter filter,
+                                    Long startTime, Long endTime, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder("e.tenant_id = :tenantId AND e.entity_id = :entityId");
+        params.addValue("tenantId", tenantId);
+        params.addValue("entityId", entityId);
+        if (startTime != null) {
+            where.append(" AND e.ts >= :startTime");
+            params.addValue("startTime", startTime);
+        }
+        if (endTime != null) {
+            where.append(" AND e.ts <= :endTime");
+            params.addValue("endTime", endTime);
+        }
+        addUuidCondition(where, params, "e_entity_id", "eventEntityId", filter.getEntityId());
+        addUuidCondition(where, params, "e_msg_id", "msgId", filter.getMsgId());
+        addSearchCondition(where, params, "service_id", "serviceId", filter.getServer());
+        addSearchCondition(where, params, "e_type", "eventType", filter.getMsgDirectionType());
+        addSearchCondition(where, params, "e_entity_type", "eventEntityType", filter.getEntityType());
+        addSearchCondition(where, params, "e_msg_type", "msgType", filter.getMsgType());
+        addSearchCondition(where, params, "e_relation_type", "relationType", filter.getRelationType());
+        addSearchCondition(where, params, "e_data", "data", filter.getDataSearch());
+        addSearchCondition(where, params, "e_metadata", "metadata", filter.getMetadataSearch());
+        if (filter.isError()) {
+            where.append(" AND e.e_error IS NOT NULL");
+        }
+        addSearchCondition(where, params, "e_error", "error", filter.getErrorStr());
+        return where.toString();
+    }
+
+    private static void addUuidCondition(StringBuilder where, MapSqlParameterSource params, String column, String param, String value) {
+        if (StringUtils.isNotEmpty(value)) {
+            where.append(" AND e.").append(column).append(" = :").append(param);
+            params.addValue(param, UUID.fromString(value));
+        }
+    }
+
+    private static void addSearchCondition(StringBuilder where, MapSqlParameterSource params, String column, String param, String value) {
+        if (StringUtils.isNotEmpty(value)) {
+            where.append(" AND e.").append(column).append(" ILIKE :").append(param);
+            params.addValue(param, "%" + value + "%");
+        }
+    }
+
+    static String buildOrderBy(TimePageLink pageLink) {
+        SortOrder sortOrder = pageLink.getSortOrder();
+        if (sortOrder == null) {
+            return "e.ts DESC NULLS LAST";
+        }
+        String column = EventEntity.eventColumnMap.getOrDefault(sortOrder.getProperty(), sortOrder.getProperty());
+        if (!SORT_COLUMNS.contains(column)) {
+            throw new IncorrectParameterException("Invalid page link sort property");
+        }
+        // nulls are ordered as the lowest values, which matches the (ts DESC NULLS LAST) index in both directions
+        return "e." + column + (sortOrder.getDirection() == SortOrder.Direction.ASC ? " ASC NULLS FIRST" : " DESC NULLS LAST");
+    }
+
+    /**
+     * Returns the number of events to count for the requested page, or 0 when the exact count is required.
+     * The limit covers whole pages up to at least the requested one and a single event beyond them,
+     * so reaching it means that there is at least one more page.
+     */
+    long getCountLimit(int page, int pageSize) {
+        if (maxCount <= 0) {
+            return 0;
+        }
+        long countedPages = Math.max((maxCount + pageSize - 1) / pageSize, page + 1);
+        return countedPages * pageSize + 1;
+    }
+
+    static <T> PageData<T> toPageData(List<T> data, long count, long countLimit, int page, int pageSize) {
+        int totalPages;
+        if (countLimit > 0 && count >= countLimit) {
+            // the count was truncated: report the counted pages and the one that follows them
+            totalPages = (int) ((countLimit - 1) / pageSize) + 1;
+        } else {
+            totalPages = (int) ((count + pageSize - 1) / pageSize);
+        }
+        return new PageData<>(data, totalPages, count, page + 1 < totalPages);
+    }
+
+}
@@ -34,6 +34,10 @@ public interface StatisticsEventRepository extends EventRepository<StatisticsEve
     @Query(nativeQuery = true,  value = "SELECT * FROM stats_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId ORDER BY e.ts DESC LIMIT :limit")
     List<StatisticsEventEntity> findLatestEvents(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId, @Param("limit") int limit);
 
+    @Override
+    @Query(nativeQuery = true, value = "SELECT min(e.ts) FROM stats_event e WHERE e.tenant_id = :tenantId AND e.entity_id = :entityId")
+    Long findOldestEventTs(@Param("tenantId") UUID tenantId, @Param("entityId") UUID entityId);
+
     @Query("SELECT e FROM StatisticsEventEntity e WHERE " +
             "e.tenantId = :tenantId " +
             "AND e.entityId = :entityId " +
@@ -20,7 +20,10 @@ import com.google.common.base.Strings;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.NotificationId;
 import org.thingsboard.server.common.data.id.NotificationRequestId;
@@ -38,6 +41,9 @@ import org.thingsboard.server.dao.sql.JpaAbstractDao;
 import org.thingsboard.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -46,8 +52,12 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class JpaNotificationDao extends JpaAbstractDao<NotificationEntity, Notification> implements NotificationDao {
 
+    private static final String INSERT_NOTIFICATION = "INSERT INTO " + ModelConstants.NOTIFICATION_TABLE_NAME +
+            " (id, created_time, request_id, recipient_id, type, subject, body, additional_config, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final NotificationRepository notificationRepository;
     private final SqlPartitioningRepository partitioningRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Value("${sql.notifications.partition_size:168}")
     private int partitionSizeInHours;
@@ -64,6 +74,43 @@ public class JpaNotificationDao extends JpaAbstractDao<NotificationEntity, Notif
         return super.save(tenantId, notification);
     }
 
+    @Override
+    public List<Notification> saveAll(TenantId tenantId, List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        for (Notification notification : notifications) {
+            if (notification.getId() == null) {
+                UUID uuid = Uuids.timeBased();
+                notification.setId(new NotificationId(uuid));
+                notification.setCreatedTime(Uuids.unixTimestamp(uuid));
+            }
+            partitioningRepository.createPartitionIfNotExists(ModelConstants.NOTIFICATION_TABLE_NAME,
+                    notification.getCreatedTime(), TimeUnit.HOURS.toMillis(partitionSizeInHours));
+        }
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Notification notification = notifications.get(i);
+                ps.setObject(1, notification.getUuidId());
+                ps.setLong(2, notification.getCreatedTime());
+                ps.setObject(3, notification.getRequestId() != null ? notification.getRequestId().getId() : null);
+                ps.setObject(4, notification.getRecipientId().getId());
+                ps.setString(5, notification.getType().name());
+                ps.setString(6, notification.getSubject());
+                ps.setString(7, notification.getText());
+                ps.setString(8, notification.getAdditionalConfig() != null ? JacksonUtil.toString(notification.getAdditionalConfig()) : null);
+                ps.setString(9, notification.getStatus() != null ? notification.getStatus().name() : null);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notifications.size();
+            }
+        });
+        return notifications;
+    }
+
     @Override
     public PageData<Notification> findUnreadByRecipientIdAndPageLink(TenantId tenantId, UserId recipientId, PageLink pageLink) {
         return DaoUtil.toPageData(notificationRepository.findByRecipientIdAndStatusNot(recipientId.getId(), NotificationStatus.READ,
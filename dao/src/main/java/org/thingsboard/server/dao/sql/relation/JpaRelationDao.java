@@ -18,15 +18,24 @@ package org.thingsboard.server.dao.sql.relation;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.common.data.relation.RelationEntityTypeFilter;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
 import org.thingsboard.server.common.data.rule.RuleChainType;
+import org.thingsboard.server.common.data.util.CollectionsUtil;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
@@ -39,6 +48,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +66,43 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
         Arrays.stream(RelationTypeGroup.values()).map(RelationTypeGroup::name).forEach(ALL_TYPE_GROUP_NAMES::add);
     }
 
+    private static final String RELATION_COLUMNS = "r.from_id, r.from_type, r.to_id, r.to_type, r.relation_type_group, r.relation_type, r.additional_info";
+
+    /*
+     * Related entities are collected level by level together with their distance from the root.
+     * UNION keeps a single row per entity and level, no matter how many relations or paths lead to the entity,
+     * so the rows grow with the number of entities rather than the number of paths in a DAG.
+     * Entities on a cycle are found again on the following levels, the max level ends the recursion for them.
+     * $in is the column that references the already found entity and $out is the column of the newly found one.
+     */
+    static final String RELATED_ENTITIES_CTE = "WITH RECURSIVE related_entities(id, type, lvl) AS (" +
+            " SELECT CAST(? AS uuid), CAST(? AS varchar), 0" +
+            " UNION" +
+            " SELECT r.$out_id, r.$out_type, re.lvl + 1 FROM relation r" +
+            " INNER JOIN related_entities re ON r.$in_id = re.id AND r.$in_type = re.type" +
+            " WHERE r.relation_type_group = ? AND re.lvl < ?" +
+            "), nodes AS (SELECT id, type, MIN(lvl) AS lvl FROM related_entities GROUP BY id, type) ";
+
+    private static final String ALL_LEVELS_QUERY = "SELECT " + RELATION_COLUMNS + " FROM relation r" +
+            " INNER JOIN nodes n ON r.$in_id = n.id AND r.$in_type = n.type" +
+            " WHERE r.relation_type_group = ?";
+
+    private static final String LAST_LEVEL_QUERY = "SELECT " + RELATION_COLUMNS + " FROM relation r" +
+            " INNER JOIN nodes n ON r.$in_id = n.id AND r.$in_type = n.type" +
+            " WHERE r.relation_type_group = ? AND n.lvl = ?";
+
+    private static final String LEAF_PARENT_QUERY = "SELECT " + RELATION_COLUMNS + " FROM relation r" +
+            " INNER JOIN nodes p ON r.$in_id = p.id AND r.$in_type = p.type" +
+            " INNER JOIN nodes c ON r.$out_id = c.id AND r.$out_type = c.type" +
+            " WHERE r.relation_type_group = ? AND c.lvl = p.lvl + 1" +
+            " AND NOT EXISTS (SELECT 1 FROM relation o WHERE o.$in_id = c.id AND o.$in_type = c.type AND o.relation_type_group = ?)";
+
+    private static final String TRUNCATED_MARKER_QUERY = "SELECT NULL, NULL, NULL, NULL, NULL, NULL, NULL" +
+            " WHERE EXISTS (SELECT 1 FROM nodes WHERE lvl = ?)";
+
+    @Value("${sql.relations.max_level:50}")
+    private int maxLevelAllowed;
+
     @Autowired
     private RelationRepository relationRepository;
 
@@ -79,6 +127,15 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                         ALL_TYPE_GROUP_NAMES));
     }
 
+    @Override
+    public List<EntityRelation> findAllByFromIds(TenantId tenantId, EntityType fromType, List<EntityId> fromIds, RelationTypeGroup typeGroup) {
+        return DaoUtil.convertDataList(
+                relationRepository.findAllByFromIdInAndFromTypeAndRelationTypeGroup(
+                        fromIds.stream().map(EntityId::getId).collect(Collectors.toList()),
+                        fromType.name(),
+                        typeGroup.name()));
+    }
+
     @Override
     public List<EntityRelation> findAllByFromAndType(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup) {
         return DaoUtil.convertDataList(
@@ -107,6 +164,15 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                         ALL_TYPE_GROUP_NAMES));
     }
 
+    @Override
+    public List<EntityRelation> findAllByToIds(TenantId tenantId, EntityType toType, List<EntityId> toIds, RelationTypeGroup typeGroup) {
+        return DaoUtil.convertDataList(
+                relationRepository.findAllByToIdInAndToTypeAndRelationTypeGroup(
+                        toIds.stream().map(EntityId::getId).collect(Collectors.toList()),
+                        toType.name(),
+                        typeGroup.name()));
+    }
+
     @Override
     public List<EntityRelation> findAllByToAndType(TenantId tenantId, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         return DaoUtil.convertDataList(
@@ -251,4 +317,86 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
     public List<EntityRelation> findRuleNodeToRuleChainRelations(RuleChainType ruleChainType, int limit) {
         return DaoUtil.convertDataList(relationRepository.findRuleNodeToRuleChainRelations(ruleChainType, PageRequest.of(0, limit)));
     }
+
+    @Override
+    public Optional<List<EntityRelation>> findByQuery(TenantId tenantId, EntityRelationsQuery query) {
+        RelationsSearchParameters params = query.getParameters();
+        EntityId rootId = params.getEntityId();
+        RelationTypeGroup typeGroup = params.getRelationTypeGroup() != null ? params.getRelationTypeGroup() : RelationTypeGroup.COMMON;
+        boolean fromDirection = params.getDirection() == EntitySearchDirection.FROM;
+        // distance of the farthest entity whose relations are fetched, the root entity has distance 0
+        long maxDistance = (params.getMaxLevel() > 0 ? params.getMaxLevel() : Long.MAX_VALUE) - 1;
+        boolean mayBeTruncated = maxDistance > maxLevelAllowed;
+        if (mayBeTruncated) {
+            maxDistance = maxLevelAllowed;
+        }
+
+        List<Object> filterArgs = new ArrayList<>();
+        String filtersCondition = toFiltersCondition(query.getFilters(), filterArgs);
+        List<Object> args = new ArrayList<>(List.of(rootId.getId(), rootId.getEntityType().name(), typeGroup.name(), maxDistance));
+        StringBuilder sql = new StringBuilder(RELATED_ENTITIES_CTE);
+        if (params.isFetchLastLevelOnly()) {
+            sql.append(LAST_LEVEL_QUERY).append(filtersCondition);
+            args.addAll(List.of(typeGroup.name(), maxDistance));
+            args.addAll(filterArgs);
+            sql.append(" UNION ").append(LEAF_PARENT_QUERY).append(filtersCondition);
+            args.addAll(List.of(typeGroup.name(), typeGroup.name()));
+            args.addAll(filterArgs);
+        } else {
+            sql.append(ALL_LEVELS_QUERY).append(filtersCondition);
+            args.add(typeGroup.name());
+            args.addAll(filterArgs);
+        }
+        if (mayBeTruncated) {
+            sql.append(" UNION ALL ").append(TRUNCATED_MARKER_QUERY);
+            args.add(maxDistance);
+        }
+        String queryStr = sql.toString()
+                .replace("$in", fromDirection ? "from" : "to")
+                .replace("$out", fromDirection ? "to" : "from");
+
+        List<RelationEntity> entities = jdbcTemplate.query(queryStr, (rs, rowNum) -> {
+            RelationEntity entity = new RelationEntity();
+            entity.setFromId(rs.getObject("from_id", UUID.class));
+            entity.setFromType(rs.getString("from_type"));
+            entity.setToId(rs.getObject("to_id", UUID.class));
+            entity.setToType(rs.getString("to_type"));
+            entity.setRelationTypeGroup(rs.getString("relation_type_group"));
+            entity.setRelationType(rs.getString("relation_type"));
+            entity.setAdditionalInfo(JacksonUtil.toJsonNode(rs.getString("additional_info")));
+            return entity;
+        }, args.toArray());
+        if (entities.stream().anyMatch(entity -> entity.getFromId() == null)) {
+            log.debug("[{}] Relation hierarchy is deeper than {} levels, falling back to the level by level traversal", rootId, maxLevelAllowed);
+            return Optional.empty();
+        }
+        return Optional.of(DaoUtil.convertDataList(entities));
+    }
+
+    private static String toFiltersCondition(List<RelationEntityTypeFilter> filters, List<Object> args) {
+        if (CollectionsUtil.isEmpty(filters)) {
+            return "";
+        }
+        List<String> conditions = new ArrayList<>();
+        List<Object> conditionArgs = new ArrayList<>();
+        for (RelationEntityTypeFilter filter : filters) {
+            List<String> filterConditions = new ArrayList<>();
+            if (StringUtils.isNotEmpty(filter.getRelationType())) {
+                filterConditions.add("r.relation_type = ?");
+                conditionArgs.add(filter.getRelationType());
+            }
+            if (!CollectionsUtil.isEmpty(filter.getEntityTypes())) {
+                filterConditions.add("r.$out_type IN (" + filter.getEntityTypes().stream().map(type -> "?").collect(Collectors.joining(", ")) + ")");
+                filter.getEntityTypes().stream().map(EntityType::name).forEach(conditionArgs::add);
+            }
+            if (filterConditions.isEmpty()) {
+                // the filter matches any relation
+                return "";
+            }
+            conditions.add("(" + String.join(" AND ", filterConditions) + ")");
+        }
+        args.addAll(conditionArgs);
+        return " AND (" + String.join(" OR ", conditions) + ")";
+    }
+
 }
@@ -40,6 +40,10 @@ public interface RelationRepository
                                                                           String fromType,
                                                                           List<String> relationTypeGroups);
 
+    List<RelationEntity> findAllByFromIdInAndFromTypeAndRelationTypeGroup(List<UUID> fromIds,
+                                                                          String fromType,
+                                                                          String relationTypeGroup);
+
     List<RelationEntity> findAllByFromIdAndFromTypeAndRelationTypeAndRelationTypeGroup(UUID fromId,
                                                                                        String fromType,
                                                                                        String relationType,
@@ -53,6 +57,10 @@ public interface RelationRepository
                                                                       String toType,
                                                                       List<String> relationTypeGroups);
 
+    List<RelationEntity> findAllByToIdInAndToTypeAndRelationTypeGroup(List<UUID> toIds,
+                                                                      String toType,
+                                                                      String relationTypeGroup);
+
     List<RelationEntity> findAllByToIdAndToTypeAndRelationTypeAndRelationTypeGroup(UUID toId,
                                                                                    String toType,
                                                                                    String relationType,
@@ -19,8 +19,10 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.Aggregation;
@@ -36,7 +38,9 @@ import org.thingsboard.server.dao.model.sqlts.ts.TsKvEntity;
 import org.thingsboard.server.dao.sql.TbSqlBlockingQueueParams;
 import org.thingsboard.server.dao.sql.TbSqlBlockingQueueWrapper;
 import org.thingsboard.server.dao.sqlts.insert.InsertTsRepository;
+import org.thingsboard.server.dao.sqlts.ts.TsKvAggregationRepository;
 import org.thingsboard.server.dao.sqlts.ts.TsKvRepository;
+import org.thingsboard.server.dao.sqlts.ts.TsKvRollupRepository;
 import org.thingsboard.server.dao.timeseries.TimeseriesDao;
 import org.thingsboard.server.dao.util.TimeUtils;
 
@@ -67,12 +71,30 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
     @Autowired
     protected InsertTsRepository<TsKvEntity> insertRepository;
 
+    @Autowired
+    protected TsKvAggregationRepository aggregationRepository;
+
+    @Autowired
+    protected TsKvRollupRepository rollupRepository;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Value("${sql.ts.single_query_aggregation:true}")
+    protected boolean singleQueryAggregation;
+
+    @Value("${sql.ts.rollup.enabled:false}")
+    protected boolean rollupEnabled;
+
     protected TbSqlBlockingQueueWrapper<TsKvEntity> tsQueue;
     @Autowired
     private StatsFactory statsFactory;
 
     @PostConstruct
     protected void init() {
+        if (rollupEnabled) {
+            rollupRepository.init();
+        }
         TbSqlBlockingQueueParams tsParams = TbSqlBlockingQueueParams.builder()
                 .logName("TS")
                 .batchSize(tsBatchSize)
@@ -84,7 +106,12 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
 
         Function<TsKvEntity, Integer> hashcodeFunction = entity -> entity.getEntityId().hashCode();
         tsQueue = new TbSqlBlockingQueueWrapper<>(tsParams, hashcodeFunction, tsBatchThreads, statsFactory);
-        tsQueue.init(logExecutor, v -> insertRepository.saveOrUpdate(v),
+        tsQueue.init(logExecutor, v -> {
+                    insertRepository.saveOrUpdate(v);
+                    if (rollupEnabled) {
+                        rollupRepository.update(v);
+                    }
+                },
                 Comparator.comparing((Function<TsKvEntity, UUID>) AbstractTsKvEntity::getEntityId)
                         .thenComparing(AbstractTsKvEntity::getKey)
                         .thenComparing(AbstractTsKvEntity::getTs)
@@ -101,11 +128,19 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
     @Override
     public ListenableFuture<Void> remove(TenantId tenantId, EntityId entityId, DeleteTsKvQuery query) {
         return service.submit(() -> {
-            tsKvRepository.delete(
-                    entityId.getId(),
-                    getOrSaveKeyId(query.getKey()),
-                    query.getStartTs(),
-                    query.getEndTs());
+            Integer keyId = getOrSaveKeyId(query.getKey());
+            if (rollupEnabled) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    tsKvRepository.delete(entityId.getId(), keyId, query.getStartTs(), query.getEndTs());
+                    rollupRepository.rebuild(entityId.getId(), keyId, query.getStartTs(), query.getEndTs());
+                });
+            } else {
+                tsKvRepository.delete(
+                        entityId.getId(),
+                        keyId,
+                        query.getStartTs(),
+                        query.getEndTs());
+            }
             return null;
         });
     }
@@ -126,10 +161,11 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
         if (Aggregation.NONE.equals(aggParams.getAggregation())) {
             return Futures.immediateFuture(findAllAsyncWithLimit(entityId, query));
         } else {
-            List<ListenableFuture<Optional<TsKvEntity>>> futures = new ArrayList<>();
+            List<Long> bounds = new ArrayList<>();
             var intervalType = aggParams.getIntervalType();
             long startPeriod = query.getStartTs();
             long endPeriod = Math.max(query.getStartTs() + 1, query.getEndTs());
+            bounds.add(startPeriod);
             while (startPeriod < endPeriod) {
                 long startTs = startPeriod;
                 long endTs;
@@ -139,11 +175,19 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
                     endTs = TimeUtils.calculateIntervalEnd(startTs, intervalType, aggParams.getTzId());
                 }
                 endTs = Math.min(endTs, endPeriod);
-                long ts = startTs + (endTs - startTs) / 2;
-                ListenableFuture<Optional<TsKvEntity>> aggregateTsKvEntry = findAndAggregateAsync(entityId, query.getKey(), startTs, endTs, ts, query.getAggregation());
-                futures.add(aggregateTsKvEntry);
+                bounds.add(endTs);
                 startPeriod = endTs;
             }
+            if (singleQueryAggregation || rollupEnabled) {
+                return getReadTsKvQueryResultFuture(query, findAndAggregateAsync(entityId, query.getKey(), bounds, query.getAggregation()));
+            }
+            List<ListenableFuture<Optional<TsKvEntity>>> futures = new ArrayList<>();
+            for (int i = 1; i < bounds.size(); i++) {
+                long startTs = bounds.get(i - 1);
+                long endTs = bounds.get(i);
+                long ts = startTs + (endTs - startTs) / 2;
+                futures.add(findAndAggregateAsync(entityId, query.getKey(), startTs, endTs, ts, query.getAggregation()));
+            }
             return getReadTsKvQueryResultFuture(query, Futures.allAsList(futures));
         }
     }
@@ -176,6 +220,25 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
         });
     }
 
+    ListenableFuture<List<Optional<? extends AbstractTsKvEntity>>> findAndAggregateAsync(EntityId entityId, String key, List<Long> bounds, Aggregation aggregation) {
+        return service.submit(() -> {
+            var keyId = getOrSaveKeyId(key);
+            long[] boundsArray = bounds.stream().mapToLong(Long::longValue).toArray();
+            Optional<List<TsKvEntity>> rollups = rollupEnabled
+                    ? rollupRepository.findAggregates(entityId.getId(), keyId, boundsArray, aggregation) : Optional.empty();
+            List<Optional<? extends AbstractTsKvEntity>> result = new ArrayList<>();
+            for (TsKvEntity entity : rollups.orElseGet(() -> aggregationRepository.findAggregates(entityId.getId(), keyId, boundsArray, aggregation))) {
+                entity.setEntityId(entityId.getId());
+                entity.setStrKey(key);
+                result.add(Optional.of(entity));
+            }
+            if (result.isEmpty()) {
+                result.add(Optional.empty());
+            }
+            return result;
+        });
+    }
+
     protected TsKvEntity switchAggregation(EntityId entityId, String key, long startTs, long endTs, Aggregation aggregation) {
         var keyId = getOrSaveKeyId(key);
         switch (aggregation) {
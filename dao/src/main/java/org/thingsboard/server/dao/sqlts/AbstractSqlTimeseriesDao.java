@@ -18,6 +18,7 @@ package org.thingsboard.server.dao.sqlts;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,6 +29,7 @@ import org.thingsboard.server.common.data.kv.ReadTsKvQueryResult;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.sql.ScheduledLogExecutorComponent;
+import org.thingsboard.server.dao.sqlts.ttl.SqlTsTtlCleaner;
 
 import javax.annotation.Nullable;
 import java.sql.Connection;
@@ -35,6 +37,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -69,7 +72,24 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
     @Value("${sql.ttl.ts.ts_key_value_ttl:0}")
     private long systemTtl;
 
+    @Value("${sql.ttl.ts.batch_delete.enabled:false}")
+    protected boolean ttlBatchDeleteEnabled;
+
+    @Autowired
+    private SqlTsTtlCleaner ttlCleaner;
+
     public void cleanup(long systemTtl) {
+        if (ttlBatchDeleteEnabled) {
+            try {
+                ttlCleaner.cleanup(systemTtl);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Timeseries TTL task execution interrupted");
+            } catch (Exception e) {
+                log.error("Exception occurred during timeseries TTL task execution ", e);
+            }
+            return;
+        }
         log.info("Going to cleanup old timeseries data using ttl: {}s", systemTtl);
         try (Connection connection = dataSource.getConnection();
              PreparedStatement stmt = connection.prepareStatement("call cleanup_timeseries_by_ttl(?,?,?)")) {
@@ -89,20 +109,25 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
     }
 
     protected ListenableFuture<List<ReadTsKvQueryResult>> processFindAllAsync(TenantId tenantId, EntityId entityId, List<ReadTsKvQuery> queries) {
-        List<ListenableFuture<ReadTsKvQueryResult>> futures = queries
-                .stream()
-                .map(query -> findAllAsync(tenantId, entityId, query))
-                .collect(Collectors.toList());
-        return Futures.transform(Futures.allAsList(futures), new Function<>() {
-            @Nullable
-            @Override
-            public List<ReadTsKvQueryResult> apply(@Nullable List<ReadTsKvQueryResult> results) {
-                if (results == null || results.isEmpty()) {
-                    return null;
+        List<String> keys = queries.stream().map(ReadTsKvQuery::getKey).collect(Collectors.toList());
+        // unknown keys are saved to the dictionary, so they are resolved in the DAO executor rather than in the caller's thread
+        ListenableFuture<Map<String, Integer>> keyIdsFuture = service.submit(() -> getOrSaveKeyIds(keys));
+        return Futures.transformAsync(keyIdsFuture, keyIds -> {
+            List<ListenableFuture<ReadTsKvQueryResult>> futures = queries
+                    .stream()
+                    .map(query -> findAllAsync(tenantId, entityId, query))
+                    .collect(Collectors.toList());
+            return Futures.transform(Futures.allAsList(futures), new Function<>() {
+                @Nullable
+                @Override
+                public List<ReadTsKvQueryResult> apply(@Nullable List<ReadTsKvQueryResult> results) {
+                    if (results == null || results.isEmpty()) {
+                        return null;
+                    }
+                    return results.stream().filter(Objects::nonNull).collect(Collectors.toList());
                 }
-                return results.stream().filter(Objects::nonNull).collect(Collectors.toList());
-            }
-        }, service);
+            }, service);
+        }, MoreExecutors.directExecutor());
     }
 
     protected long computeTtl(long ttl) {
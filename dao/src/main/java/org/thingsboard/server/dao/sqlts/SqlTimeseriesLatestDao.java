@@ -15,7 +15,6 @@
  */
 package org.thingsboard.server.dao.sqlts;
 
-import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -51,6 +50,7 @@ import org.thingsboard.server.dao.util.SqlTsLatestAnyDao;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -67,6 +67,8 @@ import java.util.stream.Collectors;
 public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao implements TimeseriesLatestDao {
 
     private static final String DESC_ORDER = "DESC";
+    private static final String FIND_LATEST_BY_ENTITY_IDS_AND_KEYS = "SELECT entity_id, key, ts, bool_v, str_v, long_v, dbl_v, json_v FROM ts_kv_latest " +
+            "WHERE entity_id = ANY(?) AND key = ANY(?)";
 
     @Autowired
     private TsKvLatestRepository tsKvLatestRepository;
@@ -169,6 +171,31 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
         return getFindAllLatestFuture(entityId);
     }
 
+    @Override
+    public ListenableFuture<Map<EntityId, List<TsKvEntry>>> findLatestByEntities(TenantId tenantId, List<EntityId> entityIds, List<String> keys) {
+        return service.submit(() -> {
+            Map<UUID, EntityId> entityIdsByUuid = new HashMap<>();
+            entityIds.forEach(entityId -> entityIdsByUuid.put(entityId.getId(), entityId));
+            Map<Integer, String> keysById = new HashMap<>();
+            getOrSaveKeyIds(keys).forEach((key, keyId) -> keysById.put(keyId, key));
+            Map<EntityId, List<TsKvEntry>> result = new HashMap<>();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(FIND_LATEST_BY_ENTITY_IDS_AND_KEYS);
+                ps.setArray(1, con.createArrayOf("uuid", entityIdsByUuid.keySet().toArray()));
+                ps.setArray(2, con.createArrayOf("int4", keysById.keySet().toArray()));
+                return ps;
+            }, rs -> {
+                UUID entityUuid = rs.getObject("entity_id", UUID.class);
+                int keyId = rs.getInt("key");
+                TsKvLatestEntity entity = new TsKvLatestEntity(entityUuid, keyId, keysById.get(keyId), rs.getString("str_v"),
+                        (Boolean) rs.getObject("bool_v"), (Long) rs.getObject("long_v"), (Double) rs.getObject("dbl_v"),
+                        rs.getString("json_v"), rs.getLong("ts"));
+                result.computeIfAbsent(entityIdsByUuid.get(entityUuid), id -> new ArrayList<>()).add(DaoUtil.getData(entity));
+            });
+            return result;
+        });
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         if (deviceProfileId != null) {
@@ -250,9 +277,10 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
     }
 
     protected ListenableFuture<List<TsKvEntry>> getFindAllLatestFuture(EntityId entityId) {
-        return Futures.immediateFuture(
-                DaoUtil.convertDataList(Lists.newArrayList(
-                        searchTsKvLatestRepository.findAllByEntityId(entityId.getId()))));
+        List<TsKvLatestEntity> entities = new ArrayList<>(searchTsKvLatestRepository.findAllByEntityId(entityId.getId()));
+        entities.forEach(entity -> entity.setStrKey(getKey(entity.getKey())));
+        entities.removeIf(entity -> entity.getStrKey() == null);
+        return Futures.immediateFuture(DaoUtil.convertDataList(entities));
     }
 
     protected ListenableFuture<Void> getSaveLatestFuture(EntityId entityId, TsKvEntry tsKvEntry) {
@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.dictionary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.dao.util.SqlTsOrTsLatestAnyDao;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the ts_kv_dictionary table shared by all SQL time-series DAOs.
+ * The whole dictionary is loaded on startup. Unknown keys are created with an idempotent upsert,
+ * so concurrent callers never wait for each other and several keys can be created in one round trip.
+ */
+@Slf4j
+@Component
+@SqlTsOrTsLatestAnyDao
+@RequiredArgsConstructor
+public class TsKeyDictionary {
+
+    private static final String SELECT_ALL = "SELECT key, key_id FROM ts_kv_dictionary";
+    private static final String SELECT_BY_KEY_ID = "SELECT key, key_id FROM ts_kv_dictionary WHERE key_id = ?";
+    // DO UPDATE instead of DO NOTHING, so that the ids of the already existing keys are returned as well
+    private static final String UPSERT_KEYS = "INSERT INTO ts_kv_dictionary (key) SELECT unnest(cast(? AS varchar[])) " +
+            "ON CONFLICT (key) DO UPDATE SET key = excluded.key RETURNING key, key_id";
+
+    private final ConcurrentMap<String, Integer> keyIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> keys = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        try {
+            jdbcTemplate.query(SELECT_ALL, rs -> {
+                put(rs.getString("key"), rs.getInt("key_id"));
+            });
+            log.info("Loaded {} timeseries keys", keyIds.size());
+        } catch (Exception e) {
+            // the table doesn't exist yet during the installation, keys are loaded on demand then
+            log.warn("Failed to load timeseries keys dictionary: {}", e.getMessage());
+        }
+    }
+
+    public Integer getOrSaveKeyId(String key) {
+        Integer keyId = keyIds.get(key);
+        if (keyId == null) {
+            keyId = getOrSaveKeyIds(List.of(key)).get(key);
+        }
+        return keyId;
+    }
+
+    public Map<String, Integer> getOrSaveKeyIds(Collection<String> keysToResolve) {
+        List<String> unknownKeys = keysToResolve.stream()
+                .filter(key -> !keyIds.containsKey(key))
+                .distinct().sorted() // consistent lock order for concurrent upserts of the same keys
+                .collect(Collectors.toList());
+        if (!unknownKeys.isEmpty()) {
+            log.trace("Saving timeseries keys {}", unknownKeys);
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(UPSERT_KEYS);
+                ps.setArray(1, con.createArrayOf("varchar", unknownKeys.toArray()));
+                return ps;
+            }, rs -> {
+                put(rs.getString("key"), rs.getInt("key_id"));
+            });
+        }
+        return keysToResolve.stream().distinct().collect(Collectors.toMap(key -> key, key -> Objects.requireNonNull(keyIds.get(key),
+                () -> "Failed to save timeseries key " + key)));
+    }
+
+    public String getKey(int keyId) {
+        String key = keys.get(keyId);
+        if (key == null) {
+            jdbcTemplate.query(SELECT_BY_KEY_ID, rs -> {
+                put(rs.getString("key"), rs.getInt("key_id"));
+            }, keyId);
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    private void put(String key, int keyId) {
+        keyIds.put(key, keyId);
+        keys.put(keyId, key);
+    }
+
+}
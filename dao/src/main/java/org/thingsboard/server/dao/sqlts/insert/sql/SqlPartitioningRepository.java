@@ -104,7 +104,7 @@ public class SqlPartitioningRepository {
         partitions.keySet().removeIf(startTime -> getPartitionEndTime(startTime, partitionDurationMs) < expTime);
     }
 
-    private boolean detachAndDropPartition(String table, long partitionTs) {
+    public boolean detachAndDropPartition(String table, long partitionTs) {
         Map<Long, SqlPartition> cachedPartitions = tablesPartitions.get(table);
         if (cachedPartitions != null) cachedPartitions.remove(partitionTs);
 
@@ -15,9 +15,10 @@
  */
 package org.thingsboard.server.dao.sqlts.insert.timescale;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.dao.model.sqlts.timescale.ts.TimescaleTsKvEntity;
 import org.thingsboard.server.dao.sqlts.insert.AbstractInsertRepository;
 import org.thingsboard.server.dao.sqlts.insert.InsertTsRepository;
@@ -28,61 +29,101 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.List;
 
+@Slf4j
 @TimescaleDBTsDao
 @Repository
-@Transactional
 public class TimescaleInsertTsRepository extends AbstractInsertRepository implements InsertTsRepository<TimescaleTsKvEntity> {
 
     private static final String INSERT_OR_UPDATE =
             "INSERT INTO ts_kv (entity_id, key, ts, bool_v, str_v, long_v, dbl_v, json_v) VALUES(?, ?, ?, ?, ?, ?, ?, cast(? AS json)) " +
                     "ON CONFLICT (entity_id, key, ts) DO UPDATE SET bool_v = ?, str_v = ?, long_v = ?, dbl_v = ?, json_v = cast(? AS json);";
 
+    /**
+     * Saves the batch in one transaction. If the batch fails, e.g. because an update hits a compressed chunk
+     * on a TimescaleDB version that can't modify compressed data, the values are saved one by one,
+     * so that a single value doesn't fail the whole batch. The first failure is rethrown after all the other values are saved.
+     */
     @Override
     public void saveOrUpdate(List<TimescaleTsKvEntity> entities) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveBatch(entities));
+        } catch (DataAccessException e) {
+            if (entities.size() == 1) {
+                throw e;
+            }
+            log.warn("Failed to save batch of {} timeseries values, saving them one by one", entities.size(), e);
+            saveOneByOne(entities);
+        }
+    }
+
+    private void saveBatch(List<TimescaleTsKvEntity> entities) {
         jdbcTemplate.batchUpdate(INSERT_OR_UPDATE, new BatchPreparedStatementSetter() {
             @Override
             public void setValues(PreparedStatement ps, int i) throws SQLException {
-                TimescaleTsKvEntity tsKvEntity = entities.get(i);
-                ps.setObject(1, tsKvEntity.getEntityId());
-                ps.setInt(2, tsKvEntity.getKey());
-                ps.setLong(3, tsKvEntity.getTs());
+                TimescaleInsertTsRepository.this.setValues(ps, entities.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
 
-                if (tsKvEntity.getBooleanValue() != null) {
-                    ps.setBoolean(4, tsKvEntity.getBooleanValue());
-                    ps.setBoolean(9, tsKvEntity.getBooleanValue());
-                } else {
-                    ps.setNull(4, Types.BOOLEAN);
-                    ps.setNull(9, Types.BOOLEAN);
+    private void saveOneByOne(List<TimescaleTsKvEntity> entities) {
+        DataAccessException failure = null;
+        int failed = 0;
+        for (TimescaleTsKvEntity entity : entities) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_OR_UPDATE, ps -> setValues(ps, entity)));
+            } catch (DataAccessException e) {
+                log.debug("[{}][{}][{}] Failed to save timeseries value", entity.getEntityId(), entity.getKey(), entity.getTs(), e);
+                failed++;
+                if (failure == null) {
+                    failure = e;
                 }
+            }
+        }
+        if (failure != null) {
+            log.warn("Failed to save {} of {} timeseries values", failed, entities.size());
+            throw failure;
+        }
+    }
 
-                ps.setString(5, replaceNullChars(tsKvEntity.getStrValue()));
-                ps.setString(10, replaceNullChars(tsKvEntity.getStrValue()));
+    private void setValues(PreparedStatement ps, TimescaleTsKvEntity tsKvEntity) throws SQLException {
+        ps.setObject(1, tsKvEntity.getEntityId());
+        ps.setInt(2, tsKvEntity.getKey());
+        ps.setLong(3, tsKvEntity.getTs());
 
+        if (tsKvEntity.getBooleanValue() != null) {
+            ps.setBoolean(4, tsKvEntity.getBooleanValue());
+            ps.setBoolean(9, tsKvEntity.getBooleanValue());
+        } else {
+            ps.setNull(4, Types.BOOLEAN);
+            ps.setNull(9, Types.BOOLEAN);
+        }
 
-                if (tsKvEntity.getLongValue() != null) {
-                    ps.setLong(6, tsKvEntity.getLongValue());
-                    ps.setLong(11, tsKvEntity.getLongValue());
-                } else {
-                    ps.setNull(6, Types.BIGINT);
-                    ps.setNull(11, Types.BIGINT);
-                }
+        ps.setString(5, replaceNullChars(tsKvEntity.getStrValue()));
+        ps.setString(10, replaceNullChars(tsKvEntity.getStrValue()));
 
-                if (tsKvEntity.getDoubleValue() != null) {
-                    ps.setDouble(7, tsKvEntity.getDoubleValue());
-                    ps.setDouble(12, tsKvEntity.getDoubleValue());
-                } else {
-                    ps.setNull(7, Types.DOUBLE);
-                    ps.setNull(12, Types.DOUBLE);
-                }
 
-                ps.setString(8, replaceNullChars(tsKvEntity.getJsonValue()));
-                ps.setString(13, replaceNullChars(tsKvEntity.getJsonValue()));
-            }
+        if (tsKvEntity.getLongValue() != null) {
+            ps.setLong(6, tsKvEntity.getLongValue());
+            ps.setLong(11, tsKvEntity.getLongValue());
+        } else {
+            ps.setNull(6, Types.BIGINT);
+            ps.setNull(11, Types.BIGINT);
+        }
 
-            @Override
-            public int getBatchSize() {
-                return entities.size();
-            }
-        });
+        if (tsKvEntity.getDoubleValue() != null) {
+            ps.setDouble(7, tsKvEntity.getDoubleValue());
+            ps.setDouble(12, tsKvEntity.getDoubleValue());
+        } else {
+            ps.setNull(7, Types.DOUBLE);
+            ps.setNull(12, Types.DOUBLE);
+        }
+
+        ps.setString(8, replaceNullChars(tsKvEntity.getJsonValue()));
+        ps.setString(13, replaceNullChars(tsKvEntity.getJsonValue()));
     }
 }
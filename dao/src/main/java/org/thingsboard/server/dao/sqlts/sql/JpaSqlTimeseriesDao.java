@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -101,6 +102,9 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
     public void cleanup(long systemTtl) {
         if (systemTtl > 0) {
             cleanupPartitions(systemTtl);
+            if (rollupEnabled) {
+                cleanupRollups(systemTtl);
+            }
         }
         super.cleanup(systemTtl);
     }
@@ -124,6 +128,15 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
         }
     }
 
+    private void cleanupRollups(long systemTtl) {
+        try {
+            int removed = rollupRepository.deleteExpired(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(systemTtl));
+            log.info("Total timeseries rollups removed by TTL: [{}]", removed);
+        } catch (DataAccessException e) {
+            log.error("Exception occurred during timeseries rollups TTL task execution ", e);
+        }
+    }
+
     private void savePartitionIfNotExist(long ts) {
         if (!tsFormat.equals(SqlTsPartitionDate.INDEFINITE) && ts >= 0) {
             LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(ts), ZoneOffset.UTC);
@@ -54,6 +54,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -61,6 +62,15 @@ import java.util.function.Function;
 @TimescaleDBTsDao
 public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements TimeseriesDao {
 
+    private static final String SELECT_TIMESCALE_VERSION = "SELECT extversion FROM pg_extension WHERE extname = 'timescaledb'";
+    private static final String SELECT_COMPRESSION_ENABLED = "SELECT compression_enabled FROM timescaledb_information.hypertables WHERE hypertable_name = 'ts_kv'";
+    private static final String ENABLE_COMPRESSION = "ALTER TABLE ts_kv SET (timescaledb.compress, " +
+            "timescaledb.compress_segmentby = 'entity_id, key', timescaledb.compress_orderby = 'ts DESC')";
+    private static final String SELECT_UNCOMPRESSED_CHUNKS = "SELECT format('%I.%I', chunk_schema, chunk_name) FROM timescaledb_information.chunks " +
+            "WHERE hypertable_name = 'ts_kv' AND NOT is_compressed AND range_end_integer <= ? ORDER BY range_start_integer";
+    private static final String COMPRESS_CHUNK = "SELECT compress_chunk(cast(? AS regclass), if_not_compressed => true)";
+    private static final String DROP_CHUNKS = "SELECT drop_chunks('ts_kv', older_than => cast(? AS bigint))";
+
     @Autowired
     private TsKvTimescaleRepository tsKvRepository;
 
@@ -75,6 +85,8 @@ public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements
 
     protected TbSqlBlockingQueueWrapper<TimescaleTsKvEntity> tsQueue;
 
+    private volatile boolean compressionEnabled;
+
     @PostConstruct
     protected void init() {
         TbSqlBlockingQueueParams tsParams = TbSqlBlockingQueueParams.builder()
@@ -174,9 +186,54 @@ public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements
 
     @Override
     public void cleanup(long systemTtl) {
+        if (ttlBatchDeleteEnabled && systemTtl > 0) {
+            // same as the partitions drop on PostgreSQL: nothing outlives the system TTL, so whole chunks can go at once
+            long olderThanTs = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(systemTtl);
+            List<String> droppedChunks = jdbcTemplate.queryForList(DROP_CHUNKS, String.class, olderThanTs);
+            log.info("Dropped {} ts_kv chunks older than {}", droppedChunks.size(), olderThanTs);
+        }
         super.cleanup(systemTtl);
     }
 
+    @Override
+    public void compress(long compressAfterMs) {
+        if (!compressionEnabled) {
+            String version = jdbcTemplate.queryForObject(SELECT_TIMESCALE_VERSION, String.class);
+            if (!isCompressedDataModificationSupported(version)) {
+                log.warn("Compression of ts_kv chunks is skipped: TimescaleDB {} can't update or delete compressed values, 2.11 or newer is required", version);
+                return;
+            }
+            Boolean enabled = jdbcTemplate.queryForObject(SELECT_COMPRESSION_ENABLED, Boolean.class);
+            if (!Boolean.TRUE.equals(enabled)) {
+                log.info("Enabling compression of the ts_kv hypertable");
+                jdbcTemplate.execute(ENABLE_COMPRESSION);
+            }
+            compressionEnabled = true;
+        }
+        long olderThanTs = System.currentTimeMillis() - compressAfterMs;
+        List<String> chunks = jdbcTemplate.queryForList(SELECT_UNCOMPRESSED_CHUNKS, String.class, olderThanTs);
+        for (String chunk : chunks) {
+            log.info("Compressing ts_kv chunk {}", chunk);
+            // one statement per chunk, so that a failure doesn't roll back the chunks that are already compressed
+            jdbcTemplate.queryForList(COMPRESS_CHUNK, chunk);
+        }
+        log.info("Compressed {} ts_kv chunks older than {}", chunks.size(), olderThanTs);
+    }
+
+    static boolean isCompressedDataModificationSupported(String version) {
+        if (version == null) {
+            return false;
+        }
+        String[] parts = version.split("[.-]");
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return major > 2 || (major == 2 && minor >= 11);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private ReadTsKvQueryResult findAllAsyncWithLimit(EntityId entityId, ReadTsKvQuery query) {
         String strKey = query.getKey();
         Integer keyId = getOrSaveKeyId(strKey);
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.ts;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.dao.model.sqlts.ts.TsKvEntity;
+import org.thingsboard.server.dao.util.SqlTsDao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Aggregates all intervals of a time-series query in a single round trip.
+ * Interval bounds are calculated by the caller (so that timezone aware WEEK and MONTH intervals are supported)
+ * and each record is assigned to its interval with width_bucket over the array of bounds.
+ */
+@Repository
+@SqlTsDao
+@RequiredArgsConstructor
+public class TsKvAggregationRepository {
+
+    private static final String BUCKET = "width_bucket(ts, cast(? AS bigint[])) AS bucket, ";
+
+    private static final String FROM_WHERE_CLAUSE = "FROM ts_kv WHERE entity_id = ? AND key = ? AND ts >= ? AND ts < ? " +
+            "GROUP BY bucket ORDER BY bucket";
+
+    private static final String NUMERIC_COUNTS = "SUM(CASE WHEN long_v IS NULL THEN 0 ELSE 1 END) AS long_count, " +
+            "SUM(CASE WHEN dbl_v IS NULL THEN 0 ELSE 1 END) AS dbl_count, ";
+
+    private static final String FIND_SUM_QUERY = "SELECT " + BUCKET +
+            "SUM(COALESCE(long_v, 0)) AS long_value, SUM(COALESCE(dbl_v, 0.0)) AS dbl_value, " + NUMERIC_COUNTS +
+            "MAX(ts) AS max_ts " + FROM_WHERE_CLAUSE;
+
+    private static final String FIND_MAX_QUERY = "SELECT " + BUCKET +
+            "MAX(COALESCE(long_v, -9223372036854775807)) AS long_value, MAX(COALESCE(dbl_v, -1.79769E+308)) AS dbl_value, " + NUMERIC_COUNTS +
+            "MAX(str_v) AS str_value, MAX(CASE WHEN str_v IS NULL THEN NULL ELSE ts END) AS str_max_ts, " +
+            "MAX(ts) AS max_ts " + FROM_WHERE_CLAUSE;
+
+    private static final String FIND_MIN_QUERY = "SELECT " + BUCKET +
+            "MIN(COALESCE(long_v, 9223372036854775807)) AS long_value, MIN(COALESCE(dbl_v, 1.79769E+308)) AS dbl_value, " + NUMERIC_COUNTS +
+            "MIN(str_v) AS str_value, MAX(CASE WHEN str_v IS NULL THEN NULL ELSE ts END) AS str_max_ts, " +
+            "MAX(ts) AS max_ts " + FROM_WHERE_CLAUSE;
+
+    private static final String FIND_COUNT_QUERY = "SELECT " + BUCKET +
+            "SUM(CASE WHEN bool_v IS NULL THEN 0 ELSE 1 END) AS bool_count, " +
+            "SUM(CASE WHEN str_v IS NULL THEN 0 ELSE 1 END) AS str_count, " +
+            "SUM(CASE WHEN long_v IS NULL THEN 0 ELSE 1 END) AS long_count, " +
+            "SUM(CASE WHEN dbl_v IS NULL THEN 0 ELSE 1 END) AS dbl_count, " +
+            "SUM(CASE WHEN json_v IS NULL THEN 0 ELSE 1 END) AS json_count, " +
+            "MAX(ts) AS max_ts " + FROM_WHERE_CLAUSE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param bounds ascending interval bounds: interval {@code i} covers {@code [bounds[i], bounds[i + 1])}
+     * @return aggregated values of the non-empty intervals ordered by time, with ts set to the middle of the interval
+     */
+    public List<TsKvEntity> findAggregates(UUID entityId, int entityKey, long[] bounds, Aggregation aggregation) {
+        String query;
+        switch (aggregation) {
+            case AVG:
+            case SUM:
+                query = FIND_SUM_QUERY;
+                break;
+            case MAX:
+                query = FIND_MAX_QUERY;
+                break;
+            case MIN:
+                query = FIND_MIN_QUERY;
+                break;
+            case COUNT:
+                query = FIND_COUNT_QUERY;
+                break;
+            default:
+                throw new IllegalArgumentException("Not supported aggregation type: " + aggregation);
+        }
+        String boundsArray = LongStream.of(bounds).mapToObj(Long::toString).collect(Collectors.joining(",", "{", "}"));
+        List<TsKvEntity> entities = jdbcTemplate.query(query, (rs, rowNum) -> toEntity(rs, bounds, aggregation),
+                boundsArray, entityId, entityKey, bounds[0], bounds[bounds.length - 1]);
+        entities.removeIf(entity -> entity == null || !entity.isNotEmpty());
+        return entities;
+    }
+
+    private static TsKvEntity toEntity(ResultSet rs, long[] bounds, Aggregation aggregation) throws SQLException {
+        int bucket = rs.getInt("bucket");
+        if (bucket < 1 || bucket >= bounds.length) {
+            return null;
+        }
+        Long maxTs = getLong(rs, "max_ts");
+        TsKvEntity entity;
+        if (Aggregation.COUNT.equals(aggregation)) {
+            entity = new TsKvEntity(getLong(rs, "bool_count"), getLong(rs, "str_count"), getLong(rs, "long_count"),
+                    getLong(rs, "dbl_count"), getLong(rs, "json_count"), maxTs);
+        } else {
+            entity = new TsKvEntity(getLong(rs, "long_value"), getDouble(rs, "dbl_value"), getLong(rs, "long_count"),
+                    getLong(rs, "dbl_count"), aggregation.name(), maxTs);
+            if (!entity.isNotEmpty() && (Aggregation.MIN.equals(aggregation) || Aggregation.MAX.equals(aggregation))) {
+                entity = new TsKvEntity(rs.getString("str_value"), getLong(rs, "str_max_ts"));
+            }
+        }
+        long startTs = bounds[bucket - 1];
+        long endTs = bounds[bucket];
+        entity.setTs(startTs + (endTs - startTs) / 2);
+        return entity;
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+}
@@ -0,0 +1,469 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.ts;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.dao.model.sqlts.ts.TsKvEntity;
+import org.thingsboard.server.dao.util.SqlTsDao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+
+/**
+ * Maintains hourly and daily rollups (count, sum, min and max of the numeric values) of the ts_kv table.
+ * Every flushed batch of raw values is aggregated per bucket and merged into the touched rollup buckets, and rollups are used
+ * for aggregation queries whose interval bounds fall on rollup bucket boundaries. Only the partial buckets at the edges of the query are read from ts_kv.
+ * Rollups are available from the moment they were first enabled: older data is always aggregated from ts_kv.
+ */
+@Slf4j
+@Repository
+@SqlTsDao
+@RequiredArgsConstructor
+public class TsKvRollupRepository {
+
+    static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    static final long DAY = TimeUnit.DAYS.toMillis(1);
+    static final long[] GRANULARITIES = {DAY, HOUR};
+
+    private static final String INSERT_COVERAGE = "INSERT INTO ts_rollup_coverage (granularity, since_ts) VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_COVERAGE = "SELECT granularity, since_ts FROM ts_rollup_coverage";
+
+    private static final String COLUMNS = "long_cnt, long_sum, long_min, long_max, dbl_cnt, dbl_sum, dbl_min, dbl_max, bool_cnt, str_cnt, json_cnt, max_ts";
+
+    private static final String ON_CONFLICT_REPLACE = " ON CONFLICT (entity_id, key, granularity, ts) DO UPDATE SET " +
+            "long_cnt = excluded.long_cnt, long_sum = excluded.long_sum, long_min = excluded.long_min, long_max = excluded.long_max, " +
+            "dbl_cnt = excluded.dbl_cnt, dbl_sum = excluded.dbl_sum, dbl_min = excluded.dbl_min, dbl_max = excluded.dbl_max, " +
+            "bool_cnt = excluded.bool_cnt, str_cnt = excluded.str_cnt, json_cnt = excluded.json_cnt, max_ts = excluded.max_ts";
+
+    // values at or before the latest rolled up one may replace existing raw values, such buckets are recalculated instead
+    private static final String MERGE_PARTIAL = "INSERT INTO ts_rollup (entity_id, key, granularity, ts, " + COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (entity_id, key, granularity, ts) DO UPDATE SET " +
+            "long_cnt = ts_rollup.long_cnt + excluded.long_cnt, long_sum = ts_rollup.long_sum + excluded.long_sum, " +
+            "long_min = LEAST(ts_rollup.long_min, excluded.long_min), long_max = GREATEST(ts_rollup.long_max, excluded.long_max), " +
+            "dbl_cnt = ts_rollup.dbl_cnt + excluded.dbl_cnt, dbl_sum = ts_rollup.dbl_sum + excluded.dbl_sum, " +
+            "dbl_min = LEAST(ts_rollup.dbl_min, excluded.dbl_min), dbl_max = GREATEST(ts_rollup.dbl_max, excluded.dbl_max), " +
+            "bool_cnt = ts_rollup.bool_cnt + excluded.bool_cnt, str_cnt = ts_rollup.str_cnt + excluded.str_cnt, " +
+            "json_cnt = ts_rollup.json_cnt + excluded.json_cnt, max_ts = GREATEST(ts_rollup.max_ts, excluded.max_ts) " +
+            "WHERE ts_rollup.max_ts < ?";
+
+    private static final String UPSERT_FROM_RAW = "INSERT INTO ts_rollup (entity_id, key, granularity, ts, " + COLUMNS + ") " +
+            "SELECT entity_id, key, ?, ts - ts % ? AS bucket_ts, " +
+            "COUNT(long_v), COALESCE(SUM(long_v), 0), MIN(long_v), MAX(long_v), " +
+            "COUNT(dbl_v), COALESCE(SUM(dbl_v), 0.0), MIN(dbl_v), MAX(dbl_v), " +
+            "COUNT(bool_v), COUNT(str_v), COUNT(json_v), MAX(ts) " +
+            "FROM ts_kv WHERE entity_id = ? AND key = ? AND ts >= ? AND ts < ? GROUP BY entity_id, key, bucket_ts" + ON_CONFLICT_REPLACE;
+
+    private static final String UPSERT_FROM_HOURLY = "INSERT INTO ts_rollup (entity_id, key, granularity, ts, " + COLUMNS + ") " +
+            "SELECT entity_id, key, ?, ?, SUM(long_cnt), SUM(long_sum), MIN(long_min), MAX(long_max), " +
+            "SUM(dbl_cnt), SUM(dbl_sum), MIN(dbl_min), MAX(dbl_max), SUM(bool_cnt), SUM(str_cnt), SUM(json_cnt), MAX(max_ts) " +
+            "FROM ts_rollup WHERE entity_id = ? AND key = ? AND granularity = " + HOUR + " AND ts >= ? AND ts < ? GROUP BY entity_id, key" + ON_CONFLICT_REPLACE;
+
+    private static final String DELETE_ROLLUP = "DELETE FROM ts_rollup WHERE entity_id = ? AND key = ? AND granularity = ? AND ts >= ? AND ts < ?";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM ts_rollup WHERE granularity = ? AND ts <= ?";
+
+    private static final String FIND_AGGREGATES = "SELECT width_bucket(ts, cast(? AS bigint[])) AS bucket, " +
+            "SUM(long_cnt) AS long_cnt, SUM(long_sum) AS long_sum, MIN(long_min) AS long_min, MAX(long_max) AS long_max, " +
+            "SUM(dbl_cnt) AS dbl_cnt, SUM(dbl_sum) AS dbl_sum, MIN(dbl_min) AS dbl_min, MAX(dbl_max) AS dbl_max, " +
+            "SUM(bool_cnt) AS bool_cnt, SUM(str_cnt) AS str_cnt, SUM(json_cnt) AS json_cnt, MAX(max_ts) AS max_ts FROM (" +
+            "SELECT ts, " + COLUMNS + " FROM ts_rollup WHERE entity_id = ? AND key = ? AND granularity = ? AND ts >= ? AND ts < ? " +
+            "UNION ALL " +
+            "SELECT ts, CASE WHEN long_v IS NULL THEN 0 ELSE 1 END, COALESCE(long_v, 0), long_v, long_v, " +
+            "CASE WHEN dbl_v IS NULL THEN 0 ELSE 1 END, COALESCE(dbl_v, 0.0), dbl_v, dbl_v, " +
+            "CASE WHEN bool_v IS NULL THEN 0 ELSE 1 END, CASE WHEN str_v IS NULL THEN 0 ELSE 1 END, " +
+            "CASE WHEN json_v IS NULL THEN 0 ELSE 1 END, ts " +
+            "FROM ts_kv WHERE entity_id = ? AND key = ? AND ((ts >= ? AND ts < ?) OR (ts >= ? AND ts < ?))" +
+            ") parts GROUP BY bucket ORDER BY bucket";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Long> coverage = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Set<RollupKey>> pendingRecalculations = new ConcurrentHashMap<>();
+
+    public void init() {
+        long now = System.currentTimeMillis();
+        for (long granularity : GRANULARITIES) {
+            jdbcTemplate.update(INSERT_COVERAGE, granularity, ceil(now, granularity));
+        }
+        jdbcTemplate.query(SELECT_COVERAGE, rs -> {
+            coverage.put(rs.getLong("granularity"), rs.getLong("since_ts"));
+        });
+        log.info("Timeseries rollups are maintained since {}", coverage);
+    }
+
+    /**
+     * Merges the count, sum, min and max of the saved raw values into the touched rollup buckets, so the cost depends on the batch
+     * rather than on the values already in the buckets. A bucket that already holds values at or after the saved ones is recalculated
+     * from ts_kv instead, since the saved values may replace existing ones.
+     * Must be called after the transaction that saved the raw values: a failure never fails the telemetry, the touched buckets are
+     * recalculated with the next batch of the entity instead. Batches of an entity must be passed by a single thread.
+     */
+    public void update(List<TsKvEntity> entities) {
+        Map<RollupKey, RollupPartial> hourly = aggregate(entities, HOUR, coverage.get(HOUR));
+        Map<RollupKey, RollupPartial> daily = aggregate(entities, DAY, coverage.get(DAY));
+        Set<RollupKey> pending = new LinkedHashSet<>();
+        entities.stream().map(TsKvEntity::getEntityId).distinct()
+                .map(pendingRecalculations::remove).filter(Objects::nonNull).forEach(pending::addAll);
+        try {
+            // hourly buckets go first, since daily buckets may be recalculated from them
+            apply(hourly, pending, HOUR);
+            apply(daily, pending, DAY);
+        } catch (RuntimeException e) {
+            log.warn("Failed to update timeseries rollups, the touched buckets will be recalculated with the next batch", e);
+            pending.addAll(hourly.keySet());
+            pending.addAll(daily.keySet());
+            pending.forEach(key -> pendingRecalculations.computeIfAbsent(key.getEntityId(), id -> ConcurrentHashMap.newKeySet()).add(key));
+        }
+    }
+
+    private void apply(Map<RollupKey, RollupPartial> partials, Set<RollupKey> pending, long granularity) {
+        List<RollupKey> toRecalculate = pending.stream().filter(key -> key.getGranularity() == granularity).collect(Collectors.toList());
+        // the recalculation reads the saved values from ts_kv, merging them as well would count them twice
+        Map<RollupKey, RollupPartial> toMerge = new LinkedHashMap<>(partials);
+        toMerge.keySet().removeAll(toRecalculate);
+        toRecalculate.addAll(merge(toMerge));
+        recalculate(toRecalculate);
+    }
+
+    /**
+     * @return keys of the buckets that were not merged and must be recalculated
+     */
+    private List<RollupKey> merge(Map<RollupKey, RollupPartial> partials) {
+        if (partials.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Map.Entry<RollupKey, RollupPartial>> entries = new ArrayList<>(partials.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(MERGE_PARTIAL, entries, entries.size(), (ps, entry) -> {
+            RollupKey key = entry.getKey();
+            RollupPartial partial = entry.getValue();
+            ps.setObject(1, key.getEntityId());
+            ps.setInt(2, key.getKey());
+            ps.setLong(3, key.getGranularity());
+            ps.setLong(4, key.getTs());
+            ps.setLong(5, partial.getLongCount());
+            ps.setLong(6, partial.getLongSum());
+            ps.setObject(7, partial.getLongMin(), Types.BIGINT);
+            ps.setObject(8, partial.getLongMax(), Types.BIGINT);
+            ps.setLong(9, partial.getDoubleCount());
+            ps.setDouble(10, partial.getDoubleSum());
+            ps.setObject(11, partial.getDoubleMin(), Types.DOUBLE);
+            ps.setObject(12, partial.getDoubleMax(), Types.DOUBLE);
+            ps.setLong(13, partial.getBooleanCount());
+            ps.setLong(14, partial.getStringCount());
+            ps.setLong(15, partial.getJsonCount());
+            ps.setLong(16, partial.getMaxTs());
+            ps.setLong(17, partial.getMinTs());
+        });
+        List<RollupKey> notMerged = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            // 0 - the bucket holds newer values; SUCCESS_NO_INFO (e.g. with reWriteBatchedInserts) - unknown, recalculated to be safe
+            if (counts[0][i] != 1) {
+                notMerged.add(entries.get(i).getKey());
+            }
+        }
+        return notMerged;
+    }
+
+    /**
+     * Groups the covered values by rollup bucket. A later value for the same ts replaces the earlier one, the same way it does in ts_kv.
+     */
+    static Map<RollupKey, RollupPartial> aggregate(List<TsKvEntity> entities, long granularity, Long sinceTs) {
+        Map<RollupKey, RollupPartial> partials = new LinkedHashMap<>();
+        if (sinceTs == null) {
+            return partials;
+        }
+        for (TsKvEntity entity : entities) {
+            if (entity.getTs() >= sinceTs) {
+                RollupKey key = new RollupKey(entity.getEntityId(), entity.getKey(), granularity, floor(entity.getTs(), granularity));
+                partials.computeIfAbsent(key, k -> new RollupPartial()).add(entity);
+            }
+        }
+        return partials;
+    }
+
+    private void recalculate(List<RollupKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<RollupKey> fromHourly = new ArrayList<>();
+        List<RollupKey> fromRaw = new ArrayList<>();
+        Long hourlySinceTs = coverage.get(HOUR);
+        for (RollupKey key : keys) {
+            // coarser buckets are summed up from the hourly ones when those cover the whole bucket
+            boolean hourlyCovered = key.getGranularity() > HOUR && hourlySinceTs != null && key.getTs() >= hourlySinceTs;
+            (hourlyCovered ? fromHourly : fromRaw).add(key);
+        }
+        if (!fromRaw.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_FROM_RAW, fromRaw, fromRaw.size(), (ps, key) -> {
+                ps.setLong(1, key.getGranularity());
+                ps.setLong(2, key.getGranularity());
+                ps.setObject(3, key.getEntityId());
+                ps.setInt(4, key.getKey());
+                ps.setLong(5, key.getTs());
+                ps.setLong(6, key.getTs() + key.getGranularity());
+            });
+        }
+        if (!fromHourly.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_FROM_HOURLY, fromHourly, fromHourly.size(), (ps, key) -> {
+                ps.setLong(1, key.getGranularity());
+                ps.setLong(2, key.getTs());
+                ps.setObject(3, key.getEntityId());
+                ps.setInt(4, key.getKey());
+                ps.setLong(5, key.getTs());
+                ps.setLong(6, key.getTs() + key.getGranularity());
+            });
+        }
+    }
+
+    /**
+     * Recalculates the rollups that overlap the given range from the raw values, e.g. after the values were deleted.
+     */
+    public void rebuild(UUID entityId, int entityKey, long startTs, long endTs) {
+        for (long granularity : GRANULARITIES) {
+            Long sinceTs = coverage.get(granularity);
+            if (sinceTs == null) {
+                continue;
+            }
+            long rebuildStartTs = Math.max(floor(startTs, granularity), sinceTs);
+            long rebuildEndTs = ceil(endTs, granularity);
+            if (rebuildStartTs < rebuildEndTs) {
+                jdbcTemplate.update(DELETE_ROLLUP, entityId, entityKey, granularity, rebuildStartTs, rebuildEndTs);
+                jdbcTemplate.update(UPSERT_FROM_RAW, granularity, granularity, entityId, entityKey, rebuildStartTs, rebuildEndTs);
+            }
+        }
+    }
+
+    /**
+     * Removes the rollup buckets that lie entirely before the given time, the same way expired raw values are removed.
+     */
+    public int deleteExpired(long expirationTs) {
+        int deleted = 0;
+        for (long granularity : GRANULARITIES) {
+            deleted += jdbcTemplate.update(DELETE_EXPIRED, granularity, expirationTs - granularity);
+        }
+        return deleted;
+    }
+
+    /**
+     * @param bounds ascending interval bounds: interval {@code i} covers {@code [bounds[i], bounds[i + 1])}
+     * @return aggregated values of the non-empty intervals ordered by time, or empty if the query can't be served from rollups
+     */
+    public Optional<List<TsKvEntity>> findAggregates(UUID entityId, int entityKey, long[] bounds, Aggregation aggregation) {
+        long granularity = selectGranularity(bounds, coverage);
+        if (granularity == 0) {
+            return Optional.empty();
+        }
+        long startTs = bounds[0];
+        long endTs = bounds[bounds.length - 1];
+        long alignedStartTs = ceil(startTs, granularity);
+        long alignedEndTs = floor(endTs, granularity);
+        String boundsArray = LongStream.of(bounds).mapToObj(Long::toString).collect(Collectors.joining(",", "{", "}"));
+        List<TsKvEntity> entities = new ArrayList<>();
+        boolean[] stringValues = new boolean[1];
+        jdbcTemplate.query(FIND_AGGREGATES, rs -> {
+            TsKvEntity entity = toEntity(rs, bounds, aggregation);
+            if (entity == null) {
+                stringValues[0] = true;
+            } else if (entity.isNotEmpty()) {
+                entities.add(entity);
+            }
+        }, boundsArray, entityId, entityKey, granularity, alignedStartTs, alignedEndTs,
+                entityId, entityKey, startTs, alignedStartTs, alignedEndTs, endTs);
+        // string min and max are not rolled up
+        return stringValues[0] ? Optional.empty() : Optional.of(entities);
+    }
+
+    /**
+     * @return the coarsest granularity whose buckets lie entirely within the query intervals, or 0 if there is none
+     */
+    static long selectGranularity(long[] bounds, Map<Long, Long> coverage) {
+        long startTs = bounds[0];
+        long endTs = bounds[bounds.length - 1];
+        for (long granularity : GRANULARITIES) {
+            Long sinceTs = coverage.get(granularity);
+            if (sinceTs == null || ceil(startTs, granularity) < sinceTs || ceil(startTs, granularity) >= floor(endTs, granularity)) {
+                continue;
+            }
+            boolean aligned = true;
+            for (int i = 1; i < bounds.length - 1 && aligned; i++) {
+                aligned = bounds[i] % granularity == 0;
+            }
+            if (aligned) {
+                return granularity;
+            }
+        }
+        return 0;
+    }
+
+    private static TsKvEntity toEntity(ResultSet rs, long[] bounds, Aggregation aggregation) throws SQLException {
+        int bucket = rs.getInt("bucket");
+        if (bucket < 1 || bucket >= bounds.length) {
+            return new TsKvEntity();
+        }
+        Long longCount = getLong(rs, "long_cnt");
+        Long doubleCount = getLong(rs, "dbl_cnt");
+        Long maxTs = getLong(rs, "max_ts");
+        TsKvEntity entity;
+        switch (aggregation) {
+            case AVG:
+            case SUM:
+                entity = new TsKvEntity(getLong(rs, "long_sum"), getDouble(rs, "dbl_sum"), longCount, doubleCount, aggregation.name(), maxTs);
+                break;
+            case MAX:
+            case MIN:
+                String suffix = Aggregation.MAX.equals(aggregation) ? "_max" : "_min";
+                entity = new TsKvEntity(getLong(rs, "long" + suffix), getDouble(rs, "dbl" + suffix), longCount, doubleCount, aggregation.name(), maxTs);
+                if (!entity.isNotEmpty() && rs.getLong("str_cnt") > 0) {
+                    return null;
+                }
+                break;
+            case COUNT:
+                entity = new TsKvEntity(getLong(rs, "bool_cnt"), getLong(rs, "str_cnt"), longCount, doubleCount, getLong(rs, "json_cnt"), maxTs);
+                break;
+            default:
+                throw new IllegalArgumentException("Not supported aggregation type: " + aggregation);
+        }
+        long startTs = bounds[bucket - 1];
+        long endTs = bounds[bucket];
+        entity.setTs(startTs + (endTs - startTs) / 2);
+        return entity;
+    }
+
+    static long floor(long ts, long granularity) {
+        return Math.floorDiv(ts, granularity) * granularity;
+    }
+
+    static long ceil(long ts, long granularity) {
+        return -Math.floorDiv(-ts, granularity) * granularity;
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    @Data
+    static class RollupKey {
+        private final UUID entityId;
+        private final int key;
+        private final long granularity;
+        private final long ts;
+    }
+
+    static class RollupPartial {
+
+        private final Map<Long, TsKvEntity> values = new HashMap<>();
+
+        void add(TsKvEntity entity) {
+            values.put(entity.getTs(), entity);
+        }
+
+        long getLongCount() {
+            return count(TsKvEntity::getLongValue);
+        }
+
+        long getLongSum() {
+            return longValues().sum();
+        }
+
+        Long getLongMin() {
+            return getLongCount() == 0 ? null : longValues().min().getAsLong();
+        }
+
+        Long getLongMax() {
+            return getLongCount() == 0 ? null : longValues().max().getAsLong();
+        }
+
+        long getDoubleCount() {
+            return count(TsKvEntity::getDoubleValue);
+        }
+
+        double getDoubleSum() {
+            return doubleValues().sum();
+        }
+
+        Double getDoubleMin() {
+            return getDoubleCount() == 0 ? null : doubleValues().min().getAsDouble();
+        }
+
+        Double getDoubleMax() {
+            return getDoubleCount() == 0 ? null : doubleValues().max().getAsDouble();
+        }
+
+        long getBooleanCount() {
+            return count(TsKvEntity::getBooleanValue);
+        }
+
+        long getStringCount() {
+            return count(TsKvEntity::getStrValue);
+        }
+
+        long getJsonCount() {
+            return count(TsKvEntity::getJsonValue);
+        }
+
+        long getMinTs() {
+            return values.keySet().stream().mapToLong(Long::longValue).min().orElseThrow();
+        }
+
+        long getMaxTs() {
+            return values.keySet().stream().mapToLong(Long::longValue).max().orElseThrow();
+        }
+
+        private long count(Function<TsKvEntity, Object> value) {
+            return values.values().stream().map(value).filter(Objects::nonNull).count();
+        }
+
+        private LongStream longValues() {
+            return values.values().stream().map(TsKvEntity::getLongValue).filter(Objects::nonNull).mapToLong(Long::longValue);
+        }
+
+        private DoubleStream doubleValues() {
+            return values.values().stream().map(TsKvEntity::getDoubleValue).filter(Objects::nonNull).mapToDouble(Double::doubleValue);
+        }
+
+    }
+
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.ttl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.data.TenantProfile;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.tenant.profile.DefaultTenantProfileConfiguration;
+import org.thingsboard.server.dao.model.ModelConstants;
+import org.thingsboard.server.dao.sqlts.dictionary.TsKeyDictionary;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
+import org.thingsboard.server.dao.util.SqlTsOrTsLatestAnyDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes expired rows from ts_kv in short transactions instead of one long-running procedure call.
+ * <p>
+ * The retention of an entity is resolved the same way as by the cleanup_timeseries_by_ttl procedure:
+ * the 'TTL' attribute of the customer or the tenant (in seconds), then the default storage TTL of the tenant profile and finally the system TTL.
+ * Keys listed in 'timeseriesKeysStorageTtlDays' of the tenant profile (e.g. "debug:7,temperature:365") use their own retention instead.
+ * <p>
+ * Rows are deleted by primary key in batches of limited size with a pause in between, so the cleanup never holds
+ * row locks for long and the write load stays bounded. A run that exceeds the max execution time resumes from the next tenant on the next run.
+ * Expired rollup buckets of the same entities and keys are removed along with the raw values.
+ */
+@Slf4j
+@Component
+@SqlTsOrTsLatestAnyDao
+@RequiredArgsConstructor
+public class SqlTsTtlCleaner {
+
+    private static final String SELECT_TENANTS = "SELECT id FROM tenant WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_CUSTOMERS = "SELECT id FROM customer WHERE tenant_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_DEVICES = "SELECT id FROM device WHERE tenant_id = ? AND customer_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_ASSETS = "SELECT id FROM asset WHERE tenant_id = ? AND customer_id = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_TTL_ATTRIBUTE = "SELECT long_v FROM attribute_kv WHERE entity_id = ? AND attribute_key = 'TTL' AND long_v IS NOT NULL LIMIT 1";
+    private static final String DELETE_BATCH = "DELETE FROM ts_kv t USING (SELECT entity_id, key, ts FROM ts_kv WHERE entity_id = ANY(?) AND ts < ?%s LIMIT ?) d " +
+            "WHERE t.entity_id = d.entity_id AND t.key = d.key AND t.ts = d.ts";
+    private static final String ALL_KEYS = "";
+    private static final String OTHER_KEYS = " AND key <> ALL(?)";
+    private static final String SINGLE_KEY = " AND key = ?";
+    private static final String DELETE_ROLLUPS = "DELETE FROM ts_rollup WHERE entity_id = ANY(?) AND ts + granularity <= ?%s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TbTenantProfileCache tenantProfileCache;
+    private final TsKeyDictionary keyDictionary;
+
+    @Value("${sql.ttl.ts.batch_delete.batch_size:10000}")
+    private int batchSize;
+
+    @Value("${sql.ttl.ts.batch_delete.batch_delay_ms:100}")
+    private long batchDelayMs;
+
+    @Value("${sql.ttl.ts.batch_delete.entities_per_batch:1000}")
+    private int entitiesPerBatch;
+
+    @Value("${sql.ttl.ts.batch_delete.max_execution_time_ms:0}")
+    private long maxExecutionTimeMs;
+
+    @Value("${database.ts.type:sql}")
+    private String tsType;
+
+    @Value("${sql.ts.rollup.enabled:false}")
+    private boolean rollupEnabled;
+
+    private volatile UUID lastTenantId = ModelConstants.NULL_UUID;
+
+    public long cleanup(long systemTtl) throws InterruptedException {
+        long deadline = maxExecutionTimeMs > 0 ? getCurrentTimeMillis() + maxExecutionTimeMs : Long.MAX_VALUE;
+        long deleted = 0;
+        int tenants = 0;
+        log.info("Going to cleanup old timeseries data using ttl: {}s, starting after tenant [{}]", systemTtl, lastTenantId);
+        List<UUID> tenantIds;
+        do {
+            tenantIds = jdbcTemplate.queryForList(SELECT_TENANTS, UUID.class, lastTenantId, entitiesPerBatch);
+            for (UUID tenantId : tenantIds) {
+                if (getCurrentTimeMillis() > deadline) {
+                    log.info("Timeseries TTL cleanup reached max execution time after {} tenants, removed {} records. Will resume after tenant [{}]",
+                            tenants, deleted, lastTenantId);
+                    return deleted;
+                }
+                long deletedForTenant = cleanupTenant(TenantId.fromUUID(tenantId), systemTtl);
+                log.debug("[{}] Removed {} telemetry records by TTL", tenantId, deletedForTenant);
+                deleted += deletedForTenant;
+                tenants++;
+                lastTenantId = tenantId;
+            }
+        } while (tenantIds.size() == entitiesPerBatch);
+        lastTenantId = ModelConstants.NULL_UUID;
+        log.info("Total telemetry removed stats by TTL for {} tenants: [{}]", tenants, deleted);
+        return deleted;
+    }
+
+    private long cleanupTenant(TenantId tenantId, long systemTtl) throws InterruptedException {
+        DefaultTenantProfileConfiguration profileConfiguration = getProfileConfiguration(tenantId);
+        long tenantTtl = getTtlAttribute(tenantId.getId()).orElse(-1L);
+        if (tenantTtl < 0) {
+            tenantTtl = profileConfiguration != null && profileConfiguration.getDefaultStorageTtlDays() > 0 ?
+                    TimeUnit.DAYS.toSeconds(profileConfiguration.getDefaultStorageTtlDays()) : systemTtl;
+        }
+        Map<Integer, Long> keysTtl = new HashMap<>();
+        if (profileConfiguration != null) {
+            parseKeysTtl(profileConfiguration.getTimeseriesKeysStorageTtlDays())
+                    .forEach((key, ttl) -> keysTtl.put(keyDictionary.getOrSaveKeyId(key), ttl));
+        }
+
+        long deleted = cleanupEntities(SELECT_DEVICES, tenantId.getId(), ModelConstants.NULL_UUID, tenantTtl, keysTtl);
+        deleted += cleanupEntities(SELECT_ASSETS, tenantId.getId(), ModelConstants.NULL_UUID, tenantTtl, keysTtl);
+
+        UUID lastCustomerId = ModelConstants.NULL_UUID;
+        List<UUID> customerIds;
+        do {
+            customerIds = jdbcTemplate.queryForList(SELECT_CUSTOMERS, UUID.class, tenantId.getId(), lastCustomerId, entitiesPerBatch);
+            for (UUID customerId : customerIds) {
+                long customerTtl = getTtlAttribute(customerId).orElse(tenantTtl);
+                deleted += deleteExpired(Collections.singletonList(customerId), customerTtl, keysTtl);
+                deleted += cleanupEntities(SELECT_DEVICES, tenantId.getId(), customerId, customerTtl, keysTtl);
+                deleted += cleanupEntities(SELECT_ASSETS, tenantId.getId(), customerId, customerTtl, keysTtl);
+                lastCustomerId = customerId;
+            }
+        } while (customerIds.size() == entitiesPerBatch);
+        return deleted;
+    }
+
+    private long cleanupEntities(String selectQuery, UUID tenantId, UUID customerId, long ttl, Map<Integer, Long> keysTtl) throws InterruptedException {
+        long deleted = 0;
+        UUID lastEntityId = ModelConstants.NULL_UUID;
+        List<UUID> entityIds;
+        do {
+            entityIds = jdbcTemplate.queryForList(selectQuery, UUID.class, tenantId, customerId, lastEntityId, entitiesPerBatch);
+            if (!entityIds.isEmpty()) {
+                deleted += deleteExpired(entityIds, ttl, keysTtl);
+                lastEntityId = entityIds.get(entityIds.size() - 1);
+            }
+        } while (entityIds.size() == entitiesPerBatch);
+        return deleted;
+    }
+
+    private long deleteExpired(List<UUID> entityIds, long ttl, Map<Integer, Long> keysTtl) throws InterruptedException {
+        long now = getCurrentTimeMillis();
+        long deleted = 0;
+        if (ttl > 0) {
+            if (keysTtl.isEmpty()) {
+                deleted += deleteInBatches(ALL_KEYS, entityIds, now - TimeUnit.SECONDS.toMillis(ttl), null);
+            } else {
+                deleted += deleteInBatches(OTHER_KEYS, entityIds, now - TimeUnit.SECONDS.toMillis(ttl), keysTtl.keySet().toArray());
+            }
+        }
+        for (Map.Entry<Integer, Long> keyTtl : keysTtl.entrySet()) {
+            if (keyTtl.getValue() > 0) {
+                deleted += deleteInBatches(SINGLE_KEY, entityIds, now - TimeUnit.SECONDS.toMillis(keyTtl.getValue()), keyTtl.getKey());
+            }
+        }
+        return deleted;
+    }
+
+    private long deleteInBatches(String keysCondition, List<UUID> entityIds, long expirationTs, Object keys) throws InterruptedException {
+        String query = String.format(DELETE_BATCH, keysCondition);
+        long deleted = 0;
+        int removed;
+        do {
+            // every batch is a separate transaction
+            removed = jdbcTemplate.update(con -> prepareDelete(con, query, entityIds, expirationTs, keys, batchSize));
+            deleted += removed;
+            if (removed == batchSize && batchDelayMs > 0) {
+                Thread.sleep(batchDelayMs);
+            }
+        } while (removed == batchSize);
+        if (rollupEnabled && "sql".equalsIgnoreCase(tsType)) {
+            // rollup buckets are removed once they lie entirely before the expiration time
+            String rollupsQuery = String.format(DELETE_ROLLUPS, keysCondition);
+            jdbcTemplate.update(con -> prepareDelete(con, rollupsQuery, entityIds, expirationTs, keys, null));
+        }
+        return deleted;
+    }
+
+    private static PreparedStatement prepareDelete(Connection con, String query, List<UUID> entityIds, long expirationTs, Object keys, Integer limit) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(query);
+        int idx = 1;
+        ps.setArray(idx++, con.createArrayOf("uuid", entityIds.toArray()));
+        ps.setLong(idx++, expirationTs);
+        if (keys instanceof Object[]) {
+            ps.setArray(idx++, con.createArrayOf("int4", (Object[]) keys));
+        } else if (keys != null) {
+            ps.setInt(idx++, (Integer) keys);
+        }
+        if (limit != null) {
+            ps.setInt(idx, limit);
+        }
+        return ps;
+    }
+
+    private Optional<Long> getTtlAttribute(UUID entityId) {
+        return jdbcTemplate.queryForList(SELECT_TTL_ATTRIBUTE, Long.class, entityId).stream().findFirst();
+    }
+
+    private DefaultTenantProfileConfiguration getProfileConfiguration(TenantId tenantId) {
+        try {
+            TenantProfile tenantProfile = tenantProfileCache.get(tenantId);
+            return tenantProfile != null ? tenantProfile.getDefaultProfileConfiguration() : null;
+        } catch (Exception e) {
+            log.warn("[{}] Failed to get tenant profile, the tenant's default storage TTL is ignored", tenantId, e);
+            return null;
+        }
+    }
+
+    long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    static Map<String, Long> parseKeysTtl(String configuration) {
+        if (StringUtils.isBlank(configuration)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> keysTtl = new HashMap<>();
+        for (String entry : configuration.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                log.warn("Invalid timeseries key storage TTL configuration: {}", entry);
+                continue;
+            }
+            try {
+                keysTtl.put(entry.substring(0, separator).trim(), TimeUnit.DAYS.toSeconds(Long.parseLong(entry.substring(separator + 1).trim())));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid timeseries key storage TTL configuration: {}", entry);
+            }
+        }
+        return keysTtl;
+    }
+
+}
@@ -15,9 +15,19 @@
  */
 package org.thingsboard.server.dao.timeseries;
 
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
 import org.thingsboard.server.common.data.kv.BooleanDataEntry;
 import org.thingsboard.server.common.data.kv.DoubleDataEntry;
@@ -26,9 +36,12 @@ import org.thingsboard.server.common.data.kv.KvEntry;
 import org.thingsboard.server.common.data.kv.LongDataEntry;
 import org.thingsboard.server.common.data.kv.StringDataEntry;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.nosql.CassandraAbstractAsyncDao;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -40,6 +53,47 @@ public abstract class AbstractCassandraBaseTimeseriesDao extends CassandraAbstra
     public static final String INSERT_INTO = "INSERT INTO ";
     public static final String SELECT_PREFIX = "SELECT ";
     public static final String EQUALS_PARAM = " = ? ";
+    private static final String BATCH_WRITES_STATS_KEY = "cassandraBatchWrites";
+
+    @Value("${cassandra.query.batch_writes.enabled:false}")
+    protected boolean batchWritesEnabled;
+
+    @Value("${cassandra.query.batch_writes.max_statements_per_batch:100}")
+    private int maxStatementsPerBatch;
+
+    @Autowired
+    private StatsFactory statsFactory;
+
+    private StatsCounter batchesCounter;
+    private StatsCounter batchedStatementsCounter;
+
+    @PostConstruct
+    public void initBatchWritesStats() {
+        if (batchWritesEnabled) {
+            batchesCounter = statsFactory.createStatsCounter(BATCH_WRITES_STATS_KEY, "batches");
+            batchedStatementsCounter = statsFactory.createStatsCounter(BATCH_WRITES_STATS_KEY, "statements");
+        }
+    }
+
+    /**
+     * Executes statements that belong to the same partition as unlogged batches of at most max_statements_per_batch statements.
+     * Single partition batches are applied atomically by the replica and are routed to it by the token-aware load balancing policy
+     * since the driver takes the routing key of the batch from its statements.
+     */
+    protected List<ListenableFuture<Void>> executeAsyncWriteBatch(TenantId tenantId, List<BatchableStatement<?>> statements) {
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (List<BatchableStatement<?>> chunk : Lists.partition(statements, Math.max(1, maxStatementsPerBatch))) {
+            if (chunk.size() == 1) {
+                futures.add(Futures.transform(executeAsyncWrite(tenantId, chunk.get(0)), rs -> null, MoreExecutors.directExecutor()));
+            } else {
+                batchesCounter.increment();
+                batchedStatementsCounter.add(chunk.size());
+                BatchStatement batch = BatchStatement.newInstance(BatchType.UNLOGGED, chunk);
+                futures.add(Futures.transform(executeAsyncWrite(tenantId, batch), rs -> null, MoreExecutors.directExecutor()));
+            }
+        }
+        return futures;
+    }
 
     public static KvEntry toKvEntry(Row row, String key) {
         KvEntry kvEntry = null;
@@ -43,9 +43,12 @@ import org.thingsboard.server.dao.entityview.EntityViewService;
 import org.thingsboard.server.dao.exception.IncorrectParameterException;
 import org.thingsboard.server.dao.service.Validator;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -60,7 +63,6 @@ import static org.thingsboard.server.common.data.StringUtils.isBlank;
 public class BaseTimeseriesService implements TimeseriesService {
 
     private static final int INSERTS_PER_ENTRY = 3;
-    private static final int INSERTS_PER_ENTRY_WITHOUT_LATEST = 2;
     private static final int DELETES_PER_ENTRY = INSERTS_PER_ENTRY;
     public static final Function<List<Integer>, Integer> SUM_ALL_INTEGERS = new Function<>() {
         @Override
@@ -147,6 +149,16 @@ public class BaseTimeseriesService implements TimeseriesService {
         return timeseriesLatestDao.findAllLatest(tenantId, entityId);
     }
 
+    @Override
+    public ListenableFuture<Map<EntityId, List<TsKvEntry>>> findLatestByEntities(TenantId tenantId, List<EntityId> entityIds, Collection<String> keys) {
+        entityIds.forEach(BaseTimeseriesService::validate);
+        keys.forEach(key -> Validator.validateString(key, "Incorrect key " + key));
+        if (entityIds.isEmpty() || keys.isEmpty()) {
+            return Futures.immediateFuture(Collections.emptyMap());
+        }
+        return timeseriesLatestDao.findLatestByEntities(tenantId, entityIds, new ArrayList<>(new LinkedHashSet<>(keys)));
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         return timeseriesLatestDao.findAllKeysByDeviceProfileId(tenantId, deviceProfileId);
@@ -162,6 +174,11 @@ public class BaseTimeseriesService implements TimeseriesService {
         timeseriesDao.cleanup(systemTtl);
     }
 
+    @Override
+    public void compress(long compressAfterMs) {
+        timeseriesDao.compress(compressAfterMs);
+    }
+
     @Override
     public ListenableFuture<Integer> save(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry) {
         validate(entityId);
@@ -181,25 +198,26 @@ public class BaseTimeseriesService implements TimeseriesService {
     }
 
     private ListenableFuture<Integer> doSave(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries, long ttl, boolean saveLatest) {
-        int inserts = saveLatest ? INSERTS_PER_ENTRY : INSERTS_PER_ENTRY_WITHOUT_LATEST;
-        List<ListenableFuture<Integer>> futures = Lists.newArrayListWithExpectedSize(tsKvEntries.size() * inserts);
+        if (tsKvEntries.isEmpty()) {
+            return Futures.immediateFuture(0);
+        }
+        if (entityId.getEntityType().equals(EntityType.ENTITY_VIEW)) {
+            throw new IncorrectParameterException("Telemetry data can't be stored for entity view. Read only");
+        }
+        List<ListenableFuture<Integer>> futures = Lists.newArrayListWithExpectedSize(tsKvEntries.size() + 2);
         for (TsKvEntry tsKvEntry : tsKvEntries) {
-            if (saveLatest) {
-                saveAndRegisterFutures(tenantId, futures, entityId, tsKvEntry, ttl);
-            } else {
-                saveWithoutLatestAndRegisterFutures(tenantId, futures, entityId, tsKvEntry, ttl);
-            }
+            futures.add(timeseriesDao.savePartition(tenantId, entityId, tsKvEntry.getTs(), tsKvEntry.getKey()));
+        }
+        futures.add(timeseriesDao.saveAll(tenantId, entityId, tsKvEntries, ttl));
+        if (saveLatest) {
+            futures.add(Futures.transform(timeseriesLatestDao.saveAllLatest(tenantId, entityId, tsKvEntries), v -> 0, MoreExecutors.directExecutor()));
         }
         return Futures.transform(Futures.allAsList(futures), SUM_ALL_INTEGERS, MoreExecutors.directExecutor());
     }
 
     @Override
     public ListenableFuture<List<Void>> saveLatest(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries) {
-        List<ListenableFuture<Void>> futures = Lists.newArrayListWithExpectedSize(tsKvEntries.size());
-        for (TsKvEntry tsKvEntry : tsKvEntries) {
-            futures.add(timeseriesLatestDao.saveLatest(tenantId, entityId, tsKvEntry));
-        }
-        return Futures.allAsList(futures);
+        return timeseriesLatestDao.saveAllLatest(tenantId, entityId, tsKvEntries);
     }
 
     private void saveAndRegisterFutures(TenantId tenantId, List<ListenableFuture<Integer>> futures, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
@@ -207,10 +225,6 @@ public class BaseTimeseriesService implements TimeseriesService {
         futures.add(Futures.transform(timeseriesLatestDao.saveLatest(tenantId, entityId, tsKvEntry), v -> 0, MoreExecutors.directExecutor()));
     }
 
-    private void saveWithoutLatestAndRegisterFutures(TenantId tenantId, List<ListenableFuture<Integer>> futures, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
-        doSaveAndRegisterFuturesFor(tenantId, futures, entityId, tsKvEntry, ttl);
-    }
-
     private void doSaveAndRegisterFuturesFor(TenantId tenantId, List<ListenableFuture<Integer>> futures, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
         if (entityId.getEntityType().equals(EntityType.ENTITY_VIEW)) {
             throw new IncorrectParameterException("Telemetry data can't be stored for entity view. Read only");
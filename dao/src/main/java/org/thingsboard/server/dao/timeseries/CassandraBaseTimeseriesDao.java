@@ -16,6 +16,7 @@
 package org.thingsboard.server.dao.timeseries;
 
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
@@ -63,7 +64,9 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -159,9 +162,37 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         ttl = computeTtl(ttl);
         int dataPointDays = tsKvEntry.getDataPoints() * Math.max(1, (int) (ttl / SECONDS_IN_DAY));
         long partition = toPartitionTs(tsKvEntry.getTs());
+        for (BoundStatement stmt : getSaveStatements(entityId, tsKvEntry, ttl, partition)) {
+            futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        }
+        return Futures.transform(Futures.allAsList(futures), result -> dataPointDays, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<Integer> saveAll(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries, long ttl) {
+        if (!batchWritesEnabled) {
+            return TimeseriesDao.super.saveAll(tenantId, entityId, tsKvEntries, ttl);
+        }
+        long computedTtl = computeTtl(ttl);
+        int dataPointDays = 0;
+        Map<CassandraPartitionCacheKey, List<BatchableStatement<?>>> statementsByPartition = new LinkedHashMap<>();
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            dataPointDays += tsKvEntry.getDataPoints() * Math.max(1, (int) (computedTtl / SECONDS_IN_DAY));
+            long partition = toPartitionTs(tsKvEntry.getTs());
+            statementsByPartition.computeIfAbsent(new CassandraPartitionCacheKey(entityId, tsKvEntry.getKey(), partition), key -> new ArrayList<>())
+                    .addAll(getSaveStatements(entityId, tsKvEntry, computedTtl, partition));
+        }
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        statementsByPartition.values().forEach(statements -> futures.addAll(executeAsyncWriteBatch(tenantId, statements)));
+        int result = dataPointDays;
+        return Futures.transform(Futures.allAsList(futures), r -> result, MoreExecutors.directExecutor());
+    }
+
+    private List<BoundStatement> getSaveStatements(EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition) {
+        List<BoundStatement> statements = new ArrayList<>();
         DataType type = tsKvEntry.getDataType();
         if (setNullValuesEnabled) {
-            processSetNullValues(tenantId, entityId, tsKvEntry, ttl, futures, partition, type);
+            processSetNullValues(entityId, tsKvEntry, ttl, statements, partition, type);
         }
         BoundStatementBuilder stmtBuilder = new BoundStatementBuilder((ttl == 0 ? getSaveStmt(type) : getSaveTtlStmt(type)).bind());
         stmtBuilder.setString(0, entityId.getEntityType().name())
@@ -173,9 +204,8 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         if (ttl > 0) {
             stmtBuilder.setInt(6, (int) ttl);
         }
-        BoundStatement stmt = stmtBuilder.build();
-        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
-        return Futures.transform(Futures.allAsList(futures), result -> dataPointDays, MoreExecutors.directExecutor());
+        statements.add(stmtBuilder.build());
+        return statements;
     }
 
     @Override
@@ -449,42 +479,42 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         return tsFormat.getTruncateUnit().equals(ChronoUnit.FOREVER);
     }
 
-    private void processSetNullValues(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl, List<ListenableFuture<Void>> futures, long partition, DataType type) {
+    private void processSetNullValues(EntityId entityId, TsKvEntry tsKvEntry, long ttl, List<BoundStatement> statements, long partition, DataType type) {
         switch (type) {
             case LONG:
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.STRING));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.JSON));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.STRING));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.JSON));
                 break;
             case BOOLEAN:
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.LONG));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.STRING));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.JSON));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.LONG));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.STRING));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.JSON));
                 break;
             case DOUBLE:
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.LONG));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.STRING));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.JSON));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.LONG));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.STRING));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.JSON));
                 break;
             case STRING:
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.LONG));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.JSON));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.LONG));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.JSON));
                 break;
             case JSON:
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.LONG));
-                futures.add(saveNull(tenantId, entityId, tsKvEntry, ttl, partition, DataType.STRING));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.BOOLEAN));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.DOUBLE));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.LONG));
+                statements.add(getSaveNullStmt(entityId, tsKvEntry, ttl, partition, DataType.STRING));
                 break;
         }
     }
 
-    private ListenableFuture<Void> saveNull(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition, DataType type) {
+    private BoundStatement getSaveNullStmt(EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition, DataType type) {
         BoundStatementBuilder stmtBuilder = new BoundStatementBuilder((ttl == 0 ? getSaveStmt(type) : getSaveTtlStmt(type)).bind());
         stmtBuilder.setString(0, entityId.getEntityType().name())
                 .setUuid(1, entityId.getId())
@@ -495,8 +525,7 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         if (ttl > 0) {
             stmtBuilder.setInt(6, (int) ttl);
         }
-        BoundStatement stmt = stmtBuilder.build();
-        return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
+        return stmtBuilder.build();
     }
 
     private ListenableFuture<Integer> doSavePartition(TenantId tenantId, EntityId entityId, String key, long ttl, long partition) {
@@ -15,16 +15,20 @@
  */
 package org.thingsboard.server.dao.timeseries;
 
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.DeviceProfileId;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -41,10 +45,16 @@ import org.thingsboard.server.dao.nosql.TbResultSet;
 import org.thingsboard.server.dao.sqlts.AggregationTimeseriesDao;
 import org.thingsboard.server.dao.util.NoSqlTsLatestDao;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal;
 
@@ -59,6 +69,10 @@ public class CassandraBaseTimeseriesLatestDao extends AbstractCassandraBaseTimes
     private PreparedStatement latestInsertStmt;
     private PreparedStatement findLatestStmt;
     private PreparedStatement findAllLatestStmt;
+    private PreparedStatement findLatestByEntityIdsStmt;
+
+    @Value("${cassandra.query.latest_multi_read_entities_per_query:100}")
+    private int latestMultiReadEntitiesPerQuery;
 
     @Override
     public ListenableFuture<Optional<TsKvEntry>> findLatestOpt(TenantId tenantId, EntityId entityId, String key) {
@@ -100,6 +114,33 @@ public class CassandraBaseTimeseriesLatestDao extends AbstractCassandraBaseTimes
         return getFutureAsync(executeAsyncRead(tenantId, stmt), rs -> convertAsyncResultSetToTsKvEntryList(rs));
     }
 
+    @Override
+    public ListenableFuture<Map<EntityId, List<TsKvEntry>>> findLatestByEntities(TenantId tenantId, List<EntityId> entityIds, List<String> keys) {
+        Map<EntityId, List<TsKvEntry>> result = new ConcurrentHashMap<>();
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        entityIds.stream().collect(Collectors.groupingBy(EntityId::getEntityType)).forEach((entityType, ids) -> {
+            for (List<EntityId> partition : Lists.partition(ids, Math.max(1, latestMultiReadEntitiesPerQuery))) {
+                Map<UUID, EntityId> entityIdsByUuid = new HashMap<>();
+                partition.forEach(entityId -> entityIdsByUuid.put(entityId.getId(), entityId));
+                BoundStatementBuilder stmtBuilder = new BoundStatementBuilder(getFindLatestByEntityIdsStmt().bind());
+                stmtBuilder.setString(0, entityType.name());
+                stmtBuilder.setList(1, new ArrayList<>(entityIdsByUuid.keySet()), UUID.class);
+                stmtBuilder.setList(2, keys, String.class);
+                BoundStatement stmt = stmtBuilder.build();
+                log.debug("Generated query [{}] for entityType {} and {} entities", stmt, entityType, partition.size());
+                futures.add(getFutureAsync(executeAsyncRead(tenantId, stmt), rs -> Futures.transform(rs.allRows(readResultsProcessingExecutor), rows -> {
+                    for (Row row : rows) {
+                        EntityId entityId = entityIdsByUuid.get(row.getUuid(ModelConstants.ENTITY_ID_COLUMN));
+                        result.computeIfAbsent(entityId, id -> Collections.synchronizedList(new ArrayList<>()))
+                                .addAll(convertResultToTsKvEntryList(Collections.singletonList(row)));
+                    }
+                    return null;
+                }, readResultsProcessingExecutor)));
+            }
+        });
+        return Futures.transform(Futures.allAsList(futures), v -> result, MoreExecutors.directExecutor());
+    }
+
     @Override
     public List<String> findAllKeysByDeviceProfileId(TenantId tenantId, DeviceProfileId deviceProfileId) {
         return Collections.emptyList();
@@ -112,6 +153,23 @@ public class CassandraBaseTimeseriesLatestDao extends AbstractCassandraBaseTimes
 
     @Override
     public ListenableFuture<Void> saveLatest(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry) {
+        return getFuture(executeAsyncWrite(tenantId, getSaveLatestStatement(entityId, tsKvEntry)), rs -> null);
+    }
+
+    @Override
+    public ListenableFuture<List<Void>> saveAllLatest(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries) {
+        if (!batchWritesEnabled) {
+            return TimeseriesLatestDao.super.saveAllLatest(tenantId, entityId, tsKvEntries);
+        }
+        // all latest values of the entity share one partition
+        List<BatchableStatement<?>> statements = new ArrayList<>(tsKvEntries.size());
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            statements.add(getSaveLatestStatement(entityId, tsKvEntry));
+        }
+        return Futures.allAsList(executeAsyncWriteBatch(tenantId, statements));
+    }
+
+    private BoundStatement getSaveLatestStatement(EntityId entityId, TsKvEntry tsKvEntry) {
         BoundStatementBuilder stmtBuilder = new BoundStatementBuilder(getLatestStmt().bind());
         stmtBuilder.setString(0, entityId.getEntityType().name())
                 .setUuid(1, entityId.getId())
@@ -127,9 +185,7 @@ public class CassandraBaseTimeseriesLatestDao extends AbstractCassandraBaseTimes
         } else {
             stmtBuilder.setToNull(8);
         }
-        BoundStatement stmt = stmtBuilder.build();
-
-        return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
+        return stmtBuilder.build();
     }
 
     @Override
@@ -245,4 +301,23 @@ public class CassandraBaseTimeseriesLatestDao extends AbstractCassandraBaseTimes
         }
         return findAllLatestStmt;
     }
+
+    private PreparedStatement getFindLatestByEntityIdsStmt() {
+        if (findLatestByEntityIdsStmt == null) {
+            findLatestByEntityIdsStmt = prepare(SELECT_PREFIX +
+                    ModelConstants.ENTITY_ID_COLUMN + "," +
+                    ModelConstants.KEY_COLUMN + "," +
+                    ModelConstants.TS_COLUMN + "," +
+                    ModelConstants.STRING_VALUE_COLUMN + "," +
+                    ModelConstants.BOOLEAN_VALUE_COLUMN + "," +
+                    ModelConstants.LONG_VALUE_COLUMN + "," +
+                    ModelConstants.DOUBLE_VALUE_COLUMN + "," +
+                    ModelConstants.JSON_VALUE_COLUMN + " " +
+                    "FROM " + ModelConstants.TS_KV_LATEST_CF + " " +
+                    "WHERE " + ModelConstants.ENTITY_TYPE_COLUMN + EQUALS_PARAM +
+                    "AND " + ModelConstants.ENTITY_ID_COLUMN + " IN ? " +
+                    "AND " + ModelConstants.KEY_COLUMN + " IN ?");
+        }
+        return findLatestByEntityIdsStmt;
+    }
 }
@@ -30,6 +30,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.TenantProfile;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.stats.DefaultCounter;
 import org.thingsboard.server.common.stats.StatsCounter;
@@ -37,6 +38,7 @@ import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.common.stats.StatsType;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.nosql.CassandraStatementTask;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
 import org.thingsboard.server.common.data.limit.LimitedApi;
 import org.thingsboard.server.dao.util.limits.RateLimitService;
 
@@ -44,10 +46,8 @@ import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -64,7 +64,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
 
     private final long maxWaitTime;
     private final long pollMs;
-    private final BlockingQueue<AsyncTaskContext<T, V>> queue;
+    private final TenantFairQueue<AsyncTaskContext<T, V>> queue;
     private final ExecutorService dispatcherExecutor;
     private final ExecutorService callbackExecutor;
     private final ScheduledExecutorService timeoutExecutor;
@@ -78,27 +78,30 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
 
     private final EntityService entityService;
     private final RateLimitService rateLimitService;
+    private final TbTenantProfileCache tenantProfileCache;
 
     private final boolean printTenantNames;
     private final Map<TenantId, String> tenantNamesCache = new HashMap<>();
 
-    public AbstractBufferedRateExecutor(int queueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads,
+    public AbstractBufferedRateExecutor(int queueLimit, int tenantQueueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads,
                                         int callbackThreads, long pollMs, int printQueriesFreq, StatsFactory statsFactory,
-                                        EntityService entityService, RateLimitService rateLimitService, boolean printTenantNames) {
+                                        EntityService entityService, RateLimitService rateLimitService,
+                                        TbTenantProfileCache tenantProfileCache, boolean printTenantNames) {
         this.maxWaitTime = maxWaitTime;
         this.pollMs = pollMs;
         this.concurrencyLimit = concurrencyLimit;
         this.printQueriesFreq = printQueriesFreq;
-        this.queue = new LinkedBlockingDeque<>(queueLimit);
         this.dispatcherExecutor = Executors.newFixedThreadPool(dispatcherThreads, ThingsBoardThreadFactory.forName("nosql-" + getBufferName() + "-dispatcher"));
         this.callbackExecutor = ThingsBoardExecutors.newWorkStealingPool(callbackThreads, "nosql-" + getBufferName() + "-callback");
         this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nosql-" + getBufferName() + "-timeout"));
-        this.stats = new BufferedRateExecutorStats(statsFactory);
+        this.stats = new BufferedRateExecutorStats(statsFactory, getBufferName());
+        this.queue = new TenantFairQueue<>(queueLimit, tenantQueueLimit, stats::updateTenantQueueSize);
         String concurrencyLevelKey = StatsType.RATE_EXECUTOR.getName() + "." + CONCURRENCY_LEVEL + getBufferName(); //metric name may change with buffer name suffix
         this.concurrencyLevel = statsFactory.createGauge(concurrencyLevelKey, new AtomicInteger(0));
 
         this.entityService = entityService;
         this.rateLimitService = rateLimitService;
+        this.tenantProfileCache = tenantProfileCache;
         this.printTenantNames = printTenantNames;
 
         for (int i = 0; i < dispatcherThreads; i++) {
@@ -125,17 +128,28 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         }
 
         if (!perTenantLimitReached) {
-            try {
-                stats.getTotalAdded().increment();
-                queue.add(new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()));
-            } catch (IllegalStateException e) {
+            stats.getTotalAdded().increment();
+            TenantId queueTenantId = tenantId != null ? tenantId : TenantId.SYS_TENANT_ID;
+            AsyncTaskContext<T, V> taskCtx = new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis());
+            if (!queue.offer(queueTenantId, getTenantWeight(queueTenantId), taskCtx)) {
                 stats.getTotalRejected().increment();
-                settableFuture.setException(e);
+                settableFuture.setException(new IllegalStateException("Queue full"));
             }
         }
         return result;
     }
 
+    private int getTenantWeight(TenantId tenantId) {
+        if (tenantId.isSysTenantId()) {
+            return 1;
+        }
+        TenantProfile tenantProfile = tenantProfileCache.get(tenantId);
+        if (tenantProfile == null || tenantProfile.getDefaultProfileConfiguration() == null) {
+            return 1;
+        }
+        return Math.max(1, tenantProfile.getDefaultProfileConfiguration().getCassandraQueryWeight());
+    }
+
     public void stop() {
         if (dispatcherExecutor != null) {
             dispatcherExecutor.shutdownNow();
@@ -165,6 +179,9 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                 if (curLvl <= concurrencyLimit) {
                     taskCtx = queue.take();
                     final AsyncTaskContext<T, V> finalTaskCtx = taskCtx;
+                    TenantId taskTenantId = finalTaskCtx.getTask().getTenantId();
+                    stats.recordTenantQueueLatency(taskTenantId != null ? taskTenantId : TenantId.SYS_TENANT_ID,
+                            System.currentTimeMillis() - finalTaskCtx.getCreateTime());
                     if (printQueriesFreq > 0) {
                         if (printQueriesIdx.incrementAndGet() >= printQueriesFreq) {
                             printQueriesIdx.set(0);
@@ -278,6 +295,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
     }
 
     public void printStats() {
+        queue.removeIdle().forEach(stats::removeTenantStats);
         int queueSize = getQueueSize();
         int rateLimitedTenantsCount = (int) stats.getRateLimitedTenants().values().stream()
                 .filter(defaultCounter -> defaultCounter.get() > 0)
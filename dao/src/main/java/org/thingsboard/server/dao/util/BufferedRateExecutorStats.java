@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.util;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -27,11 +28,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Getter
 public class BufferedRateExecutorStats {
     private static final String TENANT_ID_TAG = "tenantId";
+    private static final String BUFFER_TAG = "buffer";
 
 
     private static final String TOTAL_ADDED = "totalAdded";
@@ -43,8 +47,11 @@ public class BufferedRateExecutorStats {
     private static final String TOTAL_RATE_LIMITED = "totalRateLimited";
 
     private final StatsFactory statsFactory;
+    private final String bufferName;
 
     private final ConcurrentMap<TenantId, DefaultCounter> rateLimitedTenants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TenantId, AtomicInteger> tenantQueueSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TenantId, Timer> tenantQueueLatencies = new ConcurrentHashMap<>();
 
     private final List<StatsCounter> statsCounters = new ArrayList<>();
 
@@ -56,8 +63,9 @@ public class BufferedRateExecutorStats {
     private final StatsCounter totalRejected;
     private final StatsCounter totalRateLimited;
 
-    public BufferedRateExecutorStats(StatsFactory statsFactory) {
+    public BufferedRateExecutorStats(StatsFactory statsFactory, String bufferName) {
         this.statsFactory = statsFactory;
+        this.bufferName = bufferName;
 
         String key = StatsType.RATE_EXECUTOR.getName();
 
@@ -87,4 +95,29 @@ public class BufferedRateExecutorStats {
         )
                 .increment();
     }
+
+    public void updateTenantQueueSize(TenantId tenantId, int size) {
+        tenantQueueSizes.computeIfAbsent(tenantId,
+                tId -> statsFactory.createGauge(StatsType.RATE_EXECUTOR.getName() + ".tenantQueueSize", new AtomicInteger(0),
+                        BUFFER_TAG, bufferName, TENANT_ID_TAG, tId.toString())
+        )
+                .set(size);
+    }
+
+    public void removeTenantStats(TenantId tenantId) {
+        if (tenantQueueSizes.remove(tenantId) != null) {
+            statsFactory.removeMeters(StatsType.RATE_EXECUTOR.getName() + ".tenantQueueSize", BUFFER_TAG, bufferName, TENANT_ID_TAG, tenantId.toString());
+        }
+        if (tenantQueueLatencies.remove(tenantId) != null) {
+            statsFactory.removeMeters(StatsType.RATE_EXECUTOR.getName() + ".tenantQueueLatency", BUFFER_TAG, bufferName, TENANT_ID_TAG, tenantId.toString());
+        }
+    }
+
+    public void recordTenantQueueLatency(TenantId tenantId, long latencyMs) {
+        tenantQueueLatencies.computeIfAbsent(tenantId,
+                tId -> statsFactory.createTimer(StatsType.RATE_EXECUTOR.getName() + ".tenantQueueLatency",
+                        BUFFER_TAG, bufferName, TENANT_ID_TAG, tId.toString())
+        )
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded blocking queue with a sub-queue per tenant, drained with deficit round-robin.
+ * On every turn a tenant may dispatch as many tasks as its weight, so a tenant with a deep backlog
+ * can not delay the tasks of other tenants by more than one round.
+ * A tenant keeps its unused deficit when its queue empties; empty queues are dropped by {@link #removeIdle()}.
+ */
+class TenantFairQueue<E> {
+
+    private final int capacity;
+    private final int tenantCapacity;
+    private final BiConsumer<TenantId, Integer> sizeListener;
+
+    private final Map<TenantId, TenantQueue<E>> queues = new HashMap<>();
+    private final ArrayDeque<TenantQueue<E>> active = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int size;
+
+    /**
+     * @param tenantCapacity max number of queued tasks of a single tenant, 0 means that only the total capacity applies
+     * @param sizeListener   notified with the new number of queued tasks of the tenant
+     */
+    TenantFairQueue(int capacity, int tenantCapacity, BiConsumer<TenantId, Integer> sizeListener) {
+        this.capacity = capacity;
+        this.tenantCapacity = tenantCapacity;
+        this.sizeListener = sizeListener;
+    }
+
+    /**
+     * @param weight number of tasks the tenant may dispatch per round, applied when the tenant has no queued tasks yet
+     */
+    boolean offer(TenantId tenantId, int weight, E element) {
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                return false;
+            }
+            TenantQueue<E> queue = queues.get(tenantId);
+            if (queue == null) {
+                queue = new TenantQueue<>(tenantId);
+                queues.put(tenantId, queue);
+            } else if (tenantCapacity > 0 && queue.elements.size() >= tenantCapacity) {
+                return false;
+            }
+            if (queue.elements.isEmpty()) {
+                queue.weight = Math.max(1, weight);
+                active.addLast(queue);
+            }
+            queue.idle = false;
+            queue.elements.addLast(element);
+            size++;
+            sizeListener.accept(tenantId, queue.elements.size());
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(TenantId tenantId) {
+        lock.lock();
+        try {
+            TenantQueue<E> queue = queues.get(tenantId);
+            return queue != null ? queue.elements.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the queues of the tenants that had no queued tasks since the previous call.
+     *
+     * @return ids of the removed tenants
+     */
+    List<TenantId> removeIdle() {
+        lock.lock();
+        try {
+            List<TenantId> removed = new ArrayList<>();
+            Iterator<TenantQueue<E>> iterator = queues.values().iterator();
+            while (iterator.hasNext()) {
+                TenantQueue<E> queue = iterator.next();
+                if (!queue.elements.isEmpty()) {
+                    continue;
+                }
+                if (queue.idle) {
+                    iterator.remove();
+                    removed.add(queue.tenantId);
+                } else {
+                    queue.idle = true;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private E dequeue() {
+        TenantQueue<E> queue = active.peekFirst();
+        if (queue.deficit == 0) {
+            queue.deficit = queue.weight;
+        }
+        E element = queue.elements.pollFirst();
+        queue.deficit--;
+        size--;
+        sizeListener.accept(queue.tenantId, queue.elements.size());
+        if (queue.elements.isEmpty()) {
+            active.pollFirst();
+        } else if (queue.deficit == 0) {
+            active.addLast(active.pollFirst());
+        }
+        return element;
+    }
+
+    private static class TenantQueue<E> {
+
+        private final TenantId tenantId;
+        private final ArrayDeque<E> elements = new ArrayDeque<>();
+        private int weight;
+        private int deficit;
+        private boolean idle;
+
+        private TenantQueue(TenantId tenantId) {
+            this.tenantId = tenantId;
+        }
+
+    }
+
+}
@@ -31,6 +31,8 @@ CREATE INDEX IF NOT EXISTS idx_alarm_tenant_alarm_type_created_time ON alarm(ten
 
 CREATE INDEX IF NOT EXISTS idx_alarm_tenant_assignee_created_time ON alarm(tenant_id, assignee_id, created_time DESC);
 
+CREATE INDEX IF NOT EXISTS idx_alarm_tenant_end_ts ON alarm(tenant_id, end_ts);
+
 CREATE INDEX IF NOT EXISTS idx_entity_alarm_created_time ON entity_alarm(tenant_id, entity_id, created_time DESC);
 
 -- Cover index by alarm type to optimize propagated alarm queries;
@@ -34,6 +34,36 @@ CREATE TABLE IF NOT EXISTS ts_kv_dictionary
     CONSTRAINT ts_key_id_pkey PRIMARY KEY (key)
 );
 
+CREATE TABLE IF NOT EXISTS ts_rollup
+(
+    entity_id   uuid             NOT NULL,
+    key         int              NOT NULL,
+    granularity bigint           NOT NULL,
+    ts          bigint           NOT NULL,
+    long_cnt    bigint           NOT NULL,
+    long_sum    bigint           NOT NULL,
+    long_min    bigint,
+    long_max    bigint,
+    dbl_cnt     bigint           NOT NULL,
+    dbl_sum     double precision NOT NULL,
+    dbl_min     double precision,
+    dbl_max     double precision,
+    bool_cnt    bigint           NOT NULL,
+    str_cnt     bigint           NOT NULL,
+    json_cnt    bigint           NOT NULL,
+    max_ts      bigint           NOT NULL,
+    CONSTRAINT ts_rollup_pkey PRIMARY KEY (entity_id, key, granularity, ts)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ts_rollup_granularity_ts ON ts_rollup (granularity, ts);
+
+CREATE TABLE IF NOT EXISTS ts_rollup_coverage
+(
+    granularity bigint NOT NULL,
+    since_ts    bigint NOT NULL,
+    CONSTRAINT ts_rollup_coverage_pkey PRIMARY KEY (granularity)
+);
+
 CREATE OR REPLACE PROCEDURE drop_partitions_by_system_ttl(IN partition_type varchar, IN system_ttl bigint, INOUT deleted bigint)
     LANGUAGE plpgsql AS
 $$
@@ -229,6 +259,9 @@ BEGIN
     EXECUTE format(
             'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT device.id as entity_id FROM device WHERE tenant_id = %L and customer_id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
             tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT device.id as entity_id FROM device WHERE tenant_id = %L and customer_id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -239,6 +272,9 @@ BEGIN
     EXECUTE format(
             'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT asset.id as entity_id FROM asset WHERE tenant_id = %L and customer_id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
             tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT asset.id as entity_id FROM asset WHERE tenant_id = %L and customer_id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -249,6 +285,9 @@ BEGIN
     EXECUTE format(
             'WITH deleted AS (DELETE FROM ts_kv WHERE entity_id IN (SELECT customer.id as entity_id FROM customer WHERE tenant_id = %L and id = %L) AND ts < %L::bigint RETURNING *) SELECT count(*) FROM deleted',
             tenant_id, customer_id, ttl) into deleted;
+    EXECUTE format(
+            'DELETE FROM ts_rollup WHERE entity_id IN (SELECT customer.id as entity_id FROM customer WHERE tenant_id = %L and id = %L) AND ts + granularity <= %L::bigint',
+            tenant_id, customer_id, ttl);
 END;
 $$ LANGUAGE plpgsql;
 
@@ -0,0 +1,140 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.alarm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.dao.relation.EntityRelationEvent;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlarmPropagationPathCacheTest {
+
+    private final AlarmPropagationPathCache cache = new AlarmPropagationPathCache();
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final AssetId buildingId = new AssetId(UUID.randomUUID());
+    private final AssetId siteId = new AssetId(UUID.randomUUID());
+    private final AssetId otherId = new AssetId(UUID.randomUUID());
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "timeToLiveInMinutes", 5);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        cache.init();
+    }
+
+    @Test
+    public void givenCachedPath_whenGetPropagationPath_thenFilteredByRelationTypesWithoutReload() {
+        EntityRelation manages = new EntityRelation(buildingId, deviceId, "Manages", RelationTypeGroup.COMMON);
+        EntityRelation contains = new EntityRelation(siteId, buildingId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<EntityRelation>> loader = () -> {
+            loads.incrementAndGet();
+            return List.of(manages, contains);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(cache.getPropagationPath(tenantId, deviceId, List.of(EntityRelation.CONTAINS_TYPE), loader)).containsExactly(siteId);
+        }
+        assertThat(cache.getPropagationPath(tenantId, deviceId, List.of("Manages"), loader)).containsExactly(buildingId);
+        assertThat(cache.getPropagationPath(tenantId, deviceId, null, loader)).containsExactly(buildingId, siteId);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenChangedRelationOfAncestor_whenGetPropagationPath_thenReloaded() {
+        EntityRelation manages = new EntityRelation(buildingId, deviceId, "Manages", RelationTypeGroup.COMMON);
+        EntityRelation contains = new EntityRelation(otherId, buildingId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        cache.getPropagationPath(tenantId, deviceId, List.of(EntityRelation.CONTAINS_TYPE), () -> List.of(manages));
+
+        cache.onRelationChanged(EntityRelationEvent.from(tenantId, contains));
+
+        assertThat(cache.getPropagationPath(tenantId, deviceId, List.of(EntityRelation.CONTAINS_TYPE), () -> List.of(manages, contains)))
+                .containsExactly(otherId);
+    }
+
+    @Test
+    public void givenChangedRelationOfOriginator_whenGetPropagationPath_thenReloaded() {
+        EntityRelation contains = new EntityRelation(buildingId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        cache.getPropagationPath(tenantId, deviceId, null, List::of);
+
+        cache.onRelationChanged(EntityRelationEvent.from(tenantId, contains));
+
+        assertThat(cache.getPropagationPath(tenantId, deviceId, null, () -> List.of(contains))).containsExactly(buildingId);
+    }
+
+    @Test
+    public void givenUnrelatedRelationChange_whenGetPropagationPath_thenServedFromCache() {
+        EntityRelation contains = new EntityRelation(buildingId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        cache.getPropagationPath(tenantId, deviceId, null, () -> List.of(contains));
+
+        cache.onRelationChanged(EntityRelationEvent.from(tenantId, new EntityRelation(siteId, otherId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON)));
+
+        assertThat(cache.getPropagationPath(tenantId, deviceId, null, List::of)).containsExactly(buildingId);
+    }
+
+    @Test
+    public void givenRelationChangeOfSameTenantWhileLoading_whenGetPropagationPath_thenPathIsNotCached() {
+        EntityRelation contains = new EntityRelation(buildingId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        cache.getPropagationPath(tenantId, deviceId, null, () -> {
+            cache.onRelationChanged(EntityRelationEvent.from(tenantId, new EntityRelation(siteId, otherId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON)));
+            return List.of();
+        });
+
+        assertThat(cache.getPropagationPath(tenantId, deviceId, null, () -> List.of(contains))).containsExactly(buildingId);
+    }
+
+    @Test
+    public void givenRelationChangeOfOtherTenantWhileLoading_whenGetPropagationPath_thenPathIsCached() {
+        TenantId otherTenantId = TenantId.fromUUID(UUID.randomUUID());
+        EntityRelation contains = new EntityRelation(buildingId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        cache.getPropagationPath(tenantId, deviceId, null, () -> {
+            cache.onRelationChanged(EntityRelationEvent.from(otherTenantId, new EntityRelation(siteId, otherId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON)));
+            return List.of(contains);
+        });
+
+        assertThat(cache.getPropagationPath(tenantId, deviceId, null, List::of)).containsExactly(buildingId);
+    }
+
+    @Test
+    public void givenDisabledCache_whenGetPropagationPath_thenLoadedEveryTime() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        EntityRelation contains = new EntityRelation(buildingId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(cache.getPropagationPath(tenantId, deviceId, null, () -> {
+                loads.incrementAndGet();
+                return List.of(contains);
+            })).containsExactly(buildingId);
+        }
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.nosql;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.StatsCounter;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.dao.timeseries.CassandraBaseTimeseriesLatestDao;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CassandraBatchWritesTest {
+
+    @Spy
+    private CassandraBaseTimeseriesLatestDao latestDao;
+
+    @Mock
+    private StatsFactory statsFactory;
+
+    @Mock
+    private StatsCounter statsCounter;
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(latestDao, "batchWritesEnabled", true);
+        ReflectionTestUtils.setField(latestDao, "maxStatementsPerBatch", 2);
+        ReflectionTestUtils.setField(latestDao, "statsFactory", statsFactory);
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(statsCounter);
+        willReturn(new TbResultSetFuture(SettableFuture.create())).given(latestDao).executeAsyncWrite(any(), any());
+        latestDao.initBatchWritesStats();
+    }
+
+    @Test
+    public void givenStatementsOfOnePartition_whenExecuted_thenSplitIntoUnloggedBatches() {
+        BoundStatement first = mock(BoundStatement.class);
+        BoundStatement second = mock(BoundStatement.class);
+        BoundStatement third = mock(BoundStatement.class);
+
+        ReflectionTestUtils.invokeMethod(latestDao, "executeAsyncWriteBatch", tenantId, List.<BatchableStatement<?>>of(first, second, third));
+
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(latestDao, times(2)).executeAsyncWrite(any(TenantId.class), captor.capture());
+        List<Statement<?>> executed = captor.getAllValues();
+        assertThat(executed.get(0)).isInstanceOf(BatchStatement.class);
+        BatchStatement batch = (BatchStatement) executed.get(0);
+        assertThat(batch.getBatchType()).isEqualTo(BatchType.UNLOGGED);
+        assertThat(batch).containsExactly(first, second);
+        assertThat(executed.get(1)).isSameAs(third);
+        verify(statsCounter).increment();
+        verify(statsCounter).add(2);
+    }
+
+}
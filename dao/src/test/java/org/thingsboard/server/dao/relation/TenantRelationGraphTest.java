@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.relation;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenantRelationGraphTest {
+
+    private static final long MAX_AGE_MS = 60000;
+
+    private final TenantRelationGraph graph = new TenantRelationGraph();
+    private final AssetId assetId = new AssetId(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+
+    @Test
+    public void givenLoadedAdjacency_whenGetRelations_thenServedFromGraph() {
+        EntityRelation relation = new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<EntityRelation> first = graph.getRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS, () -> {
+            loads.incrementAndGet();
+            return List.of(relation);
+        });
+        List<EntityRelation> second = graph.getRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(first).containsExactly(relation);
+        assertThat(second).containsExactly(relation);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(graph.getRelationsCount()).isEqualTo(1);
+        assertThat(graph.getEstimatedMemoryUsage()).isPositive();
+    }
+
+    @Test
+    public void givenChangedRelation_whenGetRelations_thenAdjacencyReloaded() {
+        EntityRelation relation = new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        graph.getRelations(deviceId, EntitySearchDirection.TO, MAX_AGE_MS, () -> List.of(relation));
+
+        graph.onRelationChanged(assetId, deviceId);
+
+        assertThat(graph.getRelationsCount()).isZero();
+        assertThat(graph.getRelations(deviceId, EntitySearchDirection.TO, MAX_AGE_MS, List::of)).isEmpty();
+    }
+
+    @Test
+    public void givenExpiredAdjacency_whenGetRelations_thenAdjacencyReloaded() {
+        EntityRelation relation = new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        graph.getRelations(assetId, EntitySearchDirection.FROM, 0, () -> List.of(relation));
+
+        assertThat(graph.getRelations(assetId, EntitySearchDirection.FROM, 0, List::of)).isEmpty();
+        assertThat(graph.getRelationsCount()).isZero();
+    }
+
+    @Test
+    public void givenManyRemovedAdjacencies_whenRelationChanged_thenGraphIsCompacted() {
+        List<EntityRelation> relations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            AssetId asset = new AssetId(UUID.randomUUID());
+            EntityRelation relation = new EntityRelation(asset, new DeviceId(UUID.randomUUID()), "Type" + i, RelationTypeGroup.COMMON);
+            relations.add(relation);
+            graph.getRelations(asset, EntitySearchDirection.FROM, MAX_AGE_MS, () -> List.of(relation));
+        }
+        EntityRelation kept = new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        graph.getRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS, () -> List.of(kept));
+        assertThat(graph.getInternedEntitiesCount()).isEqualTo(4002);
+
+        relations.forEach(relation -> graph.onRelationChanged(relation.getFrom(), relation.getTo()));
+
+        assertThat(graph.getRelationsCount()).isEqualTo(1);
+        assertThat(graph.getInternedEntitiesCount()).isLessThan(2000);
+        assertThat(graph.getRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS, List::of)).containsExactly(kept);
+    }
+
+    @Test
+    public void givenAdjacencyNotReadAgain_whenEvictExpired_thenItIsDropped() {
+        EntityRelation relation = new EntityRelation(assetId, deviceId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.COMMON);
+        graph.getRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS, () -> List.of(relation));
+        graph.getRelations(deviceId, EntitySearchDirection.TO, MAX_AGE_MS, () -> List.of(relation));
+
+        assertThat(graph.evictExpired(MAX_AGE_MS)).isFalse();
+        assertThat(graph.getRelationsCount()).isEqualTo(2);
+
+        assertThat(graph.evictExpired(-1)).isTrue();
+        assertThat(graph.getRelationsCount()).isZero();
+        assertThat(graph.getLoadedRelations(assetId, EntitySearchDirection.FROM, MAX_AGE_MS)).isNull();
+    }
+
+}
@@ -34,12 +34,14 @@ import org.thingsboard.server.common.data.relation.RelationEntityTypeFilter;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
 import org.thingsboard.server.dao.exception.DataValidationException;
+import org.thingsboard.server.dao.relation.RelationDao;
 import org.thingsboard.server.dao.relation.RelationService;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 @DaoSqlTest
@@ -48,6 +50,9 @@ public class RelationServiceTest extends AbstractServiceTest {
     @Autowired
     RelationService relationService;
 
+    @Autowired
+    RelationDao relationDao;
+
     @Before
     public void before() {
     }
@@ -286,6 +291,39 @@ public class RelationServiceTest extends AbstractServiceTest {
         Assert.assertTrue(relations.contains(relationC));
     }
 
+    @Test
+    public void testCyclicRecursiveRelationIsFetchedInSingleQuery() {
+        // A -> B -> C -> A, C -> D
+        AssetId assetA = new AssetId(Uuids.timeBased());
+        AssetId assetB = new AssetId(Uuids.timeBased());
+        AssetId assetC = new AssetId(Uuids.timeBased());
+        DeviceId deviceD = new DeviceId(Uuids.timeBased());
+
+        EntityRelation relationAB = new EntityRelation(assetA, assetB, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationBC = new EntityRelation(assetB, assetC, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCA = new EntityRelation(assetC, assetA, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCD = new EntityRelation(assetC, deviceD, EntityRelation.CONTAINS_TYPE);
+
+        saveRelation(relationAB);
+        saveRelation(relationBC);
+        saveRelation(relationCA);
+        saveRelation(relationCD);
+
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, -1, false));
+        Optional<List<EntityRelation>> relations = relationDao.findByQuery(SYSTEM_TENANT_ID, query);
+        // the cycle must not hit the max level, which would make the service fall back to the level by level traversal
+        Assert.assertTrue(relations.isPresent());
+        Assert.assertEquals(4, relations.get().size());
+        Assert.assertTrue(relations.get().containsAll(List.of(relationAB, relationBC, relationCA, relationCD)));
+
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, -1, true));
+        relations = relationDao.findByQuery(SYSTEM_TENANT_ID, query);
+        Assert.assertTrue(relations.isPresent());
+        Assert.assertEquals(1, relations.get().size());
+        Assert.assertTrue(relations.get().contains(relationCD));
+    }
+
     @Test
     public void testRecursiveRelation() throws ExecutionException, InterruptedException {
         // A -> B -> [C,D]
@@ -318,6 +356,43 @@ public class RelationServiceTest extends AbstractServiceTest {
         Assert.assertTrue(relations.contains(relationBC));
     }
 
+    @Test
+    public void testRecursiveRelationToDirectionWithFilters() throws ExecutionException, InterruptedException {
+        // [A -> B, C -Manages-> B] -> D
+        AssetId assetA = new AssetId(Uuids.timeBased());
+        AssetId assetB = new AssetId(Uuids.timeBased());
+        AssetId assetC = new AssetId(Uuids.timeBased());
+        DeviceId deviceD = new DeviceId(Uuids.timeBased());
+
+        EntityRelation relationAB = new EntityRelation(assetA, assetB, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCB = new EntityRelation(assetC, assetB, EntityRelation.MANAGES_TYPE);
+        EntityRelation relationBD = new EntityRelation(assetB, deviceD, EntityRelation.CONTAINS_TYPE);
+
+        saveRelation(relationAB);
+        saveRelation(relationCB);
+        saveRelation(relationBD);
+
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(deviceD, EntitySearchDirection.TO, 2, false));
+        query.setFilters(Collections.singletonList(new RelationEntityTypeFilter(EntityRelation.CONTAINS_TYPE, Collections.singletonList(EntityType.ASSET))));
+        List<EntityRelation> relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(2, relations.size());
+        Assert.assertTrue(relations.contains(relationBD));
+        Assert.assertTrue(relations.contains(relationAB));
+
+        query.setParameters(new RelationsSearchParameters(deviceD, EntitySearchDirection.TO, 1, false));
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(1, relations.size());
+        Assert.assertTrue(relations.contains(relationBD));
+
+        query.setParameters(new RelationsSearchParameters(deviceD, EntitySearchDirection.TO, -1, true));
+        query.setFilters(null);
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(2, relations.size());
+        Assert.assertTrue(relations.contains(relationAB));
+        Assert.assertTrue(relations.contains(relationCB));
+    }
+
     @Test
     public void testRecursiveRelationDepth() throws ExecutionException, InterruptedException {
         int maxLevel = 1000;
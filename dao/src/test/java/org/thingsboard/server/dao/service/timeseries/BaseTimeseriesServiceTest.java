@@ -48,6 +48,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -157,6 +158,33 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
         Assert.assertEquals(toTsEntry(TS, stringKvEntry), entries.get(0));
     }
 
+    @Test
+    public void testFindLatestByEntities() throws Exception {
+        DeviceId deviceId = new DeviceId(Uuids.timeBased());
+        DeviceId otherDeviceId = new DeviceId(Uuids.timeBased());
+        DeviceId deviceWithoutTelemetryId = new DeviceId(Uuids.timeBased());
+
+        saveEntries(deviceId, TS - 1);
+        saveEntries(deviceId, TS);
+        tsService.save(tenantId, otherDeviceId, toTsEntry(TS - 1, longKvEntry)).get(MAX_TIMEOUT, TimeUnit.SECONDS);
+
+        Map<EntityId, List<TsKvEntry>> latest = tsService.findLatestByEntities(tenantId, List.of(deviceId, otherDeviceId, deviceWithoutTelemetryId),
+                List.of(STRING_KEY, LONG_KEY, "missingKey")).get(MAX_TIMEOUT, TimeUnit.SECONDS);
+
+        assertThat(latest).containsOnlyKeys(deviceId, otherDeviceId);
+        assertThat(latest.get(deviceId)).containsExactlyInAnyOrder(toTsEntry(TS, stringKvEntry), toTsEntry(TS, longKvEntry));
+        assertThat(latest.get(otherDeviceId)).containsExactly(toTsEntry(TS - 1, longKvEntry));
+    }
+
+    @Test
+    public void testFindLatestByEntitiesWithEmptyEntitiesOrKeys() throws Exception {
+        DeviceId deviceId = new DeviceId(Uuids.timeBased());
+        saveEntries(deviceId, TS);
+
+        assertThat(tsService.findLatestByEntities(tenantId, Collections.emptyList(), List.of(LONG_KEY)).get(MAX_TIMEOUT, TimeUnit.SECONDS)).isEmpty();
+        assertThat(tsService.findLatestByEntities(tenantId, List.of(deviceId), Collections.emptyList()).get(MAX_TIMEOUT, TimeUnit.SECONDS)).isEmpty();
+    }
+
     @Test
     public void testFindLatestWithoutLatestUpdate() throws Exception {
         DeviceId deviceId = new DeviceId(Uuids.timeBased());
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.service.timeseries.sql;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.thingsboard.server.common.data.Tenant;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.common.data.kv.BaseDeleteTsKvQuery;
+import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.service.AbstractServiceTest;
+import org.thingsboard.server.dao.service.DaoSqlTest;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DaoSqlTest
+@TestPropertySource(properties = "sql.ts.rollup.enabled=true")
+public class TimeseriesRollupSqlTest extends AbstractServiceTest {
+
+    private static final int MAX_TIMEOUT = 30;
+    private static final String KEY = "rollupKey";
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    TimeseriesService tsService;
+
+    private TenantId tenantId;
+    private DeviceId deviceId;
+    private long dayStartTs;
+
+    @Before
+    public void before() {
+        Tenant tenant = new Tenant();
+        tenant.setTitle("My tenant");
+        tenantId = tenantService.saveTenant(tenant).getId();
+        deviceId = new DeviceId(UUID.randomUUID());
+        // rollups cover the data saved after they were enabled, so use a day in the future
+        dayStartTs = (System.currentTimeMillis() / DAY + 2) * DAY;
+    }
+
+    @After
+    public void after() {
+        tenantService.deleteTenant(tenantId);
+    }
+
+    @Test
+    public void givenSameTsSavedTwice_whenFindAggregates_thenValueCountedOnce() throws Exception {
+        save(dayStartTs + 1000, 5);
+        save(dayStartTs + 2000, 10);
+        save(dayStartTs + 1000, 7);
+
+        assertThat(aggregate(Aggregation.COUNT)).isEqualTo(2);
+        assertThat(aggregate(Aggregation.SUM)).isEqualTo(17);
+        assertThat(aggregate(Aggregation.MIN)).isEqualTo(7);
+    }
+
+    @Test
+    public void givenValuesRemoved_whenFindAggregates_thenRollupsRebuilt() throws Exception {
+        save(dayStartTs + 1000, 5);
+        save(dayStartTs + TimeUnit.HOURS.toMillis(5), 10);
+
+        tsService.remove(tenantId, deviceId, Collections.singletonList(new BaseDeleteTsKvQuery(KEY, dayStartTs, dayStartTs + 2000)))
+                .get(MAX_TIMEOUT, TimeUnit.SECONDS);
+
+        assertThat(aggregate(Aggregation.COUNT)).isEqualTo(1);
+        assertThat(aggregate(Aggregation.SUM)).isEqualTo(10);
+    }
+
+    private void save(long ts, long value) throws Exception {
+        tsService.save(tenantId, deviceId, new BasicTsKvEntry(ts, new LongDataEntry(KEY, value))).get(MAX_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private long aggregate(Aggregation aggregation) throws Exception {
+        List<TsKvEntry> entries = tsService.findAll(tenantId, deviceId, Collections.singletonList(
+                new BaseReadTsKvQuery(KEY, dayStartTs, dayStartTs + DAY, DAY, 1, aggregation))).get(MAX_TIMEOUT, TimeUnit.SECONDS);
+        assertThat(entries).hasSize(1);
+        return entries.get(0).getLongValue().orElseThrow();
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.dao.exception.PartialSaveException;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class TbSqlBlockingQueueTest {
+
+    private final MessagesStats stats = mock(MessagesStats.class);
+    private ScheduledLogExecutorComponent logExecutor;
+    private TbSqlBlockingQueue<String> queue;
+
+    @Before
+    public void setUp() {
+        logExecutor = new ScheduledLogExecutorComponent();
+        logExecutor.init();
+        TbSqlBlockingQueueParams params = TbSqlBlockingQueueParams.builder()
+                .logName("Test")
+                .batchSize(10)
+                .maxDelay(10)
+                .statsPrintIntervalMs(60000)
+                .build();
+        queue = new TbSqlBlockingQueue<>(params, stats);
+    }
+
+    @After
+    public void tearDown() {
+        queue.destroy();
+        logExecutor.stop();
+    }
+
+    @Test
+    public void givenPartialSaveFailure_whenSave_thenOnlyFailedEntryFutureFails() throws Exception {
+        IllegalStateException error = new IllegalStateException("invalid entry");
+        queue.init(logExecutor, entities -> {
+            Map<Object, Throwable> failures = new IdentityHashMap<>();
+            entities.stream().filter("invalid"::equals).forEach(entity -> failures.put(entity, error));
+            if (!failures.isEmpty()) {
+                throw new PartialSaveException("Failed to save " + failures.size() + " entries", failures);
+            }
+        }, String::compareTo, 0);
+
+        ListenableFuture<Void> valid = queue.add("valid");
+        ListenableFuture<Void> invalid = queue.add("invalid");
+
+        assertThat(valid.get(5, TimeUnit.SECONDS)).isNull();
+        assertThatThrownBy(() -> invalid.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(error);
+        verify(stats, timeout(5000)).incrementFailed(1);
+    }
+
+}
@@ -27,6 +27,7 @@ import org.thingsboard.server.common.data.alarm.AlarmApiCallResult;
 import org.thingsboard.server.common.data.alarm.AlarmCreateOrUpdateActiveRequest;
 import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.alarm.EntityAlarm;
 import org.thingsboard.server.common.data.id.AlarmId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -38,6 +39,7 @@ import org.thingsboard.server.dao.alarm.AlarmDao;
 import org.thingsboard.server.dao.tenant.TenantDao;
 import org.thingsboard.server.dao.tenant.TenantProfileDao;
 
+import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -329,6 +331,38 @@ public class JpaAlarmDaoTest extends AbstractJpaDaoTest {
         assertNull(result.getAlarm().getAssigneeId());
     }
 
+    @Test
+    public void testCleanUpAlarmPartitionsWhenPartitioningDisabled() {
+        long now = System.currentTimeMillis();
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        Alarm expiredAlarm = saveAlarmWithCreatedTime(tenantId, now - TimeUnit.DAYS.toMillis(3 * 365), true);
+
+        assertEquals(0, alarmDao.cleanUpAlarmPartitions(now - TimeUnit.DAYS.toMillis(365), Collections.emptySet()));
+
+        assertNotNull(alarmDao.findAlarmById(tenantId, expiredAlarm.getUuidId()));
+        assertEquals(1, alarmDao.findEntityAlarmRecords(tenantId, expiredAlarm.getId()).size());
+
+        alarmDao.removeById(tenantId, expiredAlarm.getUuidId());
+        // removed by the foreign key cascade
+        assertTrue(alarmDao.findEntityAlarmRecords(tenantId, expiredAlarm.getId()).isEmpty());
+    }
+
+    private Alarm saveAlarmWithCreatedTime(TenantId tenantId, long createdTime, boolean cleared) {
+        Alarm alarm = new Alarm();
+        alarm.setId(new AlarmId(UUID.randomUUID()));
+        alarm.setCreatedTime(createdTime);
+        alarm.setTenantId(tenantId);
+        alarm.setOriginator(new DeviceId(UUID.randomUUID()));
+        alarm.setType("TEST_ALARM");
+        alarm.setStartTs(createdTime);
+        alarm.setEndTs(createdTime);
+        alarm.setCleared(cleared);
+        Alarm savedAlarm = alarmDao.save(tenantId, alarm);
+        alarmDao.createEntityAlarmRecord(new EntityAlarm(tenantId, savedAlarm.getOriginator(), savedAlarm.getCreatedTime(),
+                savedAlarm.getType(), null, null, savedAlarm.getId()));
+        return savedAlarm;
+    }
+
     private Alarm saveAlarm(UUID id, UUID tenantId, UUID deviceId, String type) {
         Alarm alarm = new Alarm();
         alarm.setId(new AlarmId(id));
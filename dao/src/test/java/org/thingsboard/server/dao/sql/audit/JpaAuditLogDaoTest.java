@@ -22,6 +22,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.audit.AuditLog;
+import org.thingsboard.server.common.data.id.AuditLogId;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -30,6 +31,8 @@ import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.dao.AbstractJpaDaoTest;
 import org.thingsboard.server.dao.audit.AuditLogDao;
+import org.thingsboard.server.dao.exception.PartialSaveException;
+import org.thingsboard.server.dao.model.sql.AuditLogEntity;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +43,9 @@ import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 public class JpaAuditLogDaoTest extends AbstractJpaDaoTest {
     List<AuditLog> auditLogList = new ArrayList<>();
@@ -53,6 +59,8 @@ public class JpaAuditLogDaoTest extends AbstractJpaDaoTest {
     AuditLog neededFoundedAuditLog;
     @Autowired
     private AuditLogDao auditLogDao;
+    @Autowired
+    private AuditLogInsertRepository auditLogInsertRepository;
 
     @Before
     public void setUp() {
@@ -140,6 +148,33 @@ public class JpaAuditLogDaoTest extends AbstractJpaDaoTest {
         checkFoundedAuditLogsList(foundedAuditLogs, 6);
     }
 
+    @Test
+    public void testSaveBatchWithFailedEntry() {
+        AuditLog validAuditLog = new AuditLog();
+        UUID validId = Uuids.timeBased();
+        validAuditLog.setId(new AuditLogId(validId));
+        validAuditLog.setCreatedTime(Uuids.unixTimestamp(validId));
+        validAuditLog.setTenantId(TenantId.fromUUID(tenantId));
+        validAuditLog.setEntityId(entityId1);
+        validAuditLog.setActionType(ActionType.UPDATED);
+        AuditLog invalidAuditLog = new AuditLog(validAuditLog);
+        invalidAuditLog.setId(new AuditLogId(Uuids.timeBased()));
+        // no partition exists for this timestamp, so the row cannot be inserted
+        invalidAuditLog.setCreatedTime(1L);
+
+        AuditLogEntity invalidEntity = new AuditLogEntity(invalidAuditLog);
+        PartialSaveException error = assertThrows(PartialSaveException.class,
+                () -> auditLogInsertRepository.save(List.of(invalidEntity, new AuditLogEntity(validAuditLog))));
+        assertEquals(1, error.getFailures().size());
+        assertTrue(error.getFailures().containsKey(invalidEntity));
+        auditLogList.add(validAuditLog);
+
+        AuditLog savedAuditLog = auditLogDao.findById(TenantId.fromUUID(tenantId), validId);
+        assertNotNull(savedAuditLog);
+        assertEquals(ActionType.UPDATED, savedAuditLog.getActionType());
+        assertNull(auditLogDao.findById(TenantId.fromUUID(tenantId), invalidAuditLog.getUuidId()));
+    }
+
     private void checkFoundedAuditLogsList(List<AuditLog> foundedAuditLogs, int neededSizeForFoundedList) {
         assertNotNull(foundedAuditLogs);
         assertEquals(neededSizeForFoundedList, foundedAuditLogs.size());
@@ -0,0 +1,222 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEvent;
+import org.thingsboard.server.common.data.event.RuleNodeDebugEventFilter;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.SortOrder;
+import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.dao.exception.IncorrectParameterException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuleNodeDebugEventQueryRepositoryTest {
+
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final UUID ENTITY_ID = UUID.randomUUID();
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private RuleNodeDebugEventQueryRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        repository = new RuleNodeDebugEventQueryRepository(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(repository, "maxCount", 100);
+    }
+
+    @Test
+    void testWhereClauseWithoutFilters() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = RuleNodeDebugEventQueryRepository.buildWhereClause(TENANT_ID, ENTITY_ID, new RuleNodeDebugEventFilter(), null, null, params);
+
+        assertThat(where).isEqualTo("e.tenant_id = :tenantId AND e.entity_id = :entityId");
+        assertThat(params.getParameterNames()).containsExactlyInAnyOrder("tenantId", "entityId");
+        assertThat(params.getValue("tenantId")).isEqualTo(TENANT_ID);
+        assertThat(params.getValue("entityId")).isEqualTo(ENTITY_ID);
+    }
+
+    @Test
+    void testWhereClauseWithAllFilters() {
+        UUID eventEntityId = UUID.randomUUID();
+        UUID msgId = UUID.randomUUID();
+        RuleNodeDebugEventFilter filter = new RuleNodeDebugEventFilter();
+        filter.setServer("tb-node");
+        filter.setMsgDirectionType("IN");
+        filter.setEntityId(eventEntityId.toString());
+        filter.setEntityType("DEVICE");
+        filter.setMsgId(msgId.toString());
+        filter.setMsgType("POST_TELEMETRY_REQUEST");
+        filter.setRelationType("Success");
+        filter.setDataSearch("humidity");
+        filter.setMetadataSearch("deviceName");
+        filter.setIsError(true);
+        filter.setErrorStr("timeout");
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = RuleNodeDebugEventQueryRepository.buildWhereClause(TENANT_ID, ENTITY_ID, filter, 1000L, 2000L, params);
+
+        assertThat(where).isEqualTo("e.tenant_id = :tenantId AND e.entity_id = :entityId" +
+                " AND e.ts >= :startTime AND e.ts <= :endTime" +
+                " AND e.e_entity_id = :eventEntityId AND e.e_msg_id = :msgId" +
+                " AND e.service_id ILIKE :serviceId AND e.e_type ILIKE :eventType" +
+                " AND e.e_entity_type ILIKE :eventEntityType AND e.e_msg_type ILIKE :msgType" +
+                " AND e.e_relation_type ILIKE :relationType AND e.e_data ILIKE :data" +
+                " AND e.e_metadata ILIKE :metadata AND e.e_error IS NOT NULL AND e.e_error ILIKE :error");
+        assertThat(params.getValue("startTime")).isEqualTo(1000L);
+        assertThat(params.getValue("endTime")).isEqualTo(2000L);
+        assertThat(params.getValue("eventEntityId")).isEqualTo(eventEntityId);
+        assertThat(params.getValue("msgId")).isEqualTo(msgId);
+        assertThat(params.getValue("serviceId")).isEqualTo("%tb-node%");
+        assertThat(params.getValue("data")).isEqualTo("%humidity%");
+        assertThat(params.getValue("error")).isEqualTo("%timeout%");
+    }
+
+    @Test
+    void testWhereClauseWithPartialFilter() {
+        RuleNodeDebugEventFilter filter = new RuleNodeDebugEventFilter();
+        filter.setMsgType("");
+        filter.setDataSearch("temperature");
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = RuleNodeDebugEventQueryRepository.buildWhereClause(TENANT_ID, ENTITY_ID, filter, 1000L, null, params);
+
+        assertThat(where).isEqualTo("e.tenant_id = :tenantId AND e.entity_id = :entityId AND e.ts >= :startTime AND e.e_data ILIKE :data");
+        assertThat(params.getParameterNames()).containsExactlyInAnyOrder("tenantId", "entityId", "startTime", "data");
+    }
+
+    @Test
+    void testOrderBy() {
+        assertThat(RuleNodeDebugEventQueryRepository.buildOrderBy(new TimePageLink(10))).isEqualTo("e.ts DESC NULLS LAST");
+        assertThat(RuleNodeDebugEventQueryRepository.buildOrderBy(pageLink(0, new SortOrder("createdTime", SortOrder.Direction.ASC))))
+                .isEqualTo("e.ts ASC NULLS FIRST");
+        assertThat(RuleNodeDebugEventQueryRepository.buildOrderBy(pageLink(0, new SortOrder("e_msg_type", SortOrder.Direction.DESC))))
+                .isEqualTo("e.e_msg_type DESC NULLS LAST");
+        assertThatThrownBy(() -> RuleNodeDebugEventQueryRepository.buildOrderBy(pageLink(0, new SortOrder("ts; DROP TABLE event", SortOrder.Direction.ASC))))
+                .isInstanceOf(IncorrectParameterException.class);
+    }
+
+    @Test
+    void testFindEventsUsesBoundedCountAndSort() {
+        mockCount(30L);
+
+        PageData<RuleNodeDebugEvent> pageData = repository.findEvents(TENANT_ID, ENTITY_ID, new RuleNodeDebugEventFilter(),
+                pageLink(1, new SortOrder("createdTime", SortOrder.Direction.ASC)));
+
+        ArgumentCaptor<String> countQuery = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).queryForObject(countQuery.capture(), params.capture(), eq(Long.class));
+        assertThat(countQuery.getValue()).contains("LIMIT :countLimit");
+        assertThat(params.getValue().getValue("countLimit")).isEqualTo(101L);
+        assertThat(params.getValue().getValue("offset")).isEqualTo(10);
+
+        ArgumentCaptor<String> dataQuery = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(dataQuery.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertThat(dataQuery.getValue()).endsWith("ORDER BY e.ts ASC NULLS FIRST LIMIT :limit OFFSET :offset");
+
+        assertThat(pageData.getTotalElements()).isEqualTo(30);
+        assertThat(pageData.getTotalPages()).isEqualTo(3);
+        assertThat(pageData.hasNext()).isTrue();
+    }
+
+    @Test
+    void testFindEventsBeyondCountedEventsSkipsDataQuery() {
+        mockCount(5L);
+
+        PageData<RuleNodeDebugEvent> pageData = repository.findEvents(TENANT_ID, ENTITY_ID, new RuleNodeDebugEventFilter(), pageLink(1, null));
+
+        verify(jdbcTemplate, never()).query(anyString(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertThat(pageData.getData()).isEmpty();
+        assertThat(pageData.getTotalPages()).isEqualTo(1);
+        assertThat(pageData.hasNext()).isFalse();
+    }
+
+    @Test
+    void testFindEventsWithExactCount() {
+        ReflectionTestUtils.setField(repository, "maxCount", 0);
+        mockCount(1000L);
+
+        PageData<RuleNodeDebugEvent> pageData = repository.findEvents(TENANT_ID, ENTITY_ID, new RuleNodeDebugEventFilter(), pageLink(99, null));
+
+        ArgumentCaptor<String> countQuery = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForObject(countQuery.capture(), any(SqlParameterSource.class), eq(Long.class));
+        assertThat(countQuery.getValue()).doesNotContain("LIMIT");
+        assertThat(pageData.getTotalPages()).isEqualTo(100);
+        assertThat(pageData.hasNext()).isFalse();
+    }
+
+    @Test
+    void testCountLimitCoversWholePages() {
+        assertThat(repository.getCountLimit(0, 30)).isEqualTo(4 * 30 + 1);
+        assertThat(repository.getCountLimit(10, 30)).isEqualTo(11 * 30 + 1);
+        ReflectionTestUtils.setField(repository, "maxCount", 0);
+        assertThat(repository.getCountLimit(0, 30)).isZero();
+    }
+
+    @Test
+    void testPageDataOfTruncatedCount() {
+        // 4 pages of 30 events are counted and at least one event follows them
+        PageData<Object> lastCounted = RuleNodeDebugEventQueryRepository.toPageData(List.of(), 121, 121, 3, 30);
+        assertThat(lastCounted.getTotalElements()).isEqualTo(121);
+        assertThat(lastCounted.getTotalPages()).isEqualTo(5);
+        assertThat(lastCounted.hasNext()).isTrue();
+
+        PageData<Object> exact = RuleNodeDebugEventQueryRepository.toPageData(List.of(), 120, 121, 3, 30);
+        assertThat(exact.getTotalPages()).isEqualTo(4);
+        assertThat(exact.hasNext()).isFalse();
+
+        PageData<Object> empty = RuleNodeDebugEventQueryRepository.toPageData(Collections.emptyList(), 0, 121, 0, 30);
+        assertThat(empty.getTotalPages()).isZero();
+        assertThat(empty.hasNext()).isFalse();
+    }
+
+    private void mockCount(long count) {
+        when(jdbcTemplate.queryForObject(anyString(), any(SqlParameterSource.class), eq(Long.class))).thenReturn(count);
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+    }
+
+    private static TimePageLink pageLink(int page, SortOrder sortOrder) {
+        return new TimePageLink(10, page, null, sortOrder);
+    }
+
+}
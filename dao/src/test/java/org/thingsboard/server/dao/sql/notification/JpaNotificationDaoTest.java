@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.notification;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.id.NotificationRequestId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.notification.Notification;
+import org.thingsboard.server.common.data.notification.NotificationStatus;
+import org.thingsboard.server.common.data.notification.NotificationType;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.PageLink;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.notification.NotificationDao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JpaNotificationDaoTest extends AbstractJpaDaoTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+    @Autowired
+    private NotificationDao notificationDao;
+
+    @Test
+    public void testSaveAll() {
+        NotificationRequestId requestId = new NotificationRequestId(UUID.randomUUID());
+        List<UserId> recipients = List.of(new UserId(UUID.randomUUID()), new UserId(UUID.randomUUID()), new UserId(UUID.randomUUID()));
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < recipients.size(); i++) {
+            notifications.add(Notification.builder()
+                    .requestId(requestId)
+                    .recipientId(recipients.get(i))
+                    .type(NotificationType.GENERAL)
+                    .subject("Subject " + i)
+                    .text("Text " + i)
+                    .additionalConfig(i == 0 ? JacksonUtil.newObjectNode().put("icon", "warning") : null)
+                    .status(NotificationStatus.SENT)
+                    .build());
+        }
+
+        List<Notification> saved = notificationDao.saveAll(tenantId, notifications);
+
+        assertThat(saved).hasSize(3).allSatisfy(notification -> {
+            assertThat(notification.getId()).isNotNull();
+            assertThat(notification.getCreatedTime()).isPositive();
+        });
+        PageData<Notification> requestNotifications = notificationDao.findByRequestId(tenantId, requestId, new PageLink(10));
+        assertThat(requestNotifications.getData()).hasSize(3);
+        for (int i = 0; i < recipients.size(); i++) {
+            PageData<Notification> found = notificationDao.findByRecipientIdAndPageLink(tenantId, recipients.get(i), new PageLink(10));
+            assertThat(found.getData()).hasSize(1);
+            Notification notification = found.getData().get(0);
+            assertThat(notification.getId()).isEqualTo(saved.get(i).getId());
+            assertThat(notification.getCreatedTime()).isEqualTo(saved.get(i).getCreatedTime());
+            assertThat(notification.getRequestId()).isEqualTo(requestId);
+            assertThat(notification.getType()).isEqualTo(NotificationType.GENERAL);
+            assertThat(notification.getSubject()).isEqualTo("Subject " + i);
+            assertThat(notification.getText()).isEqualTo("Text " + i);
+            assertThat(notification.getStatus()).isEqualTo(NotificationStatus.SENT);
+        }
+        assertThat(notificationDao.findByRecipientIdAndPageLink(tenantId, recipients.get(0), new PageLink(10)).getData().get(0)
+                .getAdditionalConfig().get("icon").asText()).isEqualTo("warning");
+        assertThat(notificationDao.countUnreadByRecipientId(tenantId, recipients.get(1))).isEqualTo(1);
+    }
+
+    @Test
+    public void testSaveAllWithoutRequest() {
+        Notification notification = Notification.builder()
+                .recipientId(new UserId(UUID.randomUUID()))
+                .type(NotificationType.GENERAL)
+                .text("Text")
+                .status(NotificationStatus.SENT)
+                .build();
+        notificationDao.saveAll(tenantId, List.of(notification));
+        UUID id = notification.getUuidId();
+
+        List<Notification> found = notificationDao.findByRecipientIdAndPageLink(tenantId, notification.getRecipientId(), new PageLink(10)).getData();
+
+        assertThat(found.stream().map(Notification::getUuidId).collect(Collectors.toList())).containsExactly(id);
+        assertThat(notificationDao.saveAll(tenantId, Collections.emptyList())).isEmpty();
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.relation;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.AssetId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
+import org.thingsboard.server.common.data.relation.EntitySearchDirection;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.relation.RelationDao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JpaRelationDaoTest extends AbstractJpaDaoTest {
+
+    private static final int DIAMONDS = 10;
+    private static final List<String> RELATION_TYPES = List.of(EntityRelation.CONTAINS_TYPE, EntityRelation.MANAGES_TYPE);
+
+    @Autowired
+    private RelationDao relationDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testRelatedEntitiesAreFoundOncePerLevelInDiamondHierarchy() {
+        // root -> (left, right) -> bottom, the bottom is the root of the next diamond; every pair of entities has two relation types,
+        // so there are 4^10 paths from the root to the last bottom, but only 3 new entities per diamond
+        TenantId tenantId = TenantId.fromUUID(Uuids.timeBased());
+        AssetId root = new AssetId(Uuids.timeBased());
+        List<EntityRelation> relations = new ArrayList<>();
+        AssetId top = root;
+        for (int i = 0; i < DIAMONDS; i++) {
+            AssetId left = new AssetId(Uuids.timeBased());
+            AssetId right = new AssetId(Uuids.timeBased());
+            AssetId bottom = new AssetId(Uuids.timeBased());
+            for (String relationType : RELATION_TYPES) {
+                relations.add(new EntityRelation(top, left, relationType));
+                relations.add(new EntityRelation(top, right, relationType));
+                relations.add(new EntityRelation(left, bottom, relationType));
+                relations.add(new EntityRelation(right, bottom, relationType));
+            }
+            top = bottom;
+        }
+        relationDao.saveRelations(tenantId, relations);
+
+        assertEquals(1 + 3 * DIAMONDS, countRelatedEntityRows(root, 2 * DIAMONDS));
+
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(root, EntitySearchDirection.FROM, -1, false));
+        Optional<List<EntityRelation>> found = relationDao.findByQuery(tenantId, query);
+        assertTrue(found.isPresent());
+        assertEquals(relations.size(), found.get().size());
+        assertTrue(found.get().containsAll(relations));
+    }
+
+    private long countRelatedEntityRows(EntityId root, int maxLevel) {
+        String sql = JpaRelationDao.RELATED_ENTITIES_CTE.replace("$in", "from").replace("$out", "to") +
+                "SELECT count(*) FROM related_entities";
+        return jdbcTemplate.queryForObject(sql, Long.class, root.getId(), EntityType.ASSET.name(), RelationTypeGroup.COMMON.name(), maxLevel);
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.dictionary;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TsKeyDictionaryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TsKeyDictionary dictionary;
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        willAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row("temperature", 1));
+            handler.processRow(row("humidity", 2));
+            return null;
+        }).given(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        willAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row("pressure", 3));
+            return null;
+        }).given(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        dictionary = new TsKeyDictionary(jdbcTemplate);
+        dictionary.init();
+    }
+
+    @Test
+    public void givenPreloadedKeys_whenGetOrSaveKeyId_thenNoKeysSaved() {
+        assertThat(dictionary.getOrSaveKeyId("temperature")).isEqualTo(1);
+        assertThat(dictionary.getKey(2)).isEqualTo("humidity");
+        verify(jdbcTemplate, never()).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    public void givenUnknownKeys_whenGetOrSaveKeyIds_thenUnknownKeysSavedOnce() {
+        Map<String, Integer> keyIds = dictionary.getOrSaveKeyIds(List.of("temperature", "pressure", "pressure"));
+
+        assertThat(keyIds).containsExactlyInAnyOrderEntriesOf(Map.of("temperature", 1, "pressure", 3));
+        assertThat(dictionary.getOrSaveKeyId("pressure")).isEqualTo(3);
+        assertThat(dictionary.getKey(3)).isEqualTo("pressure");
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), eq(3));
+    }
+
+    private static ResultSet row(String key, int keyId) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("key")).thenReturn(key);
+        when(rs.getInt("key_id")).thenReturn(keyId);
+        return rs;
+    }
+
+}
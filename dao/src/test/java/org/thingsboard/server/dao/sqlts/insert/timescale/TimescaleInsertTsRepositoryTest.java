@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.insert.timescale;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thingsboard.server.dao.model.sqlts.timescale.ts.TimescaleTsKvEntity;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TimescaleInsertTsRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private TimescaleInsertTsRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new TimescaleInsertTsRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(repository, "transactionTemplate", transactionTemplate);
+        willAnswer(invocation -> {
+            Consumer<Object> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).given(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    public void givenBatchSaved_whenSaveOrUpdate_thenValuesNotSavedOneByOne() {
+        repository.saveOrUpdate(List.of(entity(1), entity(2)));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    public void givenBatchFailed_whenSaveOrUpdate_thenValuesSavedOneByOne() {
+        willThrow(new DataIntegrityViolationException("compressed chunk")).given(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        willReturn(1).given(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+
+        repository.saveOrUpdate(List.of(entity(1), entity(2), entity(3)));
+
+        verify(jdbcTemplate, times(3)).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    public void givenSingleValueFailed_whenSaveOrUpdate_thenOtherValuesSavedAndFailureRethrown() {
+        willThrow(new DataIntegrityViolationException("compressed chunk")).given(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        willReturn(1)
+                .willThrow(new DataIntegrityViolationException("compressed chunk"))
+                .willReturn(1)
+                .given(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+
+        assertThatThrownBy(() -> repository.saveOrUpdate(List.of(entity(1), entity(2), entity(3))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(jdbcTemplate, times(3)).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    private static TimescaleTsKvEntity entity(long ts) {
+        TimescaleTsKvEntity entity = new TimescaleTsKvEntity();
+        entity.setEntityId(UUID.randomUUID());
+        entity.setKey(1);
+        entity.setTs(ts);
+        entity.setLongValue(ts);
+        return entity;
+    }
+
+}
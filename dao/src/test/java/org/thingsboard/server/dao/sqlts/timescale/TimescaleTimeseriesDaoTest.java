@@ -0,0 +1,39 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.timescale;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimescaleTimeseriesDaoTest {
+
+    @Test
+    public void testCompressedDataModificationSupportedSince211() {
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("2.11.0")).isTrue();
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("2.14.2")).isTrue();
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("3.0.0-dev")).isTrue();
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("2.10.3")).isFalse();
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("1.7.5")).isFalse();
+    }
+
+    @Test
+    public void testUnknownVersionIsNotSupported() {
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported(null)).isFalse();
+        assertThat(TimescaleTimeseriesDao.isCompressedDataModificationSupported("unknown")).isFalse();
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.ts;
+
+import org.junit.Test;
+import org.thingsboard.server.dao.model.sqlts.ts.TsKvEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsKvRollupRepositoryTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final Map<Long, Long> coverage = Map.of(HOUR, 0L, DAY, 0L);
+
+    @Test
+    public void givenDayAlignedBounds_whenSelectGranularity_thenDailyRollupsUsed() {
+        long[] bounds = {DAY * 10 - 5, DAY * 11, DAY * 12, DAY * 12 + HOUR * 3 + 7};
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, coverage)).isEqualTo(DAY);
+    }
+
+    @Test
+    public void givenHourAlignedBounds_whenSelectGranularity_thenHourlyRollupsUsed() {
+        long[] bounds = {DAY * 10 + 5, DAY * 10 + HOUR * 7, DAY * 10 + HOUR * 14, DAY * 11 + 5};
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, coverage)).isEqualTo(HOUR);
+    }
+
+    @Test
+    public void givenUnalignedBounds_whenSelectGranularity_thenRawValuesUsed() {
+        long[] bounds = {DAY * 10 + 5, DAY * 10 + HOUR + 5, DAY * 10 + HOUR * 2 + 5};
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, coverage)).isZero();
+    }
+
+    @Test
+    public void givenRangeBeforeRollupsEnabled_whenSelectGranularity_thenRawValuesUsed() {
+        long[] bounds = {DAY * 10, DAY * 11, DAY * 12};
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, Map.of(HOUR, DAY * 11, DAY, DAY * 11))).isZero();
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, Map.of(HOUR, DAY * 10, DAY, DAY * 11))).isEqualTo(HOUR);
+    }
+
+    @Test
+    public void givenRangeShorterThanBucket_whenSelectGranularity_thenRawValuesUsed() {
+        long[] bounds = {HOUR + 1, HOUR + 2, HOUR * 2 - 1};
+        assertThat(TsKvRollupRepository.selectGranularity(bounds, coverage)).isZero();
+    }
+
+    @Test
+    public void givenBatch_whenAggregate_thenPartialsGroupedByBucket() {
+        UUID entityId = UUID.randomUUID();
+        List<TsKvEntity> batch = List.of(
+                longEntity(entityId, DAY + 10, 5L),
+                doubleEntity(entityId, DAY + 20, 2.5),
+                longEntity(entityId, DAY + 30, -3L),
+                longEntity(entityId, DAY + HOUR + 1, 7L));
+
+        Map<TsKvRollupRepository.RollupKey, TsKvRollupRepository.RollupPartial> partials = TsKvRollupRepository.aggregate(batch, HOUR, 0L);
+
+        assertThat(partials).hasSize(2);
+        TsKvRollupRepository.RollupPartial first = partials.get(new TsKvRollupRepository.RollupKey(entityId, 1, HOUR, DAY));
+        assertThat(first.getLongCount()).isEqualTo(2);
+        assertThat(first.getLongSum()).isEqualTo(2);
+        assertThat(first.getLongMin()).isEqualTo(-3L);
+        assertThat(first.getLongMax()).isEqualTo(5L);
+        assertThat(first.getDoubleCount()).isEqualTo(1);
+        assertThat(first.getDoubleMin()).isEqualTo(2.5);
+        assertThat(first.getMinTs()).isEqualTo(DAY + 10);
+        assertThat(first.getMaxTs()).isEqualTo(DAY + 30);
+        TsKvRollupRepository.RollupPartial second = partials.get(new TsKvRollupRepository.RollupKey(entityId, 1, HOUR, DAY + HOUR));
+        assertThat(second.getLongSum()).isEqualTo(7);
+        assertThat(second.getDoubleCount()).isZero();
+        assertThat(second.getDoubleMin()).isNull();
+    }
+
+    @Test
+    public void givenSameTsTwice_whenAggregate_thenLaterValueReplacesEarlier() {
+        UUID entityId = UUID.randomUUID();
+        List<TsKvEntity> batch = List.of(longEntity(entityId, DAY, 5L), doubleEntity(entityId, DAY, 1.5));
+
+        TsKvRollupRepository.RollupPartial partial = TsKvRollupRepository.aggregate(batch, DAY, 0L)
+                .get(new TsKvRollupRepository.RollupKey(entityId, 1, DAY, DAY));
+
+        assertThat(partial.getLongCount()).isZero();
+        assertThat(partial.getLongMin()).isNull();
+        assertThat(partial.getDoubleCount()).isEqualTo(1);
+        assertThat(partial.getDoubleSum()).isEqualTo(1.5);
+    }
+
+    @Test
+    public void givenValuesBeforeCoverage_whenAggregate_thenSkipped() {
+        UUID entityId = UUID.randomUUID();
+        List<TsKvEntity> batch = List.of(longEntity(entityId, DAY - 1, 5L), longEntity(entityId, DAY, 5L));
+
+        assertThat(TsKvRollupRepository.aggregate(batch, HOUR, DAY)).hasSize(1);
+        assertThat(TsKvRollupRepository.aggregate(batch, HOUR, null)).isEmpty();
+    }
+
+    private static TsKvEntity longEntity(UUID entityId, long ts, Long value) {
+        TsKvEntity entity = entity(entityId, ts);
+        entity.setLongValue(value);
+        return entity;
+    }
+
+    private static TsKvEntity doubleEntity(UUID entityId, long ts, Double value) {
+        TsKvEntity entity = entity(entityId, ts);
+        entity.setDoubleValue(value);
+        return entity;
+    }
+
+    private static TsKvEntity entity(UUID entityId, long ts) {
+        TsKvEntity entity = new TsKvEntity();
+        entity.setEntityId(entityId);
+        entity.setKey(1);
+        entity.setTs(ts);
+        return entity;
+    }
+
+}
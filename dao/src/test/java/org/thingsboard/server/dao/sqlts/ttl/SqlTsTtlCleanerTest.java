@@ -0,0 +1,326 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.ttl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.TenantProfile;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.tenant.profile.DefaultTenantProfileConfiguration;
+import org.thingsboard.server.common.data.tenant.profile.TenantProfileData;
+import org.thingsboard.server.dao.model.ModelConstants;
+import org.thingsboard.server.dao.sqlts.dictionary.TsKeyDictionary;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SqlTsTtlCleanerTest {
+
+    private static final long SYSTEM_TTL = TimeUnit.DAYS.toSeconds(90);
+    private static final int BATCH_SIZE = 100;
+
+    private FakeJdbcTemplate jdbcTemplate;
+    private TbTenantProfileCache tenantProfileCache;
+    private TsKeyDictionary keyDictionary;
+    private SqlTsTtlCleaner cleaner;
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1000));
+
+    @Before
+    public void setUp() {
+        jdbcTemplate = new FakeJdbcTemplate();
+        tenantProfileCache = mock(TbTenantProfileCache.class);
+        keyDictionary = mock(TsKeyDictionary.class);
+        cleaner = spy(new SqlTsTtlCleaner(jdbcTemplate, tenantProfileCache, keyDictionary));
+        doAnswer(inv -> clock.get()).when(cleaner).getCurrentTimeMillis();
+        ReflectionTestUtils.setField(cleaner, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(cleaner, "batchDelayMs", 0L);
+        ReflectionTestUtils.setField(cleaner, "entitiesPerBatch", 10);
+        ReflectionTestUtils.setField(cleaner, "maxExecutionTimeMs", 0L);
+        ReflectionTestUtils.setField(cleaner, "tsType", "sql");
+        ReflectionTestUtils.setField(cleaner, "rollupEnabled", false);
+    }
+
+    @Test
+    public void testParseKeysTtl() {
+        Map<String, Long> keysTtl = SqlTsTtlCleaner.parseKeysTtl(" temperature:7, raw:data:1,humidity:30");
+
+        assertThat(keysTtl).hasSize(3)
+                .containsEntry("temperature", TimeUnit.DAYS.toSeconds(7))
+                .containsEntry("raw:data", TimeUnit.DAYS.toSeconds(1))
+                .containsEntry("humidity", TimeUnit.DAYS.toSeconds(30));
+    }
+
+    @Test
+    public void testParseKeysTtlSkipsInvalidEntries() {
+        assertThat(SqlTsTtlCleaner.parseKeysTtl(null)).isEmpty();
+        assertThat(SqlTsTtlCleaner.parseKeysTtl("  ")).isEmpty();
+        assertThat(SqlTsTtlCleaner.parseKeysTtl("temperature,:5,humidity:abc,pressure:2"))
+                .containsOnlyKeys("pressure");
+    }
+
+    @Test
+    public void testCleanupDeletesInBatchesUntilBatchIsNotFull() throws Exception {
+        UUID tenantId = id(1);
+        UUID deviceId = id(2);
+        jdbcTemplate.tenants.add(tenantId);
+        jdbcTemplate.devices.put(ModelConstants.NULL_UUID, List.of(deviceId));
+        jdbcTemplate.deleteResults.addAll(List.of(BATCH_SIZE, BATCH_SIZE, 7));
+
+        long deleted = cleaner.cleanup(SYSTEM_TTL);
+
+        assertThat(deleted).isEqualTo(2 * BATCH_SIZE + 7);
+        assertThat(jdbcTemplate.deletes).hasSize(3).allSatisfy(delete -> {
+            assertThat(delete.query).startsWith("DELETE FROM ts_kv").doesNotContain("AND key");
+            assertThat(delete.keys).isEmpty();
+            assertThat(delete.entityIds).containsExactly(deviceId);
+            assertThat(delete.expirationTs).isEqualTo(clock.get() - TimeUnit.SECONDS.toMillis(SYSTEM_TTL));
+            assertThat(delete.limit).isEqualTo(BATCH_SIZE);
+        });
+        assertThat(jdbcTemplate.rollupDeletes).isEmpty();
+    }
+
+    @Test
+    public void testCleanupRemovesExpiredRollupsWhenEnabled() throws Exception {
+        ReflectionTestUtils.setField(cleaner, "rollupEnabled", true);
+        jdbcTemplate.tenants.add(id(1));
+        jdbcTemplate.devices.put(ModelConstants.NULL_UUID, List.of(id(2)));
+
+        cleaner.cleanup(SYSTEM_TTL);
+
+        assertThat(jdbcTemplate.deletes).hasSize(1);
+        assertThat(jdbcTemplate.rollupDeletes).hasSize(1);
+        assertThat(jdbcTemplate.rollupDeletes.get(0).limit).isNull();
+        assertThat(jdbcTemplate.rollupDeletes.get(0).expirationTs).isEqualTo(jdbcTemplate.deletes.get(0).expirationTs);
+    }
+
+    @Test
+    public void testCleanupResumesFromLastTenantAfterMaxExecutionTime() throws Exception {
+        ReflectionTestUtils.setField(cleaner, "maxExecutionTimeMs", 1500L);
+        UUID deviceId = id(100);
+        jdbcTemplate.tenants.addAll(List.of(id(1), id(2), id(3)));
+        jdbcTemplate.devices.put(ModelConstants.NULL_UUID, List.of(deviceId));
+        // every delete takes a second, so the run is interrupted before the third tenant
+        jdbcTemplate.onDelete = () -> clock.addAndGet(1000);
+
+        cleaner.cleanup(SYSTEM_TTL);
+
+        assertThat(jdbcTemplate.cleanedTenants).containsExactly(id(1), id(2));
+        assertThat(ReflectionTestUtils.getField(cleaner, "lastTenantId")).isEqualTo(id(2));
+
+        jdbcTemplate.cleanedTenants.clear();
+        cleaner.cleanup(SYSTEM_TTL);
+
+        assertThat(jdbcTemplate.cleanedTenants).containsExactly(id(3));
+        assertThat(ReflectionTestUtils.getField(cleaner, "lastTenantId")).isEqualTo(ModelConstants.NULL_UUID);
+    }
+
+    @Test
+    public void testCleanupUsesKeysTtlFromTenantProfile() throws Exception {
+        UUID tenantId = id(1);
+        jdbcTemplate.tenants.add(tenantId);
+        jdbcTemplate.devices.put(ModelConstants.NULL_UUID, List.of(id(2)));
+        DefaultTenantProfileConfiguration configuration = new DefaultTenantProfileConfiguration();
+        configuration.setDefaultStorageTtlDays(30);
+        configuration.setTimeseriesKeysStorageTtlDays("debug:7,temperature:365");
+        mockProfileConfiguration(tenantId, configuration);
+        when(keyDictionary.getOrSaveKeyId("debug")).thenReturn(11);
+        when(keyDictionary.getOrSaveKeyId("temperature")).thenReturn(12);
+
+        cleaner.cleanup(SYSTEM_TTL);
+
+        assertThat(jdbcTemplate.deletes).hasSize(3);
+        Delete otherKeys = jdbcTemplate.deletes.stream().filter(d -> d.query.contains("key <> ALL(?)")).findFirst().orElseThrow();
+        assertThat(otherKeys.expirationTs).isEqualTo(clock.get() - TimeUnit.DAYS.toMillis(30));
+        assertThat(otherKeys.keys).containsExactlyInAnyOrder(11, 12);
+        Map<Object, Long> singleKeys = jdbcTemplate.deletes.stream().filter(d -> d.query.contains("key = ?"))
+                .collect(Collectors.toMap(d -> d.keys.get(0), d -> d.expirationTs));
+        assertThat(singleKeys).containsOnly(
+                Map.entry(11, clock.get() - TimeUnit.DAYS.toMillis(7)),
+                Map.entry(12, clock.get() - TimeUnit.DAYS.toMillis(365)));
+    }
+
+    @Test
+    public void testCleanupPrefersTtlAttributeOverTenantProfile() throws Exception {
+        UUID tenantId = id(1);
+        UUID customerId = id(2);
+        jdbcTemplate.tenants.add(tenantId);
+        jdbcTemplate.customers.add(customerId);
+        jdbcTemplate.devices.put(ModelConstants.NULL_UUID, List.of(id(3)));
+        jdbcTemplate.devices.put(customerId, List.of(id(4)));
+        jdbcTemplate.ttlAttributes.put(tenantId, 3600L);
+        jdbcTemplate.ttlAttributes.put(customerId, 60L);
+        DefaultTenantProfileConfiguration configuration = new DefaultTenantProfileConfiguration();
+        configuration.setDefaultStorageTtlDays(30);
+        mockProfileConfiguration(tenantId, configuration);
+
+        cleaner.cleanup(SYSTEM_TTL);
+
+        Map<List<UUID>, Long> expirationByEntities = jdbcTemplate.deletes.stream()
+                .collect(Collectors.toMap(d -> d.entityIds, d -> d.expirationTs));
+        assertThat(expirationByEntities).containsOnly(
+                Map.entry(List.of(id(3)), clock.get() - TimeUnit.SECONDS.toMillis(3600)),
+                Map.entry(List.of(customerId), clock.get() - TimeUnit.SECONDS.toMillis(60)),
+                Map.entry(List.of(id(4)), clock.get() - TimeUnit.SECONDS.toMillis(60)));
+    }
+
+    private void mockProfileConfiguration(UUID tenantId, DefaultTenantProfileConfiguration configuration) {
+        TenantProfileData profileData = new TenantProfileData();
+        profileData.setConfiguration(configuration);
+        TenantProfile tenantProfile = new TenantProfile();
+        tenantProfile.setProfileData(profileData);
+        when(tenantProfileCache.get(TenantId.fromUUID(tenantId))).thenReturn(tenantProfile);
+    }
+
+    private static UUID id(int i) {
+        // greater than NULL_UUID, so the ids are picked up by the "id > ?" paging
+        return new UUID(0x2000000000000000L + i, 0);
+    }
+
+    private static class Delete {
+        private String query;
+        private List<UUID> entityIds;
+        private long expirationTs;
+        private List<Object> keys = new ArrayList<>();
+        private Integer limit;
+    }
+
+    /**
+     * Serves the entity paging queries of the cleaner from in-memory lists and records executed deletes.
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+
+        private final List<UUID> tenants = new ArrayList<>();
+        private final List<UUID> customers = new ArrayList<>();
+        private final Map<UUID, List<UUID>> devices = new HashMap<>();
+        private final Map<UUID, Long> ttlAttributes = new HashMap<>();
+        private final Deque<Integer> deleteResults = new ArrayDeque<>();
+        private final List<Delete> deletes = new ArrayList<>();
+        private final List<Delete> rollupDeletes = new ArrayList<>();
+        private final List<UUID> cleanedTenants = new ArrayList<>();
+        private Runnable onDelete = () -> {};
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            if (sql.startsWith("SELECT id FROM tenant")) {
+                return (List<T>) page(tenants, (UUID) args[0], (Integer) args[1]);
+            } else if (sql.startsWith("SELECT id FROM customer")) {
+                return (List<T>) page(customers, (UUID) args[1], (Integer) args[2]);
+            } else if (sql.startsWith("SELECT id FROM device")) {
+                if (ModelConstants.NULL_UUID.equals(args[1]) && ModelConstants.NULL_UUID.equals(args[2])) {
+                    cleanedTenants.add((UUID) args[0]);
+                }
+                return (List<T>) page(devices.getOrDefault((UUID) args[1], Collections.emptyList()), (UUID) args[2], (Integer) args[3]);
+            } else if (sql.startsWith("SELECT id FROM asset")) {
+                return Collections.emptyList();
+            } else if (sql.startsWith("SELECT long_v FROM attribute_kv")) {
+                Long ttl = ttlAttributes.get((UUID) args[0]);
+                return ttl != null ? (List<T>) List.of(ttl) : Collections.emptyList();
+            }
+            throw new IllegalArgumentException("Unexpected query: " + sql);
+        }
+
+        @Override
+        public int update(PreparedStatementCreator psc) {
+            try {
+                Connection con = mock(Connection.class);
+                PreparedStatement ps = mock(PreparedStatement.class);
+                when(con.prepareStatement(anyString())).thenReturn(ps);
+                when(con.createArrayOf(anyString(), any(Object[].class))).thenAnswer(inv -> {
+                    Array array = mock(Array.class);
+                    when(array.getArray()).thenReturn(inv.getArgument(1));
+                    return array;
+                });
+                psc.createPreparedStatement(con);
+                Delete delete = toDelete(con, ps);
+                if (delete.query.startsWith("DELETE FROM ts_rollup")) {
+                    rollupDeletes.add(delete);
+                    return 0;
+                }
+                deletes.add(delete);
+                onDelete.run();
+                return deleteResults.isEmpty() ? 0 : deleteResults.poll();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static Delete toDelete(Connection con, PreparedStatement ps) throws SQLException {
+            Delete delete = new Delete();
+            ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+            verify(con).prepareStatement(query.capture());
+            delete.query = query.getValue();
+            ArgumentCaptor<Array> arrays = ArgumentCaptor.forClass(Array.class);
+            verify(ps, atLeastOnce()).setArray(anyInt(), arrays.capture());
+            delete.entityIds = Arrays.stream((Object[]) arrays.getAllValues().get(0).getArray()).map(UUID.class::cast).collect(Collectors.toList());
+            if (arrays.getAllValues().size() > 1) {
+                delete.keys.addAll(Arrays.asList((Object[]) arrays.getAllValues().get(1).getArray()));
+            }
+            ArgumentCaptor<Long> expirationTs = ArgumentCaptor.forClass(Long.class);
+            verify(ps).setLong(eq(2), expirationTs.capture());
+            delete.expirationTs = expirationTs.getValue();
+            ArgumentCaptor<Integer> index = ArgumentCaptor.forClass(Integer.class);
+            ArgumentCaptor<Integer> value = ArgumentCaptor.forClass(Integer.class);
+            verify(ps, atLeast(0)).setInt(index.capture(), value.capture());
+            for (int i = 0; i < index.getAllValues().size(); i++) {
+                if (delete.query.contains("key = ?") && index.getAllValues().get(i) == 3) {
+                    delete.keys.add(value.getAllValues().get(i));
+                } else {
+                    delete.limit = value.getAllValues().get(i);
+                }
+            }
+            return delete;
+        }
+
+        private static List<UUID> page(List<UUID> ids, UUID after, int limit) {
+            return ids.stream().filter(id -> id.compareTo(after) > 0).sorted().limit(limit).collect(Collectors.toList());
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.stats.DefaultStatsFactory;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferedRateExecutorStatsTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TenantId otherTenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BufferedRateExecutorStats stats;
+
+    @BeforeEach
+    void setUp() {
+        DefaultStatsFactory statsFactory = new DefaultStatsFactory();
+        ReflectionTestUtils.setField(statsFactory, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(statsFactory, "metricsEnabled", true);
+        stats = new BufferedRateExecutorStats(statsFactory, "test");
+    }
+
+    @Test
+    void givenTenantStats_whenRemoved_thenOnlyTenantMetersRemoved() {
+        stats.updateTenantQueueSize(tenantId, 5);
+        stats.recordTenantQueueLatency(tenantId, 10);
+        stats.updateTenantQueueSize(otherTenantId, 1);
+
+        stats.removeTenantStats(tenantId);
+
+        assertThat(meterRegistry.find("rateExecutor.tenantQueueSize").tag("tenantId", tenantId.toString()).meters()).isEmpty();
+        assertThat(meterRegistry.find("rateExecutor.tenantQueueLatency").tag("tenantId", tenantId.toString()).meters()).isEmpty();
+        assertThat(meterRegistry.find("rateExecutor.tenantQueueSize").tag("tenantId", otherTenantId.toString()).gauge().value()).isEqualTo(1);
+        assertThat(stats.getTenantQueueSizes()).containsOnlyKeys(otherTenantId);
+    }
+
+    @Test
+    void givenRemovedTenantStats_whenUpdated_thenMetersRecreated() {
+        stats.updateTenantQueueSize(tenantId, 5);
+        stats.removeTenantStats(tenantId);
+
+        stats.updateTenantQueueSize(tenantId, 2);
+
+        assertThat(meterRegistry.find("rateExecutor.tenantQueueSize").tag("tenantId", tenantId.toString()).gauge().value()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFairQueueTest {
+
+    private final TenantId noisyTenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final Map<TenantId, Integer> sizes = new HashMap<>();
+
+    @Test
+    void givenBacklogOfOneTenant_whenOtherTenantSubmits_thenDispatchedInNextRound() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(100, 0, sizes::put);
+        for (int i = 0; i < 10; i++) {
+            assertThat(queue.offer(noisyTenantId, 1, "noisy" + i)).isTrue();
+        }
+        assertThat(queue.offer(tenantId, 1, "other")).isTrue();
+
+        assertThat(queue.take()).isEqualTo("noisy0");
+        assertThat(queue.take()).isEqualTo("other");
+        assertThat(queue.take()).isEqualTo("noisy1");
+        assertThat(queue.size()).isEqualTo(8);
+        assertThat(sizes.get(noisyTenantId)).isEqualTo(8);
+        assertThat(sizes.get(tenantId)).isZero();
+    }
+
+    @Test
+    void givenWeights_whenDrained_thenTenantsDispatchedProportionally() throws InterruptedException {
+        TenantFairQueue<TenantId> queue = new TenantFairQueue<>(100, 0, sizes::put);
+        for (int i = 0; i < 30; i++) {
+            queue.offer(noisyTenantId, 1, noisyTenantId);
+            queue.offer(tenantId, 2, tenantId);
+        }
+
+        List<TenantId> dispatched = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            dispatched.add(queue.take());
+        }
+        assertThat(dispatched.stream().filter(tenantId::equals).count()).isEqualTo(20);
+        assertThat(dispatched.stream().filter(noisyTenantId::equals).count()).isEqualTo(10);
+    }
+
+    @Test
+    void givenLimits_whenOffered_thenRejected() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(3, 2, sizes::put);
+        assertThat(queue.offer(noisyTenantId, 1, "a")).isTrue();
+        assertThat(queue.offer(noisyTenantId, 1, "b")).isTrue();
+        assertThat(queue.offer(noisyTenantId, 1, "c")).isFalse();
+        assertThat(queue.offer(tenantId, 1, "d")).isTrue();
+        assertThat(queue.offer(tenantId, 1, "e")).isFalse();
+
+        assertThat(queue.size(noisyTenantId)).isEqualTo(2);
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isEqualTo("a");
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isEqualTo("d");
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isEqualTo("b");
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void givenQueueEmptiedMidTurn_whenTenantSubmitsAgain_thenRemainingDeficitUsed() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(100, 0, sizes::put);
+        queue.offer(tenantId, 3, "a1");
+        assertThat(queue.take()).isEqualTo("a1");
+
+        queue.offer(noisyTenantId, 1, "b1");
+        queue.offer(noisyTenantId, 1, "b2");
+        queue.offer(tenantId, 3, "a2");
+        queue.offer(tenantId, 3, "a3");
+        queue.offer(tenantId, 3, "a4");
+
+        List<String> dispatched = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            dispatched.add(queue.take());
+        }
+        assertThat(dispatched).containsExactly("b1", "a2", "a3", "b2", "a4");
+    }
+
+    @Test
+    void givenTenantWithoutTasks_whenRemoveIdle_thenRemovedAfterFullIdlePeriod() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(100, 0, sizes::put);
+        queue.offer(tenantId, 1, "a");
+        queue.offer(noisyTenantId, 1, "b");
+        queue.offer(noisyTenantId, 1, "c");
+        queue.take();
+        queue.take();
+
+        assertThat(queue.removeIdle()).isEmpty();
+        assertThat(queue.removeIdle()).containsExactly(tenantId);
+
+        queue.take();
+        assertThat(queue.removeIdle()).isEmpty();
+        assertThat(queue.removeIdle()).containsExactly(noisyTenantId);
+    }
+
+}
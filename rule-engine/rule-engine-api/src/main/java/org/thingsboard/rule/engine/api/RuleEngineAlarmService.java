@@ -61,6 +61,22 @@ public interface RuleEngineAlarmService {
      */
     AlarmApiCallResult updateAlarm(AlarmUpdateRequest request);
 
+    /**
+     * Same as {@link #createAlarm(AlarmCreateOrUpdateActiveRequest)}, but a request that waits for another request
+     * of the same alarm does not hold the calling thread.
+     */
+    default ListenableFuture<AlarmApiCallResult> createAlarmAsync(AlarmCreateOrUpdateActiveRequest request) {
+        return Futures.immediateFuture(createAlarm(request));
+    }
+
+    /**
+     * Same as {@link #updateAlarm(AlarmUpdateRequest)}, but a request that waits for another request
+     * of the same alarm does not hold the calling thread.
+     */
+    default ListenableFuture<AlarmApiCallResult> updateAlarmAsync(AlarmUpdateRequest request) {
+        return Futures.immediateFuture(updateAlarm(request));
+    }
+
     AlarmApiCallResult acknowledgeAlarm(TenantId tenantId, AlarmId alarmId, long ackTs);
 
     AlarmApiCallResult clearAlarm(TenantId tenantId, AlarmId alarmId, long clearTs, JsonNode details);
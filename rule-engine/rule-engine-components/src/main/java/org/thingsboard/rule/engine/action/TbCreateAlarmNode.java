@@ -139,8 +139,8 @@ public class TbCreateAlarmNode extends TbAbstractAlarmNode<TbCreateAlarmNodeConf
             }
             return newAlarm;
         }, MoreExecutors.directExecutor());
-        ListenableFuture<AlarmApiCallResult> asyncCreated = Futures.transform(asyncAlarm,
-                alarm -> ctx.getAlarmService().createAlarm(AlarmCreateOrUpdateActiveRequest.fromAlarm(alarm)), ctx.getDbCallbackExecutor());
+        ListenableFuture<AlarmApiCallResult> asyncCreated = Futures.transformAsync(asyncAlarm,
+                alarm -> ctx.getAlarmService().createAlarmAsync(AlarmCreateOrUpdateActiveRequest.fromAlarm(alarm)), ctx.getDbCallbackExecutor());
         return Futures.transform(asyncCreated, TbAlarmResult::fromAlarmResult, MoreExecutors.directExecutor());
     }
 
@@ -153,7 +153,7 @@ public class TbCreateAlarmNode extends TbAbstractAlarmNode<TbCreateAlarmNodeConf
         } else {
             asyncDetails = Futures.immediateFuture(null);
         }
-        ListenableFuture<AlarmApiCallResult> asyncUpdated = Futures.transform(asyncDetails, details -> {
+        ListenableFuture<AlarmApiCallResult> asyncUpdated = Futures.transformAsync(asyncDetails, details -> {
             if (buildDetails) {
                 ctx.logJsEvalResponse();
             }
@@ -177,7 +177,7 @@ public class TbCreateAlarmNode extends TbAbstractAlarmNode<TbCreateAlarmNodeConf
                 existingAlarm.setDetails(details);
             }
             existingAlarm.setEndTs(System.currentTimeMillis());
-            return ctx.getAlarmService().updateAlarm(AlarmUpdateRequest.fromAlarm(existingAlarm));
+            return ctx.getAlarmService().updateAlarmAsync(AlarmUpdateRequest.fromAlarm(existingAlarm));
         }, ctx.getDbCallbackExecutor());
         return Futures.transform(asyncUpdated, TbAlarmResult::fromAlarmResult, MoreExecutors.directExecutor());
     }
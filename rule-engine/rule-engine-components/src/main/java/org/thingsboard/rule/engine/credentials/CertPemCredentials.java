@@ -56,6 +56,16 @@ public class CertPemCredentials implements ClientCredentials {
 
     @Override
     public SslContext initSslContext() {
+        try {
+            return initSslContextBuilder().build();
+        } catch (Exception e) {
+            log.error("[{}:{}] Creating TLS factory failed!", caCert, cert, e);
+            throw new RuntimeException("Creating TLS factory failed!", e);
+        }
+    }
+
+    @Override
+    public SslContextBuilder initSslContextBuilder() {
         try {
             SslContextBuilder builder = SslContextBuilder.forClient();
             if (StringUtils.hasLength(caCert)) {
@@ -64,7 +74,7 @@ public class CertPemCredentials implements ClientCredentials {
             if (StringUtils.hasLength(cert) && StringUtils.hasLength(privateKey)) {
                 builder.keyManager(createAndInitKeyManagerFactory());
             }
-            return builder.build();
+            return builder;
         } catch (Exception e) {
             log.error("[{}:{}] Creating TLS factory failed!", caCert, cert, e);
             throw new RuntimeException("Creating TLS factory failed!", e);
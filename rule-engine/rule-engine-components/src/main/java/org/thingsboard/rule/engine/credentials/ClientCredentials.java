@@ -36,6 +36,11 @@ public interface ClientCredentials {
 
     @JsonIgnore
     default SslContext initSslContext() throws SSLException{
-        return SslContextBuilder.forClient().build();
+        return initSslContextBuilder().build();
+    }
+
+    @JsonIgnore
+    default SslContextBuilder initSslContextBuilder() {
+        return SslContextBuilder.forClient();
     }
 }
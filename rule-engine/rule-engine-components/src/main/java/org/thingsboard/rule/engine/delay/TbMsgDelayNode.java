@@ -15,22 +15,38 @@
  */
 package org.thingsboard.rule.engine.delay;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.RuleNode;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.msg.TbMsgType;
 import org.thingsboard.server.common.data.msg.TbNodeConnectionType;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.page.PageLink;
 import org.thingsboard.server.common.data.plugin.ComponentType;
+import org.thingsboard.server.common.data.rule.RuleNodeState;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.queue.PartitionChangeMsg;
+import org.thingsboard.server.common.msg.queue.TbMsgCallback;
 
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -50,42 +66,240 @@ import java.util.concurrent.TimeUnit;
 )
 public class TbMsgDelayNode implements TbNode {
 
+    static final long TICK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final String RELEASE_TS = "releaseTs";
+    private static final String MSG = "msg";
+    private static final String QUEUE_NAME = "queueName";
+
     private TbMsgDelayNodeConfiguration config;
-    private Map<UUID, TbMsg> pendingMsgs;
+    /**
+     * Pending messages grouped by the index of the tick they are due at. Scheduling a message is a single map insert
+     * and every tick releases whole buckets, so only one self message is in flight regardless of the pending count.
+     */
+    private NavigableMap<Long, Set<PendingMsg>> pendingBuckets;
+    /**
+     * Pending messages and their rule node state by originator. Only used when pending messages are persisted.
+     */
+    private Map<EntityId, PersistedMsgs> persistedMsgs;
+    /**
+     * Originators whose pending messages changed since the last tick. Their states are saved once per tick, not on every message.
+     */
+    private Set<EntityId> changedOriginators;
+    private UUID scheduledTickId;
+    private long scheduledTick;
+    private int pendingMsgsCount;
+    private long maxReleaseLagMs;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         this.config = TbNodeUtils.convert(configuration, TbMsgDelayNodeConfiguration.class);
-        this.pendingMsgs = new HashMap<>();
+        this.pendingBuckets = new TreeMap<>();
+        this.persistedMsgs = new HashMap<>();
+        this.changedOriginators = new LinkedHashSet<>();
+        if (config.isPersistPendingMsgs()) {
+            restorePendingMsgs(ctx);
+            scheduleTick(ctx);
+        } else if (ctx.isLocalEntity(ctx.getSelfId())) {
+            ctx.clearRuleNodeStates();
+        }
     }
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) {
         if (msg.isTypeOf(TbMsgType.DELAY_TIMEOUT_SELF_MSG)) {
-            TbMsg pendingMsg = pendingMsgs.remove(UUID.fromString(msg.getData()));
-            if (pendingMsg != null) {
+            if (scheduledTickId != null && scheduledTickId.toString().equals(msg.getData())) {
+                scheduledTickId = null;
+                releaseDueMsgs(ctx);
+                persistChangedOriginators(ctx);
+                scheduleTick(ctx);
+            }
+        } else {
+            if (pendingMsgsCount < config.getMaxPendingMsgs()) {
+                addPendingMsg(new PendingMsg(msg, getCurrentTimeMillis() + getDelay(msg)));
+                if (config.isPersistPendingMsgs()) {
+                    changedOriginators.add(msg.getOriginator());
+                }
+                ctx.ack(msg);
+                scheduleTick(ctx);
+            } else {
+                ctx.tellFailure(msg, new RuntimeException("Max limit of pending messages reached!"));
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionChangeMsg(TbContext ctx, PartitionChangeMsg msg) {
+        if (!config.isPersistPendingMsgs()) {
+            return;
+        }
+        // Pending messages of originators that moved to other servers are released by their new owner
+        persistedMsgs.entrySet().removeIf(entry -> {
+            if (ctx.isLocalEntity(entry.getKey())) {
+                return false;
+            }
+            changedOriginators.remove(entry.getKey());
+            for (PendingMsg pendingMsg : entry.getValue().msgs) {
+                removeFromBucket(pendingMsg);
+            }
+            return true;
+        });
+        restorePendingMsgs(ctx);
+        scheduleTick(ctx);
+    }
+
+    private void addPendingMsg(PendingMsg pendingMsg) {
+        pendingBuckets.computeIfAbsent(ceilTick(pendingMsg.releaseTs), t -> new LinkedHashSet<>()).add(pendingMsg);
+        pendingMsgsCount++;
+        if (config.isPersistPendingMsgs()) {
+            persistedMsgs.computeIfAbsent(pendingMsg.msg.getOriginator(), id -> new PersistedMsgs()).msgs.add(pendingMsg);
+        }
+    }
+
+    private void removeFromBucket(PendingMsg pendingMsg) {
+        long tick = ceilTick(pendingMsg.releaseTs);
+        Set<PendingMsg> bucket = pendingBuckets.get(tick);
+        if (bucket != null && bucket.remove(pendingMsg)) {
+            pendingMsgsCount--;
+            if (bucket.isEmpty()) {
+                pendingBuckets.remove(tick);
+            }
+        }
+    }
+
+    private void releaseDueMsgs(TbContext ctx) {
+        long now = getCurrentTimeMillis();
+        NavigableMap<Long, Set<PendingMsg>> dueBuckets = pendingBuckets.headMap(now / TICK_INTERVAL_MS, true);
+        int releasedCount = 0;
+        for (Map.Entry<Long, Set<PendingMsg>> bucket : dueBuckets.entrySet()) {
+            maxReleaseLagMs = Math.max(maxReleaseLagMs, now - bucket.getKey() * TICK_INTERVAL_MS);
+            for (PendingMsg pendingMsg : bucket.getValue()) {
+                TbMsg msg = pendingMsg.msg;
                 ctx.enqueueForTellNext(
                         TbMsg.newMsg(
-                                pendingMsg.getQueueName(),
-                                pendingMsg.getType(),
-                                pendingMsg.getOriginator(),
-                                pendingMsg.getCustomerId(),
-                                pendingMsg.getMetaData(),
-                                pendingMsg.getData()
+                                msg.getQueueName(),
+                                msg.getType(),
+                                msg.getOriginator(),
+                                msg.getCustomerId(),
+                                msg.getMetaData(),
+                                msg.getData()
                         ),
                         TbNodeConnectionType.SUCCESS
                 );
+                PersistedMsgs originatorMsgs = persistedMsgs.get(msg.getOriginator());
+                if (originatorMsgs != null && originatorMsgs.msgs.remove(pendingMsg)) {
+                    changedOriginators.add(msg.getOriginator());
+                }
             }
-        } else {
-            if (pendingMsgs.size() < config.getMaxPendingMsgs()) {
-                pendingMsgs.put(msg.getId(), msg);
-                TbMsg tickMsg = ctx.newMsg(null, TbMsgType.DELAY_TIMEOUT_SELF_MSG, ctx.getSelfId(), msg.getCustomerId(), TbMsgMetaData.EMPTY, msg.getId().toString());
-                ctx.tellSelf(tickMsg, getDelay(msg));
-                ctx.ack(msg);
-            } else {
-                ctx.tellFailure(msg, new RuntimeException("Max limit of pending messages reached!"));
+            releasedCount += bucket.getValue().size();
+        }
+        dueBuckets.clear();
+        pendingMsgsCount -= releasedCount;
+        if (releasedCount > 0) {
+            log.debug("[{}] Released {} delayed msgs, pending msgs: {}, max release lag: {} ms",
+                    ctx.getSelfId(), releasedCount, pendingMsgsCount, maxReleaseLagMs);
+        }
+    }
+
+    /**
+     * Keeps one self message in flight, due at the earliest pending bucket, or at the next tick when there are
+     * changed originators to persist. A message that is due earlier than the scheduled tick replaces it;
+     * the replaced tick is ignored when it arrives.
+     */
+    private void scheduleTick(TbContext ctx) {
+        if (pendingBuckets.isEmpty() && changedOriginators.isEmpty()) {
+            return;
+        }
+        Map.Entry<Long, Set<PendingMsg>> nextBucket = pendingBuckets.firstEntry();
+        long nextTick = nextBucket != null ? nextBucket.getKey() : Long.MAX_VALUE;
+        if (!changedOriginators.isEmpty()) {
+            nextTick = Math.min(nextTick, getCurrentTimeMillis() / TICK_INTERVAL_MS + 1);
+        }
+        if (scheduledTickId != null && scheduledTick <= nextTick) {
+            return;
+        }
+        scheduledTickId = UUID.randomUUID();
+        scheduledTick = nextTick;
+        CustomerId customerId = nextBucket != null ? nextBucket.getValue().iterator().next().msg.getCustomerId() : null;
+        TbMsg tickMsg = ctx.newMsg(null, TbMsgType.DELAY_TIMEOUT_SELF_MSG, ctx.getSelfId(),
+                customerId, TbMsgMetaData.EMPTY, scheduledTickId.toString());
+        ctx.tellSelf(tickMsg, Math.max(0, nextTick * TICK_INTERVAL_MS - getCurrentTimeMillis()));
+    }
+
+    private void persistChangedOriginators(TbContext ctx) {
+        for (EntityId originator : changedOriginators) {
+            persist(ctx, originator);
+        }
+        changedOriginators.clear();
+    }
+
+    private void persist(TbContext ctx, EntityId originator) {
+        PersistedMsgs originatorMsgs = persistedMsgs.get(originator);
+        if (originatorMsgs == null) {
+            return;
+        }
+        if (originatorMsgs.msgs.isEmpty()) {
+            persistedMsgs.remove(originator);
+            ctx.removeRuleNodeStateForEntity(originator);
+            return;
+        }
+        ArrayNode msgs = JacksonUtil.newArrayNode();
+        for (PendingMsg pendingMsg : originatorMsgs.msgs) {
+            ObjectNode msgNode = msgs.addObject();
+            msgNode.put(RELEASE_TS, pendingMsg.releaseTs);
+            msgNode.put(QUEUE_NAME, pendingMsg.msg.getQueueName());
+            msgNode.put(MSG, Base64.getEncoder().encodeToString(TbMsg.toByteArray(pendingMsg.msg)));
+        }
+        if (originatorMsgs.state == null) {
+            originatorMsgs.state = new RuleNodeState();
+            originatorMsgs.state.setRuleNodeId(ctx.getSelfId());
+            originatorMsgs.state.setEntityId(originator);
+        }
+        originatorMsgs.state.setStateData(JacksonUtil.toString(msgs));
+        originatorMsgs.state = ctx.saveRuleNodeState(originatorMsgs.state);
+    }
+
+    private void restorePendingMsgs(TbContext ctx) {
+        int restoredCount = 0;
+        PageLink pageLink = new PageLink(1024);
+        while (true) {
+            PageData<RuleNodeState> states = ctx.findRuleNodeStates(pageLink);
+            for (RuleNodeState state : states.getData()) {
+                if (persistedMsgs.containsKey(state.getEntityId()) || !ctx.isLocalEntity(state.getEntityId())) {
+                    continue;
+                }
+                PersistedMsgs originatorMsgs = new PersistedMsgs();
+                originatorMsgs.state = state;
+                persistedMsgs.put(state.getEntityId(), originatorMsgs);
+                for (JsonNode msgNode : JacksonUtil.toJsonNode(state.getStateData())) {
+                    TbMsg msg = TbMsg.fromBytes(msgNode.path(QUEUE_NAME).asText(null), Base64.getDecoder().decode(msgNode.get(MSG).asText()), TbMsgCallback.EMPTY);
+                    addPendingMsg(new PendingMsg(msg, msgNode.get(RELEASE_TS).asLong()));
+                    restoredCount++;
+                }
+            }
+            if (!states.hasNext()) {
+                break;
             }
+            pageLink = pageLink.nextPageLink();
         }
+        if (restoredCount > 0) {
+            log.info("[{}] Restored {} delayed msgs", ctx.getSelfId(), restoredCount);
+        }
+    }
+
+    private static long ceilTick(long ts) {
+        return (ts + TICK_INTERVAL_MS - 1) / TICK_INTERVAL_MS;
+    }
+
+    long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    int getPendingMsgsCount() {
+        return pendingMsgsCount;
+    }
+
+    long getMaxReleaseLagMs() {
+        return maxReleaseLagMs;
     }
 
     private long getDelay(TbMsg msg) {
@@ -108,6 +322,30 @@ public class TbMsgDelayNode implements TbNode {
 
     @Override
     public void destroy() {
-        pendingMsgs.clear();
+        pendingBuckets.clear();
+        persistedMsgs.clear();
+        changedOriginators.clear();
+        pendingMsgsCount = 0;
+        scheduledTickId = null;
+    }
+
+    private static final class PendingMsg {
+
+        private final TbMsg msg;
+        private final long releaseTs;
+
+        private PendingMsg(TbMsg msg, long releaseTs) {
+            this.msg = msg;
+            this.releaseTs = releaseTs;
+        }
+
+    }
+
+    private static final class PersistedMsgs {
+
+        private final Set<PendingMsg> msgs = new LinkedHashSet<>();
+        private RuleNodeState state;
+
     }
+
 }
@@ -25,6 +25,7 @@ public class TbMsgDelayNodeConfiguration implements NodeConfiguration<TbMsgDelay
     private int maxPendingMsgs;
     private String periodInSecondsPattern;
     private boolean useMetadataPeriodInSecondsPatterns;
+    private boolean persistPendingMsgs;
 
     @Override
     public TbMsgDelayNodeConfiguration defaultConfiguration() {
@@ -32,6 +33,7 @@ public class TbMsgDelayNodeConfiguration implements NodeConfiguration<TbMsgDelay
         configuration.setPeriodInSeconds(60);
         configuration.setMaxPendingMsgs(1000);
         configuration.setUseMetadataPeriodInSecondsPatterns(false);
+        configuration.setPersistPendingMsgs(false);
         return configuration;
     }
 }
@@ -23,6 +23,7 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.errors.InterruptException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.header.internals.RecordHeaders;
@@ -33,6 +34,7 @@ import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.external.TbAbstractExternalNode;
+import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.exception.ThingsboardKafkaClientError;
 import org.thingsboard.server.common.data.plugin.ComponentType;
 import org.thingsboard.server.common.msg.TbMsg;
@@ -42,6 +44,8 @@ import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 @Slf4j
 @RuleNode(
@@ -73,7 +77,10 @@ public class TbKafkaNode extends TbAbstractExternalNode {
     private boolean addMetadataKeyValuesAsKafkaHeaders;
     private Charset toBytesCharset;
 
-    private Producer<String, String> producer;
+    private Properties properties;
+    private volatile Producer<String, String> producer;
+    private TbKafkaProducerPool.SharedProducer sharedProducer;
+    private Semaphore inFlightMessages;
     private Throwable initError;
 
     @Override
@@ -81,7 +88,7 @@ public class TbKafkaNode extends TbAbstractExternalNode {
         super.init(ctx);
         this.config = TbNodeUtils.convert(configuration, TbKafkaNodeConfiguration.class);
         this.initError = null;
-        Properties properties = new Properties();
+        properties = new Properties();
         properties.put(ProducerConfig.CLIENT_ID_CONFIG, "producer-tb-kafka-node-" + ctx.getSelfId().getId().toString() + "-" + ctx.getServiceId());
         properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
         properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, config.getValueSerializer());
@@ -91,6 +98,12 @@ public class TbKafkaNode extends TbAbstractExternalNode {
         properties.put(ProducerConfig.BATCH_SIZE_CONFIG, config.getBatchSize());
         properties.put(ProducerConfig.LINGER_MS_CONFIG, config.getLinger());
         properties.put(ProducerConfig.BUFFER_MEMORY_CONFIG, config.getBufferMemory());
+        if (StringUtils.isNotEmpty(config.getCompressionType())) {
+            properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, config.getCompressionType());
+        }
+        if (config.isEnableIdempotence()) {
+            properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        }
         if (config.getOtherProperties() != null) {
             config.getOtherProperties().forEach((k, v) -> {
                 if (SslConfigs.SSL_KEYSTORE_CERTIFICATE_CHAIN_CONFIG.equals(k)
@@ -103,28 +116,67 @@ public class TbKafkaNode extends TbAbstractExternalNode {
         }
         addMetadataKeyValuesAsKafkaHeaders = BooleanUtils.toBooleanDefaultIfNull(config.isAddMetadataKeyValuesAsKafkaHeaders(), false);
         toBytesCharset = config.getKafkaHeadersCharset() != null ? Charset.forName(config.getKafkaHeadersCharset()) : StandardCharsets.UTF_8;
+        inFlightMessages = config.getMaxInFlightMessages() > 0 ? new Semaphore(config.getMaxInFlightMessages()) : null;
         try {
-            this.producer = new KafkaProducer<>(properties);
-            Thread ioThread = (Thread) ReflectionUtils.getField(IO_THREAD_FIELD, producer);
-            ioThread.setUncaughtExceptionHandler((thread, throwable) -> {
-                if (throwable instanceof ThingsboardKafkaClientError) {
+            if (config.isUseSharedProducer()) {
+                acquireSharedProducer();
+            } else {
+                KafkaProducer<String, String> kafkaProducer = new KafkaProducer<>(properties);
+                this.producer = kafkaProducer;
+                setKafkaClientErrorHandler(kafkaProducer, throwable -> {
                     initError = throwable;
                     destroy();
-                }
-            });
+                });
+            }
         } catch (Exception e) {
             throw new TbNodeException(e);
         }
     }
 
+    private static void setKafkaClientErrorHandler(KafkaProducer<String, String> producer, Consumer<Throwable> errorHandler) {
+        Thread ioThread = (Thread) ReflectionUtils.getField(IO_THREAD_FIELD, producer);
+        ioThread.setUncaughtExceptionHandler((thread, throwable) -> {
+            if (throwable instanceof ThingsboardKafkaClientError) {
+                errorHandler.accept(throwable);
+            }
+        });
+    }
+
+    private void acquireSharedProducer() {
+        this.sharedProducer = TbKafkaProducerPool.acquire(properties, (props, errorHandler) -> {
+            KafkaProducer<String, String> kafkaProducer = new KafkaProducer<>(props);
+            setKafkaClientErrorHandler(kafkaProducer, errorHandler);
+            return kafkaProducer;
+        });
+        this.producer = sharedProducer.getProducer();
+    }
+
+    private synchronized Throwable getProducerError() {
+        if (initError != null) {
+            return initError;
+        }
+        if (sharedProducer != null && sharedProducer.getError() != null) {
+            log.debug("[{}] Shared Kafka producer failed, acquiring a new one", config.getBootstrapServers(), sharedProducer.getError());
+            TbKafkaProducerPool.release(sharedProducer);
+            this.sharedProducer = null;
+            try {
+                acquireSharedProducer();
+            } catch (Exception e) {
+                return e;
+            }
+        }
+        return null;
+    }
+
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) {
         String topic = TbNodeUtils.processPattern(config.getTopicPattern(), msg);
         String keyPattern = config.getKeyPattern();
         var tbMsg = ackIfNeeded(ctx, msg);
         try {
-            if (initError != null) {
-                ctx.tellFailure(tbMsg, new RuntimeException("Failed to initialize Kafka rule node producer: " + initError.getMessage()));
+            Throwable producerError = getProducerError();
+            if (producerError != null) {
+                ctx.tellFailure(tbMsg, new RuntimeException("Failed to initialize Kafka rule node producer: " + producerError.getMessage()));
             } else {
                 ctx.getExternalCallExecutor().executeAsync(() -> {
                     publish(
@@ -144,6 +196,10 @@ public class TbKafkaNode extends TbAbstractExternalNode {
     }
 
     protected void publish(TbContext ctx, TbMsg msg, String topic, String key) {
+        if (inFlightMessages != null && !inFlightMessages.tryAcquire()) {
+            tellFailure(ctx, msg, new RuntimeException("Too many in-flight messages, max: " + config.getMaxInFlightMessages()));
+            return;
+        }
         try {
             if (!addMetadataKeyValuesAsKafkaHeaders) {
                 //TODO: external system executor
@@ -156,13 +212,33 @@ public class TbKafkaNode extends TbAbstractExternalNode {
                         (metadata, e) -> processRecord(ctx, msg, metadata, e));
             }
         } catch (Exception e) {
+            releaseInFlightMessage();
+            if (e instanceof InterruptException) {
+                Thread.currentThread().interrupt();
+            }
             log.debug("[{}] Failed to process message: {}", ctx.getSelfId(), msg, e);
+            tellFailure(ctx, processException(msg, e), e);
+        }
+    }
+
+    private void releaseInFlightMessage() {
+        if (inFlightMessages != null) {
+            inFlightMessages.release();
         }
     }
 
     @Override
     public void destroy() {
-        if (this.producer != null) {
+        if (config.isUseSharedProducer()) {
+            TbKafkaProducerPool.SharedProducer sharedProducer;
+            synchronized (this) {
+                sharedProducer = this.sharedProducer;
+                this.sharedProducer = null;
+            }
+            if (sharedProducer != null) {
+                TbKafkaProducerPool.release(sharedProducer);
+            }
+        } else if (this.producer != null) {
             try {
                 this.producer.close();
             } catch (Exception e) {
@@ -172,6 +248,7 @@ public class TbKafkaNode extends TbAbstractExternalNode {
     }
 
     private void processRecord(TbContext ctx, TbMsg msg, RecordMetadata metadata, Exception e) {
+        releaseInFlightMessage();
         if (e == null) {
             tellSuccess(ctx, processResponse(msg, metadata));
         } else {
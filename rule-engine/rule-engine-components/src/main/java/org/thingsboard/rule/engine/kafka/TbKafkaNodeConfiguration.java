@@ -32,6 +32,10 @@ public class TbKafkaNodeConfiguration implements NodeConfiguration<TbKafkaNodeCo
     private int batchSize;
     private int linger;
     private int bufferMemory;
+    private String compressionType;
+    private boolean enableIdempotence;
+    private int maxInFlightMessages;
+    private boolean useSharedProducer;
     private String acks;
     private String keySerializer;
     private String valueSerializer;
@@ -49,6 +53,10 @@ public class TbKafkaNodeConfiguration implements NodeConfiguration<TbKafkaNodeCo
         configuration.setBatchSize(16384);
         configuration.setLinger(0);
         configuration.setBufferMemory(33554432);
+        configuration.setCompressionType("none");
+        configuration.setEnableIdempotence(false);
+        configuration.setMaxInFlightMessages(0);
+        configuration.setUseSharedProducer(false);
         configuration.setAcks("-1");
         configuration.setKeySerializer(StringSerializer.class.getName());
         configuration.setValueSerializer(StringSerializer.class.getName());
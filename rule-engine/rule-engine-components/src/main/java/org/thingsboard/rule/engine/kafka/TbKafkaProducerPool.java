@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.kafka;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Keeps one Kafka producer per distinct producer configuration, so that rule nodes that target the same
+ * bootstrap servers with the same settings share a single producer thread, buffer and set of connections.
+ * Producers are reference counted and closed once the last node releases them.
+ */
+@Slf4j
+final class TbKafkaProducerPool {
+
+    private static final Map<Properties, SharedProducer> producers = new HashMap<>();
+
+    private TbKafkaProducerPool() {
+    }
+
+    /**
+     * @param factory creates the producer from the given properties and reports fatal producer errors to the given handler
+     */
+    static synchronized SharedProducer acquire(Properties properties,
+                                               BiFunction<Properties, Consumer<Throwable>, Producer<String, String>> factory) {
+        Properties key = new Properties();
+        key.putAll(properties);
+        key.remove(ProducerConfig.CLIENT_ID_CONFIG);
+        SharedProducer sharedProducer = producers.get(key);
+        if (sharedProducer == null || sharedProducer.getError() != null) {
+            Properties producerProperties = new Properties();
+            producerProperties.putAll(key);
+            producerProperties.put(ProducerConfig.CLIENT_ID_CONFIG, "producer-tb-kafka-node-shared-" + Integer.toHexString(key.hashCode()));
+            sharedProducer = new SharedProducer(key);
+            sharedProducer.producer = factory.apply(producerProperties, sharedProducer::onError);
+            producers.put(key, sharedProducer);
+            log.debug("[{}] Created shared Kafka producer", producerProperties.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        }
+        sharedProducer.refCount++;
+        return sharedProducer;
+    }
+
+    static void release(SharedProducer sharedProducer) {
+        boolean unused;
+        synchronized (TbKafkaProducerPool.class) {
+            sharedProducer.refCount--;
+            unused = sharedProducer.refCount <= 0;
+            if (unused) {
+                producers.remove(sharedProducer.key, sharedProducer);
+            }
+        }
+        // closing waits for buffered records to be sent, so it must not block other nodes acquiring producers
+        if (unused) {
+            sharedProducer.close();
+        }
+    }
+
+    static synchronized int size() {
+        return producers.size();
+    }
+
+    static final class SharedProducer {
+
+        private final Properties key;
+        @Getter
+        private Producer<String, String> producer;
+        @Getter
+        private volatile Throwable error;
+        private int refCount;
+
+        private SharedProducer(Properties key) {
+            this.key = key;
+        }
+
+        void onError(Throwable error) {
+            this.error = error;
+            close();
+        }
+
+        private void close() {
+            try {
+                producer.close();
+            } catch (Exception e) {
+                log.error("Failed to close shared producer", e);
+            }
+        }
+
+    }
+
+}
@@ -58,12 +58,19 @@ public abstract class TbAbstractGetAttributesNode<C extends TbGetAttributesNodeC
     private static final String TS = "ts";
     private boolean isTellFailureIfAbsent;
     private boolean getLatestValueWithTs;
+    private TbKvEntriesLoader kvEntriesLoader = new TbKvEntriesLoader(0);
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
         super.init(ctx, configuration);
         getLatestValueWithTs = config.isGetLatestValueWithTs();
         isTellFailureIfAbsent = BooleanUtils.toBooleanDefaultIfNull(config.isTellFailureIfAbsent(), true);
+        kvEntriesLoader = new TbKvEntriesLoader(config.getCacheTtlMs());
+    }
+
+    @Override
+    public void destroy() {
+        kvEntriesLoader.clear();
     }
 
     @Override
@@ -134,7 +141,7 @@ public abstract class TbAbstractGetAttributesNode<C extends TbGetAttributesNodeC
         if (CollectionUtils.isEmpty(keys)) {
             return Futures.immediateFuture(null);
         }
-        var attributeKvEntryListFuture = ctx.getAttributesService().find(ctx.getTenantId(), entityId, scope, keys);
+        var attributeKvEntryListFuture = kvEntriesLoader.findAttributes(ctx, entityId, scope, keys);
         return Futures.transform(attributeKvEntryListFuture, attributeKvEntryList -> {
             if (isTellFailureIfAbsent && attributeKvEntryList.size() != keys.size()) {
                 List<String> nonExistentKeys = getNonExistentKeys(attributeKvEntryList, keys);
@@ -148,7 +155,7 @@ public abstract class TbAbstractGetAttributesNode<C extends TbGetAttributesNodeC
         if (CollectionUtils.isEmpty(keys)) {
             return Futures.immediateFuture(null);
         }
-        ListenableFuture<List<TsKvEntry>> latestTelemetryFutures = ctx.getTimeseriesService().findLatest(ctx.getTenantId(), entityId, keys);
+        ListenableFuture<List<TsKvEntry>> latestTelemetryFutures = kvEntriesLoader.findLatestTelemetry(ctx, entityId, keys);
         return Futures.transform(latestTelemetryFutures, tsKvEntries -> {
             var listTsKvEntry = new ArrayList<TsKvEntry>();
             var nonExistentKeys = new ArrayList<String>();
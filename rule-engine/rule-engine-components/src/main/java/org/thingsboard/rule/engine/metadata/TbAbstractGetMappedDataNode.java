@@ -21,6 +21,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.rule.engine.util.EntitiesFieldsAsyncLoader;
@@ -41,6 +42,19 @@ import static org.thingsboard.server.common.data.DataConstants.SERVER_SCOPE;
 @Slf4j
 public abstract class TbAbstractGetMappedDataNode<T extends EntityId, C extends TbGetMappedDataNodeConfiguration> extends TbAbstractNodeWithFetchTo<C> {
 
+    private TbKvEntriesLoader kvEntriesLoader = new TbKvEntriesLoader(0);
+
+    @Override
+    public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
+        super.init(ctx, configuration);
+        kvEntriesLoader = new TbKvEntriesLoader(config.getCacheTtlMs());
+    }
+
+    @Override
+    public void destroy() {
+        kvEntriesLoader.clear();
+    }
+
     protected void checkIfMappingIsNotEmptyOrElseThrow(Map<String, String> dataMapping) throws TbNodeException {
         if (dataMapping == null || dataMapping.isEmpty()) {
             throw new TbNodeException("At least one mapping entry should be specified!");
@@ -134,7 +148,7 @@ public abstract class TbAbstractGetMappedDataNode<T extends EntityId, C extends
     }
 
     private ListenableFuture<List<KvEntry>> getAttributesAsync(TbContext ctx, EntityId entityId, List<String> attrKeys) {
-        var latest = ctx.getAttributesService().find(ctx.getTenantId(), entityId, SERVER_SCOPE, attrKeys);
+        var latest = kvEntriesLoader.findAttributes(ctx, entityId, SERVER_SCOPE, attrKeys);
         return Futures.transform(latest, l ->
                         l.stream()
                                 .map(i -> (KvEntry) i)
@@ -143,7 +157,7 @@ public abstract class TbAbstractGetMappedDataNode<T extends EntityId, C extends
     }
 
     private ListenableFuture<List<KvEntry>> getLatestTelemetryAsync(TbContext ctx, EntityId entityId, List<String> timeseriesKeys) {
-        var latest = ctx.getTimeseriesService().findLatest(ctx.getTenantId(), entityId, timeseriesKeys);
+        var latest = kvEntriesLoader.findLatestTelemetry(ctx, entityId, timeseriesKeys);
         return Futures.transform(latest, l ->
                         l.stream()
                                 .map(i -> (KvEntry) i)
@@ -39,6 +39,8 @@ public class TbGetAttributesNodeConfiguration extends TbAbstractFetchToNodeConfi
     private boolean tellFailureIfAbsent;
     private boolean getLatestValueWithTs;
 
+    private long cacheTtlMs;
+
     @Override
     public TbGetAttributesNodeConfiguration defaultConfiguration() {
         var configuration = new TbGetAttributesNodeConfiguration();
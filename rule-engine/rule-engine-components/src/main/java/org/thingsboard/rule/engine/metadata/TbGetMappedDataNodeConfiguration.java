@@ -26,4 +26,6 @@ public abstract class TbGetMappedDataNodeConfiguration extends TbAbstractFetchTo
 
     private Map<String, String> dataMapping;
 
+    private long cacheTtlMs;
+
 }
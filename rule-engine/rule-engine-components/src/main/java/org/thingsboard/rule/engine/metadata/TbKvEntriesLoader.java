@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.metadata;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.Data;
+import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.thingsboard.server.common.data.DataConstants.LATEST_TS;
+
+/**
+ * Merges concurrent attribute and latest telemetry lookups of a rule node that target the same entity, scope and keys,
+ * so that a burst of messages from one originator results in a single DAO call, and reuses the result for a short,
+ * configurable period of time. Lookups are neither merged nor cached when the period is 0, since a merged lookup that started
+ * before a write would return the value from before that write.
+ */
+class TbKvEntriesLoader {
+
+    static final int MAX_CACHED_LOADS = 10000;
+
+    private final Cache<LoadKey, ListenableFuture<?>> loads;
+
+    TbKvEntriesLoader(long cacheTtlMs) {
+        loads = cacheTtlMs > 0 ? Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_LOADS)
+                .expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS)
+                .build() : null;
+    }
+
+    ListenableFuture<List<AttributeKvEntry>> findAttributes(TbContext ctx, EntityId entityId, String scope, List<String> keys) {
+        return load(new LoadKey(entityId, scope, keys), () -> ctx.getAttributesService().find(ctx.getTenantId(), entityId, scope, keys));
+    }
+
+    ListenableFuture<List<TsKvEntry>> findLatestTelemetry(TbContext ctx, EntityId entityId, List<String> keys) {
+        return load(new LoadKey(entityId, LATEST_TS, keys), () -> ctx.getTimeseriesService().findLatest(ctx.getTenantId(), entityId, keys));
+    }
+
+    long size() {
+        if (loads == null) {
+            return 0;
+        }
+        loads.cleanUp();
+        return loads.estimatedSize();
+    }
+
+    void clear() {
+        if (loads != null) {
+            loads.invalidateAll();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> ListenableFuture<V> load(LoadKey key, Supplier<ListenableFuture<V>> loader) {
+        if (loads == null) {
+            return loader.get();
+        }
+        SettableFuture<V> load = SettableFuture.create();
+        ListenableFuture<V> result = (ListenableFuture<V>) loads.get(key, k -> load);
+        if (result == load) {
+            // failures are not reused, the next lookup retries
+            load.addListener(() -> {
+                if (load.isCancelled() || isFailed(load)) {
+                    loads.asMap().remove(key, load);
+                }
+            }, MoreExecutors.directExecutor());
+            try {
+                load.setFuture(loader.get());
+            } catch (Exception e) {
+                load.setException(e);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isFailed(ListenableFuture<?> future) {
+        try {
+            future.get();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    @Data
+    private static class LoadKey {
+        private final EntityId entityId;
+        private final String scope;
+        private final List<String> keys;
+    }
+
+}
@@ -17,7 +17,6 @@ package org.thingsboard.rule.engine.mqtt.azure;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.netty.handler.ssl.ClientAuth;
-import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +34,7 @@ public class AzureIotHubSasCredentials extends CertPemCredentials {
     private String sasKey;
 
     @Override
-    public SslContext initSslContext() {
+    public SslContextBuilder initSslContextBuilder() {
         try {
             Security.addProvider(new BouncyCastleProvider());
             if (caCert == null || caCert.isEmpty()) {
@@ -43,8 +42,7 @@ public class AzureIotHubSasCredentials extends CertPemCredentials {
             }
             return SslContextBuilder.forClient()
                     .trustManager(createAndInitTrustManagerFactory())
-                    .clientAuth(ClientAuth.REQUIRE)
-                    .build();
+                    .clientAuth(ClientAuth.REQUIRE);
         } catch (Exception e) {
             log.error("[{}] Creating TLS factory failed!", caCert, e);
             throw new RuntimeException("Creating TLS factory failed!", e);
@@ -71,10 +71,7 @@ class AlarmState {
     }
 
     public boolean process(TbContext ctx, TbMsg msg, DataSnapshot data, SnapshotUpdate update) throws ExecutionException, InterruptedException {
-        initCurrentAlarm(ctx);
-        lastMsgMetaData = msg.getMetaData();
-        lastMsgQueueName = msg.getQueueName();
-        this.dataSnapshot = data;
+        updateLastMsg(ctx, msg, data);
         try {
             return createOrClearAlarms(ctx, msg, data, update, AlarmRuleState::eval);
         } catch (NumericParseException e) {
@@ -82,6 +79,17 @@ class AlarmState {
         }
     }
 
+    /**
+     * Tracks the message without evaluating the rules, for updates that do not touch any key of this alarm.
+     * Keeps the alarm details of later created or updated alarms based on the latest message metadata.
+     */
+    public void updateLastMsg(TbContext ctx, TbMsg msg, DataSnapshot data) throws ExecutionException, InterruptedException {
+        initCurrentAlarm(ctx);
+        lastMsgMetaData = msg.getMetaData();
+        lastMsgQueueName = msg.getQueueName();
+        this.dataSnapshot = data;
+    }
+
     public boolean process(TbContext ctx, long ts) throws ExecutionException, InterruptedException {
         initCurrentAlarm(ctx);
         try {
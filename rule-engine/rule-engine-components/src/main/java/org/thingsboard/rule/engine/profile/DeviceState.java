@@ -15,6 +15,7 @@
  */
 package org.thingsboard.rule.engine.profile;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.JacksonUtil;
@@ -23,7 +24,6 @@ import org.thingsboard.rule.engine.profile.state.PersistedAlarmState;
 import org.thingsboard.rule.engine.profile.state.PersistedDeviceState;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Device;
-import org.thingsboard.server.common.data.DeviceProfile;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionFilterKey;
@@ -69,6 +69,8 @@ import static org.thingsboard.server.common.data.msg.TbMsgType.POST_TELEMETRY_RE
 @Slf4j
 class DeviceState {
 
+    private static final String[] ATTRIBUTE_SCOPES = {DataConstants.CLIENT_SCOPE, DataConstants.SHARED_SCOPE, DataConstants.SERVER_SCOPE};
+
     private final boolean persistState;
     private final DeviceId deviceId;
     private final ProfileState deviceProfile;
@@ -103,15 +105,16 @@ class DeviceState {
         }
         if (pds != null) {
             for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-                alarmStates.computeIfAbsent(alarm.getId(),
-                        a -> new AlarmState(deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
+                getOrCreateAlarmState(alarm);
             }
         }
     }
 
-    public void updateProfile(TbContext ctx, DeviceProfile deviceProfile) throws ExecutionException, InterruptedException {
-        Set<AlarmConditionFilterKey> oldKeys = Set.copyOf(this.deviceProfile.getEntityKeys());
-        this.deviceProfile.updateDeviceProfile(deviceProfile);
+    /**
+     * Syncs the device state with the profile state that has already been updated.
+     * The profile state is shared between all devices of the same profile, so the caller updates it only once.
+     */
+    public void onProfileUpdate(TbContext ctx, Set<AlarmConditionFilterKey> oldKeys) throws ExecutionException, InterruptedException {
         if (latestValues != null) {
             Set<AlarmConditionFilterKey> keysToFetch = new HashSet<>(this.deviceProfile.getEntityKeys());
             keysToFetch.removeAll(oldKeys);
@@ -125,7 +128,7 @@ class DeviceState {
             if (alarmStates.containsKey(alarm.getId())) {
                 alarmStates.get(alarm.getId()).updateState(alarm, getOrInitPersistedAlarmState(alarm));
             } else {
-                alarmStates.putIfAbsent(alarm.getId(), new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
+                getOrCreateAlarmState(alarm);
             }
         }
     }
@@ -145,6 +148,7 @@ class DeviceState {
     public void process(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException {
         if (latestValues == null) {
             latestValues = fetchLatestValues(ctx, deviceId);
+            alarmStates.values().forEach(alarmState -> alarmState.setDataSnapshot(latestValues));
         }
         boolean stateChanged = false;
         if (msg.isTypeOf(POST_TELEMETRY_REQUEST)) {
@@ -188,8 +192,7 @@ class DeviceState {
         boolean stateChanged = false;
         Alarm alarmNf = JacksonUtil.fromString(msg.getData(), Alarm.class);
         for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-            AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
-                    a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
+            AlarmState alarmState = getOrCreateAlarmState(alarm);
             stateChanged |= alarmState.processAlarmClear(ctx, alarmNf);
         }
         ctx.tellSuccess(msg);
@@ -199,8 +202,7 @@ class DeviceState {
     private void processAlarmAckNotification(TbContext ctx, TbMsg msg) {
         Alarm alarmNf = JacksonUtil.fromString(msg.getData(), Alarm.class);
         for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-            AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
-                    a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
+            AlarmState alarmState = getOrCreateAlarmState(alarm);
             alarmState.processAckAlarm(alarmNf);
         }
         ctx.tellSuccess(msg);
@@ -236,11 +238,7 @@ class DeviceState {
                     .map(DataSnapshot::toConditionKey).collect(Collectors.toSet());
             SnapshotUpdate update = new SnapshotUpdate(AlarmConditionKeyType.ATTRIBUTE, removedKeys);
 
-            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-                AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
-                        a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
-                stateChanged |= alarmState.process(ctx, msg, latestValues, update);
-            }
+            stateChanged = processAlarms(ctx, msg, update);
         }
         ctx.tellSuccess(msg);
         return stateChanged;
@@ -255,11 +253,7 @@ class DeviceState {
         Set<AttributeKvEntry> attributes = JsonConverter.convertToAttributes(JsonParser.parseString(msg.getData()));
         if (!attributes.isEmpty()) {
             SnapshotUpdate update = merge(latestValues, attributes, scope);
-            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-                AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
-                        a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
-                stateChanged |= alarmState.process(ctx, msg, latestValues, update);
-            }
+            stateChanged = processAlarms(ctx, msg, update);
         }
         ctx.tellSuccess(msg);
         return stateChanged;
@@ -274,22 +268,32 @@ class DeviceState {
             List<KvEntry> data = entry.getValue();
             SnapshotUpdate update = merge(latestValues, ts, data);
             if (update.hasUpdate()) {
-                for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
-                    AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
-                            a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
-                    try {
-                        stateChanged |= alarmState.process(ctx, msg, latestValues, update);
-                    } catch (ApiUsageLimitsExceededException e) {
-                        alarmStates.remove(alarm.getId());
-                        throw e;
-                    }
-                }
+                stateChanged |= processAlarms(ctx, msg, update);
             }
         }
         ctx.tellSuccess(msg);
         return stateChanged;
     }
 
+    private boolean processAlarms(TbContext ctx, TbMsg msg, SnapshotUpdate update) throws ExecutionException, InterruptedException {
+        boolean stateChanged = false;
+        Set<String> affectedAlarmIds = deviceProfile.getAffectedAlarmIds(update.getKeys());
+        for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
+            AlarmState alarmState = getOrCreateAlarmState(alarm);
+            try {
+                if (affectedAlarmIds.contains(alarm.getId())) {
+                    stateChanged |= alarmState.process(ctx, msg, latestValues, update);
+                } else {
+                    alarmState.updateLastMsg(ctx, msg, latestValues);
+                }
+            } catch (ApiUsageLimitsExceededException e) {
+                alarmStates.remove(alarm.getId());
+                throw e;
+            }
+        }
+        return stateChanged;
+    }
+
     private SnapshotUpdate merge(DataSnapshot latestValues, Long newTs, List<KvEntry> data) {
         Set<AlarmConditionFilterKey> keys = new HashSet<>();
         for (KvEntry entry : data) {
@@ -373,18 +377,27 @@ class DeviceState {
             }
         }
 
+        // Submit all lookups at once so that the snapshot is loaded in a single round of parallel queries.
+        ListenableFuture<List<TsKvEntry>> latestTsFuture = null;
+        List<ListenableFuture<List<AttributeKvEntry>>> attributeFutures = new ArrayList<>();
         if (!latestTsKeys.isEmpty()) {
-            List<TsKvEntry> data = ctx.getTimeseriesService().findLatest(ctx.getTenantId(), originator, latestTsKeys).get();
+            latestTsFuture = ctx.getTimeseriesService().findLatest(ctx.getTenantId(), originator, latestTsKeys);
+        }
+        if (!attributeKeys.isEmpty()) {
+            for (String scope : ATTRIBUTE_SCOPES) {
+                attributeFutures.add(ctx.getAttributesService().find(ctx.getTenantId(), originator, scope, attributeKeys));
+            }
+        }
+        if (latestTsFuture != null) {
+            List<TsKvEntry> data = latestTsFuture.get();
             for (TsKvEntry entry : data) {
                 if (entry.getValue() != null) {
                     result.putValue(new AlarmConditionFilterKey(AlarmConditionKeyType.TIME_SERIES, entry.getKey()), entry.getTs(), toEntityValue(entry));
                 }
             }
         }
-        if (!attributeKeys.isEmpty()) {
-            addToSnapshot(result, ctx.getAttributesService().find(ctx.getTenantId(), originator, DataConstants.CLIENT_SCOPE, attributeKeys).get());
-            addToSnapshot(result, ctx.getAttributesService().find(ctx.getTenantId(), originator, DataConstants.SHARED_SCOPE, attributeKeys).get());
-            addToSnapshot(result, ctx.getAttributesService().find(ctx.getTenantId(), originator, DataConstants.SERVER_SCOPE, attributeKeys).get());
+        for (ListenableFuture<List<AttributeKvEntry>> attributeFuture : attributeFutures) {
+            addToSnapshot(result, attributeFuture.get());
         }
     }
 
@@ -418,6 +431,14 @@ class DeviceState {
         return deviceProfile.getProfileId();
     }
 
+    private AlarmState getOrCreateAlarmState(DeviceProfileAlarm alarm) {
+        return alarmStates.computeIfAbsent(alarm.getId(), a -> {
+            AlarmState alarmState = new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx);
+            alarmState.setDataSnapshot(latestValues);
+            return alarmState;
+        });
+    }
+
     private PersistedAlarmState getOrInitPersistedAlarmState(DeviceProfileAlarm alarm) {
         if (pds != null) {
             PersistedAlarmState alarmState = pds.getAlarmStates().get(alarm.getId());
@@ -55,6 +55,7 @@ class ProfileState {
 
     private final Map<String, Map<AlarmSeverity, Set<AlarmConditionFilterKey>>> alarmCreateKeys = new HashMap<>();
     private final Map<String, Set<AlarmConditionFilterKey>> alarmClearKeys = new HashMap<>();
+    private final Map<AlarmConditionFilterKey, Set<String>> alarmIdsByKey = new HashMap<>();
 
     ProfileState(DeviceProfile deviceProfile) {
         updateDeviceProfile(deviceProfile);
@@ -65,6 +66,7 @@ class ProfileState {
         alarmSettings.clear();
         alarmCreateKeys.clear();
         alarmClearKeys.clear();
+        alarmIdsByKey.clear();
         entityKeys.clear();
         if (deviceProfile.getProfileData().getAlarms() != null) {
             alarmSettings.addAll(deviceProfile.getProfileData().getAlarms());
@@ -92,10 +94,18 @@ class ProfileState {
                     }
                     addEntityKeysFromAlarmConditionSpec(alarm.getClearRule());
                 }
+                indexAlarmKeys(alarm.getId());
             }
         }
     }
 
+    private void indexAlarmKeys(String alarmId) {
+        alarmCreateKeys.getOrDefault(alarmId, Collections.emptyMap()).values().forEach(keys ->
+                keys.forEach(key -> alarmIdsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(alarmId)));
+        alarmClearKeys.getOrDefault(alarmId, Collections.emptySet()).forEach(key ->
+                alarmIdsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(alarmId));
+    }
+
     private void addScheduleDynamicValues(AlarmSchedule schedule) {
         DynamicValue<String> dynamicValue = schedule.getDynamicValue();
         if (dynamicValue != null) {
@@ -177,6 +187,21 @@ class ProfileState {
         }
     }
 
+    /**
+     * Returns ids of the alarms that have at least one create or clear rule referencing any of the changed keys.
+     * Rules of the other alarms would reject the update anyway, so there is no need to evaluate them.
+     */
+    Set<String> getAffectedAlarmIds(Set<AlarmConditionFilterKey> changedKeys) {
+        Set<String> alarmIds = new HashSet<>();
+        for (AlarmConditionFilterKey key : changedKeys) {
+            Set<String> ids = alarmIdsByKey.get(key);
+            if (ids != null) {
+                alarmIds.addAll(ids);
+            }
+        }
+        return alarmIds;
+    }
+
     Set<AlarmConditionFilterKey> getClearAlarmKeys(String id) {
         Set<AlarmConditionFilterKey> keys = alarmClearKeys.get(id);
         if (keys == null) {
@@ -29,6 +29,7 @@ import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.DeviceProfile;
 import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.device.profile.AlarmConditionFilterKey;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.DeviceProfileId;
 import org.thingsboard.server.common.data.msg.TbMsgType;
@@ -41,6 +42,7 @@ import org.thingsboard.server.common.msg.TbMsgMetaData;
 import org.thingsboard.server.common.msg.queue.PartitionChangeMsg;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -65,6 +67,7 @@ public class TbDeviceProfileNode implements TbNode {
     private RuleEngineDeviceProfileCache cache;
     private TbContext ctx;
     private final Map<DeviceId, DeviceState> deviceStates = new ConcurrentHashMap<>();
+    private final Map<DeviceProfileId, ProfileState> profileStates = new ConcurrentHashMap<>();
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
@@ -156,6 +159,7 @@ public class TbDeviceProfileNode implements TbNode {
     public void destroy() {
         ctx.removeListeners();
         deviceStates.clear();
+        profileStates.clear();
     }
 
     protected DeviceState getOrCreateDeviceState(TbContext ctx, DeviceId deviceId, RuleNodeState rns, boolean printNewlyAddedDeviceStates) {
@@ -163,7 +167,8 @@ public class TbDeviceProfileNode implements TbNode {
         if (deviceState == null) {
             DeviceProfile deviceProfile = cache.get(ctx.getTenantId(), deviceId);
             if (deviceProfile != null) {
-                deviceState = new DeviceState(ctx, config, deviceId, new ProfileState(deviceProfile), rns);
+                ProfileState profileState = getOrCreateProfileState(deviceProfile);
+                deviceState = new DeviceState(ctx, config, deviceId, profileState, rns);
                 deviceStates.put(deviceId, deviceState);
                 if (printNewlyAddedDeviceStates) {
                     log.info("[{}][{}] Device [{}] was added during PartitionChangeMsg", ctx.getTenantId(), ctx.getSelfId(), deviceId);
@@ -173,6 +178,14 @@ public class TbDeviceProfileNode implements TbNode {
         return deviceState;
     }
 
+    private ProfileState getOrCreateProfileState(DeviceProfile deviceProfile) {
+        if (deviceProfile.getId() == null) {
+            // Profiles without an id can't be matched with update notifications, so there is nothing to share.
+            return new ProfileState(deviceProfile);
+        }
+        return profileStates.computeIfAbsent(deviceProfile.getId(), id -> new ProfileState(deviceProfile));
+    }
+
     protected void scheduleAlarmHarvesting(TbContext ctx, TbMsg msg) {
         TbMsg periodicCheck = TbMsg.newMsg(TbMsgType.DEVICE_PROFILE_PERIODIC_SELF_MSG, ctx.getTenantId(), msg != null ? msg.getCustomerId() : null, TbMsgMetaData.EMPTY, TbMsg.EMPTY_JSON_OBJECT);
         ctx.tellSelf(periodicCheck, TimeUnit.MINUTES.toMillis(1));
@@ -188,9 +201,15 @@ public class TbDeviceProfileNode implements TbNode {
         DeviceProfile deviceProfile = cache.get(ctx.getTenantId(), deviceProfileId);
         if (deviceProfile != null) {
             log.debug("[{}] Received device profile update notification: {}", ctx.getSelfId(), deviceProfile);
+            ProfileState profileState = profileStates.get(deviceProfileId);
+            if (profileState == null) {
+                return;
+            }
+            Set<AlarmConditionFilterKey> oldKeys = Set.copyOf(profileState.getEntityKeys());
+            profileState.updateDeviceProfile(deviceProfile);
             for (DeviceState state : deviceStates.values()) {
                 if (deviceProfile.getId().equals(state.getProfileId())) {
-                    state.updateProfile(ctx, deviceProfile);
+                    state.onProfileUpdate(ctx, oldKeys);
                 }
             }
         } else {
@@ -17,6 +17,10 @@ package org.thingsboard.rule.engine.rest;
 
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Base64;
@@ -32,13 +36,19 @@ import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
-import org.springframework.http.client.Netty4ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.TbContext;
@@ -50,19 +60,28 @@ import org.thingsboard.rule.engine.credentials.CredentialsType;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import java.net.Authenticator;
 import java.net.PasswordAuthentication;
 import java.net.URI;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -76,15 +95,24 @@ public class TbHttpClient {
     private static final String STATUS_REASON = "statusReason";
     private static final String ERROR = "error";
     private static final String ERROR_BODY = "error_body";
+    private static final String CONNECTION_POOL_NAME = "tb-rest-api-call";
+    private static final String REASON_PHRASE = "reasonPhrase";
     private static final String ERROR_SYSTEM_PROPERTIES = "Didn't set any system proxy properties. Should be added next system proxy properties: \"http.proxyHost\" and \"http.proxyPort\" or  \"https.proxyHost\" and \"https.proxyPort\" or \"socksProxyHost\" and \"socksProxyPort\"";
 
     private final TbRestApiCallNodeConfiguration config;
 
     private EventLoopGroup eventLoopGroup;
     private AsyncRestTemplate httpClient;
-    private Deque<ListenableFuture<ResponseEntity<String>>> pendingFutures;
+    private WebClient webClient;
+    private WebClient secureWebClient;
+    private ConnectionProvider connectionProvider;
+    private Deque<Future<ResponseEntity<String>>> pendingFutures;
 
     TbHttpClient(TbRestApiCallNodeConfiguration config, EventLoopGroup eventLoopGroupShared) throws TbNodeException {
+        this(config, eventLoopGroupShared, CONNECTION_POOL_NAME);
+    }
+
+    TbHttpClient(TbRestApiCallNodeConfiguration config, EventLoopGroup eventLoopGroupShared, String connectionPoolName) throws TbNodeException {
         try {
             this.config = config;
             if (config.getMaxParallelRequestsCount() > 0) {
@@ -145,10 +173,22 @@ public class TbHttpClient {
                 }
                 httpClient = new AsyncRestTemplate();
             } else {
-                Netty4ClientHttpRequestFactory nettyFactory = new Netty4ClientHttpRequestFactory(getSharedOrCreateEventLoopGroup(eventLoopGroupShared));
-                nettyFactory.setSslContext(config.getCredentials().initSslContext());
-                nettyFactory.setReadTimeout(config.getReadTimeoutMs());
-                httpClient = new AsyncRestTemplate(nettyFactory);
+                connectionProvider = createConnectionProvider(connectionPoolName);
+                HttpClient nettyClient = HttpClient.create(connectionProvider)
+                        .runOn(getSharedOrCreateEventLoopGroup(eventLoopGroupShared))
+                        .keepAlive(true)
+                        // WebClient exposes the status code only, the reason phrase sent by the server is passed back through the request context
+                        .doOnResponse((response, connection) -> response.currentContextView().<AtomicReference<String>>getOrEmpty(REASON_PHRASE)
+                                .ifPresent(reasonPhrase -> reasonPhrase.set(response.status().reasonPhrase())));
+                if (config.isEnableHttp2()) {
+                    nettyClient = nettyClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2, HttpProtocol.H2C);
+                }
+                if (config.getReadTimeoutMs() > 0) {
+                    nettyClient = nettyClient.responseTimeout(Duration.ofMillis(config.getReadTimeoutMs()));
+                }
+                SslContext sslContext = createSslContext();
+                webClient = buildWebClient(nettyClient);
+                secureWebClient = buildWebClient(nettyClient.secure(spec -> spec.sslContext(sslContext)));
             }
         } catch (SSLException | NoSuchAlgorithmException e) {
             throw new TbNodeException(e);
@@ -162,6 +202,41 @@ public class TbHttpClient {
         return this.eventLoopGroup = new NioEventLoopGroup();
     }
 
+    private WebClient buildWebClient(HttpClient nettyClient) {
+        int maxInMemorySize = config.getMaxInMemoryBufferSizeInKb() > 0 ? config.getMaxInMemoryBufferSizeInKb() * 1024 : -1;
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(nettyClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
+    }
+
+    ConnectionProvider createConnectionProvider(String connectionPoolName) {
+        // 0 keeps the unbounded behaviour of the previous client instead of falling back to the reactor-netty defaults
+        // metrics (total, active, idle and pending acquire connections) are tagged with the pool name, unique per rule node
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(connectionPoolName)
+                .metrics(true)
+                .maxConnections(config.getMaxConnectionsPerHost() > 0 ? config.getMaxConnectionsPerHost() : Integer.MAX_VALUE)
+                .pendingAcquireMaxCount(config.getMaxPendingRequestsCount() > 0 ? config.getMaxPendingRequestsCount() : -1);
+        if (config.getConnectionMaxIdleTimeMs() > 0) {
+            builder.maxIdleTime(Duration.ofMillis(config.getConnectionMaxIdleTimeMs()))
+                    .evictInBackground(Duration.ofMillis(config.getConnectionMaxIdleTimeMs()));
+        }
+        return builder.build();
+    }
+
+    private SslContext createSslContext() throws SSLException {
+        SslContextBuilder builder = config.getCredentials().initSslContextBuilder();
+        if (config.isEnableHttp2()) {
+            builder.applicationProtocolConfig(new ApplicationProtocolConfig(
+                            ApplicationProtocolConfig.Protocol.ALPN,
+                            ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                            ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                            ApplicationProtocolNames.HTTP_2,
+                            ApplicationProtocolNames.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
     private void checkSystemProxyProperties() throws TbNodeException {
         boolean useHttpProxy = !StringUtils.isEmpty(System.getProperty("http.proxyHost")) && !StringUtils.isEmpty(System.getProperty("http.proxyPort"));
         boolean useHttpsProxy = !StringUtils.isEmpty(System.getProperty("https.proxyHost")) && !StringUtils.isEmpty(System.getProperty("https.proxyPort"));
@@ -177,6 +252,9 @@ public class TbHttpClient {
     }
 
     void destroy() {
+        if (this.connectionProvider != null) {
+            this.connectionProvider.dispose();
+        }
         if (this.eventLoopGroup != null) {
             this.eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
         }
@@ -198,6 +276,10 @@ public class TbHttpClient {
         }
 
         URI uri = buildEncodedUri(endpointUrl);
+        if (webClient != null) {
+            processMessageWithWebClient(ctx, msg, uri, method, entity, onSuccess, onFailure);
+            return;
+        }
         ListenableFuture<ResponseEntity<String>> future = httpClient.exchange(
                 uri, method, entity, String.class);
         future.addCallback(new ListenableFutureCallback<>() {
@@ -209,9 +291,9 @@ public class TbHttpClient {
             @Override
             public void onSuccess(ResponseEntity<String> responseEntity) {
                 if (responseEntity.getStatusCode().is2xxSuccessful()) {
-                    onSuccess.accept(processResponse(ctx, msg, responseEntity));
+                    onSuccess.accept(processResponse(ctx, msg, responseEntity, responseEntity.getStatusCode().getReasonPhrase()));
                 } else {
-                    onFailure.accept(processFailureResponse(msg, responseEntity), null);
+                    onFailure.accept(processFailureResponse(msg, responseEntity, responseEntity.getStatusCode().getReasonPhrase()), null);
                 }
             }
         });
@@ -220,6 +302,75 @@ public class TbHttpClient {
         }
     }
 
+    private void processMessageWithWebClient(TbContext ctx, TbMsg msg, URI uri, HttpMethod method, HttpEntity<String> entity,
+                                             Consumer<TbMsg> onSuccess, BiConsumer<TbMsg, Throwable> onFailure) {
+        WebClient client = "https".equalsIgnoreCase(uri.getScheme()) ? secureWebClient : webClient;
+        WebClient.RequestBodySpec request = client.method(method)
+                .uri(uri)
+                .headers(headers -> headers.addAll(entity.getHeaders()));
+        if (entity.hasBody()) {
+            MediaType contentType = entity.getHeaders().getContentType();
+            if (contentType == null) {
+                contentType = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.ISO_8859_1);
+                request.contentType(contentType);
+            }
+            request.bodyValue(entity.getBody().getBytes(getCharset(contentType)));
+        }
+        AtomicReference<String> reasonPhrase = new AtomicReference<>();
+        CompletableFuture<ResponseEntity<String>> future = request
+                .exchangeToMono(response -> response.toEntity(String.class))
+                .contextWrite(Context.of(REASON_PHRASE, reasonPhrase))
+                .toFuture();
+        future.whenComplete((responseEntity, throwable) -> {
+            if (throwable == null) {
+                throwable = toResponseException(responseEntity, reasonPhrase.get());
+            }
+            if (throwable != null) {
+                onFailure.accept(processException(msg, throwable), throwable);
+            } else if (responseEntity.getStatusCode().is2xxSuccessful()) {
+                onSuccess.accept(processResponse(ctx, msg, responseEntity, getReasonPhrase(responseEntity, reasonPhrase.get())));
+            } else {
+                onFailure.accept(processFailureResponse(msg, responseEntity, getReasonPhrase(responseEntity, reasonPhrase.get())), null);
+            }
+        });
+        if (pendingFutures != null) {
+            processParallelRequests(future);
+        }
+    }
+
+    /*
+     * Keeps the outbound metadata of 4xx/5xx responses the same as produced by the AsyncRestTemplate error handler.
+     */
+    private static RestClientResponseException toResponseException(ResponseEntity<String> responseEntity, String reasonPhrase) {
+        int rawStatusCode = responseEntity.getStatusCodeValue();
+        HttpStatus status = HttpStatus.resolve(rawStatusCode);
+        HttpHeaders headers = responseEntity.getHeaders();
+        byte[] body = responseEntity.getBody() != null ? responseEntity.getBody().getBytes(StandardCharsets.UTF_8) : null;
+        String statusText = reasonPhrase != null ? reasonPhrase : "";
+        if (status == null) {
+            return new UnknownHttpStatusCodeException(rawStatusCode, statusText, headers, body, StandardCharsets.UTF_8);
+        } else if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        } else if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, statusText, headers, body, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static String getReasonPhrase(ResponseEntity<String> responseEntity, String reasonPhrase) {
+        return reasonPhrase != null ? reasonPhrase : responseEntity.getStatusCode().getReasonPhrase();
+    }
+
+    private static Charset getCharset(MediaType contentType) {
+        if (contentType.getCharset() != null) {
+            return contentType.getCharset();
+        } else if (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return StandardCharsets.UTF_8;
+        } else {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
     public URI buildEncodedUri(String endpointUrl) {
         if (endpointUrl == null) {
             throw new RuntimeException("Url string cannot be null!");
@@ -261,11 +412,11 @@ public class TbHttpClient {
         return data;
     }
 
-    private TbMsg processResponse(TbContext ctx, TbMsg origMsg, ResponseEntity<String> response) {
+    private TbMsg processResponse(TbContext ctx, TbMsg origMsg, ResponseEntity<String> response, String reasonPhrase) {
         TbMsgMetaData metaData = origMsg.getMetaData();
         metaData.putValue(STATUS, response.getStatusCode().name());
         metaData.putValue(STATUS_CODE, response.getStatusCode().value() + "");
-        metaData.putValue(STATUS_REASON, response.getStatusCode().getReasonPhrase());
+        metaData.putValue(STATUS_REASON, reasonPhrase);
         headersToMetaData(response.getHeaders(), metaData::putValue);
         String body = response.getBody() == null ? TbMsg.EMPTY_JSON_OBJECT : response.getBody();
         return ctx.transformMsg(origMsg, metaData, body);
@@ -286,11 +437,11 @@ public class TbHttpClient {
         });
     }
 
-    private TbMsg processFailureResponse(TbMsg origMsg, ResponseEntity<String> response) {
+    private TbMsg processFailureResponse(TbMsg origMsg, ResponseEntity<String> response, String reasonPhrase) {
         TbMsgMetaData metaData = origMsg.getMetaData();
         metaData.putValue(STATUS, response.getStatusCode().name());
         metaData.putValue(STATUS_CODE, response.getStatusCode().value() + "");
-        metaData.putValue(STATUS_REASON, response.getStatusCode().getReasonPhrase());
+        metaData.putValue(STATUS_REASON, reasonPhrase);
         metaData.putValue(ERROR_BODY, response.getBody());
         headersToMetaData(response.getHeaders(), metaData::putValue);
         return TbMsg.transformMsgMetadata(origMsg, metaData);
@@ -321,12 +472,12 @@ public class TbHttpClient {
         return headers;
     }
 
-    private void processParallelRequests(ListenableFuture<ResponseEntity<String>> future) {
+    private void processParallelRequests(Future<ResponseEntity<String>> future) {
         pendingFutures.add(future);
         if (pendingFutures.size() > config.getMaxParallelRequestsCount()) {
             for (int i = 0; i < config.getMaxParallelRequestsCount(); i++) {
                 try {
-                    ListenableFuture<ResponseEntity<String>> pendingFuture = pendingFutures.removeFirst();
+                    Future<ResponseEntity<String>> pendingFuture = pendingFutures.removeFirst();
                     try {
                         pendingFuture.get(config.getReadTimeoutMs(), TimeUnit.MILLISECONDS);
                     } catch (Exception e) {
@@ -47,6 +47,11 @@ public class TbRestApiCallNodeConfiguration implements NodeConfiguration<TbRestA
     private String proxyScheme;
     private ClientCredentials credentials;
     private boolean ignoreRequestBody;
+    private int maxConnectionsPerHost;
+    private int maxPendingRequestsCount;
+    private int connectionMaxIdleTimeMs;
+    private boolean enableHttp2;
+    private int maxInMemoryBufferSizeInKb;
 
     @Override
     public TbRestApiCallNodeConfiguration defaultConfiguration() {
@@ -62,6 +67,11 @@ public class TbRestApiCallNodeConfiguration implements NodeConfiguration<TbRestA
         configuration.setEnableProxy(false);
         configuration.setCredentials(new AnonymousCredentials());
         configuration.setIgnoreRequestBody(false);
+        configuration.setMaxConnectionsPerHost(0);
+        configuration.setMaxPendingRequestsCount(0);
+        configuration.setConnectionMaxIdleTimeMs(60000);
+        configuration.setEnableHttp2(false);
+        configuration.setMaxInMemoryBufferSizeInKb(256);
         return configuration;
     }
 
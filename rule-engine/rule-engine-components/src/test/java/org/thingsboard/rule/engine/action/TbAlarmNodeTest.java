@@ -124,11 +124,11 @@ public class TbAlarmNodeTest {
                 .type("SomeType")
                 .details(null)
                 .build();
-        when(alarmService.createAlarm(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(
+        when(alarmService.createAlarmAsync(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(Futures.immediateFuture(
                 AlarmApiCallResult.builder()
                         .created(true)
                         .alarm(new AlarmInfo(expectedAlarm))
-                        .build());
+                        .build()));
 
         node.onMsg(ctx, msg);
 
@@ -197,12 +197,12 @@ public class TbAlarmNodeTest {
                 .type("SomeType")
                 .details(null)
                 .build();
-        when(alarmService.createAlarm(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(
+        when(alarmService.createAlarmAsync(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(Futures.immediateFuture(
                 AlarmApiCallResult.builder()
                         .successful(true)
                         .created(true)
                         .alarm(new AlarmInfo(expectedAlarm))
-                        .build());
+                        .build()));
 
         node.onMsg(ctx, msg);
 
@@ -249,13 +249,13 @@ public class TbAlarmNodeTest {
                 .details(null)
                 .endTs(activeAlarm.getEndTs())
                 .build();
-        when(alarmService.updateAlarm(any(AlarmUpdateRequest.class))).thenReturn(
+        when(alarmService.updateAlarmAsync(any(AlarmUpdateRequest.class))).thenReturn(Futures.immediateFuture(
                 AlarmApiCallResult.builder()
                         .successful(true)
                         .modified(true)
                         .old(new Alarm(activeAlarm))
                         .alarm(new AlarmInfo(expectedAlarm))
-                        .build());
+                        .build()));
         node.onMsg(ctx, msg);
 
         verify(ctx).enqueue(any(), successCaptor.capture(), failureCaptor.capture());
@@ -424,12 +424,12 @@ public class TbAlarmNodeTest {
 
         when(detailsJs.executeJsonAsync(msg)).thenReturn(Futures.immediateFuture(null));
         when(alarmService.findLatestActiveByOriginatorAndType(tenantId, originator, "SomeType")).thenReturn(null);
-        when(alarmService.createAlarm(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(
+        when(alarmService.createAlarmAsync(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(Futures.immediateFuture(
                 AlarmApiCallResult.builder()
                         .successful(true)
                         .created(true)
                         .alarm(new AlarmInfo(expectedAlarm))
-                        .build());
+                        .build()));
 
         node.onMsg(ctx, msg);
 
@@ -490,12 +490,12 @@ public class TbAlarmNodeTest {
 
         when(detailsJs.executeJsonAsync(msg)).thenReturn(Futures.immediateFuture(null));
         when(alarmService.findLatestActiveByOriginatorAndType(tenantId, originator, "SomeType")).thenReturn(null);
-        when(alarmService.createAlarm(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(
+        when(alarmService.createAlarmAsync(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(Futures.immediateFuture(
                 AlarmApiCallResult.builder()
                         .successful(true)
                         .created(true)
                         .alarm(new AlarmInfo(expectedAlarm))
-                        .build());
+                        .build()));
 
         node.onMsg(ctx, msg);
 
@@ -556,12 +556,12 @@ public class TbAlarmNodeTest {
 
             when(detailsJs.executeJsonAsync(msg)).thenReturn(Futures.immediateFuture(null));
             when(alarmService.findLatestActiveByOriginatorAndType(tenantId, originator, "SomeType" + i)).thenReturn(null);
-            when(alarmService.createAlarm(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(
+            when(alarmService.createAlarmAsync(any(AlarmCreateOrUpdateActiveRequest.class))).thenReturn(Futures.immediateFuture(
                     AlarmApiCallResult.builder()
                             .successful(true)
                             .created(true)
                             .alarm(new AlarmInfo(expectedAlarm))
-                            .build());
+                            .build()));
             node.onMsg(ctx, msg);
 
             verify(ctx, atMost(10)).enqueue(any(), successCaptor.capture(), failureCaptor.capture());
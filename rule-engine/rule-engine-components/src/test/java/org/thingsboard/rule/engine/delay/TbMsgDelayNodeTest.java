@@ -0,0 +1,271 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.delay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.rule.engine.api.TbNodeConfiguration;
+import org.thingsboard.rule.engine.api.TbNodeException;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.msg.TbMsgType;
+import org.thingsboard.server.common.data.msg.TbNodeConnectionType;
+import org.thingsboard.server.common.data.page.PageData;
+import org.thingsboard.server.common.data.rule.RuleNodeState;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TbMsgDelayNodeTest {
+
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final CustomerId customerId = new CustomerId(UUID.randomUUID());
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(20000));
+
+    private TbContext ctx;
+    private TbMsgDelayNode node;
+    private List<TbMsg> tickMsgs;
+    private List<Long> tickDelays;
+
+    @BeforeEach
+    public void setUp() {
+        ctx = mock(TbContext.class);
+        when(ctx.getSelfId()).thenReturn(new RuleNodeId(UUID.randomUUID()));
+        doAnswer(invocation -> TbMsg.newMsg(invocation.getArgument(1, TbMsgType.class), invocation.getArgument(2, EntityId.class),
+                invocation.getArgument(3, CustomerId.class), invocation.getArgument(4, TbMsgMetaData.class), invocation.getArgument(5, String.class)))
+                .when(ctx).newMsg(isNull(), eq(TbMsgType.DELAY_TIMEOUT_SELF_MSG), any(EntityId.class), any(), any(TbMsgMetaData.class), any(String.class));
+        tickMsgs = new ArrayList<>();
+        tickDelays = new ArrayList<>();
+        doAnswer(invocation -> {
+            tickMsgs.add(invocation.getArgument(0));
+            tickDelays.add(invocation.getArgument(1));
+            return null;
+        }).when(ctx).tellSelf(any(TbMsg.class), anyLong());
+        node = spy(new TbMsgDelayNode());
+        doAnswer(invocation -> now.get()).when(node).getCurrentTimeMillis();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        node.destroy();
+    }
+
+    @Test
+    public void givenManyMsgs_whenTickIsDue_thenAllMsgsAreReleasedWithSingleSelfMsg() throws Exception {
+        initNode(1, 100);
+
+        for (int i = 0; i < 10; i++) {
+            node.onMsg(ctx, newMsg(i));
+        }
+
+        verify(ctx, times(10)).ack(any());
+        verify(ctx, times(1)).tellSelf(any(), anyLong());
+        assertThat(node.getPendingMsgsCount()).isEqualTo(10);
+        assertThat(tickDelays.get(0)).isEqualTo(TbMsgDelayNode.TICK_INTERVAL_MS);
+        assertThat(tickMsgs.get(0).getCustomerId()).isEqualTo(customerId);
+
+        now.addAndGet(tickDelays.get(0) + 250);
+        node.onMsg(ctx, tickMsgs.get(0));
+
+        ArgumentCaptor<TbMsg> releasedCaptor = ArgumentCaptor.forClass(TbMsg.class);
+        verify(ctx, times(10)).enqueueForTellNext(releasedCaptor.capture(), eq(TbNodeConnectionType.SUCCESS));
+        for (int i = 0; i < 10; i++) {
+            assertThat(releasedCaptor.getAllValues().get(i).getData()).isEqualTo("{\"i\":" + i + "}");
+        }
+        assertThat(node.getPendingMsgsCount()).isZero();
+        assertThat(node.getMaxReleaseLagMs()).isEqualTo(250);
+        verify(ctx, times(1)).tellSelf(any(), anyLong());
+    }
+
+    @Test
+    public void givenLongDelay_whenMsgArrives_thenTickIsScheduledOnBucketDeadline() throws Exception {
+        initNode(60, 100);
+
+        node.onMsg(ctx, newMsg(0));
+
+        assertThat(tickDelays).containsExactly(TimeUnit.SECONDS.toMillis(60));
+    }
+
+    @Test
+    public void givenPendingMsgNotDue_whenTickArrives_thenMsgIsKeptAndTickIsRescheduled() throws Exception {
+        initNode(60, 100);
+
+        node.onMsg(ctx, newMsg(0));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(20));
+        node.onMsg(ctx, tickMsgs.get(0));
+
+        verify(ctx, never()).enqueueForTellNext(any(), any(String.class));
+        assertThat(node.getPendingMsgsCount()).isEqualTo(1);
+        assertThat(tickDelays).containsExactly(TimeUnit.SECONDS.toMillis(60), TimeUnit.SECONDS.toMillis(40));
+    }
+
+    @Test
+    public void givenMsgDueEarlierThanScheduledTick_whenMsgArrives_thenTickIsRescheduled() throws Exception {
+        TbMsgDelayNodeConfiguration config = new TbMsgDelayNodeConfiguration().defaultConfiguration();
+        config.setUseMetadataPeriodInSecondsPatterns(true);
+        config.setPeriodInSecondsPattern("${delay}");
+        node.init(ctx, new TbNodeConfiguration(JacksonUtil.valueToTree(config)));
+
+        node.onMsg(ctx, newMsg(0, 60));
+        node.onMsg(ctx, newMsg(1, 5));
+        node.onMsg(ctx, newMsg(2, 30));
+        assertThat(tickDelays).containsExactly(TimeUnit.SECONDS.toMillis(60), TimeUnit.SECONDS.toMillis(5));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        node.onMsg(ctx, tickMsgs.get(0));
+        verify(ctx, never()).enqueueForTellNext(any(), any(String.class));
+
+        node.onMsg(ctx, tickMsgs.get(1));
+        verify(ctx, times(3)).enqueueForTellNext(any(), eq(TbNodeConnectionType.SUCCESS));
+        assertThat(node.getPendingMsgsCount()).isZero();
+    }
+
+    @Test
+    public void givenStaleTickMsg_whenReceived_thenItIsIgnored() throws Exception {
+        initNode(0, 100);
+
+        node.onMsg(ctx, newMsg(0));
+        node.onMsg(ctx, TbMsg.newMsg(TbMsgType.DELAY_TIMEOUT_SELF_MSG, deviceId, TbMsgMetaData.EMPTY, UUID.randomUUID().toString()));
+
+        verify(ctx, never()).enqueueForTellNext(any(), any(String.class));
+        assertThat(node.getPendingMsgsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenMaxPendingMsgsReached_whenMsgArrives_thenFailure() throws Exception {
+        initNode(60, 1);
+
+        node.onMsg(ctx, newMsg(0));
+        TbMsg rejected = newMsg(1);
+        node.onMsg(ctx, rejected);
+
+        verify(ctx, times(1)).tellFailure(eq(rejected), any(RuntimeException.class));
+        assertThat(node.getPendingMsgsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenPersistPendingMsgs_whenMsgIsDelayedAndReleased_thenStateIsSavedAndRemoved() throws Exception {
+        when(ctx.findRuleNodeStates(any())).thenReturn(PageData.emptyPageData());
+        when(ctx.saveRuleNodeState(any())).then(invocation -> invocation.getArgument(0));
+        initNode(10, 100, true);
+
+        long releaseTs = now.get() + TimeUnit.SECONDS.toMillis(10);
+        for (int i = 0; i < 3; i++) {
+            node.onMsg(ctx, newMsg(i));
+        }
+        verify(ctx, never()).saveRuleNodeState(any());
+        assertThat(tickDelays).containsExactly(TbMsgDelayNode.TICK_INTERVAL_MS);
+
+        now.addAndGet(TbMsgDelayNode.TICK_INTERVAL_MS);
+        node.onMsg(ctx, tickMsgs.get(0));
+
+        ArgumentCaptor<RuleNodeState> stateCaptor = ArgumentCaptor.forClass(RuleNodeState.class);
+        verify(ctx, times(1)).saveRuleNodeState(stateCaptor.capture());
+        RuleNodeState state = stateCaptor.getValue();
+        assertThat(state.getEntityId()).isEqualTo(deviceId);
+        JsonNode persistedMsgs = JacksonUtil.toJsonNode(state.getStateData());
+        assertThat(persistedMsgs).hasSize(3);
+        assertThat(persistedMsgs.get(0).get("releaseTs").asLong()).isEqualTo(releaseTs);
+        assertThat(tickDelays).containsExactly(TbMsgDelayNode.TICK_INTERVAL_MS, TimeUnit.SECONDS.toMillis(9));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(9));
+        node.onMsg(ctx, tickMsgs.get(1));
+
+        verify(ctx, times(3)).enqueueForTellNext(any(), eq(TbNodeConnectionType.SUCCESS));
+        verify(ctx, times(1)).saveRuleNodeState(any());
+        verify(ctx).removeRuleNodeStateForEntity(deviceId);
+    }
+
+    @Test
+    public void givenPersistedMsgs_whenInit_thenMsgsAreRestoredAndReleased() throws Exception {
+        TbMsg msg = newMsg(7);
+        ArrayNode persistedMsgs = JacksonUtil.newArrayNode();
+        persistedMsgs.addObject()
+                .put("releaseTs", now.get() + TimeUnit.SECONDS.toMillis(3))
+                .put("queueName", "Main")
+                .put("msg", Base64.getEncoder().encodeToString(TbMsg.toByteArray(msg)));
+        RuleNodeState state = new RuleNodeState();
+        state.setEntityId(deviceId);
+        state.setStateData(JacksonUtil.toString(persistedMsgs));
+        when(ctx.findRuleNodeStates(any())).thenReturn(new PageData<>(List.of(state), 1, 1, false));
+        when(ctx.isLocalEntity(deviceId)).thenReturn(true);
+
+        initNode(60, 100, true);
+
+        assertThat(node.getPendingMsgsCount()).isEqualTo(1);
+        assertThat(tickDelays).containsExactly(TimeUnit.SECONDS.toMillis(3));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(3));
+        node.onMsg(ctx, tickMsgs.get(0));
+
+        ArgumentCaptor<TbMsg> releasedCaptor = ArgumentCaptor.forClass(TbMsg.class);
+        verify(ctx).enqueueForTellNext(releasedCaptor.capture(), eq(TbNodeConnectionType.SUCCESS));
+        assertThat(releasedCaptor.getValue().getData()).isEqualTo(msg.getData());
+        assertThat(releasedCaptor.getValue().getQueueName()).isEqualTo("Main");
+        assertThat(releasedCaptor.getValue().getCustomerId()).isEqualTo(customerId);
+        verify(ctx).removeRuleNodeStateForEntity(deviceId);
+    }
+
+    private void initNode(int periodInSeconds, int maxPendingMsgs) throws TbNodeException {
+        initNode(periodInSeconds, maxPendingMsgs, false);
+    }
+
+    private void initNode(int periodInSeconds, int maxPendingMsgs, boolean persistPendingMsgs) throws TbNodeException {
+        TbMsgDelayNodeConfiguration config = new TbMsgDelayNodeConfiguration().defaultConfiguration();
+        config.setPeriodInSeconds(periodInSeconds);
+        config.setMaxPendingMsgs(maxPendingMsgs);
+        config.setPersistPendingMsgs(persistPendingMsgs);
+        node.init(ctx, new TbNodeConfiguration(JacksonUtil.valueToTree(config)));
+    }
+
+    private TbMsg newMsg(int i) {
+        return TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, deviceId, customerId, TbMsgMetaData.EMPTY, "{\"i\":" + i + "}");
+    }
+
+    private TbMsg newMsg(int i, int delayInSeconds) {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("delay", String.valueOf(delayInSeconds));
+        return TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, deviceId, customerId, metaData, "{\"i\":" + i + "}");
+    }
+
+}
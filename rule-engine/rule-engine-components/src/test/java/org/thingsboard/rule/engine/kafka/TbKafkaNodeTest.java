@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.kafka;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.server.common.data.exception.ThingsboardKafkaClientError;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.msg.TbMsgType;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TbKafkaNodeTest {
+
+    private TbKafkaNode node;
+    private TbContext ctx;
+    private TbKafkaNodeConfiguration config;
+
+    @BeforeEach
+    public void setUp() {
+        node = new TbKafkaNode();
+        ctx = mock(TbContext.class);
+        config = new TbKafkaNodeConfiguration().defaultConfiguration();
+        config.setMaxInFlightMessages(1);
+        ReflectionTestUtils.setField(node, "config", config);
+        ReflectionTestUtils.setField(node, "toBytesCharset", StandardCharsets.UTF_8);
+        ReflectionTestUtils.setField(node, "inFlightMessages", new Semaphore(config.getMaxInFlightMessages()));
+    }
+
+    @Test
+    public void givenNoFreeInFlightSlot_whenPublish_thenFailsWithoutBlocking() {
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        ReflectionTestUtils.setField(node, "producer", producer);
+        TbMsg first = newMsg();
+        TbMsg second = newMsg();
+
+        node.publish(ctx, first, "topic", null);
+        node.publish(ctx, second, "topic", null);
+
+        assertThat(producer.history()).hasSize(1);
+        verify(ctx).tellFailure(eq(second), any(RuntimeException.class));
+        verify(ctx, never()).tellFailure(eq(first), any());
+
+        producer.completeNext();
+        verify(ctx).tellSuccess(any());
+
+        TbMsg third = newMsg();
+        node.publish(ctx, third, "topic", null);
+        assertThat(producer.history()).hasSize(2);
+        verify(ctx, never()).tellFailure(eq(third), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenInterruptedSend_whenPublish_thenTellsFailureAndReleasesSlot() {
+        Producer<String, String> producer = mock(Producer.class);
+        when(producer.send(any(), any())).thenThrow(new InterruptException("test"));
+        // the exception interrupts the creating thread, only the node is expected to do that here
+        Thread.interrupted();
+        ReflectionTestUtils.setField(node, "producer", producer);
+
+        try {
+            node.publish(ctx, newMsg(), "topic", null);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(ctx).tellFailure(any(), any(InterruptException.class));
+        assertThat(((Semaphore) ReflectionTestUtils.getField(node, "inFlightMessages")).availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenFailedSharedProducer_whenCheckingProducerError_thenProducerIsRecreated() {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, config.getKeySerializer());
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, config.getValueSerializer());
+        AtomicReference<Consumer<Throwable>> errorHandler = new AtomicReference<>();
+        TbKafkaProducerPool.SharedProducer failed = TbKafkaProducerPool.acquire(properties, (props, handler) -> {
+            errorHandler.set(handler);
+            return new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        });
+        config.setUseSharedProducer(true);
+        ReflectionTestUtils.setField(node, "properties", properties);
+        ReflectionTestUtils.setField(node, "sharedProducer", failed);
+        ReflectionTestUtils.setField(node, "producer", failed.getProducer());
+        errorHandler.get().accept(new ThingsboardKafkaClientError("test"));
+
+        Throwable error = ReflectionTestUtils.invokeMethod(node, "getProducerError");
+
+        assertThat(error).isNull();
+        TbKafkaProducerPool.SharedProducer recreated = (TbKafkaProducerPool.SharedProducer) ReflectionTestUtils.getField(node, "sharedProducer");
+        assertThat(recreated).isNotSameAs(failed);
+        assertThat(recreated.getError()).isNull();
+        assertThat(ReflectionTestUtils.getField(node, "producer")).isSameAs(recreated.getProducer());
+
+        node.destroy();
+        assertThat(TbKafkaProducerPool.size()).isZero();
+    }
+
+    private static TbMsg newMsg() {
+        return TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, new DeviceId(UUID.randomUUID()), TbMsgMetaData.EMPTY, TbMsg.EMPTY_JSON_OBJECT);
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.kafka;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.exception.ThingsboardKafkaClientError;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbKafkaProducerPoolTest {
+
+    @Test
+    public void givenSameProperties_whenAcquire_thenProducerIsShared() {
+        TbKafkaProducerPool.SharedProducer first = TbKafkaProducerPool.acquire(properties("node-1", "localhost:9092"), this::createProducer);
+        TbKafkaProducerPool.SharedProducer second = TbKafkaProducerPool.acquire(properties("node-2", "localhost:9092"), this::createProducer);
+        TbKafkaProducerPool.SharedProducer other = TbKafkaProducerPool.acquire(properties("node-3", "remote:9092"), this::createProducer);
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(TbKafkaProducerPool.size()).isEqualTo(2);
+
+        TbKafkaProducerPool.release(first);
+        assertThat(((MockProducer<String, String>) first.getProducer()).closed()).isFalse();
+        TbKafkaProducerPool.release(second);
+        TbKafkaProducerPool.release(other);
+
+        assertThat(((MockProducer<String, String>) first.getProducer()).closed()).isTrue();
+        assertThat(((MockProducer<String, String>) other.getProducer()).closed()).isTrue();
+        assertThat(TbKafkaProducerPool.size()).isZero();
+    }
+
+    @Test
+    public void givenFailedProducer_whenAcquire_thenNewProducerIsCreated() {
+        AtomicReference<Consumer<Throwable>> errorHandler = new AtomicReference<>();
+        TbKafkaProducerPool.SharedProducer failed = TbKafkaProducerPool.acquire(properties("node-1", "localhost:9092"), (props, handler) -> {
+            errorHandler.set(handler);
+            return createProducer(props, handler);
+        });
+        errorHandler.get().accept(new ThingsboardKafkaClientError("test"));
+        assertThat(failed.getError()).isNotNull();
+
+        TbKafkaProducerPool.SharedProducer recreated = TbKafkaProducerPool.acquire(properties("node-2", "localhost:9092"), this::createProducer);
+        assertThat(recreated).isNotSameAs(failed);
+        assertThat(recreated.getError()).isNull();
+
+        TbKafkaProducerPool.release(failed);
+        TbKafkaProducerPool.release(recreated);
+        assertThat(TbKafkaProducerPool.size()).isZero();
+    }
+
+    @Test
+    public void givenProducerIsClosing_whenAcquire_thenPoolIsNotBlocked() throws Exception {
+        CountDownLatch closing = new CountDownLatch(1);
+        CountDownLatch acquired = new CountDownLatch(1);
+        AtomicBoolean acquiredWhileClosing = new AtomicBoolean();
+        TbKafkaProducerPool.SharedProducer slow = TbKafkaProducerPool.acquire(properties("node-1", "localhost:9092"),
+                (props, handler) -> new MockProducer<>(true, new StringSerializer(), new StringSerializer()) {
+                    @Override
+                    public void close() {
+                        closing.countDown();
+                        try {
+                            acquiredWhileClosing.set(acquired.await(5, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        super.close();
+                    }
+                });
+        Thread releaseThread = new Thread(() -> TbKafkaProducerPool.release(slow));
+        releaseThread.start();
+        assertThat(closing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        TbKafkaProducerPool.SharedProducer other = TbKafkaProducerPool.acquire(properties("node-2", "remote:9092"), this::createProducer);
+        acquired.countDown();
+        releaseThread.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(acquiredWhileClosing.get()).isTrue();
+        assertThat(((MockProducer<String, String>) slow.getProducer()).closed()).isTrue();
+        TbKafkaProducerPool.release(other);
+        assertThat(TbKafkaProducerPool.size()).isZero();
+    }
+
+    private MockProducer<String, String> createProducer(Properties properties, Consumer<Throwable> errorHandler) {
+        return new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+    }
+
+    private static Properties properties(String clientId, String bootstrapServers) {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.ACKS_CONFIG, "-1");
+        return properties;
+    }
+
+}
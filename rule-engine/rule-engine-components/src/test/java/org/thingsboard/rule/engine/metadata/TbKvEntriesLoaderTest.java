@@ -0,0 +1,135 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.metadata;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.attributes.AttributesService;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.thingsboard.server.common.data.DataConstants.SERVER_SCOPE;
+
+public class TbKvEntriesLoaderTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final List<String> keys = List.of("temperature");
+
+    private TbContext ctx;
+    private AttributesService attributesService;
+    private TimeseriesService timeseriesService;
+
+    @BeforeEach
+    public void setUp() {
+        ctx = mock(TbContext.class);
+        attributesService = mock(AttributesService.class);
+        timeseriesService = mock(TimeseriesService.class);
+        when(ctx.getTenantId()).thenReturn(tenantId);
+        when(ctx.getAttributesService()).thenReturn(attributesService);
+        when(ctx.getTimeseriesService()).thenReturn(timeseriesService);
+    }
+
+    @Test
+    public void givenConcurrentLookups_whenFirstIsInFlight_thenSingleDaoCallIsMade() throws Exception {
+        SettableFuture<List<AttributeKvEntry>> daoFuture = SettableFuture.create();
+        when(attributesService.find(eq(tenantId), eq(deviceId), eq(SERVER_SCOPE), anyList())).thenReturn(daoFuture);
+        var loader = new TbKvEntriesLoader(60000);
+
+        ListenableFuture<List<AttributeKvEntry>> first = loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys);
+        ListenableFuture<List<AttributeKvEntry>> second = loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys);
+        List<AttributeKvEntry> attributes = List.of(new BaseAttributeKvEntry(new LongDataEntry("temperature", 42L), 1L));
+        daoFuture.set(attributes);
+
+        assertThat(first.get()).isEqualTo(attributes);
+        assertThat(second.get()).isEqualTo(attributes);
+        verify(attributesService, times(1)).find(any(), any(), any(), anyList());
+        assertThat(loader.size()).isOne();
+    }
+
+    @Test
+    public void givenNoCacheTtl_whenLookupIsInFlight_thenLookupsAreNotMerged() {
+        SettableFuture<List<AttributeKvEntry>> daoFuture = SettableFuture.create();
+        when(attributesService.find(eq(tenantId), eq(deviceId), eq(SERVER_SCOPE), anyList())).thenReturn(daoFuture);
+        var loader = new TbKvEntriesLoader(0);
+
+        loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys);
+        loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys);
+
+        verify(attributesService, times(2)).find(any(), any(), any(), anyList());
+        assertThat(loader.size()).isZero();
+    }
+
+    @Test
+    public void givenManyEntities_whenCacheTtlIsSet_thenCacheIsBounded() {
+        when(timeseriesService.findLatest(eq(tenantId), any(), anyList())).thenReturn(Futures.immediateFuture(List.of()));
+        var loader = new TbKvEntriesLoader(60000);
+
+        for (int i = 0; i < TbKvEntriesLoader.MAX_CACHED_LOADS * 2; i++) {
+            loader.findLatestTelemetry(ctx, new DeviceId(UUID.randomUUID()), keys);
+        }
+
+        assertThat(loader.size()).isLessThanOrEqualTo(TbKvEntriesLoader.MAX_CACHED_LOADS);
+    }
+
+    @Test
+    public void givenCacheTtl_whenResultIsFresh_thenItIsReused() throws Exception {
+        List<TsKvEntry> telemetry = List.of(new BasicTsKvEntry(1L, new LongDataEntry("temperature", 42L)));
+        when(timeseriesService.findLatest(eq(tenantId), any(), anyList())).thenReturn(Futures.immediateFuture(telemetry));
+        var loader = new TbKvEntriesLoader(60000);
+
+        assertThat(loader.findLatestTelemetry(ctx, deviceId, keys).get()).isEqualTo(telemetry);
+        assertThat(loader.findLatestTelemetry(ctx, deviceId, keys).get()).isEqualTo(telemetry);
+        assertThat(loader.findLatestTelemetry(ctx, new DeviceId(UUID.randomUUID()), keys).get()).isEqualTo(telemetry);
+
+        verify(timeseriesService, times(2)).findLatest(any(), any(), anyList());
+    }
+
+    @Test
+    public void givenFailedLookup_whenCacheTtlIsSet_thenFailureIsNotCached() {
+        when(attributesService.find(eq(tenantId), eq(deviceId), eq(SERVER_SCOPE), anyList()))
+                .thenReturn(Futures.immediateFailedFuture(new RuntimeException("DB is down")));
+        var loader = new TbKvEntriesLoader(60000);
+
+        assertThat(loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys)).isDone();
+        loader.findAttributes(ctx, deviceId, SERVER_SCOPE, keys);
+
+        verify(attributesService, times(2)).find(any(), any(), any(), anyList());
+        assertThat(loader.size()).isZero();
+    }
+
+}
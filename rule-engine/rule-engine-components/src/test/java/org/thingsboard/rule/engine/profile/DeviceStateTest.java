@@ -61,6 +61,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -145,6 +146,26 @@ public class DeviceStateTest {
         });
     }
 
+    @Test
+    public void whenAttributeIsUpdated_thenOnlyAlarmsReferencingItAreEvaluated() throws Exception {
+        DeviceProfileAlarm enabledAlarmConfig = createAlarmConfigWithBoolAttrCondition("enabled", false);
+        DeviceProfileAlarm activeAlarmConfig = createAlarmConfigWithBoolAttrCondition("active", false);
+        activeAlarmConfig.setId("MyOtherAlarmID");
+        activeAlarmConfig.setAlarmType("MyOtherAlarm");
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        DeviceState deviceState = createDeviceState(deviceId, enabledAlarmConfig, activeAlarmConfig);
+
+        TbMsg attributeUpdateMsg = TbMsg.newMsg(TbMsgType.POST_ATTRIBUTES_REQUEST,
+                deviceId, TbMsgMetaData.EMPTY, "{ \"enabled\": false }");
+
+        deviceState.process(ctx, attributeUpdateMsg);
+
+        verify(ctx, times(1)).enqueueForTellNext(any(), eq("Alarm Created"));
+        RuleEngineAlarmService alarmService = ctx.getAlarmService();
+        verify(alarmService).findLatestActiveByOriginatorAndType(any(), eq(deviceId), eq("MyAlarm"));
+        // the other alarm is not evaluated, but still tracks the latest message and its current alarm
+        verify(alarmService).findLatestActiveByOriginatorAndType(any(), eq(deviceId), eq("MyOtherAlarm"));
+    }
 
     private DeviceState createDeviceState(DeviceId deviceId, DeviceProfileAlarm... alarmConfigs) {
         DeviceProfile deviceProfile = new DeviceProfile();
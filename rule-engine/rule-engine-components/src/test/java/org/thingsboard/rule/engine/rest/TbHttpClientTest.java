@@ -16,6 +16,7 @@
 package org.thingsboard.rule.engine.rest;
 
 
+import io.micrometer.core.instrument.Metrics;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import org.junit.jupiter.api.AfterEach;
@@ -42,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -188,6 +190,61 @@ public class TbHttpClientTest {
         Assertions.assertEquals(successResponseBody, capturedData.getValue());
     }
 
+    @Test
+    public void testProcessMessageWithPooledClientAndErrorResponse() throws Exception {
+        String host = "localhost";
+        String path = "/api";
+        var server = startClientAndServer(host, 1081);
+        try {
+            server.when(request().withMethod("POST").withPath(path))
+                    .respond(response().withStatusCode(404).withReasonPhrase("No Such Resource").withBody("NOT_FOUND"));
+
+            var config = new TbRestApiCallNodeConfiguration().defaultConfiguration();
+            config.setRestEndpointUrlPattern(String.format("http://%s:%d%s", host, server.getPort(), path));
+            config.setMaxConnectionsPerHost(1);
+
+            var httpClient = new TbHttpClient(config, eventLoop);
+            Assertions.assertNotNull(httpClient.getWebClient());
+            Assertions.assertEquals(1, httpClient.getConnectionProvider().maxConnections());
+
+            var msg = TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, new DeviceId(EntityId.NULL_UUID), new TbMsgMetaData(), TbMsg.EMPTY_JSON_OBJECT);
+            var capturedMsg = new AtomicReference<TbMsg>();
+            CountDownLatch latch = new CountDownLatch(1);
+
+            httpClient.processMessage(mock(TbContext.class), msg,
+                    m -> latch.countDown(),
+                    (m, t) -> {
+                        capturedMsg.set(m);
+                        latch.countDown();
+                    });
+
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assertions.assertNotNull(capturedMsg.get());
+            Assertions.assertEquals("404", capturedMsg.get().getMetaData().getValue("statusCode"));
+            Assertions.assertEquals("No Such Resource", capturedMsg.get().getMetaData().getValue("status"));
+            Assertions.assertEquals("NOT_FOUND", capturedMsg.get().getMetaData().getValue("error_body"));
+            Assertions.assertNotNull(Metrics.globalRegistry.find("reactor.netty.connection.provider.pending.connections")
+                    .tag("name", "tb-rest-api-call").gauge());
+            httpClient.destroy();
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testPooledClientWithoutLimitsIsUnbounded() throws Exception {
+        var config = new TbRestApiCallNodeConfiguration().defaultConfiguration();
+
+        var httpClient = new TbHttpClient(config, eventLoop);
+        try {
+            Assertions.assertNotNull(httpClient.getWebClient());
+            Assertions.assertNotNull(httpClient.getSecureWebClient());
+            Assertions.assertEquals(Integer.MAX_VALUE, httpClient.getConnectionProvider().maxConnections());
+        } finally {
+            httpClient.destroy();
+        }
+    }
+
     private ClientAndServer setUpDummyServer(String host, String path, String paramKey, String paramVal, String successResponseBody) {
         var server = startClientAndServer(host, 1080);
         createGetMethodExpectations(server, path, paramKey, paramVal, successResponseBody);
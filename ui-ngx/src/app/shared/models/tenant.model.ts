@@ -74,8 +74,10 @@ export interface DefaultTenantProfileConfiguration {
   wsUpdatesPerSessionRateLimit: string;
 
   cassandraQueryTenantRateLimitsConfiguration: string;
+  cassandraQueryWeight?: number;
 
   defaultStorageTtlDays: number;
+  timeseriesKeysStorageTtlDays?: string;
   alarmsTtlDays: number;
   rpcTtlDays: number;
   queueStatsTtlDays: number;
@@ -127,6 +129,7 @@ export function createTenantProfileConfiguration(type: TenantProfileType): Tenan
           maxWsSubscriptionsPerPublicUser: 0,
           wsUpdatesPerSessionRateLimit: '',
           cassandraQueryTenantRateLimitsConfiguration: '',
+          cassandraQueryWeight: 0,
           defaultStorageTtlDays: 0,
           alarmsTtlDays: 0,
           rpcTtlDays: 0,